@@ -34,6 +34,7 @@ import io.sermant.core.plugin.agent.adviser.AdviserInterface;
 import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
 import io.sermant.core.plugin.agent.info.EnhancementManager;
 import io.sermant.core.plugin.agent.template.DefaultAdviser;
+import io.sermant.core.profiler.StartupProfiler;
 import io.sermant.core.service.ServiceManager;
 import io.sermant.god.common.SermantManager;
 
@@ -86,6 +87,7 @@ public class AgentCoreEntrance {
         }
         artifactCache = artifact;
         adviserCache = new DefaultAdviser();
+        long phaseStartNanos = System.nanoTime();
 
         // Initialize default logs to ensure log availability before loading the log engine
         LoggerFactory.initDefaultLogger(artifact);
@@ -98,9 +100,11 @@ public class AgentCoreEntrance {
 
         // Build the path index by startup configuration
         BootArgsIndexer.build(argsMap, isDynamic);
+        phaseStartNanos = StartupProfiler.recordPhase("initFramework", phaseStartNanos);
 
         // Initialize the unified configuration
         ConfigManager.initialize(argsMap);
+        phaseStartNanos = StartupProfiler.recordPhase("initConfig", phaseStartNanos);
 
         // Initialize the operation class
         OperationManager.initOperations();
@@ -110,6 +114,7 @@ public class AgentCoreEntrance {
 
         // Initialize the event system
         EventManager.init();
+        phaseStartNanos = StartupProfiler.recordPhase("initServices", phaseStartNanos);
 
         // Initialize ByteEnhanceManager
         ByteEnhanceManager.init(instrumentation);
@@ -119,12 +124,17 @@ public class AgentCoreEntrance {
 
         // Registered Adviser
         AdviserScheduler.registry(adviserCache);
+        phaseStartNanos = StartupProfiler.recordPhase("initPlugins", phaseStartNanos);
 
         // After all static plugins are loaded, they are enhanced in a unified manner, using one AgentBuilder
         if (!isDynamic) {
             ByteEnhanceManager.enhance();
+            StartupProfiler.recordPhase("installAgent", phaseStartNanos);
         }
 
+        // Expose the startup profile through the metric service
+        StartupProfiler.registerMetrics();
+
         // Report Sermant start event
         FrameworkEventCollector.getInstance().collectAgentStartEvent();
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.command;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.core.profiler.StartupProfiler;
+import io.sermant.core.utils.FileUtils;
+import io.sermant.core.utils.StringUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The command executor for writing the startup profile report, the argument is the directory of the report, the agent
+ * directory is used by default
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class CheckProfileCommandExecutor implements CommandExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private static final String REPORT_FILE_PREFIX = "sermant_profile_";
+
+    private static final String REPORT_FILE_SUFFIX = ".json";
+
+    @Override
+    public void execute(String args) {
+        String reportDirectory = StringUtils.isBlank(args) ? FileUtils.getAgentPath() : args.trim();
+        String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"));
+        Path reportPath = Paths.get(reportDirectory, REPORT_FILE_PREFIX + currentTime + REPORT_FILE_SUFFIX);
+        if (StartupProfiler.writeReport(reportPath)) {
+            LOGGER.log(Level.INFO, "Startup profile report is written to {0}.", reportPath);
+        }
+    }
+}
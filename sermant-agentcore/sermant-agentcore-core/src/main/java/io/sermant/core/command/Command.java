@@ -43,7 +43,12 @@ public enum Command {
     /**
      * Enhancement query instruction
      */
-    CHECK_ENHANCEMENT("CHECK-ENHANCEMENT");
+    CHECK_ENHANCEMENT("CHECK-ENHANCEMENT"),
+
+    /**
+     * Startup profile report instruction
+     */
+    CHECK_PROFILE("CHECK-PROFILE");
 
     private final String value;
 
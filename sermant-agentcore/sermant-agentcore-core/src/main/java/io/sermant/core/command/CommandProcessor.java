@@ -47,6 +47,7 @@ public class CommandProcessor {
         COMMAND_EXECUTOR_MAP.put(Command.UNINSTALL_PLUGINS.getValue(), new PluginsUnInstallCommandExecutor());
         COMMAND_EXECUTOR_MAP.put(Command.UPDATE_PLUGINS.getValue(), new PluginsUpdateCommandExecutor());
         COMMAND_EXECUTOR_MAP.put(Command.CHECK_ENHANCEMENT.getValue(), new CheckEnhancementsCommandExecutor());
+        COMMAND_EXECUTOR_MAP.put(Command.CHECK_PROFILE.getValue(), new CheckProfileCommandExecutor());
     }
 
     /**
@@ -24,7 +24,6 @@ import io.sermant.core.exception.SchemaException;
 import io.sermant.core.plugin.agent.ByteEnhanceManager;
 import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
 import io.sermant.core.plugin.agent.info.EnhancementManager;
-import io.sermant.core.plugin.agent.interceptor.Interceptor;
 import io.sermant.core.plugin.agent.template.BaseAdviseHandler;
 import io.sermant.core.plugin.classloader.PluginClassLoader;
 import io.sermant.core.plugin.classloader.ServiceClassLoader;
@@ -32,6 +31,7 @@ import io.sermant.core.plugin.common.PluginConstant;
 import io.sermant.core.plugin.common.PluginSchemaValidator;
 import io.sermant.core.plugin.config.PluginConfigManager;
 import io.sermant.core.plugin.service.PluginServiceManager;
+import io.sermant.core.profiler.StartupProfiler;
 import io.sermant.core.utils.CollectionUtils;
 
 import java.io.File;
@@ -122,11 +122,8 @@ public class PluginManager {
             ClassLoaderManager.getPluginClassFinder().removePluginClassLoader(plugin);
 
             // Clean up the Interceptors created by the plugin
-            Map<String, List<Interceptor>> interceptorListMap = BaseAdviseHandler.getInterceptorListMap();
-            for (List<Interceptor> interceptors : interceptorListMap.values()) {
-                interceptors.removeIf(
-                        interceptor -> plugin.getPluginClassLoader().equals(interceptor.getClass().getClassLoader()));
-            }
+            BaseAdviseHandler.removeInterceptors(
+                    interceptor -> plugin.getPluginClassLoader().equals(interceptor.getClass().getClassLoader()));
 
             // Delete the plugin configuration in the cache
             PluginConfigManager.cleanPluginConfigs(plugin);
@@ -189,8 +186,10 @@ public class PluginManager {
                         + "initializing {0}. ", new String[]{pluginName, pluginPath});
                 return;
             }
+            final long startNanos = System.nanoTime();
             doInitPlugin(
                     new Plugin(pluginName, pluginPath, isDynamic, ClassLoaderManager.createPluginClassLoader()));
+            StartupProfiler.recordPluginLoad(pluginName, startNanos);
         } catch (Exception ex) {
             LOGGER.log(Level.SEVERE, "[INSTALL-PLUGINS] [{0}] Load plugin failed, plugin name: {0}.", pluginName);
             LOGGER.log(Level.SEVERE, "An exception occurred while loading plugin.", ex);
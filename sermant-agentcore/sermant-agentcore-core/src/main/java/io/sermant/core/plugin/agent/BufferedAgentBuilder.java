@@ -22,6 +22,7 @@ import io.sermant.core.common.LoggerFactory;
 import io.sermant.core.config.ConfigManager;
 import io.sermant.core.event.collector.FrameworkEventCollector;
 import io.sermant.core.plugin.Plugin;
+import io.sermant.core.plugin.agent.collector.ClassMatchIndex;
 import io.sermant.core.plugin.agent.config.AgentConfig;
 import io.sermant.core.plugin.agent.declarer.AbstractPluginDeclarer;
 import io.sermant.core.plugin.agent.declarer.AbstractPluginDescription;
@@ -30,6 +31,7 @@ import io.sermant.core.plugin.agent.declarer.PluginDescription;
 import io.sermant.core.plugin.agent.transformer.ReentrantTransformer;
 import io.sermant.core.plugin.classloader.PluginClassLoader;
 import io.sermant.core.plugin.classloader.ServiceClassLoader;
+import io.sermant.core.profiler.StartupProfiler;
 import io.sermant.core.utils.FileUtils;
 import io.sermant.god.common.SermantClassLoader;
 
@@ -56,7 +58,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -91,6 +92,11 @@ public class BufferedAgentBuilder {
      */
     private final Plugin virtualPlugin = new Plugin("virtual-plugin", null, false, null);
 
+    /**
+     * Class match index of the previous runs, only set for the builder of the static plugins
+     */
+    private ClassMatchIndex classMatchIndex;
+
     private BufferedAgentBuilder() {
     }
 
@@ -101,6 +107,7 @@ public class BufferedAgentBuilder {
      *     2.Set enhancement scan filtering rules, see {@link #setIgnoredRule}
      *     3.Set up the log scan listener during enhancement, see {@link #setLogListener}
      *     4.Set up a listener for output enhanced bytecode, see {@link #setOutputListener}
+     *     5.Set up a listener for profiling the transformation, see {@link #setProfileListener}
      * </pre>
      *
      * @return BufferedAgentBuilder instance
@@ -109,7 +116,8 @@ public class BufferedAgentBuilder {
         return new BufferedAgentBuilder().setBootStrapStrategy()
                 .setIgnoredRule()
                 .setLogListener()
-                .setOutputListener();
+                .setOutputListener()
+                .setProfileListener();
     }
 
     /**
@@ -140,7 +148,21 @@ public class BufferedAgentBuilder {
      * @return BufferedAgentBuilder
      */
     private BufferedAgentBuilder setIgnoredRule() {
-        return addAction(builder -> builder.ignore(new IgnoredMatcher(config)));
+        return addAction(builder -> builder.ignore(new IgnoredMatcher(config, classMatchIndex)));
+    }
+
+    /**
+     * Set the class match index, the classes which matched no plugin in the previous runs are ignored directly, and the
+     * match results of this run are recorded to the index
+     * <p>Note that the index is built for a fixed plugin set, so it must not be used by the builder of the dynamic
+     * plugins
+     *
+     * @param index class match index
+     * @return BufferedAgentBuilder
+     */
+    public BufferedAgentBuilder setClassMatchIndex(ClassMatchIndex index) {
+        this.classMatchIndex = index;
+        return addAction(builder -> builder.with(new ClassMatchIndexListener(new IgnoredMatcher(config, null), index)));
     }
 
     /**
@@ -198,6 +220,40 @@ public class BufferedAgentBuilder {
         }
     }
 
+    /**
+     * Listener for recording the match results to the {@link ClassMatchIndex}
+     * <p>The classes ignored by the configured rules are not recorded as unmatched, they may be loaded by another
+     * classloader with the same name and need to be matched in the next run
+     *
+     * @since 2024-10-15
+     */
+    private static class ClassMatchIndexListener extends AgentBuilder.Listener.Adapter {
+        private final IgnoredMatcher ruleMatcher;
+
+        private final ClassMatchIndex index;
+
+        ClassMatchIndexListener(IgnoredMatcher ruleMatcher, ClassMatchIndex index) {
+            this.ruleMatcher = ruleMatcher;
+            this.index = index;
+        }
+
+        @Override
+        public void onTransformation(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module,
+                boolean loaded, DynamicType dynamicType) {
+            index.recordMatched(typeDescription.getActualName());
+        }
+
+        @Override
+        public void onIgnored(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module,
+                boolean loaded) {
+            String className = typeDescription.getActualName();
+            if (index.isUnmatched(className) || ruleMatcher.isIgnoredByRules(typeDescription, classLoader)) {
+                return;
+            }
+            index.recordUnmatched(className);
+        }
+    }
+
     /**
      * Set the listener for outputting enhanced bytecode
      *
@@ -239,6 +295,72 @@ public class BufferedAgentBuilder {
         }));
     }
 
+    /**
+     * Set the listener for profiling the transformation, which is determined by {@link AgentConfig#isProfileEnable()}
+     * <p>The time from the discovery to the completion and the bytes generated of the enhanced classes are recorded to
+     * {@link StartupProfiler}, the classes are counted by each builder, so a class is counted again by the builder of
+     * each dynamic plugin
+     *
+     * @return BufferedAgentBuilder
+     */
+    private BufferedAgentBuilder setProfileListener() {
+        if (!config.isProfileEnable()) {
+            return this;
+        }
+        return addAction(builder -> builder.with(new ProfileListener()));
+    }
+
+    /**
+     * Listener for recording the transformation to {@link StartupProfiler}
+     * <p>ByteBuddy does not transform the classes loaded during a transformation on the same thread, so the discovery
+     * and the completion of a class are paired on each thread
+     *
+     * @since 2024-10-15
+     */
+    private static class ProfileListener extends AgentBuilder.Listener.Adapter {
+        private static final int NOT_TRANSFORMED = -1;
+
+        /**
+         * The discovery time and the bytes generated of the class being transformed on the current thread
+         */
+        private final ThreadLocal<long[]> transformState = ThreadLocal.withInitial(() -> new long[2]);
+
+        @Override
+        public void onDiscovery(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+            StartupProfiler.recordDiscovered();
+            final long[] state = transformState.get();
+            state[0] = System.nanoTime();
+            state[1] = NOT_TRANSFORMED;
+        }
+
+        @Override
+        public void onTransformation(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module,
+                boolean loaded, DynamicType dynamicType) {
+            transformState.get()[1] = dynamicType.getBytes().length;
+        }
+
+        @Override
+        public void onIgnored(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module,
+                boolean loaded) {
+            StartupProfiler.recordIgnored();
+        }
+
+        @Override
+        public void onError(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded,
+                Throwable throwable) {
+            StartupProfiler.recordError();
+        }
+
+        @Override
+        public void onComplete(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+            final long[] state = transformState.get();
+            if (state[1] != NOT_TRANSFORMED) {
+                StartupProfiler.recordTransform(typeName, System.nanoTime() - state[0], (int) state[1]);
+                state[1] = NOT_TRANSFORMED;
+            }
+        }
+    }
+
     /**
      * Add plugin
      *
@@ -329,23 +451,30 @@ public class BufferedAgentBuilder {
         private final Set<String> ignoredInterfaces;
 
         /**
-         * unMatched Class Cache
+         * class match index, null if the pre filter is not enabled
          */
-        private final Map<String, String> unMatchedClassCache = FileUtils.getUnMatchedClassCache();
+        private final ClassMatchIndex classMatchIndex;
 
-        IgnoredMatcher(AgentConfig config) {
+        IgnoredMatcher(AgentConfig config, ClassMatchIndex classMatchIndex) {
             ignoredPrefixes = config.getIgnoredPrefixes();
             serviceInjectList = config.getServiceInjectList();
             ignoredInterfaces = config.getIgnoredInterfaces();
+            this.classMatchIndex = classMatchIndex;
         }
 
         @Override
         public boolean matches(TypeDescription typeDesc, ClassLoader classLoader, JavaModule javaModule,
                 Class<?> classBeingRedefined, ProtectionDomain protectionDomain) {
-            if (unMatchedClassCache.containsKey(typeDesc.getActualName())) {
+            if (classMatchIndex != null && classMatchIndex.isUnmatched(typeDesc.getActualName())) {
+                if (StartupProfiler.isEnable()) {
+                    StartupProfiler.recordPreFiltered();
+                }
                 return true;
             }
+            return isIgnoredByRules(typeDesc, classLoader);
+        }
 
+        boolean isIgnoredByRules(TypeDescription typeDesc, ClassLoader classLoader) {
             if (!checkInjectList(typeDesc, classLoader)) {
                 return false;
             }
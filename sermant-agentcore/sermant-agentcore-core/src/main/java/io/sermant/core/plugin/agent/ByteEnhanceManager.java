@@ -16,14 +16,21 @@
 
 package io.sermant.core.plugin.agent;
 
+import io.sermant.core.common.BootArgsIndexer;
 import io.sermant.core.config.ConfigManager;
 import io.sermant.core.plugin.Plugin;
+import io.sermant.core.plugin.PluginManager;
+import io.sermant.core.plugin.agent.collector.ClassMatchIndex;
 import io.sermant.core.plugin.agent.collector.PluginCollector;
 import io.sermant.core.plugin.agent.config.AgentConfig;
 import io.sermant.core.plugin.agent.declarer.PluginDescription;
+import io.sermant.core.plugin.agent.entity.ExecuteContextPool;
 import io.sermant.core.plugin.agent.enhance.ClassLoaderDeclarer;
+import io.sermant.core.plugin.common.PluginConstant;
+import io.sermant.core.profiler.StartupProfiler;
 import io.sermant.core.service.ServiceConfig;
 import io.sermant.core.utils.FileUtils;
+import io.sermant.core.utils.StringUtils;
 
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.agent.builder.AgentBuilder.RedefinitionStrategy;
@@ -31,7 +38,10 @@ import net.bytebuddy.agent.builder.AgentBuilder.RedefinitionStrategy.BatchAlloca
 import net.bytebuddy.agent.builder.AgentBuilder.RedefinitionStrategy.DiscoveryStrategy.Reiterating;
 import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
 
+import java.io.File;
 import java.lang.instrument.Instrumentation;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -42,6 +52,11 @@ import java.util.List;
  * @since 2022-01-22
  */
 public class ByteEnhanceManager {
+    /**
+     * default file name of the class match index
+     */
+    private static final String DEFAULT_CLASS_MATCH_INDEX_FILE = "class_match_index.idx";
+
     private static Instrumentation instrumentationCache;
 
     private static BufferedAgentBuilder builder;
@@ -56,7 +71,14 @@ public class ByteEnhanceManager {
      */
     public static void init(Instrumentation instrumentation) {
         instrumentationCache = instrumentation;
+        AgentConfig config = ConfigManager.getConfig(AgentConfig.class);
+        if (config.isProfileEnable()) {
+            StartupProfiler.enable();
+        }
         builder = BufferedAgentBuilder.build();
+        if (config.isExecuteContextPoolEnable()) {
+            ExecuteContextPool.enable();
+        }
 
         // Once initialization is complete, an Action is added to add bytecode enhancements introduced directly by
         // the framework
@@ -67,20 +89,62 @@ public class ByteEnhanceManager {
      * Install classloader enhanced bytecode for premain only
      */
     public static void enhance() {
-        cacheUnmatchedClass();
+        AgentConfig config = ConfigManager.getConfig(AgentConfig.class);
+        if (config.isPreFilterEnable()) {
+            ClassMatchIndex index = ClassMatchIndex.load(buildClassMatchIndexPath(config),
+                    ClassMatchIndex.fingerprint(buildClassMatchIndexKeys(config)));
+            builder.setClassMatchIndex(index);
+            Runtime.getRuntime().addShutdownHook(new Thread(index::save));
+        }
         builder.install(instrumentationCache);
-        saveUnMatchedClass();
     }
 
-    private static void saveUnMatchedClass() {
-        if (ConfigManager.getConfig(AgentConfig.class).isPreFilterEnable()) {
-            Runtime.getRuntime().addShutdownHook(new Thread(FileUtils::writeUnmatchedClassNameToFile
-            ));
+    private static Path buildClassMatchIndexPath(AgentConfig config) {
+        String preFilterPath = config.getPreFilterPath();
+        if (StringUtils.isEmpty(preFilterPath)) {
+            preFilterPath = FileUtils.getAgentPath();
+        }
+        String preFilterFile = config.getPreFilterFile();
+        if (StringUtils.isEmpty(preFilterFile)) {
+            preFilterFile = DEFAULT_CLASS_MATCH_INDEX_FILE;
         }
+        return new File(preFilterPath, preFilterFile).toPath();
     }
 
-    private static void cacheUnmatchedClass() {
-        FileUtils.readUnmatchedClassNameFromFile();
+    /**
+     * Everything that decides the match result of a class besides the class itself, the index of the previous runs is
+     * discarded once any of them changes
+     *
+     * @param config agent config
+     * @return keys of the class match index
+     */
+    private static List<String> buildClassMatchIndexKeys(AgentConfig config) {
+        List<String> keys = new ArrayList<>();
+        keys.add("core:" + BootArgsIndexer.getCoreVersion());
+        keys.add("inject:" + ConfigManager.getConfig(ServiceConfig.class).isInjectEnable());
+        for (Plugin plugin : PluginManager.getPluginMap().values()) {
+            if (plugin.isDynamic()) {
+                continue;
+            }
+            keys.add("plugin:" + plugin.getName() + ":" + plugin.getVersion());
+
+            // Declarers may be enabled or disabled by the plugin configuration
+            File configFile = new File(plugin.getPath() + File.separatorChar + PluginConstant.CONFIG_DIR_NAME,
+                    PluginConstant.CONFIG_FILE_NAME);
+            keys.add("plugin-config:" + plugin.getName() + ":" + configFile.lastModified());
+        }
+        for (String prefix : config.getIgnoredPrefixes()) {
+            keys.add("ignored-prefix:" + prefix);
+        }
+        if (config.getIgnoredInterfaces() != null) {
+            for (String ignoredInterface : config.getIgnoredInterfaces()) {
+                keys.add("ignored-interface:" + ignoredInterface);
+            }
+        }
+        for (String service : config.getServiceInjectList()) {
+            keys.add("service-inject:" + service);
+        }
+        return keys;
     }
 
     /**
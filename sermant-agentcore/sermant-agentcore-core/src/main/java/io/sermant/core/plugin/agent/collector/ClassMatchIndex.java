@@ -0,0 +1,398 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.collector;
+
+import io.sermant.core.common.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent index of the class match results of the static plugins, which is used to skip the matching of the classes
+ * that matched no plugin in the previous runs
+ * <p>The index file consists of a header and two open addressing tables of the 64-bit hashes of the class names, one
+ * for the unmatched classes and one for the matched classes. The file is mapped read-only when loading, so querying
+ * neither reads the whole file into the heap nor allocates
+ * <p>The header holds the fingerprint of the plugin set and the ignore configuration, the index is discarded when the
+ * fingerprint changes, for example after a plugin is added, removed or upgraded
+ * <p>A class name that matched once is never treated as unmatched, because classes with the same name may be loaded by
+ * different classloaders and have different hierarchies
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClassMatchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private static final int MAGIC = 0x534D4349;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * magic(4) + version(4) + fingerprint(8) + unmatched table capacity(4) + matched table capacity(4)
+     */
+    private static final int HEADER_SIZE = 24;
+
+    private static final long EMPTY_SLOT = 0L;
+
+    private static final int HASH_BYTES = Long.BYTES;
+
+    private static final int MAX_CAPACITY = 1 << 28;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final long MIX_MULTIPLIER = 0xff51afd7ed558ccdL;
+
+    private static final int MIX_SHIFT = 33;
+
+    private final Path indexPath;
+
+    private final long fingerprint;
+
+    private final ByteBuffer mappedBuffer;
+
+    private final int unmatchedCapacity;
+
+    private final int matchedCapacity;
+
+    private final Set<Long> recordedUnmatched = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> recordedMatched = ConcurrentHashMap.newKeySet();
+
+    private ClassMatchIndex(Path indexPath, long fingerprint, ByteBuffer mappedBuffer, int unmatchedCapacity,
+            int matchedCapacity) {
+        this.indexPath = indexPath;
+        this.fingerprint = fingerprint;
+        this.mappedBuffer = mappedBuffer;
+        this.unmatchedCapacity = unmatchedCapacity;
+        this.matchedCapacity = matchedCapacity;
+    }
+
+    /**
+     * Load the index file, an empty index is returned if the file does not exist, is broken or is built for another
+     * fingerprint
+     *
+     * @param indexPath path of the index file
+     * @param fingerprint fingerprint of the plugin set, see {@link #fingerprint}
+     * @return ClassMatchIndex
+     */
+    public static ClassMatchIndex load(Path indexPath, long fingerprint) {
+        if (!Files.isRegularFile(indexPath)) {
+            return new ClassMatchIndex(indexPath, fingerprint, null, 0, 0);
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                LOGGER.warning("Class match index is broken and will be rebuilt.");
+                return new ClassMatchIndex(indexPath, fingerprint, null, 0, 0);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+                LOGGER.warning("Class match index has an unknown format and will be rebuilt.");
+                return new ClassMatchIndex(indexPath, fingerprint, null, 0, 0);
+            }
+            if (buffer.getLong(Integer.BYTES * 2) != fingerprint) {
+                LOGGER.info("Plugins or ignore rules have been changed, class match index will be rebuilt.");
+                return new ClassMatchIndex(indexPath, fingerprint, null, 0, 0);
+            }
+            int unmatchedCap = buffer.getInt(Integer.BYTES * 2 + Long.BYTES);
+            int matchedCap = buffer.getInt(Integer.BYTES * 3 + Long.BYTES);
+            if (!isValidCapacity(unmatchedCap) || !isValidCapacity(matchedCap)
+                    || size != HEADER_SIZE + ((long) unmatchedCap + matchedCap) * HASH_BYTES) {
+                LOGGER.warning("Class match index is broken and will be rebuilt.");
+                return new ClassMatchIndex(indexPath, fingerprint, null, 0, 0);
+            }
+            return new ClassMatchIndex(indexPath, fingerprint, buffer, unmatchedCap, matchedCap);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Fail to load class match index: " + e.getMessage());
+            return new ClassMatchIndex(indexPath, fingerprint, null, 0, 0);
+        }
+    }
+
+    /**
+     * Whether the class matched no plugin in the previous runs
+     *
+     * @param className class name
+     * @return boolean
+     */
+    public boolean isUnmatched(String className) {
+        if (mappedBuffer == null || unmatchedCapacity == 0) {
+            return false;
+        }
+        return contains(HEADER_SIZE, unmatchedCapacity, hash(className));
+    }
+
+    /**
+     * Whether the class matched any plugin in the previous runs
+     *
+     * @param className class name
+     * @return boolean
+     */
+    public boolean isMatched(String className) {
+        if (mappedBuffer == null || matchedCapacity == 0) {
+            return false;
+        }
+        return contains(HEADER_SIZE + unmatchedCapacity * HASH_BYTES, matchedCapacity, hash(className));
+    }
+
+    /**
+     * Record a class that matches no plugin in this run
+     *
+     * @param className class name
+     */
+    public void recordUnmatched(String className) {
+        long hash = hash(className);
+        if (mappedBuffer != null && unmatchedCapacity > 0 && contains(HEADER_SIZE, unmatchedCapacity, hash)) {
+            return;
+        }
+        recordedUnmatched.add(hash);
+    }
+
+    /**
+     * Record a class that matches some plugin in this run
+     *
+     * @param className class name
+     */
+    public void recordMatched(String className) {
+        recordedMatched.add(hash(className));
+    }
+
+    /**
+     * Merge the loaded index and the results recorded in this run and write them to the index file. The file is written
+     * to a temporary file first and then moved, so that a concurrent reader never sees a partial index
+     */
+    public void save() {
+        LongOpenSet matched = new LongOpenSet();
+        LongOpenSet unmatched = new LongOpenSet();
+        if (mappedBuffer != null) {
+            readTable(HEADER_SIZE + unmatchedCapacity * HASH_BYTES, matchedCapacity, matched);
+        }
+        matched.addAll(recordedMatched);
+        if (mappedBuffer != null) {
+            readTable(HEADER_SIZE, unmatchedCapacity, unmatched);
+        }
+        unmatched.addAll(recordedUnmatched);
+        unmatched.removeAll(matched);
+        int unmatchedCap = tableCapacity(unmatched.size());
+        int matchedCap = tableCapacity(matched.size());
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (unmatchedCap + matchedCap) * HASH_BYTES)
+                .order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(fingerprint).putInt(unmatchedCap).putInt(matchedCap);
+        unmatched.writeTable(buffer, HEADER_SIZE, unmatchedCap);
+        matched.writeTable(buffer, HEADER_SIZE + unmatchedCap * HASH_BYTES, matchedCap);
+        try {
+            Path parent = indexPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmpPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            Files.write(tmpPath, buffer.array());
+            try {
+                Files.move(tmpPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ignored) {
+                Files.move(tmpPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Fail to write class match index. ", e);
+        }
+    }
+
+    /**
+     * Compute the fingerprint of the given parts, the order of the parts does not matter
+     *
+     * @param parts plugin names and versions, ignore rules and so on
+     * @return fingerprint
+     */
+    public static long fingerprint(Collection<String> parts) {
+        long result = FORMAT_VERSION;
+        for (String part : parts) {
+            // Sum of the mixed hashes, so that the iteration order of the collection does not change the fingerprint
+            result += hash(part);
+        }
+        return result;
+    }
+
+    /**
+     * 64-bit hash of the class name, computed over the chars directly so that no bytes need to be encoded
+     *
+     * @param name class name
+     * @return non-zero hash
+     */
+    static long hash(String name) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> MIX_SHIFT;
+        hash *= MIX_MULTIPLIER;
+        hash ^= hash >>> MIX_SHIFT;
+        return hash == EMPTY_SLOT ? 1L : hash;
+    }
+
+    private boolean contains(int offset, int capacity, long hash) {
+        int mask = capacity - 1;
+        int slot = (int) hash & mask;
+        while (true) {
+            long value = mappedBuffer.getLong(offset + slot * HASH_BYTES);
+            if (value == hash) {
+                return true;
+            }
+            if (value == EMPTY_SLOT) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void readTable(int offset, int capacity, LongOpenSet target) {
+        for (int i = 0; i < capacity; i++) {
+            long value = mappedBuffer.getLong(offset + i * HASH_BYTES);
+            if (value != EMPTY_SLOT) {
+                target.add(value);
+            }
+        }
+    }
+
+    private static boolean isValidCapacity(int capacity) {
+        return capacity == 0 || (capacity > 0 && capacity <= MAX_CAPACITY && Integer.bitCount(capacity) == 1);
+    }
+
+    /**
+     * The capacity of the table on disk keeps the load factor not greater than 1/2 so the probe sequences are short
+     *
+     * @param size number of hashes
+     * @return capacity, power of two
+     */
+    private static int tableCapacity(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        int capacity = Integer.highestOneBit(size) << 2;
+        return Math.min(capacity, MAX_CAPACITY);
+    }
+
+    /**
+     * Open addressing set of non-zero long values, only used when saving the index
+     *
+     * @since 2024-10-15
+     */
+    private static class LongOpenSet {
+        private long[] table = new long[16];
+
+        private int size;
+
+        void add(long value) {
+            if ((size + 1) * 2 > table.length) {
+                resize();
+            }
+            if (insert(table, value)) {
+                size++;
+            }
+        }
+
+        void addAll(Set<Long> values) {
+            for (Long value : values) {
+                add(value);
+            }
+        }
+
+        void removeAll(LongOpenSet other) {
+            if (other.size == 0) {
+                return;
+            }
+            long[] newTable = new long[table.length];
+            int newSize = 0;
+            for (long value : table) {
+                if (value != EMPTY_SLOT && !other.contains(value)) {
+                    insert(newTable, value);
+                    newSize++;
+                }
+            }
+            table = newTable;
+            size = newSize;
+        }
+
+        boolean contains(long value) {
+            int mask = table.length - 1;
+            int slot = (int) value & mask;
+            while (table[slot] != EMPTY_SLOT) {
+                if (table[slot] == value) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTable(ByteBuffer buffer, int offset, int capacity) {
+            if (capacity == 0) {
+                return;
+            }
+            long[] out = new long[capacity];
+            for (long value : table) {
+                if (value != EMPTY_SLOT) {
+                    insert(out, value);
+                }
+            }
+            for (int i = 0; i < capacity; i++) {
+                buffer.putLong(offset + i * HASH_BYTES, out[i]);
+            }
+        }
+
+        private void resize() {
+            long[] newTable = new long[table.length << 1];
+            for (long value : table) {
+                if (value != EMPTY_SLOT) {
+                    insert(newTable, value);
+                }
+            }
+            table = newTable;
+        }
+
+        private static boolean insert(long[] target, long value) {
+            int mask = target.length - 1;
+            int slot = (int) value & mask;
+            while (target[slot] != EMPTY_SLOT) {
+                if (target[slot] == value) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            target[slot] = value;
+            return true;
+        }
+    }
+}
@@ -16,34 +16,32 @@
 
 package io.sermant.core.plugin.agent.collector;
 
-import io.sermant.core.common.LoggerFactory;
-import io.sermant.core.config.ConfigManager;
 import io.sermant.core.plugin.Plugin;
-import io.sermant.core.plugin.agent.config.AgentConfig;
 import io.sermant.core.plugin.agent.declarer.AbstractPluginDescription;
 import io.sermant.core.plugin.agent.declarer.InterceptDeclarer;
 import io.sermant.core.plugin.agent.declarer.PluginDeclarer;
 import io.sermant.core.plugin.agent.declarer.PluginDescription;
 import io.sermant.core.plugin.agent.matcher.ClassMatcher;
+import io.sermant.core.plugin.agent.matcher.ClassMatcherIndex;
 import io.sermant.core.plugin.agent.matcher.ClassTypeMatcher;
 import io.sermant.core.plugin.agent.transformer.ReentrantTransformer;
 import io.sermant.core.plugin.classloader.PluginClassLoader;
-import io.sermant.core.utils.FileUtils;
+import io.sermant.core.profiler.StartupProfiler;
 
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.DynamicType.Builder;
-import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.utility.JavaModule;
 
+import java.lang.ref.WeakReference;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Plugin collector, which gets plugin descriptors from all plugins
@@ -53,10 +51,6 @@ import java.util.logging.Logger;
  * @since 2022-01-26
  */
 public class PluginCollector {
-    private static final Logger LOGGER = LoggerFactory.getLogger();
-
-    private static final boolean IS_PRE_FILTER_ENABLE = ConfigManager.getConfig(AgentConfig.class).isPreFilterEnable();
-
     private PluginCollector() {
     }
 
@@ -99,8 +93,8 @@ public class PluginCollector {
      * @return PluginDescription
      */
     private static PluginDescription combinePluginDeclarers(Plugin plugin) {
-        final Map<String, List<PluginDeclarer>> nameCombinedMap = new HashMap<>();
-        final List<PluginDeclarer> combinedList = new ArrayList<>();
+        final Map<String, List<PluginDeclarer>> nameCombinedMap = new ConcurrentHashMap<>();
+        final ClassMatcherIndex<PluginDeclarer> combinedIndex = new ClassMatcherIndex<>();
         List<? extends PluginDeclarer> declarers = getDeclarers(plugin.getPluginClassLoader());
         for (PluginDeclarer pluginDeclarer : declarers) {
             final ClassMatcher classMatcher = pluginDeclarer.getClassMatcher();
@@ -111,66 +105,136 @@ public class PluginCollector {
                     nameCombinedList.add(pluginDeclarer);
                 }
             } else {
-                combinedList.add(pluginDeclarer);
+                combinedIndex.add(classMatcher, pluginDeclarer);
             }
         }
-        return createPluginDescription(plugin, nameCombinedMap, combinedList);
+        return createPluginDescription(plugin, nameCombinedMap, combinedIndex);
     }
 
     private static AbstractPluginDescription createPluginDescription(Plugin plugin,
-            Map<String, List<PluginDeclarer>> nameCombinedMap, List<PluginDeclarer> combinedList) {
+            Map<String, List<PluginDeclarer>> nameCombinedMap, ClassMatcherIndex<PluginDeclarer> combinedIndex) {
+        // The intercept declarers created by the plugin declarers for each classloader of the enhanced classes. The
+        // declarers may reference the classes of the classloader, so they are weakly referenced as well, otherwise the
+        // classloader key would never be collected
+        final Map<ClassLoader, WeakReference<Map<PluginDeclarer, InterceptDeclarer[]>>> interceptDeclarerCache =
+                Collections.synchronizedMap(new WeakHashMap<>());
         return new AbstractPluginDescription() {
             @Override
             public Builder<?> transform(Builder<?> builder, TypeDescription typeDescription, ClassLoader classLoader,
                     JavaModule javaModule, ProtectionDomain protectionDomain) {
                 return doTransform(builder, typeDescription, classLoader, javaModule, protectionDomain, nameCombinedMap,
-                        plugin);
+                        plugin, interceptDeclarerCache);
             }
 
             @Override
             public boolean matches(TypeDescription target) {
-                final String typeName = target.getActualName();
-                doMatch(target, typeName, combinedList, nameCombinedMap);
-                return nameCombinedMap.containsKey(typeName);
+                if (!StartupProfiler.isEnable()) {
+                    return doMatch(target, combinedIndex, nameCombinedMap);
+                }
+                final long startNanos = System.nanoTime();
+                final boolean isMatched = doMatch(target, combinedIndex, nameCombinedMap);
+                StartupProfiler.recordMatch(plugin.getName(), System.nanoTime() - startNanos, isMatched);
+                return isMatched;
             }
         };
     }
 
-    private static void doMatch(TypeDescription target, String typeName, List<PluginDeclarer> combinedList,
+    /**
+     * Find the fuzzy matched declarers by the index and merge them into the declarers matched by name. The lists in
+     * the map are replaced instead of modified, since types may be matched concurrently
+     *
+     * @param target type description
+     * @param combinedIndex index of the fuzzy matchers
+     * @param nameCombinedMap declarers by type name
+     * @return whether any declarer matches the type
+     */
+    private static boolean doMatch(TypeDescription target, ClassMatcherIndex<PluginDeclarer> combinedIndex,
             Map<String, List<PluginDeclarer>> nameCombinedMap) {
-        for (PluginDeclarer declarer : combinedList) {
-            if (matchTarget(declarer.getClassMatcher(), target)) {
-                List<PluginDeclarer> declarers = nameCombinedMap.computeIfAbsent(typeName,
-                        key -> new ArrayList<>());
-                if (!declarers.contains(declarer)) {
-                    declarers.add(declarer);
+        final String typeName = target.getActualName();
+        final List<PluginDeclarer> matchedDeclarers = combinedIndex.match(target);
+        if (matchedDeclarers.isEmpty()) {
+            return nameCombinedMap.containsKey(typeName);
+        }
+        nameCombinedMap.compute(typeName, (key, declarers) -> {
+            if (declarers == null) {
+                return matchedDeclarers;
+            }
+            List<PluginDeclarer> newDeclarers = null;
+            for (PluginDeclarer declarer : matchedDeclarers) {
+                if (declarers.contains(declarer)) {
+                    continue;
                 }
+                if (newDeclarers == null) {
+                    newDeclarers = new ArrayList<>(declarers);
+                }
+                newDeclarers.add(declarer);
             }
-        }
+            return newDeclarers == null ? declarers : newDeclarers;
+        });
+        return true;
     }
 
     private static Builder<?> doTransform(Builder<?> builder, TypeDescription typeDescription, ClassLoader classLoader,
             JavaModule javaModule, ProtectionDomain protectionDomain, Map<String, List<PluginDeclarer>> nameCombinedMap,
-            Plugin plugin) {
+            Plugin plugin,
+            Map<ClassLoader, WeakReference<Map<PluginDeclarer, InterceptDeclarer[]>>> interceptDeclarerCache) {
         final List<PluginDeclarer> pluginDeclarers = nameCombinedMap.get(typeDescription.getActualName());
+        final Map<PluginDeclarer, InterceptDeclarer[]> declarersOfLoader = getDeclarersOfLoader(interceptDeclarerCache,
+                classLoader);
         final List<InterceptDeclarer> interceptDeclarers = new ArrayList<>();
         for (PluginDeclarer pluginDeclarer : pluginDeclarers) {
-            ClassLoader loader = pluginDeclarer.getClass().getClassLoader();
-            if (loader instanceof PluginClassLoader) {
-                PluginClassLoader pluginClassLoader = (PluginClassLoader) loader;
-                pluginClassLoader.setLocalLoader(classLoader);
-                interceptDeclarers.addAll(Arrays.asList(
-                        pluginDeclarer.getInterceptDeclarers(ClassLoader.getSystemClassLoader())));
-                pluginClassLoader.removeLocalLoader();
-            } else {
-                interceptDeclarers.addAll(Arrays.asList(
-                        pluginDeclarer.getInterceptDeclarers(ClassLoader.getSystemClassLoader())));
+            InterceptDeclarer[] declarers = declarersOfLoader.get(pluginDeclarer);
+            if (declarers == null) {
+                declarers = createInterceptDeclarers(pluginDeclarer, classLoader);
+                InterceptDeclarer[] oldDeclarers = declarersOfLoader.putIfAbsent(pluginDeclarer, declarers);
+                if (oldDeclarers != null) {
+                    declarers = oldDeclarers;
+                }
             }
+            interceptDeclarers.addAll(Arrays.asList(declarers));
         }
         return new ReentrantTransformer(interceptDeclarers.toArray(new InterceptDeclarer[0]), plugin).transform(
                 builder, typeDescription, classLoader, javaModule, protectionDomain);
     }
 
+    /**
+     * Get the cached intercept declarers of the classloader, the cache is created again once it is collected, then the
+     * intercept declarers are created again as well
+     *
+     * @param interceptDeclarerCache intercept declarer cache
+     * @param classLoader classloader of the enhanced class
+     * @return intercept declarers by plugin declarer
+     */
+    private static Map<PluginDeclarer, InterceptDeclarer[]> getDeclarersOfLoader(
+            Map<ClassLoader, WeakReference<Map<PluginDeclarer, InterceptDeclarer[]>>> interceptDeclarerCache,
+            ClassLoader classLoader) {
+        synchronized (interceptDeclarerCache) {
+            final WeakReference<Map<PluginDeclarer, InterceptDeclarer[]>> reference =
+                    interceptDeclarerCache.get(classLoader);
+            Map<PluginDeclarer, InterceptDeclarer[]> declarersOfLoader = reference == null ? null : reference.get();
+            if (declarersOfLoader == null) {
+                declarersOfLoader = new ConcurrentHashMap<>();
+                interceptDeclarerCache.put(classLoader, new WeakReference<>(declarersOfLoader));
+            }
+            return declarersOfLoader;
+        }
+    }
+
+    private static InterceptDeclarer[] createInterceptDeclarers(PluginDeclarer pluginDeclarer,
+            ClassLoader classLoader) {
+        ClassLoader loader = pluginDeclarer.getClass().getClassLoader();
+        if (!(loader instanceof PluginClassLoader)) {
+            return pluginDeclarer.getInterceptDeclarers(ClassLoader.getSystemClassLoader());
+        }
+        PluginClassLoader pluginClassLoader = (PluginClassLoader) loader;
+        pluginClassLoader.setLocalLoader(classLoader);
+        try {
+            return pluginDeclarer.getInterceptDeclarers(ClassLoader.getSystemClassLoader());
+        } finally {
+            pluginClassLoader.removeLocalLoader();
+        }
+    }
+
     /**
      * Gets all plugin declarers from the plugin collectors
      *
@@ -194,19 +258,4 @@ public class PluginCollector {
     private static Iterable<? extends PluginDescription> loadDescriptions(ClassLoader classLoader) {
         return ServiceLoader.load(PluginDescription.class, classLoader);
     }
-
-    private static boolean matchTarget(ElementMatcher<TypeDescription> matcher, TypeDescription target) {
-        try {
-            boolean result = matcher.matches(target);
-            if (IS_PRE_FILTER_ENABLE && !result) {
-                FileUtils.addToUnmatchedClassCache(target.getActualName());
-            }
-
-            return result;
-        } catch (Exception exception) {
-            LOGGER.log(Level.WARNING, "Exception occurs when math target: " + target.getActualName() + ",{0}",
-                    exception.getMessage());
-            return false;
-        }
-    }
 }
@@ -79,6 +79,20 @@ public class AgentConfig implements BaseConfig {
     @ConfigFieldKey("preFilter.file")
     private String preFilterFile;
 
+    /**
+     * Whether to recycle the execution context of the interceptors per thread, it must not be enabled if any
+     * interceptor keeps the execution context after the enhanced method exits
+     */
+    @ConfigFieldKey("executeContextPool.enable")
+    private boolean executeContextPoolEnable = false;
+
+    /**
+     * Whether to profile the class matching and transformation, the startup phases and the plugin load time are always
+     * recorded
+     */
+    @ConfigFieldKey("profile.enable")
+    private boolean profileEnable = false;
+
     /**
      * Allows classes to be loaded from the thread context, mainly used by the PluginClassLoader to load the classes of
      * the host instance through the thread context, if not allowed can be specified during the interceptor call
@@ -172,4 +186,20 @@ public class AgentConfig implements BaseConfig {
     public void setPreFilterFile(String preFilterFile) {
         this.preFilterFile = preFilterFile;
     }
+
+    public boolean isExecuteContextPoolEnable() {
+        return executeContextPoolEnable;
+    }
+
+    public void setExecuteContextPoolEnable(boolean executeContextPoolEnable) {
+        this.executeContextPoolEnable = executeContextPoolEnable;
+    }
+
+    public boolean isProfileEnable() {
+        return profileEnable;
+    }
+
+    public void setProfileEnable(boolean profileEnable) {
+        this.profileEnable = profileEnable;
+    }
 }
@@ -19,6 +19,8 @@ package io.sermant.core.plugin.agent.matcher;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 
+import java.util.Arrays;
+
 /**
  * ClassFuzzyMatcher, provides related logical operations
  *
@@ -50,7 +52,7 @@ public abstract class ClassFuzzyMatcher extends ClassMatcher {
      */
     public ClassFuzzyMatcher and(ElementMatcher<TypeDescription> matcher) {
         final ClassFuzzyMatcher thisMatcher = this;
-        return new ClassFuzzyMatcher() {
+        return new AndMatcher(Arrays.<ElementMatcher<TypeDescription>>asList(thisMatcher, matcher)) {
             @Override
             public boolean matches(TypeDescription typeDescription) {
                 return thisMatcher.matches(typeDescription) && matcher.matches(typeDescription);
@@ -66,7 +68,7 @@ public abstract class ClassFuzzyMatcher extends ClassMatcher {
      */
     public ClassFuzzyMatcher or(ElementMatcher<TypeDescription> matcher) {
         final ClassFuzzyMatcher thisMatcher = this;
-        return new ClassFuzzyMatcher() {
+        return new OrMatcher(Arrays.<ElementMatcher<TypeDescription>>asList(thisMatcher, matcher)) {
             @Override
             public boolean matches(TypeDescription typeDescription) {
                 return thisMatcher.matches(typeDescription) || matcher.matches(typeDescription);
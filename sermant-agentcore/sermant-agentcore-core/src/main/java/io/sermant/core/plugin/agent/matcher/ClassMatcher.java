@@ -29,6 +29,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
@@ -101,12 +102,7 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
      * @return ClassFuzzyMatcher
      */
     public static ClassFuzzyMatcher namePrefixedWith(String prefix) {
-        return new ClassFuzzyMatcher() {
-            @Override
-            public boolean matches(TypeDescription typeDescription) {
-                return typeDescription.getActualName().startsWith(prefix);
-            }
-        };
+        return new NamePrefixMatcher(prefix);
     }
 
     /**
@@ -116,12 +112,7 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
      * @return ClassFuzzyMatcher
      */
     public static ClassFuzzyMatcher nameSuffixedWith(String suffix) {
-        return new ClassFuzzyMatcher() {
-            @Override
-            public boolean matches(TypeDescription typeDescription) {
-                return typeDescription.getActualName().endsWith(suffix);
-            }
-        };
+        return new NameSuffixMatcher(suffix);
     }
 
     /**
@@ -161,7 +152,7 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
      * @return ClassFuzzyMatcher
      */
     public static ClassFuzzyMatcher isAnnotatedWith(String... annotations) {
-        return new ClassFuzzyMatcher() {
+        return new AnnotationMatcher(annotations) {
             @Override
             public boolean matches(TypeDescription typeDescription) {
                 final Set<String> annotationSet = new HashSet<String>(Arrays.asList(annotations));
@@ -182,7 +173,11 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
      */
     @SafeVarargs
     public static ClassFuzzyMatcher isAnnotatedWith(Class<? extends Annotation>... annotations) {
-        return new ClassFuzzyMatcher() {
+        final String[] annotationNames = new String[annotations.length];
+        for (int i = 0; i < annotations.length; i++) {
+            annotationNames[i] = annotations[i].getName();
+        }
+        return new AnnotationMatcher(annotationNames) {
             @Override
             public boolean matches(TypeDescription typeDescription) {
                 return isAnnotatedWithMatch(typeDescription, annotations);
@@ -197,12 +192,7 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
      * @return ClassFuzzyMatcher
      */
     public static ClassFuzzyMatcher isExtendedFrom(String... superTypes) {
-        return new ClassFuzzyMatcher() {
-            @Override
-            public boolean matches(TypeDescription typeDescription) {
-                return superTypeCheck(typeDescription, Arrays.asList(superTypes));
-            }
-        };
+        return new SuperTypeMatcher(Arrays.asList(superTypes));
     }
 
     /**
@@ -216,12 +206,7 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
         for (Class<?> superType : superTypes) {
             superTypeNames.add(superType.getName());
         }
-        return new ClassFuzzyMatcher() {
-            @Override
-            public boolean matches(TypeDescription typeDescription) {
-                return superTypeCheck(typeDescription, superTypeNames);
-            }
-        };
+        return new SuperTypeMatcher(superTypeNames);
     }
 
     /**
@@ -291,7 +276,7 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
      * @return ClassFuzzyMatcher
      */
     public static ClassFuzzyMatcher and(ClassMatcher... matchers) {
-        return new ClassFuzzyMatcher() {
+        return new AndMatcher(Arrays.<ElementMatcher<TypeDescription>>asList(matchers)) {
             @Override
             public boolean matches(TypeDescription typeDescription) {
                 return andMatch(typeDescription, matchers);
@@ -306,7 +291,7 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
      * @return ClassFuzzyMatcher
      */
     public static ClassFuzzyMatcher or(ClassMatcher... matchers) {
-        return new ClassFuzzyMatcher() {
+        return new OrMatcher(Arrays.<ElementMatcher<TypeDescription>>asList(matchers)) {
             @Override
             public boolean matches(TypeDescription typeDescription) {
                 return orMatch(typeDescription, matchers);
@@ -351,4 +336,123 @@ public abstract class ClassMatcher implements ElementMatcher<TypeDescription> {
         }
         return true;
     }
+
+    /**
+     * Class name prefix matcher, which is indexed by the prefix in {@link ClassMatcherIndex}
+     *
+     * @since 2024-10-15
+     */
+    static class NamePrefixMatcher extends ClassFuzzyMatcher {
+        private final String prefix;
+
+        NamePrefixMatcher(String prefix) {
+            this.prefix = prefix;
+        }
+
+        String getPrefix() {
+            return prefix;
+        }
+
+        @Override
+        public boolean matches(TypeDescription typeDescription) {
+            return typeDescription.getActualName().startsWith(prefix);
+        }
+    }
+
+    /**
+     * Class name suffix matcher, which is indexed by the suffix in {@link ClassMatcherIndex}
+     *
+     * @since 2024-10-15
+     */
+    static class NameSuffixMatcher extends ClassFuzzyMatcher {
+        private final String suffix;
+
+        NameSuffixMatcher(String suffix) {
+            this.suffix = suffix;
+        }
+
+        String getSuffix() {
+            return suffix;
+        }
+
+        @Override
+        public boolean matches(TypeDescription typeDescription) {
+            return typeDescription.getActualName().endsWith(suffix);
+        }
+    }
+
+    /**
+     * Class annotation matcher, which is indexed by one of the required annotations in {@link ClassMatcherIndex}
+     *
+     * @since 2024-10-15
+     */
+    abstract static class AnnotationMatcher extends ClassFuzzyMatcher {
+        private final String[] annotationNames;
+
+        AnnotationMatcher(String[] annotationNames) {
+            this.annotationNames = annotationNames;
+        }
+
+        String[] getAnnotationNames() {
+            return annotationNames;
+        }
+    }
+
+    /**
+     * Superclass matcher, which is indexed by one of the required super types in {@link ClassMatcherIndex}
+     *
+     * @since 2024-10-15
+     */
+    static class SuperTypeMatcher extends ClassFuzzyMatcher {
+        private final Collection<String> superTypeNames;
+
+        SuperTypeMatcher(Collection<String> superTypeNames) {
+            this.superTypeNames = superTypeNames;
+        }
+
+        Collection<String> getSuperTypeNames() {
+            return superTypeNames;
+        }
+
+        @Override
+        public boolean matches(TypeDescription typeDescription) {
+            return superTypeCheck(typeDescription, superTypeNames);
+        }
+    }
+
+    /**
+     * Logical operation {@code and} of matchers, which is indexed by one of the indexable operands in
+     * {@link ClassMatcherIndex}
+     *
+     * @since 2024-10-15
+     */
+    abstract static class AndMatcher extends ClassFuzzyMatcher {
+        private final List<ElementMatcher<TypeDescription>> operands;
+
+        AndMatcher(List<ElementMatcher<TypeDescription>> operands) {
+            this.operands = operands;
+        }
+
+        List<ElementMatcher<TypeDescription>> getOperands() {
+            return operands;
+        }
+    }
+
+    /**
+     * Logical operation {@code or} of matchers, which is indexed by all the operands in {@link ClassMatcherIndex} if
+     * all of them are indexable
+     *
+     * @since 2024-10-15
+     */
+    abstract static class OrMatcher extends ClassFuzzyMatcher {
+        private final List<ElementMatcher<TypeDescription>> operands;
+
+        OrMatcher(List<ElementMatcher<TypeDescription>> operands) {
+            this.operands = operands;
+        }
+
+        List<ElementMatcher<TypeDescription>> getOperands() {
+            return operands;
+        }
+    }
 }
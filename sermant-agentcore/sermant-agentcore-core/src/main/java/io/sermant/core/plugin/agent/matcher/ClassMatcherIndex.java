@@ -0,0 +1,431 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.matcher;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.core.plugin.agent.matcher.ClassMatcher.AndMatcher;
+import io.sermant.core.plugin.agent.matcher.ClassMatcher.AnnotationMatcher;
+import io.sermant.core.plugin.agent.matcher.ClassMatcher.NamePrefixMatcher;
+import io.sermant.core.plugin.agent.matcher.ClassMatcher.NameSuffixMatcher;
+import io.sermant.core.plugin.agent.matcher.ClassMatcher.OrMatcher;
+import io.sermant.core.plugin.agent.matcher.ClassMatcher.SuperTypeMatcher;
+
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.description.type.TypeList;
+import net.bytebuddy.matcher.ElementMatcher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Index of the class matchers, which finds the targets whose matchers match a type without evaluating every matcher
+ * <p>The declarative matchers created by {@link ClassMatcher} are grouped as follows:
+ * <pre>
+ *     1.{@link ClassMatcher#namePrefixedWith} is put into a prefix trie of the class names
+ *     2.{@link ClassMatcher#nameSuffixedWith} is put into a suffix trie of the class names
+ *     3.{@link ClassMatcher#isAnnotatedWith} is put into a hash index by one of the required annotations
+ *     4.{@link ClassMatcher#isExtendedFrom} is put into a hash index by one of the required super types
+ *     5.{@code or} of the above is put into all the indexes of its operands, {@code and} of the above is put into the
+ *     index of one of its operands
+ * </pre>
+ * A type only walks the tries by its name and looks up its annotations and super types once, the matchers found are
+ * then verified if the index key alone is not enough. The other matchers are still evaluated one by one
+ * <p>The targets of the matched matchers are returned in the order they were added, each matcher at most once even if
+ * several of its keys are hit. The index must be fully built before it is published to other threads
+ *
+ * @param <T> target type
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClassMatcherIndex<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private static final int[] EMPTY_ORDINALS = new int[0];
+
+    private static final int BITS_PER_WORD = 64;
+
+    private final List<Entry<T>> entries = new ArrayList<>();
+
+    private final TrieNode prefixTrie = new TrieNode();
+
+    private final TrieNode suffixTrie = new TrieNode();
+
+    private final Map<String, int[]> annotationIndex = new HashMap<>();
+
+    private final Map<String, int[]> superTypeIndex = new HashMap<>();
+
+    private int[] unindexedOrdinals = EMPTY_ORDINALS;
+
+    /**
+     * Add a matcher and the target it belongs to
+     *
+     * @param matcher class matcher
+     * @param target target
+     */
+    public void add(ElementMatcher<TypeDescription> matcher, T target) {
+        int ordinal = entries.size();
+        List<IndexKey> keys = new ArrayList<>();
+        if (!collectKeys(matcher, keys)) {
+            entries.add(new Entry<>(matcher, target, true));
+            unindexedOrdinals = append(unindexedOrdinals, ordinal);
+            return;
+        }
+        boolean needVerify = false;
+        for (IndexKey key : keys) {
+            needVerify |= !key.exact;
+            addKey(key, ordinal);
+        }
+        entries.add(new Entry<>(matcher, target, needVerify));
+    }
+
+    /**
+     * Whether there is no matcher in the index
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Find the targets whose matchers match the type
+     *
+     * @param typeDescription type description
+     * @return matched targets in the order they were added, an empty list if none matched
+     */
+    public List<T> match(TypeDescription typeDescription) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final long[] candidates = new long[(entries.size() + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        final String typeName = typeDescription.getActualName();
+        prefixTrie.collectForward(typeName, candidates);
+        suffixTrie.collectBackward(typeName, candidates);
+        collectAnnotations(typeDescription, candidates);
+        collectSuperTypes(typeDescription, candidates);
+        for (int ordinal : unindexedOrdinals) {
+            mark(candidates, ordinal);
+        }
+        List<T> result = null;
+        for (int word = 0; word < candidates.length; word++) {
+            long bits = candidates[word];
+            while (bits != 0) {
+                final int ordinal = word * BITS_PER_WORD + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                final Entry<T> entry = entries.get(ordinal);
+                if (entry.needVerify && !verify(entry.matcher, typeDescription)) {
+                    continue;
+                }
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(entry.target);
+            }
+        }
+        return result == null ? Collections.<T>emptyList() : result;
+    }
+
+    private void collectAnnotations(TypeDescription typeDescription, long[] candidates) {
+        if (annotationIndex.isEmpty()) {
+            return;
+        }
+        try {
+            for (AnnotationDescription description : typeDescription.getInheritedAnnotations()) {
+                markAll(candidates, annotationIndex.get(description.getAnnotationType().getActualName()));
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Exception occurs when resolve annotations of: "
+                    + typeDescription.getActualName() + ",{0}", exception.getMessage());
+        }
+    }
+
+    private void collectSuperTypes(TypeDescription typeDescription, long[] candidates) {
+        if (superTypeIndex.isEmpty()) {
+            return;
+        }
+        try {
+            final Queue<TypeDefinition> queue = new ArrayDeque<>();
+            queue.add(typeDescription);
+            for (TypeDefinition current = queue.poll(); current != null; current = queue.poll()) {
+                markAll(candidates, superTypeIndex.get(current.getActualName()));
+                final TypeList.Generic interfaces = current.getInterfaces();
+                if (!interfaces.isEmpty()) {
+                    queue.addAll(interfaces.asErasures());
+                }
+                final TypeDefinition superClass = current.getSuperClass();
+                if (superClass != null) {
+                    queue.add(superClass.asErasure());
+                }
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Exception occurs when resolve super types of: "
+                    + typeDescription.getActualName() + ",{0}", exception.getMessage());
+        }
+    }
+
+    private static boolean verify(ElementMatcher<TypeDescription> matcher, TypeDescription target) {
+        try {
+            return matcher.matches(target);
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Exception occurs when math target: " + target.getActualName() + ",{0}",
+                    exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Collect the index keys of the matcher, one of the keys must be hit if the matcher matches
+     *
+     * @param matcher matcher
+     * @param keys keys
+     * @return false if the matcher can not be indexed
+     */
+    private static boolean collectKeys(ElementMatcher<TypeDescription> matcher, List<IndexKey> keys) {
+        if (matcher instanceof NamePrefixMatcher) {
+            keys.add(new IndexKey(KeyType.PREFIX, ((NamePrefixMatcher) matcher).getPrefix(), true));
+            return true;
+        }
+        if (matcher instanceof NameSuffixMatcher) {
+            keys.add(new IndexKey(KeyType.SUFFIX, ((NameSuffixMatcher) matcher).getSuffix(), true));
+            return true;
+        }
+        if (matcher instanceof AnnotationMatcher) {
+            final String[] annotationNames = ((AnnotationMatcher) matcher).getAnnotationNames();
+            if (annotationNames.length == 0) {
+                return false;
+            }
+            keys.add(new IndexKey(KeyType.ANNOTATION, annotationNames[0], annotationNames.length == 1));
+            return true;
+        }
+        if (matcher instanceof SuperTypeMatcher) {
+            final Iterator<String> superTypeNames = ((SuperTypeMatcher) matcher).getSuperTypeNames().iterator();
+            if (!superTypeNames.hasNext()) {
+                return false;
+            }
+
+            // The type itself is excluded by the matcher, so the matcher needs to be verified
+            keys.add(new IndexKey(KeyType.SUPER_TYPE, superTypeNames.next(), false));
+            return true;
+        }
+        if (matcher instanceof OrMatcher) {
+            final List<IndexKey> operandKeys = new ArrayList<>();
+            for (ElementMatcher<TypeDescription> operand : ((OrMatcher) matcher).getOperands()) {
+                if (!collectKeys(operand, operandKeys)) {
+                    return false;
+                }
+            }
+            keys.addAll(operandKeys);
+            return !operandKeys.isEmpty();
+        }
+        if (matcher instanceof AndMatcher) {
+            for (ElementMatcher<TypeDescription> operand : ((AndMatcher) matcher).getOperands()) {
+                final List<IndexKey> operandKeys = new ArrayList<>();
+                if (collectKeys(operand, operandKeys)) {
+                    for (IndexKey key : operandKeys) {
+                        keys.add(new IndexKey(key.type, key.value, false));
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addKey(IndexKey key, int ordinal) {
+        switch (key.type) {
+            case PREFIX:
+                prefixTrie.addForward(key.value, ordinal);
+                break;
+            case SUFFIX:
+                suffixTrie.addBackward(key.value, ordinal);
+                break;
+            case ANNOTATION:
+                annotationIndex.put(key.value, append(annotationIndex.get(key.value), ordinal));
+                break;
+            default:
+                superTypeIndex.put(key.value, append(superTypeIndex.get(key.value), ordinal));
+                break;
+        }
+    }
+
+    private static int[] append(int[] ordinals, int ordinal) {
+        if (ordinals == null) {
+            return new int[]{ordinal};
+        }
+        if (ordinals.length > 0 && ordinals[ordinals.length - 1] == ordinal) {
+            return ordinals;
+        }
+        final int[] newOrdinals = Arrays.copyOf(ordinals, ordinals.length + 1);
+        newOrdinals[ordinals.length] = ordinal;
+        return newOrdinals;
+    }
+
+    private static void mark(long[] candidates, int ordinal) {
+        candidates[ordinal / BITS_PER_WORD] |= 1L << (ordinal % BITS_PER_WORD);
+    }
+
+    private static void markAll(long[] candidates, int[] ordinals) {
+        if (ordinals == null) {
+            return;
+        }
+        for (int ordinal : ordinals) {
+            mark(candidates, ordinal);
+        }
+    }
+
+    /**
+     * Key type of the index
+     *
+     * @since 2024-10-15
+     */
+    private enum KeyType {
+        PREFIX,
+        SUFFIX,
+        ANNOTATION,
+        SUPER_TYPE
+    }
+
+    /**
+     * Index key of a matcher
+     *
+     * @since 2024-10-15
+     */
+    private static class IndexKey {
+        private final KeyType type;
+
+        private final String value;
+
+        /**
+         * Whether hitting the key means the matcher matches
+         */
+        private final boolean exact;
+
+        IndexKey(KeyType type, String value, boolean exact) {
+            this.type = type;
+            this.value = value;
+            this.exact = exact;
+        }
+    }
+
+    /**
+     * Matcher and the target it belongs to
+     *
+     * @param <T> target type
+     * @since 2024-10-15
+     */
+    private static class Entry<T> {
+        private final ElementMatcher<TypeDescription> matcher;
+
+        private final T target;
+
+        private final boolean needVerify;
+
+        Entry(ElementMatcher<TypeDescription> matcher, T target, boolean needVerify) {
+            this.matcher = matcher;
+            this.target = target;
+            this.needVerify = needVerify;
+        }
+    }
+
+    /**
+     * Node of the character trie, the children are kept in arrays sorted by character so walking the trie does not
+     * allocate
+     *
+     * @since 2024-10-15
+     */
+    private static class TrieNode {
+        private char[] chars = new char[0];
+
+        private TrieNode[] children = new TrieNode[0];
+
+        private int[] ordinals = EMPTY_ORDINALS;
+
+        void addForward(String key, int ordinal) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.getOrCreateChild(key.charAt(i));
+            }
+            node.ordinals = append(node.ordinals, ordinal);
+        }
+
+        void addBackward(String key, int ordinal) {
+            TrieNode node = this;
+            for (int i = key.length() - 1; i >= 0; i--) {
+                node = node.getOrCreateChild(key.charAt(i));
+            }
+            node.ordinals = append(node.ordinals, ordinal);
+        }
+
+        void collectForward(String name, long[] candidates) {
+            TrieNode node = this;
+            markAll(candidates, node.ordinals);
+            for (int i = 0; i < name.length() && node != null; i++) {
+                node = node.getChild(name.charAt(i));
+                if (node != null) {
+                    markAll(candidates, node.ordinals);
+                }
+            }
+        }
+
+        void collectBackward(String name, long[] candidates) {
+            TrieNode node = this;
+            markAll(candidates, node.ordinals);
+            for (int i = name.length() - 1; i >= 0 && node != null; i--) {
+                node = node.getChild(name.charAt(i));
+                if (node != null) {
+                    markAll(candidates, node.ordinals);
+                }
+            }
+        }
+
+        private TrieNode getChild(char ch) {
+            final int index = Arrays.binarySearch(chars, ch);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private TrieNode getOrCreateChild(char ch) {
+            final int index = Arrays.binarySearch(chars, ch);
+            if (index >= 0) {
+                return children[index];
+            }
+            final int insertion = -index - 1;
+            final char[] newChars = new char[chars.length + 1];
+            final TrieNode[] newChildren = new TrieNode[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(chars, insertion, newChars, insertion + 1, chars.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            final TrieNode child = new TrieNode();
+            newChars[insertion] = ch;
+            newChildren[insertion] = child;
+            chars = newChars;
+            children = newChildren;
+            return child;
+        }
+    }
+}
@@ -25,7 +25,9 @@ import net.bytebuddy.matcher.ElementMatchers;
 
 import java.lang.annotation.Annotation;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -57,7 +59,7 @@ public abstract class MethodMatcher implements ElementMatcher<MethodDescription>
      * @return 方法匹配器对象
      */
     public static MethodMatcher nameEquals(String methodName) {
-        return new MethodMatcher() {
+        return new NameSetMatcher(Collections.singleton(methodName)) {
             @Override
             public boolean matches(MethodDescription methodDescription) {
                 return methodDescription.getActualName().equals(methodName);
@@ -82,7 +84,7 @@ public abstract class MethodMatcher implements ElementMatcher<MethodDescription>
      * @return MethodMatcher
      */
     public static MethodMatcher nameContains(Set<String> methodNames) {
-        return new MethodMatcher() {
+        return new NameSetMatcher(methodNames) {
             @Override
             public boolean matches(MethodDescription methodDescription) {
                 return methodNames.contains(methodDescription.getActualName());
@@ -385,7 +387,7 @@ public abstract class MethodMatcher implements ElementMatcher<MethodDescription>
      */
     @SafeVarargs
     public static MethodMatcher and(ElementMatcher<MethodDescription>... matchers) {
-        return new MethodMatcher() {
+        return new AndMatcher(Arrays.asList(matchers)) {
             @Override
             public boolean matches(MethodDescription methodDescription) {
                 return andMatch(methodDescription, matchers);
@@ -401,7 +403,7 @@ public abstract class MethodMatcher implements ElementMatcher<MethodDescription>
      */
     public MethodMatcher and(ElementMatcher<MethodDescription> matcher) {
         final MethodMatcher thisMatcher = this;
-        return new MethodMatcher() {
+        return new AndMatcher(Arrays.<ElementMatcher<MethodDescription>>asList(thisMatcher, matcher)) {
             @Override
             public boolean matches(MethodDescription methodDescription) {
                 return thisMatcher.matches(methodDescription) && matcher.matches(methodDescription);
@@ -417,7 +419,7 @@ public abstract class MethodMatcher implements ElementMatcher<MethodDescription>
      */
     @SafeVarargs
     public static MethodMatcher or(ElementMatcher<MethodDescription>... matchers) {
-        return new MethodMatcher() {
+        return new OrMatcher(Arrays.asList(matchers)) {
             @Override
             public boolean matches(MethodDescription methodDescription) {
                 return orMatch(methodDescription, matchers);
@@ -433,7 +435,7 @@ public abstract class MethodMatcher implements ElementMatcher<MethodDescription>
      */
     public MethodMatcher or(ElementMatcher<MethodDescription> matcher) {
         final MethodMatcher thisMatcher = this;
-        return new MethodMatcher() {
+        return new OrMatcher(Arrays.<ElementMatcher<MethodDescription>>asList(thisMatcher, matcher)) {
             @Override
             public boolean matches(MethodDescription methodDescription) {
                 return thisMatcher.matches(methodDescription) || matcher.matches(methodDescription);
@@ -507,4 +509,57 @@ public abstract class MethodMatcher implements ElementMatcher<MethodDescription>
         }
         return false;
     }
+
+    /**
+     * Method name matcher, which is indexed by the method names in {@link MethodMatcherIndex}
+     *
+     * @since 2024-10-15
+     */
+    abstract static class NameSetMatcher extends MethodMatcher {
+        private final Set<String> methodNames;
+
+        NameSetMatcher(Set<String> methodNames) {
+            this.methodNames = methodNames;
+        }
+
+        Set<String> getMethodNames() {
+            return methodNames;
+        }
+    }
+
+    /**
+     * Logical operation {@code and} of matchers, which is indexed by one of the indexable operands in
+     * {@link MethodMatcherIndex}
+     *
+     * @since 2024-10-15
+     */
+    abstract static class AndMatcher extends MethodMatcher {
+        private final List<ElementMatcher<MethodDescription>> operands;
+
+        AndMatcher(List<ElementMatcher<MethodDescription>> operands) {
+            this.operands = operands;
+        }
+
+        List<ElementMatcher<MethodDescription>> getOperands() {
+            return operands;
+        }
+    }
+
+    /**
+     * Logical operation {@code or} of matchers, which is indexed by all the operands in {@link MethodMatcherIndex} if
+     * all of them are indexable
+     *
+     * @since 2024-10-15
+     */
+    abstract static class OrMatcher extends MethodMatcher {
+        private final List<ElementMatcher<MethodDescription>> operands;
+
+        OrMatcher(List<ElementMatcher<MethodDescription>> operands) {
+            this.operands = operands;
+        }
+
+        List<ElementMatcher<MethodDescription>> getOperands() {
+            return operands;
+        }
+    }
 }
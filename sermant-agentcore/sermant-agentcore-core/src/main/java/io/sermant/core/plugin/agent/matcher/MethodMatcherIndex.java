@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.matcher;
+
+import io.sermant.core.plugin.agent.matcher.MethodMatcher.AndMatcher;
+import io.sermant.core.plugin.agent.matcher.MethodMatcher.NameSetMatcher;
+import io.sermant.core.plugin.agent.matcher.MethodMatcher.OrMatcher;
+
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the method matchers, which finds the targets whose matchers match a method without evaluating every matcher
+ * <p>{@link MethodMatcher#nameEquals} and {@link MethodMatcher#nameContains} are put into a hash index by the method
+ * names, {@code or} of them is put into the index by all the names, and {@code and} with one of them is put into the
+ * index by the names of that operand and verified. A method only looks up its name once, the other matchers are still
+ * evaluated one by one
+ * <p>The ordinals of the matched matchers are returned in the order they were added. The index must be fully built
+ * before it is published to other threads
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class MethodMatcherIndex {
+    private static final int[] EMPTY_ORDINALS = new int[0];
+
+    private final List<ElementMatcher<MethodDescription>> matchers = new ArrayList<>();
+
+    private final List<Boolean> needVerifyFlags = new ArrayList<>();
+
+    private final Map<String, int[]> nameIndex = new HashMap<>();
+
+    private int[] unindexedOrdinals = EMPTY_ORDINALS;
+
+    /**
+     * Add a matcher, its ordinal is the number of matchers added before
+     *
+     * @param matcher method matcher
+     */
+    public void add(ElementMatcher<MethodDescription> matcher) {
+        final int ordinal = matchers.size();
+        final Set<String> names = new HashSet<>();
+        final Boolean exact = collectNames(matcher, names);
+        matchers.add(matcher);
+        if (exact == null) {
+            needVerifyFlags.add(Boolean.TRUE);
+            unindexedOrdinals = append(unindexedOrdinals, ordinal);
+            return;
+        }
+        needVerifyFlags.add(!exact);
+        for (String name : names) {
+            nameIndex.put(name, append(nameIndex.get(name), ordinal));
+        }
+    }
+
+    /**
+     * Number of the matchers
+     *
+     * @return size
+     */
+    public int size() {
+        return matchers.size();
+    }
+
+    /**
+     * Find the ordinals of the matchers that match the method
+     *
+     * @param methodDescription method description
+     * @return ordinals in ascending order, an empty list if none matched
+     */
+    public List<Integer> match(MethodDescription methodDescription) {
+        final int[] indexed = nameIndex.get(methodDescription.getActualName());
+        if (indexed == null && unindexedOrdinals.length == 0) {
+            return Collections.emptyList();
+        }
+        final List<Integer> result = new ArrayList<>();
+        int indexedPos = 0;
+        int unindexedPos = 0;
+        final int indexedLength = indexed == null ? 0 : indexed.length;
+        while (indexedPos < indexedLength || unindexedPos < unindexedOrdinals.length) {
+            // Merge the two ascending arrays so that the ordinals keep the order they were added
+            final int ordinal;
+            if (unindexedPos >= unindexedOrdinals.length
+                    || (indexedPos < indexedLength && indexed[indexedPos] < unindexedOrdinals[unindexedPos])) {
+                ordinal = indexed[indexedPos++];
+            } else {
+                ordinal = unindexedOrdinals[unindexedPos++];
+            }
+            if (needVerifyFlags.get(ordinal) && !matchers.get(ordinal).matches(methodDescription)) {
+                continue;
+            }
+            result.add(ordinal);
+        }
+        return result;
+    }
+
+    /**
+     * Collect the method names one of which the method must have if the matcher matches
+     *
+     * @param matcher matcher
+     * @param names method names
+     * @return null if the matcher can not be indexed, true if having one of the names means the matcher matches
+     */
+    private static Boolean collectNames(ElementMatcher<MethodDescription> matcher, Set<String> names) {
+        if (matcher instanceof NameSetMatcher) {
+            names.addAll(((NameSetMatcher) matcher).getMethodNames());
+            return Boolean.TRUE;
+        }
+        if (matcher instanceof OrMatcher) {
+            boolean exact = true;
+            final Set<String> operandNames = new HashSet<>();
+            for (ElementMatcher<MethodDescription> operand : ((OrMatcher) matcher).getOperands()) {
+                final Boolean operandExact = collectNames(operand, operandNames);
+                if (operandExact == null) {
+                    return null;
+                }
+                exact &= operandExact;
+            }
+            names.addAll(operandNames);
+            return exact;
+        }
+        if (matcher instanceof AndMatcher) {
+            for (ElementMatcher<MethodDescription> operand : ((AndMatcher) matcher).getOperands()) {
+                final Set<String> operandNames = new HashSet<>();
+                if (collectNames(operand, operandNames) != null) {
+                    names.addAll(operandNames);
+                    return Boolean.FALSE;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int[] append(int[] ordinals, int ordinal) {
+        if (ordinals == null) {
+            return new int[]{ordinal};
+        }
+        final int[] newOrdinals = Arrays.copyOf(ordinals, ordinals.length + 1);
+        newOrdinals[ordinals.length] = ordinal;
+        return newOrdinals;
+    }
+}
@@ -17,14 +17,18 @@
 package io.sermant.core.plugin.agent.template;
 
 import io.sermant.core.common.LoggerFactory;
+import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
 import io.sermant.core.plugin.agent.entity.ExecuteContext;
 import io.sermant.core.plugin.agent.interceptor.Interceptor;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -40,9 +44,143 @@ public class BaseAdviseHandler {
 
     private static final Map<String, List<Interceptor>> INTERCEPTOR_LIST_MAP = new ConcurrentHashMap<>();
 
+    private static final int DEFAULT_INTERCEPTOR_TABLE_SIZE = 256;
+
+    private static final Interceptor[] EMPTY_INTERCEPTORS = new Interceptor[0];
+
+    /**
+     * Immutable interceptor snapshots indexed by the advice index, republished whenever the interceptors of an
+     * adviceKey are changed, see {@link #addInterceptors} and {@link #removeInterceptors}
+     */
+    private static volatile Interceptor[][] interceptorTable = new Interceptor[DEFAULT_INTERCEPTOR_TABLE_SIZE][];
+
     private BaseAdviseHandler() {
     }
 
+    /**
+     * Adviser logic of method enter, the interceptors are found by the advice index. The interceptor snapshot and the
+     * position reached are kept in the context for the method exit, no iterator is created
+     *
+     * @param context ExecuteContext
+     * @param adviceIndex advice index of the enhanced method
+     * @param owner the adviser calling, which owns the interceptor snapshot
+     * @param enterHandler exception handler of onEnter
+     * @return ExecuteContext
+     * @throws Throwable Throwable
+     */
+    public static ExecuteContext handleMethodEnter(ExecuteContext context, int adviceIndex, Object owner,
+            ExceptionHandler enterHandler) throws Throwable {
+        Interceptor[] interceptors = getInterceptors(adviceIndex);
+        if (interceptors == null) {
+            return context;
+        }
+        context.pushInterceptors(owner, interceptors, 0);
+        ExecuteContext newContext = context;
+        int cursor = 0;
+        try {
+            while (cursor < interceptors.length) {
+                final Interceptor interceptor = interceptors[cursor++];
+                try {
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.log(Level.FINE,
+                                String.format(Locale.ROOT, "Method[%s] had been entered, interceptor is [%s].",
+                                        MethodKeyCreator.getMethodKey(context.getMethod()),
+                                        interceptor.getClass().getName()));
+                    }
+                    try {
+                        final ExecuteContext tempContext = interceptor.before(newContext);
+                        if (tempContext != null) {
+                            newContext = tempContext;
+                        }
+                        if (newContext.isSkip()) {
+                            return newContext;
+                        }
+                    } catch (Throwable t) {
+                        enterHandler.handle(context, interceptor, t);
+                    }
+                } catch (Exception exception) {
+                    LOGGER.log(Level.SEVERE, "Exception occurs when method enter.", exception);
+                    return newContext;
+                }
+
+                // Specifies that an exception is thrown to the host instance
+                if (newContext.getThrowableOut() != null) {
+                    throw newContext.getThrowableOut();
+                }
+            }
+            return newContext;
+        } finally {
+            context.setInterceptorCursor(cursor);
+            if (newContext != context) {
+                newContext.pushInterceptors(owner, interceptors, cursor);
+            }
+        }
+    }
+
+    /**
+     * Adviser logic of method exit, walks backward over the interceptor snapshot recorded at the method enter, only if
+     * the snapshot is owned by the adviser calling
+     *
+     * @param context ExecuteContext
+     * @param adviceIndex advice index of the enhanced method
+     * @param owner the adviser calling, which owns the interceptor snapshot
+     * @param throwHandler exception handler of onThrow
+     * @param exitHandler exception handler of onExit
+     * @return ExecuteContext
+     * @throws Throwable Throwable
+     */
+    public static ExecuteContext handleMethodExit(ExecuteContext context, int adviceIndex, Object owner,
+            ExceptionHandler throwHandler, ExceptionHandler exitHandler) throws Throwable {
+        // The adviser that did not enter, e.g. the Sermant instance has no interceptor for the shared advice index,
+        // must not take the snapshot of another adviser
+        final Interceptor[] interceptors = context.getInterceptors();
+        if (interceptors == null || context.getInterceptorOwner() != owner) {
+            return context;
+        }
+        ExecuteContext newContext = context;
+        int cursor = context.getInterceptorCursor();
+        context.popInterceptors();
+        while (cursor > 0) {
+            final Interceptor interceptor = interceptors[--cursor];
+            try {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE,
+                            String.format(Locale.ROOT, "Method[%s] had been exited, interceptor is [%s].",
+                                    MethodKeyCreator.getMethodKey(context.getMethod()),
+                                    interceptor.getClass().getName()));
+                }
+                if (newContext.getThrowable() != null && throwHandler != null) {
+                    try {
+                        final ExecuteContext tempContext = interceptor.onThrow(newContext);
+                        if (tempContext != null) {
+                            newContext = tempContext;
+                        }
+                    } catch (Throwable t) {
+                        throwHandler.handle(newContext, interceptor, t);
+                    }
+                    if (newContext.getThrowableOut() != null) {
+                        throw newContext.getThrowableOut();
+                    }
+                }
+                try {
+                    final ExecuteContext tempContext = interceptor.after(newContext);
+                    if (tempContext != null) {
+                        newContext = tempContext;
+                    }
+                } catch (Throwable t) {
+                    exitHandler.handle(newContext, interceptor, t);
+                }
+            } catch (Exception exception) {
+                LOGGER.log(Level.SEVERE, "Exception occurs when method exit.", exception);
+                return newContext;
+            }
+            if (newContext.getThrowableOut() != null) {
+                throw newContext.getThrowableOut();
+            }
+        }
+        return newContext;
+    }
+
     /**
      * Adviser logic of method enter
      *
@@ -184,10 +322,76 @@ public class BaseAdviseHandler {
         return newContext;
     }
 
+    /**
+     * Get the interceptor lists of all adviceKeys, changes must be made by {@link #addInterceptors} and
+     * {@link #removeInterceptors} so that the snapshots used by the enhanced methods are republished
+     *
+     * @return interceptor list map
+     */
     public static Map<String, List<Interceptor>> getInterceptorListMap() {
         return INTERCEPTOR_LIST_MAP;
     }
 
+    /**
+     * Add interceptors to the adviceKey, and republish the interceptor snapshot of the advice index
+     *
+     * @param adviceKey adviceKey
+     * @param adviceIndex advice index of the adviceKey
+     * @param interceptors interceptors to be added
+     */
+    public static void addInterceptors(String adviceKey, int adviceIndex, List<Interceptor> interceptors) {
+        synchronized (INTERCEPTOR_LIST_MAP) {
+            List<Interceptor> interceptorList = INTERCEPTOR_LIST_MAP.computeIfAbsent(adviceKey,
+                    key -> new ArrayList<>());
+            interceptorList.addAll(interceptors);
+            publishInterceptors(adviceIndex, interceptorList);
+        }
+    }
+
+    /**
+     * Remove the interceptors that match the filter from all adviceKeys, and republish the changed snapshots
+     *
+     * @param filter interceptor filter
+     */
+    public static void removeInterceptors(Predicate<Interceptor> filter) {
+        synchronized (INTERCEPTOR_LIST_MAP) {
+            for (Map.Entry<String, List<Interceptor>> entry : INTERCEPTOR_LIST_MAP.entrySet()) {
+                if (entry.getValue().removeIf(filter)) {
+                    publishInterceptors(AdviserScheduler.getOrCreateAdviceIndex(entry.getKey()), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the interceptor snapshot of the advice index
+     *
+     * @param adviceIndex advice index
+     * @return interceptor snapshot, null if no interceptor is bound to the index
+     */
+    public static Interceptor[] getInterceptors(int adviceIndex) {
+        Interceptor[][] table = interceptorTable;
+        if (adviceIndex < 0 || adviceIndex >= table.length) {
+            return null;
+        }
+        return table[adviceIndex];
+    }
+
+    private static void publishInterceptors(int adviceIndex, List<Interceptor> interceptorList) {
+        Interceptor[][] table = interceptorTable;
+        if (adviceIndex >= table.length) {
+            int newSize = table.length;
+            while (newSize <= adviceIndex) {
+                newSize <<= 1;
+            }
+            table = Arrays.copyOf(table, newSize);
+        }
+        table[adviceIndex] = interceptorList.toArray(EMPTY_INTERCEPTORS);
+
+        // Republish the table so that the new snapshot is visible to the enhanced methods
+        interceptorTable = table;
+    }
+
     /**
      * Exception Handler Interface
      *
@@ -18,6 +18,7 @@ package io.sermant.core.plugin.agent.template;
 
 import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
 import io.sermant.core.plugin.agent.entity.ExecuteContext;
+import io.sermant.core.plugin.agent.entity.ExecuteContextPool;
 
 import net.bytebuddy.asm.Advice;
 import net.bytebuddy.implementation.bytecode.assign.Assigner;
@@ -39,24 +40,24 @@ public class TemplateForCtor {
      *
      * @param cls enhanced class
      * @param constructor constructor
-     * @param methodKey method key, which is used to find template class
      * @param arguments arguments of method
-     * @param adviceKey advice class name
+     * @param adviceIndex advice index of the enhanced method, which is used to find interceptors
      * @param context execute context
+     * @param slot slot of the context in the pool, which is used to give it back on exit
      * @throws Throwable execute exception
      */
     @Advice.OnMethodEnter
     public static void onMethodEnter(
             @Advice.Origin Class<?> cls,
             @Advice.Origin Constructor<?> constructor,
-            @Advice.Origin("#t\\##m#s") String methodKey,
             @Advice.AllArguments(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object[] arguments,
-            @Advice.Local(value = "_ADVICE_KEY_$SERMANT_LOCAL") String adviceKey,
-            @Advice.Local(value = "_EXECUTE_CONTEXT_$SERMANT_LOCAL") Object context
+            @AdviceIndex int adviceIndex,
+            @Advice.Local(value = "_EXECUTE_CONTEXT_$SERMANT_LOCAL") Object context,
+            @Advice.Local(value = "_CONTEXT_SLOT_$SERMANT_LOCAL") int slot
     ) throws Throwable {
-        adviceKey = "TemplateForCtor_" + Integer.toHexString(methodKey.hashCode()) + "_" + cls.getClassLoader();
-        context = ExecuteContext.forConstructor(cls, constructor, arguments, null);
-        context = AdviserScheduler.onMethodEnter(context, adviceKey);
+        context = ExecuteContextPool.forConstructor(cls, constructor, arguments);
+        slot = ExecuteContextPool.getSlot(context);
+        context = AdviserScheduler.onMethodEnter(context, adviceIndex);
         arguments = ((ExecuteContext) context).getArguments();
     }
 
@@ -64,17 +65,24 @@ public class TemplateForCtor {
      * The post trigger point of method
      *
      * @param obj the object being enhanced
-     * @param adviceKey advice class name
+     * @param adviceIndex advice index of the enhanced method, which is used to find interceptors
      * @param context execute context
+     * @param slot slot of the context in the pool, which is used to give it back on exit
      * @throws Throwable execute exception
      */
     @Advice.OnMethodExit
     public static void onMethodExit(
             @Advice.This(typing = Assigner.Typing.DYNAMIC) Object obj,
-            @Advice.Local(value = "_ADVICE_KEY_$SERMANT_LOCAL") String adviceKey,
-            @Advice.Local(value = "_EXECUTE_CONTEXT_$SERMANT_LOCAL") Object context
+            @AdviceIndex int adviceIndex,
+            @Advice.Local(value = "_EXECUTE_CONTEXT_$SERMANT_LOCAL") Object context,
+            @Advice.Local(value = "_CONTEXT_SLOT_$SERMANT_LOCAL") int slot
     ) throws Throwable {
-        context = ((ExecuteContext) context).afterConstructor(obj, null);
-        AdviserScheduler.onMethodExit(context, adviceKey);
+        try {
+            context = ((ExecuteContext) context).afterConstructor(obj, null);
+            context = AdviserScheduler.onMethodExit(context, adviceIndex);
+        } finally {
+            // The interceptors may have replaced the context, so the pooled one is given back by its slot
+            ExecuteContextPool.release(slot);
+        }
     }
 }
@@ -18,6 +18,7 @@ package io.sermant.core.plugin.agent.template;
 
 import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
 import io.sermant.core.plugin.agent.entity.ExecuteContext;
+import io.sermant.core.plugin.agent.entity.ExecuteContextPool;
 
 import net.bytebuddy.asm.Advice;
 import net.bytebuddy.implementation.bytecode.assign.Assigner;
@@ -37,31 +38,29 @@ public class TemplateForMember {
     /**
      * The preceding trigger point of method
      *
-     * @param cls enhanced class
      * @param obj the object being enhanced
      * @param method the method being enhanced
-     * @param methodKey method key, which is used to find template class
      * @param arguments arguments of method
-     * @param adviceKey advice class name
+     * @param adviceIndex advice index of the enhanced method, which is used to find interceptors
      * @param context execute context
+     * @param slot slot of the context in the pool, which is used to give it back on exit
      * @param isSkip Whether to skip the main execution of method
      * @return Skip result
      * @throws Throwable execute exception
      *
      */
     @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class)
-    public static boolean onMethodEnter(@Advice.Origin Class<?> cls,
-            @Advice.This(typing = Assigner.Typing.DYNAMIC) Object obj,
-            @Advice.Origin Method method, @Advice.Origin("#t\\##m#s") String methodKey,
+    public static boolean onMethodEnter(@Advice.This(typing = Assigner.Typing.DYNAMIC) Object obj,
+            @Advice.Origin Method method,
             @Advice.AllArguments(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object[] arguments,
-            @Advice.Local(value = "_ADVICE_KEY_$SERMANT_LOCAL") String adviceKey,
+            @AdviceIndex int adviceIndex,
             @Advice.Local(value = "_EXECUTE_CONTEXT_$SERMANT_LOCAL") Object context,
+            @Advice.Local(value = "_CONTEXT_SLOT_$SERMANT_LOCAL") int slot,
             @Advice.Local(value = "_IS_SKIP_$SERMANT_LOCAL") Boolean isSkip
-
     ) throws Throwable {
-        adviceKey = "TemplateForMember_" + Integer.toHexString(methodKey.hashCode()) + "_" + cls.getClassLoader();
-        context = ExecuteContext.forMemberMethod(obj, method, arguments, null, null);
-        context = AdviserScheduler.onMethodEnter(context, adviceKey);
+        context = ExecuteContextPool.forMemberMethod(obj, method, arguments);
+        slot = ExecuteContextPool.getSlot(context);
+        context = AdviserScheduler.onMethodEnter(context, adviceIndex);
         arguments = ((ExecuteContext) context).getArguments();
         isSkip = ((ExecuteContext) context).isSkip();
         return isSkip;
@@ -72,22 +71,29 @@ public class TemplateForMember {
      *
      * @param result Method execution result
      * @param throwable Method execution exception
-     * @param adviceKey advice class name
+     * @param adviceIndex advice index of the enhanced method, which is used to find interceptors
      * @param context execute context
+     * @param slot slot of the context in the pool, which is used to give it back on exit
      * @param isSkip Whether to skip the main execution of method
      * @throws Throwable execute exception
      */
     @Advice.OnMethodExit(onThrowable = Throwable.class)
     public static void onMethodExit(@Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object result,
             @Advice.Thrown(readOnly = false) Throwable throwable,
-            @Advice.Local(value = "_ADVICE_KEY_$SERMANT_LOCAL") String adviceKey,
+            @AdviceIndex int adviceIndex,
             @Advice.Local(value = "_EXECUTE_CONTEXT_$SERMANT_LOCAL") Object context,
+            @Advice.Local(value = "_CONTEXT_SLOT_$SERMANT_LOCAL") int slot,
             @Advice.Local(value = "_IS_SKIP_$SERMANT_LOCAL") Boolean isSkip) throws Throwable {
-        context = isSkip ? context : ((ExecuteContext) context).afterMethod(result, throwable);
-        context = AdviserScheduler.onMethodExit(context, adviceKey);
-        result = ((ExecuteContext) context).getResult();
-        if (((ExecuteContext) context).isChangeThrowable()) {
-            throwable = ((ExecuteContext) context).getThrowable();
+        try {
+            context = isSkip ? context : ((ExecuteContext) context).afterMethod(result, throwable);
+            context = AdviserScheduler.onMethodExit(context, adviceIndex);
+            result = ((ExecuteContext) context).getResult();
+            if (((ExecuteContext) context).isChangeThrowable()) {
+                throwable = ((ExecuteContext) context).getThrowable();
+            }
+        } finally {
+            // The interceptors may have replaced the context, so the pooled one is given back by its slot
+            ExecuteContextPool.release(slot);
         }
     }
 }
@@ -19,6 +19,7 @@ package io.sermant.core.plugin.agent.transformer;
 import io.sermant.core.common.LoggerFactory;
 import io.sermant.core.plugin.agent.declarer.InterceptDeclarer;
 import io.sermant.core.plugin.agent.interceptor.Interceptor;
+import io.sermant.core.plugin.agent.matcher.MethodMatcherIndex;
 import io.sermant.core.plugin.agent.template.MethodKeyCreator;
 import io.sermant.core.plugin.agent.template.TemplateForCtor;
 import io.sermant.core.plugin.agent.template.TemplateForMember;
@@ -37,6 +38,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.logging.Logger;
@@ -58,6 +60,11 @@ public abstract class AbstractTransformer implements AgentBuilder.Transformer {
      */
     private final InterceptDeclarer[] interceptDeclarers;
 
+    /**
+     * index of the method matchers of the intercept declarers, the ordinal of a matcher is the index of its declarer
+     */
+    private final MethodMatcherIndex methodMatcherIndex = new MethodMatcherIndex();
+
     /**
      * constructor
      *
@@ -65,6 +72,11 @@ public abstract class AbstractTransformer implements AgentBuilder.Transformer {
      */
     public AbstractTransformer(InterceptDeclarer[] interceptDeclarers) {
         this.interceptDeclarers = interceptDeclarers;
+        if (interceptDeclarers != null) {
+            for (InterceptDeclarer declarer : interceptDeclarers) {
+                methodMatcherIndex.add(declarer.getMethodMatcher());
+            }
+        }
     }
 
     @Override
@@ -88,12 +100,13 @@ public abstract class AbstractTransformer implements AgentBuilder.Transformer {
     private DynamicType.Builder<?> enhanceMethods(DynamicType.Builder<?> builder, TypeDescription typeDesc,
             ClassLoader classLoader) {
         final MethodList<InDefinedShape> declaredMethods = typeDesc.getDeclaredMethods();
+        final Interceptor[][] resolvedInterceptors = new Interceptor[interceptDeclarers.length][];
         DynamicType.Builder<?> newBuilder = builder;
         for (MethodDescription.InDefinedShape methodDesc : declaredMethods) {
             if (methodDesc.isNative() || methodDesc.isAbstract()) {
                 continue;
             }
-            newBuilder = enhanceMethod(newBuilder, methodDesc, classLoader);
+            newBuilder = enhanceMethod(newBuilder, methodDesc, classLoader, resolvedInterceptors);
         }
         return newBuilder;
     }
@@ -104,11 +117,13 @@ public abstract class AbstractTransformer implements AgentBuilder.Transformer {
      * @param builder builder
      * @param methodDesc method definition
      * @param classLoader classloader of the enhanced class
+     * @param resolvedInterceptors interceptors resolved by the declarers for the enhanced class
      * @return DynamicType.Builder
      */
     private DynamicType.Builder<?> enhanceMethod(DynamicType.Builder<?> builder,
-            MethodDescription.InDefinedShape methodDesc, ClassLoader classLoader) {
-        final List<Interceptor> interceptors = getInterceptors(methodDesc, classLoader);
+            MethodDescription.InDefinedShape methodDesc, ClassLoader classLoader,
+            Interceptor[][] resolvedInterceptors) {
+        final List<Interceptor> interceptors = getInterceptors(methodDesc, classLoader, resolvedInterceptors);
         if (interceptors.isEmpty()) {
             return builder;
         }
@@ -128,23 +143,30 @@ public abstract class AbstractTransformer implements AgentBuilder.Transformer {
     }
 
     /**
-     * Gets interceptor list related to a single method
+     * Gets interceptor list related to a single method. The declarers are found by {@link MethodMatcherIndex}, and the
+     * interceptors of a declarer are resolved only once for all the methods of the enhanced class
      *
      * @param methodDesc method definition
      * @param classLoader classLoader
+     * @param resolvedInterceptors interceptors resolved by the declarers for the enhanced class
      * @return interceptor list
      */
-    private List<Interceptor> getInterceptors(MethodDescription.InDefinedShape methodDesc, ClassLoader classLoader) {
+    private List<Interceptor> getInterceptors(MethodDescription.InDefinedShape methodDesc, ClassLoader classLoader,
+            Interceptor[][] resolvedInterceptors) {
+        final List<Integer> matchedOrdinals = methodMatcherIndex.match(methodDesc);
+        if (matchedOrdinals.isEmpty()) {
+            return Collections.emptyList();
+        }
         final List<Interceptor> interceptors = new ArrayList<>();
-        for (InterceptDeclarer declarer : interceptDeclarers) {
-            if (!declarer.getMethodMatcher().matches(methodDesc)) {
-                continue;
-            }
-            if (classLoader == null) {
-                interceptors.addAll(Arrays.asList(declarer.getInterceptors(ClassLoader.getSystemClassLoader())));
-            } else {
-                interceptors.addAll(Arrays.asList(declarer.getInterceptors(classLoader)));
+        for (int ordinal : matchedOrdinals) {
+            Interceptor[] declaredInterceptors = resolvedInterceptors[ordinal];
+            if (declaredInterceptors == null) {
+                final InterceptDeclarer declarer = interceptDeclarers[ordinal];
+                declaredInterceptors = declarer.getInterceptors(
+                        classLoader == null ? ClassLoader.getSystemClassLoader() : classLoader);
+                resolvedInterceptors[ordinal] = declaredInterceptors;
             }
+            interceptors.addAll(Arrays.asList(declaredInterceptors));
         }
         return interceptors;
     }
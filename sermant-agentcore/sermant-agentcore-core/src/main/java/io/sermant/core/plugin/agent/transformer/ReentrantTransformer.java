@@ -21,6 +21,7 @@ import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
 import io.sermant.core.plugin.agent.declarer.InterceptDeclarer;
 import io.sermant.core.plugin.agent.info.EnhancementManager;
 import io.sermant.core.plugin.agent.interceptor.Interceptor;
+import io.sermant.core.plugin.agent.template.AdviceIndex;
 import io.sermant.core.plugin.agent.template.BaseAdviseHandler;
 import io.sermant.core.plugin.agent.template.MethodKeyCreator;
 
@@ -61,10 +62,10 @@ public class ReentrantTransformer extends AbstractTransformer {
             Class<?> templateCls, ClassLoader classLoader)
             throws InvocationTargetException, IllegalAccessException, NoSuchMethodException, NoSuchFieldException {
         final String adviceKey = getAdviceKey(templateCls, classLoader, methodDesc);
-        List<Interceptor> interceptorsForAdviceKey = BaseAdviseHandler.getInterceptorListMap()
-                .computeIfAbsent(adviceKey, key -> new ArrayList<>());
+        final int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
         Set<String> createdInterceptorForAdviceKey = plugin.getInterceptors()
                 .computeIfAbsent(adviceKey, key -> new HashSet<>());
+        List<Interceptor> interceptorsForAdviceKey = new ArrayList<>();
         for (Interceptor interceptor : interceptors) {
             // need to check whether the Interceptor is created
             if (checkInterceptor(adviceKey, interceptor.getClass().getCanonicalName())) {
@@ -72,10 +73,12 @@ public class ReentrantTransformer extends AbstractTransformer {
                 createdInterceptorForAdviceKey.add(interceptor.getClass().getCanonicalName());
             }
         }
+        BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex, interceptorsForAdviceKey);
         EnhancementManager.addEnhancements(plugin, interceptors, classLoader,
                 MethodKeyCreator.getMethodDescKey(methodDesc));
         if (checkAdviceLock(adviceKey)) {
-            return builder.visit(Advice.to(templateCls).on(ElementMatchers.is(methodDesc)));
+            return builder.visit(Advice.withCustomMapping().bind(AdviceIndex.class, adviceIndex).to(templateCls)
+                    .on(ElementMatchers.is(methodDesc)));
         }
         return builder;
     }
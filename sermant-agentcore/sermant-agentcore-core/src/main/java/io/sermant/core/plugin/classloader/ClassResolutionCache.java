@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.classloader;
+
+import io.sermant.core.common.LoggerFactory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of the classes resolved by the host classloaders, keyed by the classloader and the class name. Both the found
+ * and the not found results are cached, so a class missing in a host classloader only costs one
+ * {@link ClassNotFoundException}
+ * <p>The classloaders are weakly referenced, and so are the found classes, which reference their classloaders. The
+ * classloaders are spread over several segments so that the threads resolving classes by different classloaders do not
+ * contend with each other
+ * <p>Note that a class defined in a classloader after it was not found there is still not found by the cache
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClassResolutionCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private static final int SEGMENT_COUNT = 16;
+
+    /**
+     * The maximum number of the cached results of a classloader, the results beyond are not cached
+     */
+    private static final int MAX_CLASSES_PER_LOADER = 8192;
+
+    /**
+     * Marker of the classes not found
+     */
+    private static final Reference<Class<?>> NOT_FOUND = new WeakReference<>(null);
+
+    private final Map<ClassLoader, Map<String, Reference<Class<?>>>>[] segments;
+
+    /**
+     * constructor
+     */
+    @SuppressWarnings("unchecked")
+    public ClassResolutionCache() {
+        segments = new Map[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new WeakHashMap<>();
+        }
+    }
+
+    /**
+     * Load the class by the classloader, the result is cached
+     *
+     * @param loader classloader
+     * @param name class name
+     * @return class, null if not found
+     */
+    public Class<?> loadClass(ClassLoader loader, String name) {
+        final Map<String, Reference<Class<?>>> classes = getClasses(loader);
+        final Reference<Class<?>> cached = classes.get(name);
+        if (cached == NOT_FOUND) {
+            return null;
+        }
+        if (cached != null) {
+            final Class<?> clazz = cached.get();
+            if (clazz != null) {
+                return clazz;
+            }
+        }
+        Class<?> clazz = null;
+        try {
+            clazz = loader.loadClass(name);
+        } catch (ClassNotFoundException e) {
+            LOGGER.log(Level.FINE, "Load class failed, msg is {0}", e.getMessage());
+        }
+        if (classes.size() < MAX_CLASSES_PER_LOADER) {
+            classes.put(name, clazz == null ? NOT_FOUND : new WeakReference<>(clazz));
+        }
+        return clazz;
+    }
+
+    /**
+     * Clear the cached results
+     */
+    public void clear() {
+        for (Map<ClassLoader, Map<String, Reference<Class<?>>>> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private Map<String, Reference<Class<?>>> getClasses(ClassLoader loader) {
+        final Map<ClassLoader, Map<String, Reference<Class<?>>>> segment =
+                segments[System.identityHashCode(loader) & (SEGMENT_COUNT - 1)];
+        synchronized (segment) {
+            return segment.computeIfAbsent(loader, key -> new ConcurrentHashMap<>());
+        }
+    }
+}
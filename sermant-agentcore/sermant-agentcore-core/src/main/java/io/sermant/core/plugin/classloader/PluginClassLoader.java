@@ -22,13 +22,17 @@ import io.sermant.core.plugin.agent.config.AgentConfig;
 
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * The classloader that loads the main plugin-module of the plugin
+ * <p>The classloader is parallel capable, the classes not found in the Sermant search path and the classes resolved by
+ * the localClassLoader are cached, see {@link ClassResolutionCache}
  *
  * @author luanwenfei
  * @since 2023-04-27
@@ -39,7 +43,11 @@ public class PluginClassLoader extends URLClassLoader {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger();
 
-    private final HashMap<Long, ClassLoader> localLoader = new HashMap<>();
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final ThreadLocal<ClassLoader> localLoader = new ThreadLocal<>();
 
     /**
      * Whether to use context classLoader
@@ -49,7 +57,17 @@ public class PluginClassLoader extends URLClassLoader {
     /**
      * Manages the loaded classes in the classLoader
      */
-    private final Map<String, Class<?>> pluginClassMap = new HashMap<>();
+    private final Map<String, Optional<Class<?>>> pluginClassMap = new ConcurrentHashMap<>();
+
+    /**
+     * The classes not found in the Sermant search path
+     */
+    private final Set<String> missingSermantClasses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The classes resolved by the localClassLoader
+     */
+    private final ClassResolutionCache localClassCache = new ClassResolutionCache();
 
     /**
      * constructor
@@ -69,14 +87,39 @@ public class PluginClassLoader extends URLClassLoader {
      * @return class object
      */
     private Class<?> loadPluginClass(String name) {
-        if (!pluginClassMap.containsKey(name)) {
+        Optional<Class<?>> pluginClass = pluginClassMap.get(name);
+        if (pluginClass == null) {
             try {
-                pluginClassMap.put(name, findClass(name));
+                pluginClass = Optional.of(findClass(name));
             } catch (ClassNotFoundException ignored) {
-                pluginClassMap.put(name, null);
+                pluginClass = Optional.empty();
             }
+            pluginClassMap.put(name, pluginClass);
         }
-        return pluginClassMap.get(name);
+        return pluginClass.orElse(null);
+    }
+
+    /**
+     * Load the class in the Sermant search path, the classes not found are cached
+     *
+     * @param name fully qualified name
+     * @param resolve whether to resolve the class
+     * @return class object, null if not found
+     */
+    private Class<?> loadSermantClassOrNull(String name, boolean resolve) {
+        if (missingSermantClasses.contains(name)) {
+            return null;
+        }
+        Class<?> clazz = loadPluginClass(name);
+        if (clazz == null) {
+            try {
+                clazz = super.loadClass(name, resolve);
+            } catch (ClassNotFoundException e) {
+                LOGGER.log(Level.FINE, "Load class failed, msg is {0}", e.getMessage());
+                missingSermantClasses.add(name);
+            }
+        }
+        return clazz;
     }
 
     /**
@@ -86,6 +129,10 @@ public class PluginClassLoader extends URLClassLoader {
      */
     public void appendUrl(URL url) {
         this.addURL(url);
+
+        // The classes not found may be found in the new search path
+        pluginClassMap.values().removeIf(pluginClass -> !pluginClass.isPresent());
+        missingSermantClasses.clear();
     }
 
     @Override
@@ -96,19 +143,8 @@ public class PluginClassLoader extends URLClassLoader {
     @Override
     public Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
         synchronized (getClassLoadingLock(name)) {
-            Class<?> clazz = loadPluginClass(name);
-
-            // If the class cannot be loaded on its own, it is loaded in the Sermant search path
-            if (clazz == null) {
-                try {
-                    clazz = super.loadClass(name, resolve);
-                } catch (ClassNotFoundException e) {
-                    // Catch the exception that the class cannot be found. The next step is to load the class by
-                    // the localLoader
-                    // ignored
-                    LOGGER.log(Level.FINE, "Load class failed, msg is {0}", e.getMessage());
-                }
-            }
+            // Load the class on its own first, and then in the Sermant search path
+            Class<?> clazz = loadSermantClassOrNull(name, resolve);
 
             // If the class cannot be found from the Sermant search path, it is attempted to be loaded via the
             // thread-bound localClassLoader
@@ -130,24 +166,19 @@ public class PluginClassLoader extends URLClassLoader {
     }
 
     private Class<?> getClassFromLocalClassLoader(String name) {
-        ClassLoader loader = localLoader.get(Thread.currentThread().getId());
+        ClassLoader loader = localLoader.get();
 
         if (loader == null && useContextLoader) {
             loader = Thread.currentThread().getContextClassLoader();
         }
-        Class<?> clazz = null;
 
         // Make sure the localClassLoader is not the current classLoader or ServiceClassLoader, otherwise it
         // will cause stackoverflow
         if (loader != null && !this.equals(loader) && !(loader instanceof ServiceClassLoader)) {
-            try {
-                clazz = loader.loadClass(name);
-            } catch (ClassNotFoundException e) {
-                // Class not found, ignored, exception thrown later
-                LOGGER.log(Level.FINE, "Load class failed, msg is {0}", e.getMessage());
-            }
+            // Class not found, exception thrown later
+            return localClassCache.loadClass(loader, name);
         }
-        return clazz;
+        return null;
     }
 
     /**
@@ -160,15 +191,7 @@ public class PluginClassLoader extends URLClassLoader {
      */
     public Class<?> loadSermantClass(String name) throws ClassNotFoundException {
         synchronized (getClassLoadingLock(name)) {
-            Class<?> clazz = loadPluginClass(name);
-
-            if (clazz == null) {
-                try {
-                    clazz = super.loadClass(name, false);
-                } catch (ClassNotFoundException e) {
-                    // Class not found, ignored, exception thrown later
-                }
-            }
+            Class<?> clazz = loadSermantClassOrNull(name, false);
 
             // If the class cannot be found, an exception is thrown
             if (clazz == null) {
@@ -184,13 +207,13 @@ public class PluginClassLoader extends URLClassLoader {
      * @param loader classLoader
      */
     public void setLocalLoader(ClassLoader loader) {
-        localLoader.put(Thread.currentThread().getId(), loader);
+        localLoader.set(loader);
     }
 
     /**
      * Clear the localClassLoader
      */
     public void removeLocalLoader() {
-        localLoader.remove(Thread.currentThread().getId());
+        localLoader.remove();
     }
 }
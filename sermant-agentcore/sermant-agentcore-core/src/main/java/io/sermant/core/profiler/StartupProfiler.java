@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.profiler;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.core.service.ServiceManager;
+import io.sermant.core.service.metric.api.MetricService;
+import io.sermant.core.service.metric.api.Tags;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Startup profiler, which records where the startup time of the agent goes:
+ * <pre>
+ *     1.The time of each phase of {@code AgentCoreEntrance#install}
+ *     2.The load time of each plugin
+ *     3.The match time of each plugin, the transform time and the bytes generated of the enhanced classes, and the
+ *     counts of the discovered, ignored and pre-filtered classes, only recorded if {@link #isEnable()}
+ * </pre>
+ * The records are exposed through {@link MetricService} if the metric service is started, and can be written as a json
+ * report on demand
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class StartupProfiler {
+    /**
+     * metric name of the time of the startup phases
+     */
+    public static final String PHASE_TIME_METRIC = "sermant.agent.startup.phase.time";
+
+    /**
+     * metric name of the load time of the plugins
+     */
+    public static final String PLUGIN_LOAD_TIME_METRIC = "sermant.agent.plugin.load.time";
+
+    /**
+     * metric name of the match time of the plugins
+     */
+    public static final String PLUGIN_MATCH_TIME_METRIC = "sermant.agent.plugin.match.time";
+
+    /**
+     * metric name of the number of the classes matched by the plugins
+     */
+    public static final String PLUGIN_MATCHED_CLASS_METRIC = "sermant.agent.plugin.matched.class.count";
+
+    /**
+     * metric name of the number of the classes by the enhancement state
+     */
+    public static final String CLASS_COUNT_METRIC = "sermant.agent.enhance.class.count";
+
+    /**
+     * metric name of the transform time of the enhanced classes
+     */
+    public static final String TRANSFORM_TIME_METRIC = "sermant.agent.enhance.transform.time";
+
+    /**
+     * metric name of the bytes generated for the enhanced classes
+     */
+    public static final String TRANSFORM_BYTES_METRIC = "sermant.agent.enhance.transform.bytes";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private static final int SLOWEST_CLASS_LIMIT = 20;
+
+    private static final double NANOS_PER_MILLI = 1000000D;
+
+    private static final String PHASE_TAG = "phase";
+
+    private static final String PLUGIN_TAG = "plugin";
+
+    private static final String STATE_TAG = "state";
+
+    private static final Map<String, AtomicLong> PHASE_TIMES = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private static final Map<String, PluginProfile> PLUGIN_PROFILES = new ConcurrentHashMap<>();
+
+    private static final LongAdder DISCOVERED_COUNT = new LongAdder();
+
+    private static final LongAdder TRANSFORMED_COUNT = new LongAdder();
+
+    private static final LongAdder IGNORED_COUNT = new LongAdder();
+
+    private static final LongAdder PRE_FILTERED_COUNT = new LongAdder();
+
+    private static final LongAdder ERROR_COUNT = new LongAdder();
+
+    private static final LongAdder TRANSFORM_TIME = new LongAdder();
+
+    private static final LongAdder TRANSFORM_BYTES = new LongAdder();
+
+    /**
+     * The slowest enhanced classes, the head is the fastest of them
+     */
+    private static final PriorityQueue<ClassProfile> SLOWEST_CLASSES =
+            new PriorityQueue<>(Comparator.comparingLong(ClassProfile::getTransformTime));
+
+    private static volatile long slowestThreshold;
+
+    private static volatile boolean enable;
+
+    private static volatile MetricService metricService;
+
+    private StartupProfiler() {
+    }
+
+    /**
+     * Enable the profiling of the class matching and transformation
+     */
+    public static void enable() {
+        enable = true;
+    }
+
+    /**
+     * Whether the profiling of the class matching and transformation is enabled
+     *
+     * @return enable or not
+     */
+    public static boolean isEnable() {
+        return enable;
+    }
+
+    /**
+     * Record the time of a startup phase
+     *
+     * @param phase phase name
+     * @param startNanos start time of the phase by {@link System#nanoTime()}
+     * @return end time of the phase, which is the start time of the next phase
+     */
+    public static long recordPhase(String phase, long startNanos) {
+        final long endNanos = System.nanoTime();
+        synchronized (PHASE_TIMES) {
+            AtomicLong phaseTime = PHASE_TIMES.get(phase);
+            if (phaseTime == null) {
+                phaseTime = new AtomicLong();
+                PHASE_TIMES.put(phase, phaseTime);
+                registerTimeGauge(PHASE_TIME_METRIC, Tags.of(PHASE_TAG, phase), phaseTime);
+            }
+            phaseTime.set(endNanos - startNanos);
+        }
+        return endNanos;
+    }
+
+    /**
+     * Record the load time of a plugin
+     *
+     * @param pluginName plugin name
+     * @param startNanos start time of loading the plugin by {@link System#nanoTime()}
+     */
+    public static void recordPluginLoad(String pluginName, long startNanos) {
+        getPluginProfile(pluginName).loadTime.set(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Record the time of matching a class by a plugin
+     *
+     * @param pluginName plugin name
+     * @param nanos match time in nanoseconds
+     * @param isMatched whether the class is matched
+     */
+    public static void recordMatch(String pluginName, long nanos, boolean isMatched) {
+        final PluginProfile profile = getPluginProfile(pluginName);
+        profile.matchTime.add(nanos);
+        if (isMatched) {
+            profile.matchedCount.increment();
+        }
+    }
+
+    /**
+     * Record that a class is discovered by the transformer
+     */
+    public static void recordDiscovered() {
+        DISCOVERED_COUNT.increment();
+    }
+
+    /**
+     * Record that a class is ignored, including the pre-filtered ones
+     */
+    public static void recordIgnored() {
+        IGNORED_COUNT.increment();
+    }
+
+    /**
+     * Record that a class is ignored by the class match index of the previous runs
+     */
+    public static void recordPreFiltered() {
+        PRE_FILTERED_COUNT.increment();
+    }
+
+    /**
+     * Record that an error occurred while transforming a class
+     */
+    public static void recordError() {
+        ERROR_COUNT.increment();
+    }
+
+    /**
+     * Record that a class is enhanced
+     *
+     * @param className class name
+     * @param nanos time from the discovery to the completion of the transformation in nanoseconds
+     * @param bytes length of the generated bytecode
+     */
+    public static void recordTransform(String className, long nanos, int bytes) {
+        TRANSFORMED_COUNT.increment();
+        TRANSFORM_TIME.add(nanos);
+        TRANSFORM_BYTES.add(bytes);
+        if (nanos <= slowestThreshold) {
+            return;
+        }
+        synchronized (SLOWEST_CLASSES) {
+            SLOWEST_CLASSES.offer(new ClassProfile(className, nanos, bytes));
+            if (SLOWEST_CLASSES.size() > SLOWEST_CLASS_LIMIT) {
+                SLOWEST_CLASSES.poll();
+                slowestThreshold = SLOWEST_CLASSES.peek().getTransformTime();
+            }
+        }
+    }
+
+    /**
+     * Expose the records through {@link MetricService}, skipped if the metric service is not started. The phases and
+     * the plugins recorded later are registered when they are recorded
+     */
+    public static void registerMetrics() {
+        try {
+            metricService = ServiceManager.getService(MetricService.class);
+        } catch (IllegalArgumentException ignored) {
+            LOGGER.fine("Metric service is not started, skip registering the startup profile metrics.");
+            return;
+        }
+        synchronized (PHASE_TIMES) {
+            for (Map.Entry<String, AtomicLong> entry : PHASE_TIMES.entrySet()) {
+                registerTimeGauge(PHASE_TIME_METRIC, Tags.of(PHASE_TAG, entry.getKey()), entry.getValue());
+            }
+        }
+        for (PluginProfile profile : PLUGIN_PROFILES.values()) {
+            profile.register();
+        }
+        registerGauge(CLASS_COUNT_METRIC, Tags.of(STATE_TAG, "discovered"), DISCOVERED_COUNT);
+        registerGauge(CLASS_COUNT_METRIC, Tags.of(STATE_TAG, "transformed"), TRANSFORMED_COUNT);
+        registerGauge(CLASS_COUNT_METRIC, Tags.of(STATE_TAG, "ignored"), IGNORED_COUNT);
+        registerGauge(CLASS_COUNT_METRIC, Tags.of(STATE_TAG, "preFiltered"), PRE_FILTERED_COUNT);
+        registerGauge(CLASS_COUNT_METRIC, Tags.of(STATE_TAG, "error"), ERROR_COUNT);
+        registerTimeGauge(TRANSFORM_TIME_METRIC, Tags.of(), TRANSFORM_TIME);
+        registerGauge(TRANSFORM_BYTES_METRIC, Tags.of(), TRANSFORM_BYTES);
+    }
+
+    /**
+     * Write the json report of the records to the file
+     *
+     * @param reportPath path of the report file
+     * @return whether the report is written
+     */
+    public static boolean writeReport(Path reportPath) {
+        try {
+            final Path parent = reportPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(reportPath, toJson().getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Write startup profile report to " + reportPath + " failed.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Build the json report of the records, the times are in milliseconds and the plugins are sorted by the load time
+     * in descending order
+     *
+     * @return json report
+     */
+    public static String toJson() {
+        final StringBuilder json = new StringBuilder("{\"profileEnable\":").append(enable).append(",\"phases\":{");
+        synchronized (PHASE_TIMES) {
+            boolean isFirst = true;
+            for (Map.Entry<String, AtomicLong> entry : PHASE_TIMES.entrySet()) {
+                appendSeparator(json, isFirst);
+                isFirst = false;
+                appendString(json, entry.getKey()).append(':').append(toMillis(entry.getValue().get()));
+            }
+        }
+        json.append("},\"plugins\":[");
+        final List<PluginProfile> profiles = new ArrayList<>(PLUGIN_PROFILES.values());
+        profiles.sort(Comparator.comparingLong((PluginProfile profile) -> profile.loadTime.get()).reversed());
+        for (int i = 0; i < profiles.size(); i++) {
+            final PluginProfile profile = profiles.get(i);
+            appendSeparator(json, i == 0);
+            json.append("{\"name\":");
+            appendString(json, profile.pluginName).append(",\"loadTime\":").append(toMillis(profile.loadTime.get()))
+                    .append(",\"matchTime\":").append(toMillis(profile.matchTime.sum()))
+                    .append(",\"matchedClassCount\":").append(profile.matchedCount.sum()).append('}');
+        }
+        json.append("],\"classes\":{\"discovered\":").append(DISCOVERED_COUNT.sum())
+                .append(",\"transformed\":").append(TRANSFORMED_COUNT.sum())
+                .append(",\"ignored\":").append(IGNORED_COUNT.sum())
+                .append(",\"preFiltered\":").append(PRE_FILTERED_COUNT.sum())
+                .append(",\"error\":").append(ERROR_COUNT.sum())
+                .append(",\"transformTime\":").append(toMillis(TRANSFORM_TIME.sum()))
+                .append(",\"transformBytes\":").append(TRANSFORM_BYTES.sum())
+                .append("},\"slowestClasses\":[");
+        final List<ClassProfile> slowestClasses;
+        synchronized (SLOWEST_CLASSES) {
+            slowestClasses = new ArrayList<>(SLOWEST_CLASSES);
+        }
+        slowestClasses.sort(Comparator.comparingLong(ClassProfile::getTransformTime).reversed());
+        for (int i = 0; i < slowestClasses.size(); i++) {
+            final ClassProfile profile = slowestClasses.get(i);
+            appendSeparator(json, i == 0);
+            json.append("{\"name\":");
+            appendString(json, profile.className).append(",\"transformTime\":")
+                    .append(toMillis(profile.transformTime)).append(",\"bytes\":").append(profile.bytes).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static PluginProfile getPluginProfile(String pluginName) {
+        PluginProfile profile = PLUGIN_PROFILES.get(pluginName);
+        if (profile != null) {
+            return profile;
+        }
+        final PluginProfile newProfile = new PluginProfile(pluginName);
+        profile = PLUGIN_PROFILES.putIfAbsent(pluginName, newProfile);
+        if (profile != null) {
+            return profile;
+        }
+        newProfile.register();
+        return newProfile;
+    }
+
+    private static void registerGauge(String metricName, Tags tags, Number value) {
+        final MetricService service = metricService;
+        if (service != null) {
+            service.gauge(metricName, tags).gaugeState(value, Number::doubleValue);
+        }
+    }
+
+    private static void registerTimeGauge(String metricName, Tags tags, Number nanos) {
+        final MetricService service = metricService;
+        if (service != null) {
+            service.gauge(metricName, tags).gaugeState(nanos, value -> toMillis(value.longValue()));
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / NANOS_PER_MILLI * 1000D) / 1000D;
+    }
+
+    private static void appendSeparator(StringBuilder json, boolean isFirst) {
+        if (!isFirst) {
+            json.append(',');
+        }
+    }
+
+    private static StringBuilder appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                json.append('\\').append(ch);
+            } else if (ch < ' ') {
+                json.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+            } else {
+                json.append(ch);
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Records of a plugin
+     *
+     * @since 2024-10-15
+     */
+    private static class PluginProfile {
+        private final String pluginName;
+
+        private final AtomicLong loadTime = new AtomicLong();
+
+        private final LongAdder matchTime = new LongAdder();
+
+        private final LongAdder matchedCount = new LongAdder();
+
+        PluginProfile(String pluginName) {
+            this.pluginName = pluginName;
+        }
+
+        void register() {
+            final Tags tags = Tags.of(PLUGIN_TAG, pluginName);
+            registerTimeGauge(PLUGIN_LOAD_TIME_METRIC, tags, loadTime);
+            registerTimeGauge(PLUGIN_MATCH_TIME_METRIC, tags, matchTime);
+            registerGauge(PLUGIN_MATCHED_CLASS_METRIC, tags, matchedCount);
+        }
+    }
+
+    /**
+     * Records of an enhanced class
+     *
+     * @since 2024-10-15
+     */
+    private static class ClassProfile {
+        private final String className;
+
+        private final long transformTime;
+
+        private final int bytes;
+
+        ClassProfile(String className, long transformTime, int bytes) {
+            this.className = className;
+            this.transformTime = transformTime;
+            this.bytes = bytes;
+        }
+
+        long getTransformTime() {
+            return transformTime;
+        }
+    }
+}
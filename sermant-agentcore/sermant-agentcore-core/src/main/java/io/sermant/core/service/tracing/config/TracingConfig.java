@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.service.tracing.config;
+
+import io.sermant.core.config.common.BaseConfig;
+import io.sermant.core.config.common.ConfigFieldKey;
+import io.sermant.core.config.common.ConfigTypeKey;
+
+/**
+ * Tracing Configuration
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+@ConfigTypeKey("tracing")
+public class TracingConfig implements BaseConfig {
+    private static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * The capacity of the span queue, rounded up to a power of two
+     */
+    @ConfigFieldKey("queueCapacity")
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * The maximum number of spans drained from the queue at a time, each span is still sent as one message
+     */
+    @ConfigFieldKey("batchSize")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * The policy when the span queue is full, DROP_NEWEST, DROP_OLDEST or SAMPLE
+     */
+    @ConfigFieldKey("overflowPolicy")
+    private String overflowPolicy = "DROP_NEWEST";
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public String getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+}
@@ -55,4 +55,8 @@ public class XdsPathMatcher {
     public boolean isCaseSensitive() {
         return caseSensitive;
     }
+
+    public MatchStrategy getMatchStrategy() {
+        return matchStrategy;
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2024-2024 Huawei Technologies Co., Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.adviser;
+
+import io.sermant.core.plugin.agent.entity.ExecuteContext;
+import io.sermant.core.plugin.agent.interceptor.Interceptor;
+import io.sermant.core.plugin.agent.template.BaseAdviseHandler;
+import io.sermant.core.plugin.agent.template.DefaultAdviser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test AdviserScheduler under concurrent hot-plugging
+ *
+ * @author daizhenyu
+ * @since 2024-10-17
+ */
+public class AdviserSchedulerTest {
+    private static final int TRAFFIC_THREADS = 4;
+
+    private static final long STRESS_MILLIS = 1000L;
+
+    @Test
+    public void testLockIsExclusive() throws Exception {
+        String adviceKey = "AdviserSchedulerTest_lock";
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 100; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger winners = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        if (AdviserScheduler.lock(adviceKey)) {
+                            winners.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                Assert.assertEquals(1, winners.get());
+                AdviserScheduler.unLock(adviceKey);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInstallAndUninstallUnderTraffic() throws Exception {
+        String adviceKey = "AdviserSchedulerTest_stress";
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+        Method method = AdviserSchedulerTest.class.getMethod("testInstallAndUninstallUnderTraffic");
+        DefaultAdviser adviser = new DefaultAdviser();
+        AdviserScheduler.registry(adviser);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<CountingInterceptor> installed = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(TRAFFIC_THREADS + 2);
+        try {
+            for (int i = 0; i < TRAFFIC_THREADS; i++) {
+                executor.execute(() -> {
+                    while (running.get()) {
+                        try {
+                            ExecuteContext context = ExecuteContext.forStaticMethod(AdviserSchedulerTest.class, method,
+                                    new Object[0], null);
+                            context = AdviserScheduler.onMethodEnter(context, adviceIndex);
+                            AdviserScheduler.onMethodExit(context.afterMethod(null, null), adviceIndex);
+                        } catch (Throwable throwable) {
+                            errors.add(throwable);
+                        }
+                    }
+                });
+            }
+
+            // Simulate other sermant instances being attached and detached, they have their own interceptors
+            executor.execute(() -> {
+                while (running.get()) {
+                    AdviserInterface otherAdviser = new PassAdviser();
+                    AdviserScheduler.registry(otherAdviser);
+                    AdviserScheduler.unRegistry(otherAdviser);
+                }
+            });
+
+            // Simulate plugins being installed and uninstalled
+            executor.execute(() -> {
+                while (running.get()) {
+                    CountingInterceptor interceptor = new CountingInterceptor();
+                    installed.add(interceptor);
+                    BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex, Collections.singletonList(interceptor));
+                    Thread.yield();
+                    BaseAdviseHandler.removeInterceptors(item -> item == interceptor);
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(STRESS_MILLIS);
+        } finally {
+            running.set(false);
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            AdviserScheduler.unRegistry(adviser);
+        }
+        Assert.assertTrue(String.valueOf(errors.peek()), errors.isEmpty());
+
+        // Each call exits the same interceptors that it entered
+        for (CountingInterceptor interceptor : installed) {
+            Assert.assertEquals(interceptor.before.get(), interceptor.after.get());
+        }
+    }
+
+    /**
+     * Adviser of another sermant instance
+     *
+     * @since 2024-10-17
+     */
+    static class PassAdviser implements AdviserInterface {
+        @Override
+        public ExecuteContext onMethodEnter(ExecuteContext context, String adviceKey) {
+            return context;
+        }
+
+        @Override
+        public ExecuteContext onMethodExit(ExecuteContext context, String adviceKey) {
+            return context;
+        }
+    }
+
+    /**
+     * Interceptor that counts the trigger points
+     *
+     * @since 2024-10-17
+     */
+    static class CountingInterceptor implements Interceptor {
+        private final AtomicLong before = new AtomicLong();
+
+        private final AtomicLong after = new AtomicLong();
+
+        @Override
+        public ExecuteContext before(ExecuteContext context) {
+            before.incrementAndGet();
+            return context;
+        }
+
+        @Override
+        public ExecuteContext after(ExecuteContext context) {
+            after.incrementAndGet();
+            return context;
+        }
+
+        @Override
+        public ExecuteContext onThrow(ExecuteContext context) {
+            return context;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.collector;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Test the persistence and the invalidation of the class match index
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClassMatchIndexTest {
+    private static final int CLASS_COUNT = 10000;
+
+    private static final long FINGERPRINT = ClassMatchIndex.fingerprint(Arrays.asList("plugin:a:1.0", "plugin:b:1.0"));
+
+    private Path indexPath;
+
+    @Before
+    public void setUp() throws IOException {
+        indexPath = Files.createTempDirectory("class-match-index").resolve("index.idx");
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        ClassMatchIndex index = ClassMatchIndex.load(indexPath, FINGERPRINT);
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            index.recordUnmatched("com.example.Unmatched" + i);
+        }
+        index.recordMatched("com.example.Matched");
+        Assert.assertFalse(index.isUnmatched("com.example.Unmatched0"));
+        index.save();
+
+        ClassMatchIndex loaded = ClassMatchIndex.load(indexPath, FINGERPRINT);
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            Assert.assertTrue(loaded.isUnmatched("com.example.Unmatched" + i));
+        }
+        Assert.assertFalse(loaded.isUnmatched("com.example.Matched"));
+        Assert.assertTrue(loaded.isMatched("com.example.Matched"));
+        Assert.assertFalse(loaded.isUnmatched("com.example.Unknown"));
+        Assert.assertFalse(loaded.isMatched("com.example.Unknown"));
+    }
+
+    @Test
+    public void testMatchedOnceIsNeverUnmatched() {
+        ClassMatchIndex index = ClassMatchIndex.load(indexPath, FINGERPRINT);
+        index.recordUnmatched("com.example.Service");
+        index.save();
+        Assert.assertTrue(ClassMatchIndex.load(indexPath, FINGERPRINT).isUnmatched("com.example.Service"));
+
+        // The same class name loaded by another classloader matched in the next run
+        ClassMatchIndex nextRun = ClassMatchIndex.load(indexPath, FINGERPRINT);
+        nextRun.recordMatched("com.example.Service");
+        nextRun.recordUnmatched("com.example.Other");
+        nextRun.save();
+
+        ClassMatchIndex loaded = ClassMatchIndex.load(indexPath, FINGERPRINT);
+        Assert.assertFalse(loaded.isUnmatched("com.example.Service"));
+        Assert.assertTrue(loaded.isMatched("com.example.Service"));
+        Assert.assertTrue(loaded.isUnmatched("com.example.Other"));
+    }
+
+    @Test
+    public void testFingerprintChanged() {
+        ClassMatchIndex index = ClassMatchIndex.load(indexPath, FINGERPRINT);
+        index.recordUnmatched("com.example.Unmatched");
+        index.save();
+
+        long newFingerprint = ClassMatchIndex.fingerprint(Arrays.asList("plugin:a:1.0", "plugin:b:1.1"));
+        Assert.assertNotEquals(FINGERPRINT, newFingerprint);
+        Assert.assertEquals(FINGERPRINT,
+                ClassMatchIndex.fingerprint(Arrays.asList("plugin:b:1.0", "plugin:a:1.0")));
+        Assert.assertFalse(ClassMatchIndex.load(indexPath, newFingerprint).isUnmatched("com.example.Unmatched"));
+    }
+
+    @Test
+    public void testBrokenFile() throws IOException {
+        Files.write(indexPath, "com.example.Unmatched".getBytes("UTF-8"));
+        ClassMatchIndex index = ClassMatchIndex.load(indexPath, FINGERPRINT);
+        Assert.assertFalse(index.isUnmatched("com.example.Unmatched"));
+        index.recordUnmatched("com.example.Unmatched");
+        index.save();
+        Assert.assertTrue(ClassMatchIndex.load(indexPath, FINGERPRINT).isUnmatched("com.example.Unmatched"));
+    }
+}
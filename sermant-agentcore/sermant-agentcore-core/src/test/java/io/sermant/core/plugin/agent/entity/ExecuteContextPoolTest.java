@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2024-2024 Huawei Technologies Co., Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.entity;
+
+import io.sermant.core.plugin.agent.adviser.AdviserInterface;
+import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test the recycling of execution context
+ *
+ * @author daizhenyu
+ * @since 2024-10-16
+ */
+public class ExecuteContextPoolTest {
+    private static Method method;
+
+    @BeforeClass
+    public static void setUp() throws NoSuchMethodException {
+        ExecuteContextPool.enable();
+        method = ExecuteContextPoolTest.class.getMethod("setUp");
+    }
+
+    @Test
+    public void testNestedCallsGetDifferentContexts() {
+        ExecuteContext outer = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+        outer.setLocalFieldValue("key", "outer");
+        ExecuteContext inner = ExecuteContextPool.forMemberMethod(this, method, new Object[0]);
+        Assert.assertNotSame(outer, inner);
+        Assert.assertNull(inner.getLocalFieldValue("key"));
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(inner));
+        Assert.assertEquals("outer", outer.getLocalFieldValue("key"));
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(outer));
+
+        // The released context is reused and cleared
+        ExecuteContext next = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+        Assert.assertSame(outer, next);
+        Assert.assertNull(next.getLocalFieldValue("key"));
+        Assert.assertNull(next.getObject());
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(next));
+    }
+
+    @Test
+    public void testContextLeftByFailedCallIsRecycled() {
+        ExecuteContext outer = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+
+        // The inner call never exits, its context is recycled when the outer call exits
+        ExecuteContext inner = ExecuteContextPool.forMemberMethod(this, method, new Object[0]);
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(outer));
+        Assert.assertNull(inner.getObject());
+        ExecuteContext next = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+        Assert.assertSame(outer, next);
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(next));
+    }
+
+    @Test
+    public void testReplacedContextIsReleasedBySlot() {
+        ExecuteContext pooled = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+        int slot = ExecuteContextPool.getSlot(pooled);
+        pooled.setLocalFieldValue("key", "pooled");
+
+        // An interceptor returns a context of its own, the pooled one is still given back by the slot
+        ExecuteContext replaced = ExecuteContext.forStaticMethod(ExecuteContextPoolTest.class, method, null, null);
+        Assert.assertEquals(-1, ExecuteContextPool.getSlot(replaced));
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(replaced));
+        ExecuteContextPool.release(slot);
+        Assert.assertNull(pooled.getLocalFieldValue("key"));
+        ExecuteContext next = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+        Assert.assertSame(pooled, next);
+        Assert.assertEquals(slot, ExecuteContextPool.getSlot(next));
+        ExecuteContextPool.release(slot);
+    }
+
+    @Test
+    public void testContextOfFailedEnterIsReleased() {
+        AdviserInterface adviser = new AdviserInterface() {
+            @Override
+            public ExecuteContext onMethodEnter(ExecuteContext context, String adviceKey) {
+                throw new IllegalStateException("enter failed");
+            }
+
+            @Override
+            public ExecuteContext onMethodExit(ExecuteContext context, String adviceKey) {
+                return context;
+            }
+        };
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex("ExecuteContextPoolTest_enter");
+        ExecuteContext pooled = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+        AdviserScheduler.registry(adviser);
+        try {
+            AdviserScheduler.onMethodEnter(pooled, adviceIndex);
+            Assert.fail();
+        } catch (Throwable throwable) {
+            Assert.assertEquals("enter failed", throwable.getMessage());
+        } finally {
+            AdviserScheduler.unRegistry(adviser);
+        }
+
+        // The exit of the method is never executed, the context is given back when the entry fails
+        Assert.assertNull(pooled.getRawCls());
+        ExecuteContext next = ExecuteContextPool.forStaticMethod(ExecuteContextPoolTest.class, method, null);
+        Assert.assertSame(pooled, next);
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(next));
+    }
+
+    @Test
+    public void testContextNotPooledIsIgnored() {
+        ExecuteContext context = ExecuteContext.forStaticMethod(ExecuteContextPoolTest.class, method, null, null);
+        context.setLocalFieldValue("key", "value");
+        ExecuteContextPool.release(ExecuteContextPool.getSlot(context));
+        Assert.assertEquals("value", context.getLocalFieldValue("key"));
+    }
+
+    @Test
+    public void testCompactFieldMap() {
+        Map<String, Object> fieldMap = new CompactFieldMap<>();
+        Map<String, Object> expected = new HashMap<>();
+        for (int i = 0; i < 64; i++) {
+            fieldMap.put("field" + i, i);
+            expected.put("field" + i, i);
+        }
+        fieldMap.put(null, "null");
+        expected.put(null, "null");
+        Assert.assertEquals(expected, fieldMap);
+        for (int i = 0; i < 64; i += 3) {
+            Assert.assertEquals(expected.remove("field" + i), fieldMap.remove("field" + i));
+        }
+        Assert.assertEquals(expected, fieldMap);
+        Assert.assertEquals("null", fieldMap.get(null));
+        fieldMap.clear();
+        Assert.assertTrue(fieldMap.isEmpty());
+        Assert.assertNull(fieldMap.get("field1"));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.matcher;
+
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Test that the class matcher index matches the same targets as evaluating the matchers one by one
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClassMatcherIndexTest {
+    private static final List<Class<?>> TYPES = Arrays.asList(ArrayList.class, LinkedList.class, HashMap.class,
+            ConcurrentHashMap.class, AbstractList.class, String.class, Integer.class, Retention.class, Target.class,
+            Documented.class, Thread.class, ClassMatcherIndexTest.class);
+
+    @Test
+    public void testMatchSameAsMatchers() {
+        List<ElementMatcher<TypeDescription>> matchers = Arrays.asList(
+                ClassMatcher.namePrefixedWith("java.util."),
+                ClassMatcher.namePrefixedWith("java.util.concurrent."),
+                ClassMatcher.namePrefixedWith(""),
+                ClassMatcher.nameSuffixedWith("List"),
+                ClassMatcher.nameSuffixedWith("Map"),
+                ClassMatcher.nameInfixedWith("Hash"),
+                ClassMatcher.nameMatches(".*Integer"),
+                ClassMatcher.isAnnotatedWith("java.lang.annotation.Documented"),
+                ClassMatcher.isAnnotatedWith(Documented.class, Retention.class, Target.class),
+                ClassMatcher.isExtendedFrom(List.class),
+                ClassMatcher.isExtendedFrom(Collection.class.getName(), RandomAccess.class.getName()),
+                ClassMatcher.isExtendedFrom(Serializable.class, Map.class),
+                ClassMatcher.isExtendedFrom(AbstractList.class),
+                ClassMatcher.namePrefixedWith("java.lang.").or(ClassMatcher.nameSuffixedWith("List")),
+                ClassMatcher.or(ClassMatcher.isExtendedFrom(Runnable.class), ClassMatcher.nameSuffixedWith("Test")),
+                ClassMatcher.and(ClassMatcher.nameInfixedWith("Hash"), ClassMatcher.isExtendedFrom(Map.class)),
+                ClassMatcher.nameSuffixedWith("Map").and(ClassMatcher.namePrefixedWith("java.util.concurrent")),
+                ClassMatcher.namePrefixedWith("java.util.").not(),
+                ClassMatcher.nameSuffixedWith("List").or(ClassMatcher.nameInfixedWith("Thread")));
+        ClassMatcherIndex<Integer> index = new ClassMatcherIndex<>();
+        for (int i = 0; i < matchers.size(); i++) {
+            index.add(matchers.get(i), i);
+        }
+        for (Class<?> type : TYPES) {
+            TypeDescription typeDescription = TypeDescription.ForLoadedType.of(type);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < matchers.size(); i++) {
+                if (matchers.get(i).matches(typeDescription)) {
+                    expected.add(i);
+                }
+            }
+            Assert.assertEquals(type.getName(), expected, index.match(typeDescription));
+        }
+    }
+
+    @Test
+    public void testMatchOnceByMultipleKeys() {
+        ClassMatcherIndex<String> index = new ClassMatcherIndex<>();
+        index.add(ClassMatcher.namePrefixedWith("java.util.").or(ClassMatcher.nameSuffixedWith("List")), "first");
+        index.add(ClassMatcher.isExtendedFrom(List.class), "second");
+        Assert.assertEquals(Arrays.asList("first", "second"),
+                index.match(TypeDescription.ForLoadedType.of(ArrayList.class)));
+        Assert.assertTrue(index.match(TypeDescription.ForLoadedType.of(ClassMatcherIndexTest.class)).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.matcher;
+
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test that the method matcher index matches the same matchers as evaluating the matchers one by one
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class MethodMatcherIndexTest {
+    @Test
+    public void testMatchSameAsMatchers() {
+        List<ElementMatcher<MethodDescription>> matchers = Arrays.asList(
+                MethodMatcher.nameEquals("substring"),
+                MethodMatcher.nameContains("indexOf", "lastIndexOf", "notExist"),
+                MethodMatcher.nameEquals("indexOf").and(MethodMatcher.paramTypesEqual(String.class)),
+                MethodMatcher.and(MethodMatcher.isStaticMethod(), MethodMatcher.nameEquals("valueOf")),
+                MethodMatcher.nameEquals("trim").or(MethodMatcher.nameEquals("strip")),
+                MethodMatcher.nameEquals("trim").or(MethodMatcher.isConstructor()),
+                MethodMatcher.nameEquals("length").or(MethodMatcher.nameEquals("isEmpty")
+                        .and(MethodMatcher.paramCountEquals(0))),
+                MethodMatcher.nameContains(),
+                MethodMatcher.isConstructor(),
+                MethodMatcher.namePrefixedWith("to"),
+                MethodMatcher.nameEquals("charAt").not(),
+                MethodMatcher.any());
+        MethodMatcherIndex index = new MethodMatcherIndex();
+        for (ElementMatcher<MethodDescription> matcher : matchers) {
+            index.add(matcher);
+        }
+        Assert.assertEquals(matchers.size(), index.size());
+        List<MethodDescription> methods = new ArrayList<>();
+        for (Method method : String.class.getDeclaredMethods()) {
+            methods.add(new MethodDescription.ForLoadedMethod(method));
+        }
+        for (Constructor<?> constructor : String.class.getDeclaredConstructors()) {
+            methods.add(new MethodDescription.ForLoadedConstructor(constructor));
+        }
+        for (MethodDescription method : methods) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < matchers.size(); i++) {
+                if (matchers.get(i).matches(method)) {
+                    expected.add(i);
+                }
+            }
+            Assert.assertEquals(method.toString(), expected, index.match(method));
+        }
+    }
+
+    @Test
+    public void testNoMatch() throws NoSuchMethodException {
+        MethodMatcherIndex index = new MethodMatcherIndex();
+        index.add(MethodMatcher.nameEquals("substring"));
+        MethodDescription method = new MethodDescription.ForLoadedMethod(String.class.getMethod("trim"));
+        Assert.assertTrue(index.match(method).isEmpty());
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2024-2024 Huawei Technologies Co., Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.template;
+
+import io.sermant.core.plugin.agent.adviser.AdviserScheduler;
+import io.sermant.core.plugin.agent.entity.ExecuteContext;
+import io.sermant.core.plugin.agent.interceptor.Interceptor;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test the interceptor dispatch of BaseAdviseHandler
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class BaseAdviseHandlerTest {
+    private static final String ADVICE_KEY_PREFIX = "TemplateForMember_BaseAdviseHandlerTest_";
+
+    private final DefaultAdviser adviser = new DefaultAdviser();
+
+    @Test
+    public void testAdviceIndex() {
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(ADVICE_KEY_PREFIX + "index");
+        Assert.assertEquals(adviceIndex, AdviserScheduler.getOrCreateAdviceIndex(ADVICE_KEY_PREFIX + "index"));
+        Assert.assertEquals(ADVICE_KEY_PREFIX + "index", AdviserScheduler.getAdviceKey(adviceIndex));
+        Assert.assertNotEquals(adviceIndex, AdviserScheduler.getOrCreateAdviceIndex(ADVICE_KEY_PREFIX + "other"));
+        Assert.assertNull(AdviserScheduler.getAdviceKey(-1));
+    }
+
+    @Test
+    public void testInterceptorTableGrows() {
+        int lastIndex = -1;
+        Interceptor interceptor = new TraceInterceptor("grow", new ArrayList<>());
+        for (int i = 0; i < 1000; i++) {
+            String adviceKey = ADVICE_KEY_PREFIX + "grow_" + i;
+            lastIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+            BaseAdviseHandler.addInterceptors(adviceKey, lastIndex, Collections.singletonList(interceptor));
+        }
+        Assert.assertArrayEquals(new Interceptor[]{interceptor}, BaseAdviseHandler.getInterceptors(lastIndex));
+    }
+
+    @Test
+    public void testRemoveInterceptors() {
+        String adviceKey = ADVICE_KEY_PREFIX + "remove";
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+        Interceptor kept = new TraceInterceptor("kept", new ArrayList<>());
+        Interceptor removed = new TraceInterceptor("removed", new ArrayList<>());
+        BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex, Arrays.asList(kept, removed));
+        Interceptor[] snapshot = BaseAdviseHandler.getInterceptors(adviceIndex);
+        BaseAdviseHandler.removeInterceptors(interceptor -> interceptor == removed);
+        Assert.assertArrayEquals(new Interceptor[]{kept}, BaseAdviseHandler.getInterceptors(adviceIndex));
+
+        // The snapshot taken by a running call is never changed
+        Assert.assertArrayEquals(new Interceptor[]{kept, removed}, snapshot);
+    }
+
+    @Test
+    public void testDispatchByAdviceIndex() throws Throwable {
+        String adviceKey = ADVICE_KEY_PREFIX + "dispatch";
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+        List<String> trace = new ArrayList<>();
+        BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex,
+                Arrays.asList(new TraceInterceptor("first", trace), new TraceInterceptor("second", trace)));
+
+        ExecuteContext context = ExecuteContext.forMemberMethod(this,
+                BaseAdviseHandlerTest.class.getMethod("testDispatchByAdviceIndex"), new Object[0], null, null);
+        context = adviser.onMethodEnter(context, adviceIndex);
+        context = adviser.onMethodExit(context.afterMethod(null, null), adviceIndex);
+        Assert.assertNotNull(context);
+        Assert.assertEquals("[first.before, second.before, second.after, first.after]", trace.toString());
+    }
+
+    @Test
+    public void testSkipOnlyExitsEnteredInterceptors() throws Throwable {
+        String adviceKey = ADVICE_KEY_PREFIX + "skip";
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+        List<String> trace = new ArrayList<>();
+        BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex, Arrays.asList(new TraceInterceptor("first", trace),
+                new SkipInterceptor(trace), new TraceInterceptor("third", trace)));
+
+        ExecuteContext context = ExecuteContext.forMemberMethod(this,
+                BaseAdviseHandlerTest.class.getMethod("testSkipOnlyExitsEnteredInterceptors"), new Object[0], null,
+                null);
+        context = adviser.onMethodEnter(context, adviceIndex);
+        Assert.assertTrue(context.isSkip());
+        adviser.onMethodExit(context, adviceIndex);
+        Assert.assertEquals("[first.before, skip.before, skip.after, first.after]", trace.toString());
+    }
+
+    @Test
+    public void testExitLeavesSnapshotOfOtherAdviser() throws Throwable {
+        // The advisers of two Sermant instances share the advice index of the enhanced method
+        String adviceKey = ADVICE_KEY_PREFIX + "shared";
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+        List<String> trace = new ArrayList<>();
+        Interceptor outerInterceptor = new TraceInterceptor("outer", trace);
+        BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex, Collections.singletonList(outerInterceptor));
+        DefaultAdviser innerAdviser = new DefaultAdviser();
+
+        ExecuteContext context = ExecuteContext.forMemberMethod(this,
+                BaseAdviseHandlerTest.class.getMethod("testExitLeavesSnapshotOfOtherAdviser"), new Object[0], null,
+                null);
+        context = adviser.onMethodEnter(context, adviceIndex);
+
+        // The inner adviser has no interceptor, it neither enters nor exits the snapshot of the outer adviser
+        BaseAdviseHandler.removeInterceptors(interceptor -> interceptor == outerInterceptor);
+        context = innerAdviser.onMethodEnter(context, adviceIndex);
+        context = innerAdviser.onMethodExit(context.afterMethod(null, null), adviceIndex);
+        Assert.assertEquals("[outer.before]", trace.toString());
+        adviser.onMethodExit(context, adviceIndex);
+        Assert.assertEquals("[outer.before, outer.after]", trace.toString());
+    }
+
+    @Test
+    public void testNestedAdvisersShareAdviceIndex() throws Throwable {
+        String adviceKey = ADVICE_KEY_PREFIX + "nested";
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+        List<String> trace = new ArrayList<>();
+        BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex,
+                Collections.singletonList(new TraceInterceptor("shared", trace)));
+        DefaultAdviser innerAdviser = new DefaultAdviser();
+
+        ExecuteContext context = ExecuteContext.forMemberMethod(this,
+                BaseAdviseHandlerTest.class.getMethod("testNestedAdvisersShareAdviceIndex"), new Object[0], null,
+                null);
+        context = adviser.onMethodEnter(context, adviceIndex);
+        context = innerAdviser.onMethodEnter(context, adviceIndex);
+        context = innerAdviser.onMethodExit(context.afterMethod(null, null), adviceIndex);
+        Assert.assertNull(adviser.onMethodExit(context, adviceIndex).getInterceptors());
+        Assert.assertEquals("[shared.before, shared.before, shared.after, shared.after]", trace.toString());
+    }
+
+    @Test
+    public void testDispatchIsAllocationFree() throws Throwable {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported()
+                && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        String adviceKey = ADVICE_KEY_PREFIX + "allocation";
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(adviceKey);
+        BaseAdviseHandler.addInterceptors(adviceKey, adviceIndex,
+                Arrays.asList(new PassInterceptor(), new PassInterceptor(), new PassInterceptor()));
+        ExecuteContext context = ExecuteContext.forMemberMethod(this,
+                BaseAdviseHandlerTest.class.getMethod("testDispatchIsAllocationFree"), new Object[0], null, null);
+        int iterations = 100000;
+        for (int i = 0; i < iterations; i++) {
+            adviser.onMethodExit(adviser.onMethodEnter(context, adviceIndex), adviceIndex);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            adviser.onMethodExit(adviser.onMethodEnter(context, adviceIndex), adviceIndex);
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        // Allocating even one iterator or handler per call would cost more than one byte per call on average
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < iterations);
+    }
+
+    @Test
+    public void testDispatchWithoutInterceptors() throws Throwable {
+        int adviceIndex = AdviserScheduler.getOrCreateAdviceIndex(ADVICE_KEY_PREFIX + "empty");
+        ExecuteContext context = ExecuteContext.forStaticMethod(BaseAdviseHandlerTest.class,
+                BaseAdviseHandlerTest.class.getMethod("testDispatchWithoutInterceptors"), new Object[0], null);
+        Assert.assertSame(context, adviser.onMethodEnter(context, adviceIndex));
+        Assert.assertSame(context, adviser.onMethodExit(context, adviceIndex));
+    }
+
+    /**
+     * Interceptor that does nothing
+     *
+     * @since 2024-10-16
+     */
+    static class PassInterceptor implements Interceptor {
+        @Override
+        public ExecuteContext before(ExecuteContext context) {
+            return context;
+        }
+
+        @Override
+        public ExecuteContext after(ExecuteContext context) {
+            return context;
+        }
+
+        @Override
+        public ExecuteContext onThrow(ExecuteContext context) {
+            return context;
+        }
+    }
+
+    /**
+     * Interceptor that skips the method
+     *
+     * @since 2024-10-16
+     */
+    static class SkipInterceptor extends TraceInterceptor {
+        SkipInterceptor(List<String> trace) {
+            super("skip", trace);
+        }
+
+        @Override
+        public ExecuteContext before(ExecuteContext context) {
+            super.before(context);
+            return context.skip(null);
+        }
+    }
+
+    /**
+     * Interceptor that records the trigger points
+     *
+     * @since 2024-10-15
+     */
+    static class TraceInterceptor implements Interceptor {
+        private final String name;
+
+        private final List<String> trace;
+
+        TraceInterceptor(String name, List<String> trace) {
+            this.name = name;
+            this.trace = trace;
+        }
+
+        @Override
+        public ExecuteContext before(ExecuteContext context) {
+            trace.add(name + ".before");
+            return context;
+        }
+
+        @Override
+        public ExecuteContext after(ExecuteContext context) {
+            trace.add(name + ".after");
+            return context;
+        }
+
+        @Override
+        public ExecuteContext onThrow(ExecuteContext context) {
+            trace.add(name + ".onThrow");
+            return context;
+        }
+    }
+}
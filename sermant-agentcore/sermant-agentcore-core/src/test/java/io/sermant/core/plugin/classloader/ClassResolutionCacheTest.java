@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.classloader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test the class resolution cache with the classloaders of simulated web applications
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClassResolutionCacheTest {
+    private static final int LOADER_COUNT = 50;
+
+    private static final int THREAD_COUNT = 8;
+
+    private static final int ROUND_COUNT = 1000;
+
+    private static final String MISSING_CLASS = "com.example.webapp.Missing";
+
+    @Test
+    public void testResolveByWebappClassLoaders() throws Exception {
+        ClassResolutionCache cache = new ClassResolutionCache();
+        List<WebappClassLoader> loaders = new ArrayList<>();
+        for (int i = 0; i < LOADER_COUNT; i++) {
+            loaders.add(new WebappClassLoader());
+        }
+        for (WebappClassLoader loader : loaders) {
+            Assert.assertSame(String.class, cache.loadClass(loader, String.class.getName()));
+            Assert.assertNull(cache.loadClass(loader, MISSING_CLASS));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < ROUND_COUNT; round++) {
+                        WebappClassLoader loader = loaders.get(round % LOADER_COUNT);
+                        if (cache.loadClass(loader, String.class.getName()) != String.class
+                                || cache.loadClass(loader, MISSING_CLASS) != null) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (WebappClassLoader loader : loaders) {
+            Assert.assertEquals(2, loader.loadCount.get());
+        }
+
+        cache.clear();
+        Assert.assertNull(cache.loadClass(loaders.get(0), MISSING_CLASS));
+        Assert.assertEquals(3, loaders.get(0).loadCount.get());
+    }
+
+    /**
+     * Classloader of a simulated web application, which counts the classes loaded
+     *
+     * @since 2024-10-15
+     */
+    private static class WebappClassLoader extends ClassLoader {
+        private final AtomicInteger loadCount = new AtomicInteger();
+
+        WebappClassLoader() {
+            super(WebappClassLoader.class.getClassLoader());
+        }
+
+        @Override
+        public Class<?> loadClass(String name) throws ClassNotFoundException {
+            loadCount.incrementAndGet();
+            return super.loadClass(name);
+        }
+    }
+}
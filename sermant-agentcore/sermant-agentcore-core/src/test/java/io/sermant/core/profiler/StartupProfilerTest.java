@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.profiler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test the records and the json report of the startup profiler
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class StartupProfilerTest {
+    @Test
+    public void testReport() throws IOException {
+        long startNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+        Assert.assertTrue(StartupProfiler.recordPhase("testPhase", startNanos) >= startNanos);
+        StartupProfiler.recordPluginLoad("fast-plugin", System.nanoTime());
+        StartupProfiler.recordPluginLoad("slow\"plugin", System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+        StartupProfiler.recordMatch("slow\"plugin", TimeUnit.MILLISECONDS.toNanos(2), true);
+        StartupProfiler.recordPluginLoad("tab\tplugin", System.nanoTime());
+        for (int i = 0; i < 100; i++) {
+            StartupProfiler.recordTransform("com.example.Class" + i, TimeUnit.MICROSECONDS.toNanos(i), 1000 + i);
+        }
+
+        String json = StartupProfiler.toJson();
+        Assert.assertTrue(json.contains("\"testPhase\":"));
+        Assert.assertTrue(json.indexOf("slow\\\"plugin") < json.indexOf("fast-plugin"));
+        Assert.assertTrue(json.contains("\"tab\\u0009plugin\""));
+        Assert.assertTrue(json.contains("\"matchTime\":2.0,\"matchedClassCount\":1"));
+        Assert.assertTrue(json.contains("{\"name\":\"com.example.Class99\",\"transformTime\":0.099,\"bytes\":1099}"));
+        Assert.assertTrue(json.indexOf("com.example.Class99") < json.indexOf("com.example.Class80"));
+        Assert.assertFalse(json.contains("com.example.Class79\""));
+
+        Path reportPath = Files.createTempDirectory("startup-profile").resolve("report").resolve("profile.json");
+        Assert.assertTrue(StartupProfiler.writeReport(reportPath));
+        Assert.assertTrue(new String(Files.readAllBytes(reportPath), StandardCharsets.UTF_8).startsWith("{"));
+    }
+}
@@ -44,4 +44,28 @@ public interface AdviserInterface {
      * @throws Throwable Throwable
      */
     ExecuteContext onMethodExit(ExecuteContext context, String adviceKey) throws Throwable;
+
+    /**
+     * The preceding trigger point of method, dispatched by the precomputed advice index
+     *
+     * @param context execute Context
+     * @param adviceIndex advice index of the enhanced method
+     * @return ExecuteContext
+     * @throws Throwable Throwable
+     */
+    default ExecuteContext onMethodEnter(ExecuteContext context, int adviceIndex) throws Throwable {
+        return onMethodEnter(context, AdviserScheduler.getAdviceKey(adviceIndex));
+    }
+
+    /**
+     * The post trigger point of method, dispatched by the precomputed advice index
+     *
+     * @param context execute Context
+     * @param adviceIndex advice index of the enhanced method
+     * @return ExecuteContext
+     * @throws Throwable Throwable
+     */
+    default ExecuteContext onMethodExit(ExecuteContext context, int adviceIndex) throws Throwable {
+        return onMethodExit(context, AdviserScheduler.getAdviceKey(adviceIndex));
+    }
 }
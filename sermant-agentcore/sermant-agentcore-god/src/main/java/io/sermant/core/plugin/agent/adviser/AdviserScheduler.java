@@ -17,8 +17,9 @@
 package io.sermant.core.plugin.agent.adviser;
 
 import io.sermant.core.plugin.agent.entity.ExecuteContext;
+import io.sermant.core.plugin.agent.entity.ExecuteContextPool;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -29,10 +30,29 @@ import java.util.concurrent.ConcurrentHashMap;
  * @since 2023-04-11
  */
 public class AdviserScheduler {
-    private static final ArrayList<AdviserInterface> ADVISERS = new ArrayList<>();
+    private static final AdviserInterface[] EMPTY_ADVISERS = new AdviserInterface[0];
+
+    /**
+     * Registered advisers, replaced as a whole on registry and unRegistry so that iteration never needs a lock
+     */
+    private static volatile AdviserInterface[] advisers = EMPTY_ADVISERS;
 
     private static final Map<String, Boolean> ADVICE_LOCKS = new ConcurrentHashMap<>();
 
+    private static final int DEFAULT_ADVICE_INDEX_CAPACITY = 256;
+
+    /**
+     * The advice index of each adviceKey, the index is shared by all sermant instances and only used when weaving
+     */
+    private static final Map<String, Integer> ADVICE_INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * Reverse table of {@link #ADVICE_INDEXES}, indexed by the advice index
+     */
+    private static volatile String[] adviceKeys = new String[DEFAULT_ADVICE_INDEX_CAPACITY];
+
+    private static int adviceIndexCount;
+
     private AdviserScheduler() {
     }
 
@@ -41,8 +61,11 @@ public class AdviserScheduler {
      *
      * @param adviser adviser
      */
-    public static void registry(AdviserInterface adviser) {
-        ADVISERS.add(adviser);
+    public static synchronized void registry(AdviserInterface adviser) {
+        AdviserInterface[] oldAdvisers = advisers;
+        AdviserInterface[] newAdvisers = Arrays.copyOf(oldAdvisers, oldAdvisers.length + 1);
+        newAdvisers[oldAdvisers.length] = adviser;
+        advisers = newAdvisers;
     }
 
     /**
@@ -50,8 +73,17 @@ public class AdviserScheduler {
      *
      * @param adviser adviser
      */
-    public static void unRegistry(AdviserInterface adviser) {
-        ADVISERS.remove(adviser);
+    public static synchronized void unRegistry(AdviserInterface adviser) {
+        AdviserInterface[] oldAdvisers = advisers;
+        for (int i = 0; i < oldAdvisers.length; i++) {
+            if (oldAdvisers[i] == adviser) {
+                AdviserInterface[] newAdvisers = new AdviserInterface[oldAdvisers.length - 1];
+                System.arraycopy(oldAdvisers, 0, newAdvisers, 0, i);
+                System.arraycopy(oldAdvisers, i + 1, newAdvisers, i, oldAdvisers.length - i - 1);
+                advisers = newAdvisers;
+                return;
+            }
+        }
     }
 
     /**
@@ -68,7 +100,7 @@ public class AdviserScheduler {
         ExecuteContext executeContext = (ExecuteContext) context;
 
         // In multi-sermant scenario, method enter is executed in sequence
-        for (AdviserInterface currentAdviser : ADVISERS) {
+        for (AdviserInterface currentAdviser : advisers) {
             if (currentAdviser != null) {
                 executeContext = currentAdviser.onMethodEnter(executeContext, adviceKey);
             }
@@ -90,8 +122,9 @@ public class AdviserScheduler {
         ExecuteContext executeContext = (ExecuteContext) context;
 
         // In multi-sermant scenario, method exit is executed in reverse order
-        for (int i = ADVISERS.size() - 1; i >= 0; i--) {
-            AdviserInterface currentAdviser = ADVISERS.get(i);
+        final AdviserInterface[] currentAdvisers = advisers;
+        for (int i = currentAdvisers.length - 1; i >= 0; i--) {
+            AdviserInterface currentAdviser = currentAdvisers[i];
             if (currentAdviser != null) {
                 executeContext = currentAdviser.onMethodExit(executeContext, adviceKey);
             }
@@ -99,6 +132,100 @@ public class AdviserScheduler {
         return executeContext;
     }
 
+    /**
+     * The Adviser logic of the method entry, the advice index is precomputed when the method is enhanced, see
+     * {@link #getOrCreateAdviceIndex}. The method exit is not executed if the entry fails, so the pooled context is
+     * given back here
+     *
+     * @param context execute context
+     * @param adviceIndex advice index of the enhanced method
+     * @return ExecuteContext
+     * @throws Throwable Throwable
+     */
+    public static ExecuteContext onMethodEnter(Object context, int adviceIndex) throws Throwable {
+        ExecuteContext executeContext = (ExecuteContext) context;
+
+        // In multi-sermant scenario, method enter is executed in sequence
+        try {
+            for (AdviserInterface currentAdviser : advisers) {
+                if (currentAdviser != null) {
+                    executeContext = currentAdviser.onMethodEnter(executeContext, adviceIndex);
+                }
+            }
+        } catch (Throwable t) {
+            ExecuteContextPool.release(ExecuteContextPool.getSlot(context));
+            throw t;
+        }
+        return executeContext;
+    }
+
+    /**
+     * The Adviser logic of the method exit, the advice index is precomputed when the method is enhanced, see
+     * {@link #getOrCreateAdviceIndex}
+     *
+     * @param context execute context
+     * @param adviceIndex advice index of the enhanced method
+     * @return ExecuteContext
+     * @throws Throwable Throwable
+     */
+    public static ExecuteContext onMethodExit(Object context, int adviceIndex) throws Throwable {
+        ExecuteContext executeContext = (ExecuteContext) context;
+
+        // In multi-sermant scenario, method exit is executed in reverse order
+        final AdviserInterface[] currentAdvisers = advisers;
+        for (int i = currentAdvisers.length - 1; i >= 0; i--) {
+            AdviserInterface currentAdviser = currentAdvisers[i];
+            if (currentAdviser != null) {
+                executeContext = currentAdviser.onMethodExit(executeContext, adviceIndex);
+            }
+        }
+        return executeContext;
+    }
+
+    /**
+     * Get the advice index of the adviceKey, a new index will be assigned if the adviceKey has not been indexed. The
+     * same adviceKey always gets the same index, so that multiple sermant instances share one index for an enhanced
+     * method
+     *
+     * @param adviceKey Indicate the enhancement location
+     * @return advice index
+     */
+    public static int getOrCreateAdviceIndex(String adviceKey) {
+        Integer adviceIndex = ADVICE_INDEXES.get(adviceKey);
+        if (adviceIndex != null) {
+            return adviceIndex;
+        }
+        synchronized (ADVICE_INDEXES) {
+            adviceIndex = ADVICE_INDEXES.get(adviceKey);
+            if (adviceIndex != null) {
+                return adviceIndex;
+            }
+            String[] keys = adviceKeys;
+            if (adviceIndexCount >= keys.length) {
+                keys = Arrays.copyOf(keys, keys.length << 1);
+            }
+            keys[adviceIndexCount] = adviceKey;
+            adviceKeys = keys;
+            adviceIndex = adviceIndexCount++;
+            ADVICE_INDEXES.put(adviceKey, adviceIndex);
+            return adviceIndex;
+        }
+    }
+
+    /**
+     * Get the adviceKey of the advice index
+     *
+     * @param adviceIndex advice index
+     * @return adviceKey, null if the index has not been assigned
+     */
+    public static String getAdviceKey(int adviceIndex) {
+        String[] keys = adviceKeys;
+        if (adviceIndex < 0 || adviceIndex >= keys.length) {
+            return null;
+        }
+        return keys[adviceIndex];
+    }
+
     /**
      * Add an advice lock to the adviceKey
      *
@@ -106,12 +233,9 @@ public class AdviserScheduler {
      * @return Whether the lock can be acquired
      */
     public static boolean lock(String adviceKey) {
-        Boolean adviceLock = ADVICE_LOCKS.get(adviceKey);
-        if (adviceLock == null || !adviceLock) {
-            ADVICE_LOCKS.put(adviceKey, Boolean.TRUE);
-            return true;
-        }
-        return false;
+        // Acquire by compare-and-set, so that only one of the concurrent callers gets the lock
+        return ADVICE_LOCKS.putIfAbsent(adviceKey, Boolean.TRUE) == null
+                || ADVICE_LOCKS.replace(adviceKey, Boolean.FALSE, Boolean.TRUE);
     }
 
     /**
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2024-2024 Huawei Technologies Co., Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.entity;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Field map of the execution context. Keys and values are kept in open-addressed arrays with linear probing, which
+ * is sized for the few fields usually touched by interceptors and can be cleared for reuse without releasing the
+ * arrays
+ *
+ * @param <V> value type
+ * @author daizhenyu
+ * @since 2024-10-16
+ */
+final class CompactFieldMap<V> extends AbstractMap<String, V> {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private static final Object NULL_KEY = new Object();
+
+    private Object[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    /**
+     * constructor
+     */
+    CompactFieldMap() {
+        keys = new Object[DEFAULT_CAPACITY];
+        values = new Object[DEFAULT_CAPACITY];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(maskNull(key)) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int index = indexOf(maskNull(key));
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        Object maskedKey = maskNull(key);
+        int mask = keys.length - 1;
+        int index = hash(maskedKey) & mask;
+        while (keys[index] != null) {
+            if (keys[index].equals(maskedKey)) {
+                V oldValue = (V) values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = maskedKey;
+        values[index] = value;
+        size++;
+
+        // Keep the load factor no more than 3/4 so that probing ends quickly
+        if (size << 2 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int index = indexOf(maskNull(key));
+        if (index < 0) {
+            return null;
+        }
+        V oldValue = (V) values[index];
+        deleteSlot(index);
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private int indexOf(Object maskedKey) {
+        int mask = keys.length - 1;
+        int index = hash(maskedKey) & mask;
+        while (keys[index] != null) {
+            if (keys[index].equals(maskedKey)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Delete the slot and shift the following entries of the same probe sequence backward, so that no tombstone is
+     * needed
+     *
+     * @param slot slot to be deleted
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int index = (slot + 1) & mask;
+        while (keys[index] != null) {
+            int home = hash(keys[index]) & mask;
+
+            // The entry can be moved into the hole only if its home slot is not between the hole and itself
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            int index = hash(oldKeys[i]) & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static int hash(Object maskedKey) {
+        int hash = maskedKey.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Entry set view
+     *
+     * @since 2024-10-16
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, V>> {
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Entry iterator, removal is not supported since backward shifting may move unvisited entries
+     *
+     * @since 2024-10-16
+     */
+    private final class EntryIterator implements Iterator<Entry<String, V>> {
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<String, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object key = keys[next];
+            Entry<String, V> entry = new SimpleImmutableEntry<>(key == NULL_KEY ? null : (String) key,
+                    (V) values[next]);
+            next = advance(next + 1);
+            return entry;
+        }
+
+        private int advance(int from) {
+            int index = from;
+            while (index < keys.length && keys[index] == null) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -23,7 +23,6 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.ListIterator;
 import java.util.Map;
 
@@ -38,17 +37,17 @@ public class ExecuteContext {
     /**
      * enhanced class
      */
-    private final Class<?> rawCls;
+    private Class<?> rawCls;
 
     /**
      * Enhanced constructor, null if enhance method
      */
-    private final Constructor<?> constructor;
+    private Constructor<?> constructor;
 
     /**
      * Enhanced method, null if enhance constructor
      */
-    private final Method method;
+    private Method method;
 
     /**
      * Enhanced object, note:
@@ -109,11 +108,53 @@ public class ExecuteContext {
      */
     private ListIterator<Interceptor> interceptorIterator;
 
+    /**
+     * Interceptor snapshot used by the advice index based dispatch
+     */
+    private Interceptor[] interceptors;
+
+    /**
+     * The number of interceptors in {@link #interceptors} that have been entered
+     */
+    private int interceptorCursor;
+
+    /**
+     * The adviser owning {@link #interceptors}, null if there is no snapshot. The advice index is shared by the
+     * advisers of all Sermant instances, so it cannot tell them apart
+     */
+    private Object interceptorOwner;
+
+    /**
+     * Interceptor snapshots of the outer advisers in multi-sermant scenario, the advisers exit in reverse order of
+     * entering, so the snapshots are kept as a stack
+     */
+    private Interceptor[][] outerInterceptors;
+
+    /**
+     * Cursors of {@link #outerInterceptors}
+     */
+    private int[] outerInterceptorCursors;
+
+    /**
+     * Owners of {@link #outerInterceptors}
+     */
+    private Object[] outerInterceptorOwners;
+
+    /**
+     * Depth of {@link #outerInterceptors}
+     */
+    private int outerInterceptorDepth;
+
     /**
      * Map of raw fields, where each fetched field is temporarily stored
      */
     private Map<String, Field> rawFields;
 
+    /**
+     * Slot of the context in the stack of {@link ExecuteContextPool}, -1 if the context is not pooled
+     */
+    private final int poolSlot;
+
     private ExecuteContext(Object object, Class<?> rawCls, Constructor<?> constructor, Method method,
             Object[] arguments) {
         this.object = object;
@@ -121,6 +162,73 @@ public class ExecuteContext {
         this.constructor = constructor;
         this.method = method;
         this.arguments = arguments;
+        this.poolSlot = -1;
+    }
+
+    /**
+     * Constructor of the context recycled by {@link ExecuteContextPool}
+     *
+     * @param poolSlot slot of the context in the stack of the pool
+     */
+    ExecuteContext(int poolSlot) {
+        this.poolSlot = poolSlot;
+    }
+
+    /**
+     * Reset the recycled context for a new call
+     *
+     * @param thisObject Enhanced object
+     * @param cls Enhanced class
+     * @param thisConstructor Enhanced constructor
+     * @param thisMethod Enhanced method
+     * @param thisArguments arguments
+     * @return ExecuteContext
+     */
+    ExecuteContext reset(Object thisObject, Class<?> cls, Constructor<?> thisConstructor, Method thisMethod,
+            Object[] thisArguments) {
+        this.object = thisObject;
+        this.rawCls = cls;
+        this.constructor = thisConstructor;
+        this.method = thisMethod;
+        this.arguments = thisArguments;
+        return this;
+    }
+
+    /**
+     * Clear the recycled context after the call, the field maps are kept for the next call and all references to the
+     * host instance are released
+     */
+    void recycle() {
+        this.object = null;
+        this.rawCls = null;
+        this.constructor = null;
+        this.method = null;
+        this.arguments = null;
+        this.isSkip = false;
+        this.isChangeThrowable = false;
+        this.result = null;
+        this.throwable = null;
+        this.throwableOut = null;
+        this.extStaticFields = null;
+        this.extMemberFields = null;
+        this.interceptorIterator = null;
+        this.interceptors = null;
+        this.interceptorCursor = 0;
+        this.interceptorOwner = null;
+        while (outerInterceptorDepth > 0) {
+            outerInterceptors[--outerInterceptorDepth] = null;
+            outerInterceptorOwners[outerInterceptorDepth] = null;
+        }
+        if (localFields != null) {
+            localFields.clear();
+        }
+        if (rawFields != null) {
+            rawFields.clear();
+        }
+    }
+
+    int getPoolSlot() {
+        return poolSlot;
     }
 
     /**
@@ -249,6 +357,67 @@ public class ExecuteContext {
         this.interceptorIterator = interceptorIterator;
     }
 
+    public Interceptor[] getInterceptors() {
+        return interceptors;
+    }
+
+    public int getInterceptorCursor() {
+        return interceptorCursor;
+    }
+
+    public void setInterceptorCursor(int interceptorCursor) {
+        this.interceptorCursor = interceptorCursor;
+    }
+
+    public Object getInterceptorOwner() {
+        return interceptorOwner;
+    }
+
+    /**
+     * Set the interceptor snapshot of the entering adviser, the snapshot of the previous adviser is kept until
+     * {@link #popInterceptors} is called
+     *
+     * @param owner the entering adviser, which owns the snapshot
+     * @param interceptorArray interceptor snapshot
+     * @param cursor the number of interceptors that have been entered
+     */
+    public void pushInterceptors(Object owner, Interceptor[] interceptorArray, int cursor) {
+        if (interceptors != null) {
+            if (outerInterceptors == null) {
+                outerInterceptors = new Interceptor[1][];
+                outerInterceptorCursors = new int[1];
+                outerInterceptorOwners = new Object[1];
+            } else if (outerInterceptorDepth == outerInterceptors.length) {
+                outerInterceptors = Arrays.copyOf(outerInterceptors, outerInterceptorDepth << 1);
+                outerInterceptorCursors = Arrays.copyOf(outerInterceptorCursors, outerInterceptorDepth << 1);
+                outerInterceptorOwners = Arrays.copyOf(outerInterceptorOwners, outerInterceptorDepth << 1);
+            }
+            outerInterceptors[outerInterceptorDepth] = interceptors;
+            outerInterceptorOwners[outerInterceptorDepth] = interceptorOwner;
+            outerInterceptorCursors[outerInterceptorDepth++] = interceptorCursor;
+        }
+        this.interceptors = interceptorArray;
+        this.interceptorCursor = cursor;
+        this.interceptorOwner = owner;
+    }
+
+    /**
+     * Remove the interceptor snapshot of the exiting adviser, and restore the snapshot of the previous adviser
+     */
+    public void popInterceptors() {
+        if (outerInterceptorDepth == 0) {
+            this.interceptors = null;
+            this.interceptorCursor = 0;
+            this.interceptorOwner = null;
+            return;
+        }
+        this.interceptors = outerInterceptors[--outerInterceptorDepth];
+        this.interceptorCursor = outerInterceptorCursors[outerInterceptorDepth];
+        this.interceptorOwner = outerInterceptorOwners[outerInterceptorDepth];
+        outerInterceptors[outerInterceptorDepth] = null;
+        outerInterceptorOwners[outerInterceptorDepth] = null;
+    }
+
     /**
      * Both static and member field are retrieved here. Only fields defined by the enhanced class and their public
      * fields are retrieved. Protected fields of the superclass will not be retrieved
@@ -283,7 +452,7 @@ public class ExecuteContext {
         Field field;
         if (rawFields == null) {
             field = searchField(fieldName);
-            rawFields = new HashMap<>();
+            rawFields = new CompactFieldMap<>();
             rawFields.put(fieldName, field);
         } else {
             field = rawFields.get(fieldName);
@@ -348,7 +517,7 @@ public class ExecuteContext {
     @Deprecated
     public void setExtStaticFieldValue(String fieldName, Object value) {
         if (extStaticFields == null) {
-            extStaticFields = new HashMap<>();
+            extStaticFields = new CompactFieldMap<>();
         }
         extStaticFields.put(fieldName, value);
     }
@@ -375,7 +544,7 @@ public class ExecuteContext {
     @Deprecated
     public void setExtMemberFieldValue(String fieldName, Object value) {
         if (extMemberFields == null) {
-            extMemberFields = new HashMap<>();
+            extMemberFields = new CompactFieldMap<>();
         }
         extMemberFields.put(fieldName, value);
     }
@@ -505,7 +674,7 @@ public class ExecuteContext {
      */
     public void setLocalFieldValue(String fieldName, Object value) {
         if (localFields == null) {
-            localFields = new HashMap<>();
+            localFields = new CompactFieldMap<>();
         }
         localFields.put(fieldName, value);
     }
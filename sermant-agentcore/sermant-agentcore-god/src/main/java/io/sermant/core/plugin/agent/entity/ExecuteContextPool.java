@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2024-2024 Huawei Technologies Co., Ltd. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.core.plugin.agent.entity;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Per-thread pool of the execution context used by the advice templates. Once enabled, each thread keeps a stack of
+ * contexts, a context is taken from the stack when an enhanced method is entered and given back by its slot when it
+ * exits, so nested enhanced calls get different contexts. The slot is kept by the advice templates, since the
+ * interceptors may replace the context. The pool is disabled by default, it must not be enabled if any interceptor
+ * keeps the context after the enhanced method exits
+ *
+ * @author daizhenyu
+ * @since 2024-10-16
+ */
+public class ExecuteContextPool {
+    /**
+     * Maximum nesting depth of the pooled contexts, deeper calls use contexts that are not pooled
+     */
+    private static final int MAX_DEPTH = 16;
+
+    private static final ThreadLocal<ContextStack> CONTEXT_STACK = ThreadLocal.withInitial(ContextStack::new);
+
+    private static volatile boolean isEnable;
+
+    private ExecuteContextPool() {
+    }
+
+    /**
+     * Enable the pool. The pool is shared by all sermant instances and can not be disabled once enabled
+     */
+    public static void enable() {
+        isEnable = true;
+    }
+
+    public static boolean isEnable() {
+        return isEnable;
+    }
+
+    /**
+     * Get execution context for constructor
+     *
+     * @param cls The enhanced class
+     * @param constructor The enhanced constructor
+     * @param arguments Constructor input arguments
+     * @return ExecuteContext
+     */
+    public static ExecuteContext forConstructor(Class<?> cls, Constructor<?> constructor, Object[] arguments) {
+        ExecuteContext context = isEnable ? CONTEXT_STACK.get().push() : null;
+        if (context == null) {
+            return ExecuteContext.forConstructor(cls, constructor, arguments, null);
+        }
+        return context.reset(null, cls, constructor, null, arguments);
+    }
+
+    /**
+     * Get execution context for member method
+     *
+     * @param object Enhanced object
+     * @param method Enhanced method
+     * @param arguments method arguments
+     * @return ExecuteContext
+     */
+    public static ExecuteContext forMemberMethod(Object object, Method method, Object[] arguments) {
+        ExecuteContext context = isEnable ? CONTEXT_STACK.get().push() : null;
+        if (context == null) {
+            return ExecuteContext.forMemberMethod(object, method, arguments, null, null);
+        }
+        return context.reset(object, object.getClass(), null, method, arguments);
+    }
+
+    /**
+     * Get execution context for static method
+     *
+     * @param cls Enhanced class
+     * @param method Enhanced method
+     * @param arguments method arguments
+     * @return ExecuteContext
+     */
+    public static ExecuteContext forStaticMethod(Class<?> cls, Method method, Object[] arguments) {
+        ExecuteContext context = isEnable ? CONTEXT_STACK.get().push() : null;
+        if (context == null) {
+            return ExecuteContext.forStaticMethod(cls, method, arguments, null);
+        }
+        return context.reset(null, cls, null, method, arguments);
+    }
+
+    /**
+     * Get the slot of the context taken when the enhanced method is entered
+     *
+     * @param context execute context taken from the pool
+     * @return slot of the context, -1 if the context is not pooled
+     */
+    public static int getSlot(Object context) {
+        return context instanceof ExecuteContext ? ((ExecuteContext) context).getPoolSlot() : -1;
+    }
+
+    /**
+     * Give the context of the slot back to the pool when the enhanced method exits, or when its entry fails. Contexts
+     * above the slot belong to calls that failed before their exit, and are recycled together
+     *
+     * @param slot slot of the context taken when the enhanced method is entered, -1 if the context is not pooled
+     */
+    public static void release(int slot) {
+        if (slot >= 0) {
+            CONTEXT_STACK.get().pop(slot);
+        }
+    }
+
+    /**
+     * Stack of the pooled contexts of a thread
+     *
+     * @since 2024-10-16
+     */
+    private static class ContextStack {
+        private final ExecuteContext[] contexts = new ExecuteContext[MAX_DEPTH];
+
+        private int depth;
+
+        /**
+         * Take a context for a newly entered method
+         *
+         * @return ExecuteContext, null if the maximum depth is reached
+         */
+        ExecuteContext push() {
+            if (depth >= contexts.length) {
+                return null;
+            }
+            ExecuteContext context = contexts[depth];
+            if (context == null) {
+                context = new ExecuteContext(depth);
+                contexts[depth] = context;
+            }
+            depth++;
+            return context;
+        }
+
+        /**
+         * Give back the context of the slot and the ones above it
+         *
+         * @param slot slot of the context
+         */
+        void pop(int slot) {
+            for (int i = slot; i < depth; i++) {
+                contexts[i].recycle();
+            }
+            if (slot < depth) {
+                depth = slot;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.implement.service.tracing.sender;
+
+import java.util.Locale;
+
+/**
+ * The policy when the span queue is full
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public enum OverflowPolicy {
+    /**
+     * Drop the new span
+     */
+    DROP_NEWEST,
+
+    /**
+     * Drop the oldest span in the queue to make room for the new span
+     */
+    DROP_OLDEST,
+
+    /**
+     * Once the queue is half full, keep the spans with a probability decreasing with the free space. The spans are
+     * sampled by the trace id, so that the spans of a trace are kept or dropped together. The new span is dropped if
+     * the queue is full
+     */
+    SAMPLE;
+
+    /**
+     * Get the policy by name
+     *
+     * @param name policy name
+     * @return policy, {@link #DROP_NEWEST} if the name is unknown
+     */
+    public static OverflowPolicy of(String name) {
+        if (name == null) {
+            return DROP_NEWEST;
+        }
+        for (OverflowPolicy policy : values()) {
+            if (policy.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                return policy;
+            }
+        }
+        return DROP_NEWEST;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.implement.service.tracing.sender;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer of the spans
+ * <p>Each slot has a sequence telling whether it is ready to be written or read at a position, so producers and
+ * consumers claim the positions by CAS without locking. The spans are offered by the service threads and drained by
+ * the sender thread in batches, the service threads also poll the oldest span if the overflow policy is
+ * {@link OverflowPolicy#DROP_OLDEST}
+ *
+ * @param <E> element type
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class SpanRingBuffer<E> {
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong producerPosition = new AtomicLong();
+
+    private final AtomicLong consumerPosition = new AtomicLong();
+
+    /**
+     * constructor
+     *
+     * @param capacity capacity, rounded up to a power of two
+     */
+    public SpanRingBuffer(int capacity) {
+        int actualCapacity = 1;
+        while (actualCapacity < capacity && actualCapacity < MAX_CAPACITY) {
+            actualCapacity <<= 1;
+        }
+        this.capacity = actualCapacity;
+        this.mask = actualCapacity - 1;
+        this.elements = new AtomicReferenceArray<>(actualCapacity);
+        this.sequences = new AtomicLongArray(actualCapacity);
+        for (int i = 0; i < actualCapacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element at the tail
+     *
+     * @param element element
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long position = producerPosition.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the element at the head
+     *
+     * @return element, null if the buffer is empty
+     */
+    public E poll() {
+        long position = consumerPosition.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    final E element = elements.get(index);
+                    elements.set(index, null);
+                    sequences.set(index, position + capacity);
+                    return element;
+                }
+                position = consumerPosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = consumerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the elements at the head to the list
+     *
+     * @param batch list of the removed elements
+     * @param maxSize maximum number of the removed elements
+     * @return number of the removed elements
+     */
+    public int drainTo(List<E> batch, int maxSize) {
+        int count = 0;
+        while (count < maxSize) {
+            final E element = poll();
+            if (element == null) {
+                break;
+            }
+            batch.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Approximate number of the elements
+     *
+     * @return size
+     */
+    public int size() {
+        final long size = producerPosition.get() - consumerPosition.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Whether the buffer is empty
+     *
+     * @return empty or not
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Remove all the elements
+     */
+    public void clear() {
+        while (poll() != null) {
+            // Discard all the elements
+        }
+    }
+}
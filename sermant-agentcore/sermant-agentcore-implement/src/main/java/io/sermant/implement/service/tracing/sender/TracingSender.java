@@ -20,21 +20,31 @@ import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 
 import io.sermant.core.common.LoggerFactory;
+import io.sermant.core.config.ConfigManager;
 import io.sermant.core.service.ServiceManager;
 import io.sermant.core.service.send.api.GatewayClient;
 import io.sermant.core.service.tracing.common.SpanEvent;
+import io.sermant.core.service.tracing.config.TracingConfig;
 import io.sermant.implement.service.send.netty.pojo.Message;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Tracing message sender
+ * <p>The spans are queued in a lock-free ring buffer and drained by the sender thread in batches, the header is built
+ * once for a batch and each span is still sent as one message, which is the format the backend reads. The sender
+ * thread parks while the queue is empty and is woken up by the next span. When the queue is full, the spans are
+ * dropped by the configured {@link OverflowPolicy}
  *
  * @author luanwenfei
  * @since 2022-03-04
@@ -42,27 +52,50 @@ import java.util.logging.Logger;
 public class TracingSender {
     private static final Logger LOGGER = LoggerFactory.getLogger();
 
-    private static final int MAX_SPAN_EVENT_COUNT = 512;
-
     private static final long TRACING_SENDER_MINIMAL_INTERVAL = 1000L;
 
     private static final long STOP_TIME_OUT = 3000L;
 
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(TRACING_SENDER_MINIMAL_INTERVAL);
+
+    private static final long DROP_REPORT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int SAMPLE_BUCKETS = 1024;
+
     private static TracingSender tracingSender = null;
 
-    private final ArrayBlockingQueue<SpanEvent> spanEvents;
+    private final SpanRingBuffer<SpanEvent> spanEvents;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final int batchSize;
+
+    private final LongAdder sentCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
 
     private ExecutorService executorService;
 
     private GatewayClient gatewayClient;
 
+    /**
+     * The sender thread parked for the spans, null if it is not parked
+     */
+    private volatile Thread waitingThread;
+
     /**
      * Flag that enable and disable the current service
      */
-    private boolean isSending;
+    private volatile boolean isSending;
 
     private TracingSender() {
-        spanEvents = new ArrayBlockingQueue<>(MAX_SPAN_EVENT_COUNT);
+        TracingConfig config = ConfigManager.getConfig(TracingConfig.class);
+        if (config == null) {
+            config = new TracingConfig();
+        }
+        spanEvents = new SpanRingBuffer<>(config.getQueueCapacity());
+        overflowPolicy = OverflowPolicy.of(config.getOverflowPolicy());
+        batchSize = Math.max(1, config.getBatchSize());
     }
 
     /**
@@ -116,6 +149,7 @@ public class TracingSender {
         long timeDuring = 0L;
         while (!spanEvents.isEmpty() && timeDuring < timeOut) {
             try {
+                wakeUpSender();
                 Thread.sleep(TRACING_SENDER_MINIMAL_INTERVAL);
                 timeDuring += TRACING_SENDER_MINIMAL_INTERVAL;
             } catch (InterruptedException e) {
@@ -124,15 +158,15 @@ public class TracingSender {
                         e.getMessage()));
             }
         }
+        this.isSending = false;
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdownNow();
         }
         spanEvents.clear();
-        this.isSending = false;
     }
 
     /**
-     * Add SpanEvent to the blocking queue to send data to backend after the thread obtains it
+     * Add SpanEvent to the queue to send data to backend after the sender thread obtains it
      *
      * @param spanEvent span event
      */
@@ -140,9 +174,62 @@ public class TracingSender {
         if (spanEvent == null) {
             return;
         }
-        boolean isSuccessful = spanEvents.offer(spanEvent);
-        if (!isSuccessful) {
-            LOGGER.warning("Failed to offer spanEvent.");
+        if (overflowPolicy == OverflowPolicy.SAMPLE && !isSampled(spanEvent)) {
+            droppedCount.increment();
+            return;
+        }
+        while (!spanEvents.offer(spanEvent)) {
+            if (overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+                droppedCount.increment();
+                return;
+            }
+            if (spanEvents.poll() != null) {
+                droppedCount.increment();
+            }
+        }
+        wakeUpSender();
+    }
+
+    /**
+     * Number of the spans sent
+     *
+     * @return count
+     */
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    /**
+     * Number of the spans dropped because the queue is full
+     *
+     * @return count
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Keep all the spans until the queue is half full, and then keep the spans by the trace id with the probability
+     * of the free ratio of the second half of the queue
+     *
+     * @param spanEvent span event
+     * @return whether to keep the span
+     */
+    private boolean isSampled(SpanEvent spanEvent) {
+        final int halfCapacity = spanEvents.getCapacity() >> 1;
+        final int free = spanEvents.getCapacity() - spanEvents.size();
+        if (free >= halfCapacity) {
+            return true;
+        }
+        final String traceId = spanEvent.getTraceId();
+        final int bucket = traceId == null ? 0 : (traceId.hashCode() & Integer.MAX_VALUE) % SAMPLE_BUCKETS;
+        return (long) bucket * halfCapacity < (long) free * SAMPLE_BUCKETS;
+    }
+
+    private void wakeUpSender() {
+        final Thread thread = waitingThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
         }
     }
 
@@ -153,43 +240,71 @@ public class TracingSender {
      * @since 2022-03-04
      */
     private class SpanEventSendThread extends Thread {
+        private final List<SpanEvent> batch = new ArrayList<>();
+
+        private long reportedDroppedCount;
+
+        private long lastReportTime;
+
         @Override
         public void run() {
             LOGGER.info("TracingSender started.");
             while (isSending) {
-                Optional<TracingMessage> tracingMessage = buildTracingMessage();
-                if (!tracingMessage.isPresent()) {
-                    // If no SpanEvent is obtained, wait for a period of time and then execute it again
-                    try {
-                        Thread.sleep(TRACING_SENDER_MINIMAL_INTERVAL);
-                    } catch (InterruptedException e) {
-                        LOGGER.severe(String.format(Locale.ROOT, "Exception [%s] occurs for [%s] when waiting queue. ",
-                                e.getClass(), e.getMessage()));
-                    }
+                batch.clear();
+                if (spanEvents.drainTo(batch, batchSize) == 0) {
+                    awaitSpanEvents();
                     continue;
                 }
-                sendMessage(tracingMessage.get());
+                try {
+                    sendMessages(batch);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Failed to send tracing message.", e);
+                }
+                reportDroppedCount();
             }
             LOGGER.info("TracingSender stopped.");
         }
 
-        private Optional<TracingMessage> buildTracingMessage() {
-            SpanEvent spanEvent = spanEvents.poll();
-            if (spanEvent == null) {
-                return Optional.empty();
+        /**
+         * Park the sender thread until a span is offered or the maximum wait time elapses. The queue is checked after
+         * the thread is published, so a span offered in between is not missed
+         */
+        private void awaitSpanEvents() {
+            waitingThread = Thread.currentThread();
+            try {
+                if (spanEvents.isEmpty() && isSending) {
+                    LockSupport.parkNanos(this, MAX_WAIT_NANOS);
+                }
+            } finally {
+                waitingThread = null;
             }
+        }
 
+        private void sendMessages(List<SpanEvent> spanEventBatch) {
             // Node information needs to be obtained after the configuration is modified
             TracingMessageHeader tracingMessageHeader = new TracingMessageHeader();
-            return Optional.of(new TracingMessage(spanEvent.getTraceId(), tracingMessageHeader, spanEvent));
+            LOGGER.log(Level.FINE, "Sending {0} tracing messages.", spanEventBatch.size());
+            for (SpanEvent spanEvent : spanEventBatch) {
+                TracingMessage tracingMessage = new TracingMessage(spanEvent.getTraceId(), tracingMessageHeader,
+                        spanEvent);
+                String serializedMessage = JSON.toJSONString(tracingMessage, SerializerFeature.WriteMapNullValue);
+                gatewayClient.send(serializedMessage.getBytes(StandardCharsets.UTF_8),
+                        Message.ServiceData.DataType.TRACING_DATA_VALUE);
+                sentCount.increment();
+            }
         }
 
-        private void sendMessage(TracingMessage tracingMessage) {
-            LOGGER.info(String.format(Locale.ROOT, "Sending tracing message traceId : [%s] , spanId : [%s] .",
-                    tracingMessage.getBody().getTraceId(), tracingMessage.getBody().getSpanId()));
-            String serializedMessage = JSON.toJSONString(tracingMessage, SerializerFeature.WriteMapNullValue);
-            gatewayClient.send(serializedMessage.getBytes(StandardCharsets.UTF_8),
-                    Message.ServiceData.DataType.TRACING_DATA_VALUE);
+        private void reportDroppedCount() {
+            final long currentDroppedCount = droppedCount.sum();
+            final long now = System.currentTimeMillis();
+            if (currentDroppedCount == reportedDroppedCount || now - lastReportTime < DROP_REPORT_INTERVAL) {
+                return;
+            }
+            LOGGER.warning(String.format(Locale.ROOT,
+                    "[%d] spans are dropped by the policy [%s] since the last report, [%d] spans are sent in total.",
+                    currentDroppedCount - reportedDroppedCount, overflowPolicy, sentCount.sum()));
+            reportedDroppedCount = currentDroppedCount;
+            lastReportTime = now;
         }
     }
 }
@@ -79,6 +79,12 @@ public class XdsDataCache {
      */
     private static List<XdsRouteConfiguration> routeConfigurations = new ArrayList<>();
 
+    /**
+     * key:service name value:routes of the first XdsRouteConfiguration containing the virtual host of the service,
+     * rebuilt with each update of the XdsRouteConfigurations so that the routes are found without a scan
+     */
+    private static volatile Map<String, List<XdsRoute>> serviceRoutes = Collections.emptyMap();
+
     private XdsDataCache() {
     }
 
@@ -278,9 +284,17 @@ public class XdsDataCache {
     public static void updateRouteConfigurations(List<XdsRouteConfiguration> configurations) {
         if (configurations == null) {
             routeConfigurations = new ArrayList<>();
+            serviceRoutes = Collections.emptyMap();
             return;
         }
+        Map<String, List<XdsRoute>> routes = new HashMap<>();
+        for (XdsRouteConfiguration routeConfiguration : configurations) {
+            for (Entry<String, XdsVirtualHost> entry : routeConfiguration.getVirtualHosts().entrySet()) {
+                routes.putIfAbsent(entry.getKey(), entry.getValue().getRoutes());
+            }
+        }
         routeConfigurations = configurations;
+        serviceRoutes = routes;
     }
 
     /**
@@ -290,13 +304,8 @@ public class XdsDataCache {
      * @return xds route
      */
     public static List<XdsRoute> getServiceRoute(String serviceName) {
-        for (XdsRouteConfiguration routeConfiguration : routeConfigurations) {
-            Map<String, XdsVirtualHost> virtualHosts = routeConfiguration.getVirtualHosts();
-            if (virtualHosts.containsKey(serviceName)) {
-                return virtualHosts.get(serviceName).getRoutes();
-            }
-        }
-        return Collections.EMPTY_LIST;
+        List<XdsRoute> routes = serviceRoutes.get(serviceName);
+        return routes == null ? Collections.EMPTY_LIST : routes;
     }
 
     /**
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.implement.service.tracing.sender;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpanRingBuffer UT
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class SpanRingBufferTest {
+    private static final int PRODUCER_COUNT = 4;
+
+    private static final int ELEMENT_COUNT_PER_PRODUCER = 10000;
+
+    @Test
+    public void testOfferAndDrain() {
+        SpanRingBuffer<Integer> buffer = new SpanRingBuffer<>(3);
+        Assert.assertEquals(4, buffer.getCapacity());
+        Assert.assertTrue(buffer.isEmpty());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue(buffer.offer(4));
+
+        List<Integer> batch = new ArrayList<>();
+        Assert.assertEquals(3, buffer.drainTo(batch, 3));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), batch);
+        Assert.assertEquals(1, buffer.size());
+        buffer.clear();
+        Assert.assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        SpanRingBuffer<Integer> buffer = new SpanRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCER_COUNT);
+        CountDownLatch latch = new CountDownLatch(PRODUCER_COUNT);
+        for (int i = 0; i < PRODUCER_COUNT; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < ELEMENT_COUNT_PER_PRODUCER; j++) {
+                    while (!buffer.offer(j)) {
+                        Thread.yield();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+        long sum = 0;
+        int count = 0;
+        List<Integer> batch = new ArrayList<>();
+        while (count < PRODUCER_COUNT * ELEMENT_COUNT_PER_PRODUCER) {
+            batch.clear();
+            count += buffer.drainTo(batch, 256);
+            for (Integer element : batch) {
+                sum += element;
+            }
+        }
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+        long expectedSum = (long) PRODUCER_COUNT * ELEMENT_COUNT_PER_PRODUCER * (ELEMENT_COUNT_PER_PRODUCER - 1) / 2;
+        Assert.assertEquals(expectedSum, sum);
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testOverflowPolicy() {
+        Assert.assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.of(" drop_oldest "));
+        Assert.assertEquals(OverflowPolicy.SAMPLE, OverflowPolicy.of("SAMPLE"));
+        Assert.assertEquals(OverflowPolicy.DROP_NEWEST, OverflowPolicy.of("unknown"));
+        Assert.assertEquals(OverflowPolicy.DROP_NEWEST, OverflowPolicy.of(null));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.implement.service.tracing.sender;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+import io.sermant.core.config.ConfigManager;
+import io.sermant.core.service.ServiceManager;
+import io.sermant.core.service.send.api.GatewayClient;
+import io.sermant.core.service.tracing.common.SpanEvent;
+import io.sermant.core.service.tracing.config.TracingConfig;
+import io.sermant.implement.service.send.netty.pojo.Message;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TracingSender UT
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class TracingSenderTest {
+    private static final int SPAN_COUNT = 3;
+
+    @Test
+    public void testSendOneMessagePerSpan() throws InterruptedException {
+        List<byte[]> frames = new CopyOnWriteArrayList<>();
+        GatewayClient gatewayClient = Mockito.mock(GatewayClient.class);
+        Mockito.doAnswer(invocation -> frames.add(invocation.getArgument(0))).when(gatewayClient)
+                .send(Mockito.any(byte[].class), Mockito.eq(Message.ServiceData.DataType.TRACING_DATA_VALUE));
+        try (MockedStatic<ConfigManager> configManagerMockedStatic = Mockito.mockStatic(ConfigManager.class);
+                MockedStatic<ServiceManager> serviceManagerMockedStatic = Mockito.mockStatic(ServiceManager.class)) {
+            configManagerMockedStatic.when(() -> ConfigManager.getConfig(TracingConfig.class))
+                    .thenReturn(new TracingConfig());
+            serviceManagerMockedStatic.when(() -> ServiceManager.getService(GatewayClient.class))
+                    .thenReturn(gatewayClient);
+            TracingSender tracingSender = TracingSender.getInstance();
+            tracingSender.start();
+            try {
+                for (int i = 0; i < SPAN_COUNT; i++) {
+                    SpanEvent spanEvent = new SpanEvent();
+                    spanEvent.setTraceId("trace" + i);
+                    spanEvent.setSpanId("span" + i);
+                    tracingSender.offerSpanEvent(spanEvent);
+                }
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (frames.size() < SPAN_COUNT && System.nanoTime() < deadline) {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+            } finally {
+                tracingSender.stop();
+            }
+        }
+
+        // Each span is sent as a tracing message of its own, which is the format the backend reads
+        Assert.assertEquals(SPAN_COUNT, frames.size());
+        for (int i = 0; i < SPAN_COUNT; i++) {
+            JSONObject message = JSON.parseObject(new String(frames.get(i), StandardCharsets.UTF_8));
+            Assert.assertEquals("trace" + i, message.getString("messageId"));
+            Assert.assertEquals("span" + i, message.getJSONObject("body").getString("spanId"));
+        }
+    }
+}
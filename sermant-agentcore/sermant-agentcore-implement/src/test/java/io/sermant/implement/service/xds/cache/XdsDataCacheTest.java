@@ -163,6 +163,9 @@ public class XdsDataCacheTest {
         Assert.assertEquals(1, XdsDataCache.getServiceRoute("serviceA").size());
         Assert.assertEquals("test-route", XdsDataCache.getServiceRoute("serviceA").get(0).getName());
 
+        // the routes of an update are the same list for every lookup, so that the router can keep its compiled table
+        Assert.assertSame(XdsDataCache.getServiceRoute("serviceA"), XdsDataCache.getServiceRoute("serviceA"));
+
         // clear data
         XdsDataCache.updateRouteConfigurations(new ArrayList<>());
     }
@@ -17,6 +17,7 @@
 
 package io.sermant.flowcontrol.common.cache;
 
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 /**
@@ -75,6 +76,13 @@ public interface Cache<K, V> {
      */
     V evict(K key);
 
+    /**
+     * iterate the cached keys and values, the iteration is weakly consistent with the concurrent updates
+     *
+     * @param action action for each key and value
+     */
+    void forEach(BiConsumer<? super K, ? super V> action);
+
     /**
      * release
      */
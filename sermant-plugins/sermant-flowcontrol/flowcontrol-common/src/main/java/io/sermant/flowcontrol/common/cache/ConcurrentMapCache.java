@@ -18,6 +18,7 @@
 package io.sermant.flowcontrol.common.cache;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 /**
  * implemented based on ConcurrentHashMap
@@ -50,6 +51,11 @@ public class ConcurrentMapCache<K, V> implements Cache<K, V> {
         return cache.remove(key);
     }
 
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        cache.forEach(action);
+    }
+
     @Override
     public void release() {
         cache.clear();
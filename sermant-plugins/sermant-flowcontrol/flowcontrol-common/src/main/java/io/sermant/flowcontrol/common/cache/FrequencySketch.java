@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.cache;
+
+/**
+ * Count-min sketch of the access frequencies with 4-bit counters, each long holds sixteen counters. All the counters
+ * are halved once the number of the recorded accesses reaches ten times the maximum size, so that the old popularity
+ * fades
+ * <p>The sketch is not thread-safe, it is guarded by the lock of the cache
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L};
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MAX_FREQUENCY = 15;
+
+    private static final int SAMPLE_FACTOR = 10;
+
+    private final long[] table;
+
+    private final int tableMask;
+
+    private final int sampleSize;
+
+    private int size;
+
+    /**
+     * constructor
+     *
+     * @param maximumSize maximum size of the cache
+     */
+    FrequencySketch(int maximumSize) {
+        final int capacity = Math.max(1, maximumSize);
+        int tableSize = 1;
+        while (tableSize < capacity && tableSize < (1 << 30)) {
+            tableSize <<= 1;
+        }
+        this.table = new long[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sampleSize = capacity > Integer.MAX_VALUE / SAMPLE_FACTOR ? Integer.MAX_VALUE : capacity * SAMPLE_FACTOR;
+    }
+
+    /**
+     * estimated frequency of the key
+     *
+     * @param hashCode hash code of the key
+     * @return frequency, at most 15
+     */
+    int frequency(int hashCode) {
+        final int hash = spread(hashCode);
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final int index = indexOf(hash, i);
+            final int offset = counterOffset(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xfL));
+        }
+        return frequency;
+    }
+
+    /**
+     * record an access of the key
+     *
+     * @param hashCode hash code of the key
+     */
+    void increment(int hashCode) {
+        final int hash = spread(hashCode);
+        boolean isAdded = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final int index = indexOf(hash, i);
+            final int offset = counterOffset(hash, i);
+            if (((table[index] >>> offset) & 0xfL) < MAX_FREQUENCY) {
+                table[index] += 1L << offset;
+                isAdded = true;
+            }
+        }
+        if (isAdded && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long value = (hash + SEEDS[depth]) * SEEDS[depth];
+        value += value >>> 32;
+        return (int) value & tableMask;
+    }
+
+    private int counterOffset(int hash, int depth) {
+        // Each depth uses its own quarter of the sixteen counters of a long
+        return (((hash >>> (depth << 3)) & 3) + (depth << 2)) << 2;
+    }
+
+    private static int spread(int hashCode) {
+        int hash = hashCode * 0x9e3779b9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Size bounded cache with the W-TinyLFU policy. New keys enter a small LRU window, the keys leaving the window compete
+ * with the least recently used key of the main segmented LRU, and the one accessed more frequently according to the
+ * {@link FrequencySketch} stays. Admission and eviction are O(1), no scanning thread is needed
+ * <p>Reads are served by a {@link ConcurrentHashMap}, the policy is updated under a lock, and a read skips updating the
+ * policy instead of waiting when the lock is held by another thread
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class WindowTinyLfuCache<K, V> implements Cache<K, V> {
+    private static final int WINDOW_PERCENT = 1;
+
+    private static final int PROTECTED_PERCENT = 80;
+
+    private static final int PERCENT = 100;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final FrequencySketch sketch;
+
+    private final int windowMaximum;
+
+    private final int mainMaximum;
+
+    private final int protectedMaximum;
+
+    private final Node<K, V> window = Node.createHead(Node.WINDOW);
+
+    private final Node<K, V> probation = Node.createHead(Node.PROBATION);
+
+    private final Node<K, V> protectedSegment = Node.createHead(Node.PROTECTED);
+
+    private int windowSize;
+
+    private int mainSize;
+
+    private int protectedSize;
+
+    /**
+     * constructor
+     *
+     * @param maximumSize maximum number of the cached keys
+     */
+    public WindowTinyLfuCache(int maximumSize) {
+        final int maximum = Math.max(1, maximumSize);
+        this.windowMaximum = Math.max(1, maximum * WINDOW_PERCENT / PERCENT);
+        this.mainMaximum = maximum - windowMaximum;
+        this.protectedMaximum = mainMaximum * PROTECTED_PERCENT / PERCENT;
+        this.sketch = new FrequencySketch(maximum);
+    }
+
+    @Override
+    public Object getCacheTarget() {
+        return data;
+    }
+
+    @Override
+    public V get(K key) {
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (evictionLock.tryLock()) {
+            try {
+                if (node.segment != Node.REMOVED) {
+                    onAccess(node);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        evictionLock.lock();
+        try {
+            final Node<K, V> existing = data.get(key);
+            if (existing != null) {
+                existing.value = value;
+                onAccess(existing);
+                return;
+            }
+            final Node<K, V> node = new Node<>(key, value, Node.WINDOW);
+            data.put(key, node);
+            sketch.increment(key.hashCode());
+            node.linkBefore(window);
+            windowSize++;
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public V evict(K key) {
+        evictionLock.lock();
+        try {
+            final Node<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Map.Entry<K, Node<K, V>> entry : data.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue().value);
+        }
+    }
+
+    @Override
+    public void release() {
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                node.segment = Node.REMOVED;
+            }
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            windowSize = 0;
+            mainSize = 0;
+            protectedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key.hashCode());
+        if (node.segment == Node.WINDOW) {
+            node.moveBefore(window);
+        } else if (node.segment == Node.PROBATION) {
+            // A key accessed again in the probation segment is promoted to the protected segment
+            node.unlinkSelf();
+            node.segment = Node.PROTECTED;
+            node.linkBefore(protectedSegment);
+            protectedSize++;
+            while (protectedSize > protectedMaximum) {
+                final Node<K, V> demoted = protectedSegment.next;
+                demoted.unlinkSelf();
+                demoted.segment = Node.PROBATION;
+                demoted.linkBefore(probation);
+                protectedSize--;
+            }
+        } else {
+            node.moveBefore(protectedSegment);
+        }
+    }
+
+    private void evict() {
+        while (windowSize > windowMaximum) {
+            final Node<K, V> candidate = window.next;
+            candidate.unlinkSelf();
+            windowSize--;
+            candidate.segment = Node.PROBATION;
+            candidate.linkBefore(probation);
+            mainSize++;
+            if (mainSize <= mainMaximum) {
+                continue;
+            }
+            final Node<K, V> victim = probation.next;
+            if (victim == candidate
+                    || sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                remove(candidate);
+            } else {
+                remove(victim);
+            }
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        data.remove(node.key, node);
+        unlink(node);
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.segment == Node.WINDOW) {
+            windowSize--;
+        } else if (node.segment == Node.PROTECTED) {
+            protectedSize--;
+            mainSize--;
+        } else if (node.segment == Node.PROBATION) {
+            mainSize--;
+        } else {
+            return;
+        }
+        node.unlinkSelf();
+        node.segment = Node.REMOVED;
+    }
+
+    /**
+     * cached entry, also a node of the doubly linked list of its segment, the list is circular with a head node
+     *
+     * @param <K> key
+     * @param <V> value
+     * @since 2024-10-15
+     */
+    private static class Node<K, V> {
+        static final int WINDOW = 0;
+
+        static final int PROBATION = 1;
+
+        static final int PROTECTED = 2;
+
+        static final int REMOVED = -1;
+
+        private final K key;
+
+        private volatile V value;
+
+        private int segment;
+
+        private Node<K, V> prev;
+
+        private Node<K, V> next;
+
+        Node(K key, V value, int segment) {
+            this.key = key;
+            this.value = value;
+            this.segment = segment;
+        }
+
+        static <K, V> Node<K, V> createHead(int segment) {
+            final Node<K, V> head = new Node<>(null, null, segment);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        void linkBefore(Node<K, V> head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        void unlinkSelf() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+
+        void moveBefore(Node<K, V> head) {
+            unlinkSelf();
+            linkBefore(head);
+        }
+
+        void clear() {
+            prev = this;
+            next = this;
+        }
+    }
+}
@@ -269,6 +269,26 @@ public class CommonConst {
      */
     public static final String REQUEST_START_TIME = "requestStartTime";
 
+    /**
+     * default number of the buckets of the system rule statistic interval
+     */
+    public static final int SYSTEM_RULE_SAMPLE_COUNT = 10;
+
+    /**
+     * default port of the token server of the cluster rate limiting
+     */
+    public static final int CLUSTER_TOKEN_SERVER_PORT = 18849;
+
+    /**
+     * default maximum number of the connections of the token server
+     */
+    public static final int CLUSTER_TOKEN_SERVER_MAX_CONNECTIONS = 256;
+
+    /**
+     * default timeout of a request to the token server in milliseconds
+     */
+    public static final long CLUSTER_TOKEN_REQUEST_TIMEOUT_MS = 500L;
+
     private CommonConst() {
     }
 }
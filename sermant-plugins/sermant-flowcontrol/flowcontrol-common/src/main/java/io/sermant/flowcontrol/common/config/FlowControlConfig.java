@@ -304,6 +304,52 @@ public class FlowControlConfig implements PluginConfig {
     @ConfigFieldKey("enable-system-rule")
     private boolean enableSystemRule;
 
+    /**
+     * The statistic interval of the system rule in milliseconds, the qps and the average response time are computed
+     * over the latest interval
+     */
+    @ConfigFieldKey("system-rule-interval-ms")
+    private long systemRuleIntervalMs = CommonConst.S_MS_UNIT;
+
+    /**
+     * The number of the buckets that the statistic interval of the system rule is split into, which is also the number
+     * of times the system status is updated in an interval
+     */
+    @ConfigFieldKey("system-rule-sample-count")
+    private int systemRuleSampleCount = CommonConst.SYSTEM_RULE_SAMPLE_COUNT;
+
+    /**
+     * Whether this agent hosts the token server of the cluster rate limiting
+     */
+    @ConfigFieldKey("enable-cluster-token-server")
+    private boolean enableClusterTokenServer;
+
+    /**
+     * The port of the token server hosted by this agent
+     */
+    @ConfigFieldKey("cluster-token-server-port")
+    private int clusterTokenServerPort = CommonConst.CLUSTER_TOKEN_SERVER_PORT;
+
+    /**
+     * The maximum number of the connections of the token server hosted by this agent
+     */
+    @ConfigFieldKey("cluster-token-server-max-connections")
+    private int clusterTokenServerMaxConnections = CommonConst.CLUSTER_TOKEN_SERVER_MAX_CONNECTIONS;
+
+    /**
+     * The address of the token server, host:port. The token server hosted by this agent listens on the host of the
+     * address, or on the loopback address if it is not set. The cluster rate limiters fall back to the limit of the
+     * node if neither the address is set nor the token server is hosted by this agent
+     */
+    @ConfigFieldKey("cluster-token-server-address")
+    private String clusterTokenServerAddress;
+
+    /**
+     * The timeout of a request to the token server in milliseconds
+     */
+    @ConfigFieldKey("cluster-token-request-timeout-ms")
+    private long clusterTokenRequestTimeoutMs = CommonConst.CLUSTER_TOKEN_REQUEST_TIMEOUT_MS;
+
     public boolean isUseOriginInvoker() {
         return useOriginInvoker;
     }
@@ -719,4 +765,60 @@ public class FlowControlConfig implements PluginConfig {
     public boolean isEnableSystemRule() {
         return enableSystemRule;
     }
+
+    public long getSystemRuleIntervalMs() {
+        return systemRuleIntervalMs;
+    }
+
+    public void setSystemRuleIntervalMs(long systemRuleIntervalMs) {
+        this.systemRuleIntervalMs = systemRuleIntervalMs;
+    }
+
+    public int getSystemRuleSampleCount() {
+        return systemRuleSampleCount;
+    }
+
+    public void setSystemRuleSampleCount(int systemRuleSampleCount) {
+        this.systemRuleSampleCount = systemRuleSampleCount;
+    }
+
+    public boolean isEnableClusterTokenServer() {
+        return enableClusterTokenServer;
+    }
+
+    public void setEnableClusterTokenServer(boolean enableClusterTokenServer) {
+        this.enableClusterTokenServer = enableClusterTokenServer;
+    }
+
+    public int getClusterTokenServerPort() {
+        return clusterTokenServerPort;
+    }
+
+    public void setClusterTokenServerPort(int clusterTokenServerPort) {
+        this.clusterTokenServerPort = clusterTokenServerPort;
+    }
+
+    public int getClusterTokenServerMaxConnections() {
+        return clusterTokenServerMaxConnections;
+    }
+
+    public void setClusterTokenServerMaxConnections(int clusterTokenServerMaxConnections) {
+        this.clusterTokenServerMaxConnections = clusterTokenServerMaxConnections;
+    }
+
+    public String getClusterTokenServerAddress() {
+        return clusterTokenServerAddress;
+    }
+
+    public void setClusterTokenServerAddress(String clusterTokenServerAddress) {
+        this.clusterTokenServerAddress = clusterTokenServerAddress;
+    }
+
+    public long getClusterTokenRequestTimeoutMs() {
+        return clusterTokenRequestTimeoutMs;
+    }
+
+    public void setClusterTokenRequestTimeoutMs(long clusterTokenRequestTimeoutMs) {
+        this.clusterTokenRequestTimeoutMs = clusterTokenRequestTimeoutMs;
+    }
 }
@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.match;
+
+import io.sermant.flowcontrol.common.core.match.operator.ExactOperator;
+import io.sermant.flowcontrol.common.core.match.operator.OperatorManager;
+import io.sermant.flowcontrol.common.core.match.operator.PrefixOperator;
+import io.sermant.flowcontrol.common.entity.RequestEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The service scenarios compiled into a decision tree, the request matchers are indexed by the request method, the
+ * service name and the api path, the exact paths are looked up in a hash map and the prefix paths in a trie. Only the
+ * request matchers surviving the index evaluate the header operators and the other path operators
+ * <p>The compiled rules are immutable, they are rebuilt and replaced as a whole when the service scenarios change.
+ * They also decide the request attributes kept by the {@link MatchKey}, which are the ones referenced by the request
+ * matchers
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class CompiledMatchRules {
+    private static final String EXACT_OPERATOR = "exact";
+
+    private static final String PREFIX_OPERATOR = "prefix";
+
+    private static final String[] EMPTY_VALUES = new String[0];
+
+    private final String[] businessNames;
+
+    private final Map<String, ServiceIndex> methodIndexes = new HashMap<>();
+
+    private final ServiceIndex anyMethodIndex = new ServiceIndex();
+
+    private final Set<String> referencedHeaders = new TreeSet<>();
+
+    private String[] headerNames;
+
+    private boolean isServiceNameReferenced;
+
+    private boolean isApiPathReferenced;
+
+    private CompiledMatchRules(String[] businessNames) {
+        this.businessNames = businessNames;
+    }
+
+    /**
+     * compile the service scenarios
+     *
+     * @param businessMatchers service scenarios, service scenario name, service scenario matcher
+     * @return compiled rules
+     */
+    public static CompiledMatchRules compile(Map<String, BusinessMatcher> businessMatchers) {
+        final List<String> names = new ArrayList<>(businessMatchers.size());
+        final List<BusinessMatcher> matchers = new ArrayList<>(businessMatchers.size());
+        for (Map.Entry<String, BusinessMatcher> entry : businessMatchers.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().getMatches() == null) {
+                continue;
+            }
+            names.add(entry.getKey());
+            matchers.add(entry.getValue());
+        }
+        final CompiledMatchRules compiledMatchRules = new CompiledMatchRules(names.toArray(new String[0]));
+        final boolean isExactIndexable = OperatorManager.INSTANCE.getOperator(EXACT_OPERATOR) instanceof ExactOperator;
+        final boolean isPrefixIndexable =
+                OperatorManager.INSTANCE.getOperator(PREFIX_OPERATOR) instanceof PrefixOperator;
+        for (int ordinal = 0; ordinal < matchers.size(); ordinal++) {
+            for (RequestMatcher requestMatcher : matchers.get(ordinal).getMatches()) {
+                if (requestMatcher != null) {
+                    compiledMatchRules.add(ordinal, requestMatcher, isExactIndexable, isPrefixIndexable);
+                }
+            }
+        }
+        compiledMatchRules.headerNames = compiledMatchRules.referencedHeaders.toArray(new String[0]);
+        return compiledMatchRules;
+    }
+
+    /**
+     * create the key of the matched cache, which keeps only the request attributes referenced by the request matchers
+     *
+     * @param request request information
+     * @return match key
+     */
+    public MatchKey createKey(RequestEntity request) {
+        String[] headerValues = EMPTY_VALUES;
+        if (headerNames.length > 0) {
+            headerValues = new String[headerNames.length];
+            final Map<String, String> headers = request.getHeaders();
+            for (int i = 0; i < headerNames.length && headers != null; i++) {
+                headerValues[i] = headers.get(headerNames[i]);
+            }
+        }
+        return new MatchKey(request.getMethod(), isServiceNameReferenced ? request.getServiceName() : null,
+                isApiPathReferenced ? request.getApiPath() : null, headerNames, headerValues);
+    }
+
+    /**
+     * whether the keys created by the other compiled rules keep the same request attributes
+     *
+     * @param other other compiled rules
+     * @return is the same
+     */
+    public boolean hasSameKeyAttributes(CompiledMatchRules other) {
+        return isServiceNameReferenced == other.isServiceNameReferenced
+                && isApiPathReferenced == other.isApiPathReferenced && Arrays.equals(headerNames, other.headerNames);
+    }
+
+    /**
+     * match the service scenarios
+     *
+     * @param request request information
+     * @return names of the matched service scenarios
+     */
+    public List<String> match(RequestEntity request) {
+        final String method = request.getMethod();
+        if (method == null || businessNames.length == 0) {
+            return Collections.emptyList();
+        }
+        final boolean[] matched = new boolean[businessNames.length];
+        final ServiceIndex methodIndex = methodIndexes.get(method);
+        if (methodIndex != null) {
+            methodIndex.collect(request, matched);
+        }
+        anyMethodIndex.collect(request, matched);
+        List<String> result = null;
+        for (int ordinal = 0; ordinal < matched.length; ordinal++) {
+            if (!matched[ordinal]) {
+                continue;
+            }
+            if (result == null) {
+                result = new ArrayList<>();
+            }
+            result.add(businessNames[ordinal]);
+        }
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    private void add(int ordinal, RequestMatcher requestMatcher, boolean isExactIndexable,
+            boolean isPrefixIndexable) {
+        final CompiledMatcher compiledMatcher = new CompiledMatcher(ordinal, requestMatcher);
+        final RawOperator apiPath = requestMatcher.getApiPath();
+        isServiceNameReferenced |= requestMatcher.getServiceName() != null;
+        isApiPathReferenced |= apiPath != null;
+        if (requestMatcher.getHeaders() != null) {
+            referencedHeaders.addAll(requestMatcher.getHeaders().keySet());
+        }
+        String exactPath = null;
+        String prefixPath = null;
+        if (apiPath == null) {
+            compiledMatcher.isApiPathVerified = true;
+        } else if (apiPath.size() == 1) {
+            final Map.Entry<String, String> operator = apiPath.entrySet().iterator().next();
+            if (isExactIndexable && EXACT_OPERATOR.equals(operator.getKey()) && operator.getValue() != null) {
+                exactPath = String.valueOf(operator.getValue());
+            } else if (isPrefixIndexable && PREFIX_OPERATOR.equals(operator.getKey())
+                    && operator.getValue() != null) {
+                prefixPath = String.valueOf(operator.getValue());
+            }
+            compiledMatcher.isApiPathVerified = exactPath != null || prefixPath != null;
+        }
+        if (requestMatcher.getMethod() == null) {
+            anyMethodIndex.add(requestMatcher.getServiceName(), exactPath, prefixPath, compiledMatcher);
+            return;
+        }
+        for (String method : new LinkedHashSet<>(requestMatcher.getMethod())) {
+            methodIndexes.computeIfAbsent(method, key -> new ServiceIndex())
+                    .add(requestMatcher.getServiceName(), exactPath, prefixPath, compiledMatcher);
+        }
+    }
+
+    /**
+     * request matcher with the parts verified by the index
+     *
+     * @since 2024-10-15
+     */
+    private static class CompiledMatcher {
+        private final int ordinal;
+
+        private final RequestMatcher requestMatcher;
+
+        private boolean isApiPathVerified;
+
+        CompiledMatcher(int ordinal, RequestMatcher requestMatcher) {
+            this.ordinal = ordinal;
+            this.requestMatcher = requestMatcher;
+        }
+
+        void collect(RequestEntity request, boolean[] matched) {
+            if (matched[ordinal]) {
+                return;
+            }
+            if (!isApiPathVerified && !requestMatcher.isApiPathMatch(request.getApiPath())) {
+                return;
+            }
+            if (requestMatcher.isHeadersMatch(request.getHeaders())) {
+                matched[ordinal] = true;
+            }
+        }
+    }
+
+    /**
+     * request matchers indexed by the service name
+     *
+     * @since 2024-10-15
+     */
+    private static class ServiceIndex {
+        private final Map<String, PathIndex> serviceIndexes = new HashMap<>();
+
+        private final PathIndex anyServiceIndex = new PathIndex();
+
+        void add(String serviceName, String exactPath, String prefixPath, CompiledMatcher compiledMatcher) {
+            final PathIndex pathIndex = serviceName == null ? anyServiceIndex
+                    : serviceIndexes.computeIfAbsent(serviceName, key -> new PathIndex());
+            pathIndex.add(exactPath, prefixPath, compiledMatcher);
+        }
+
+        void collect(RequestEntity request, boolean[] matched) {
+            final String serviceName = request.getServiceName();
+            if (serviceName != null && !serviceIndexes.isEmpty()) {
+                final PathIndex pathIndex = serviceIndexes.get(serviceName);
+                if (pathIndex != null) {
+                    pathIndex.collect(request, matched);
+                }
+            }
+            anyServiceIndex.collect(request, matched);
+        }
+    }
+
+    /**
+     * request matchers indexed by the api path
+     *
+     * @since 2024-10-15
+     */
+    private static class PathIndex {
+        private final Map<String, List<CompiledMatcher>> exactPaths = new HashMap<>();
+
+        private final PathTrieNode prefixPaths = new PathTrieNode();
+
+        private final List<CompiledMatcher> otherPaths = new ArrayList<>();
+
+        void add(String exactPath, String prefixPath, CompiledMatcher compiledMatcher) {
+            if (exactPath != null) {
+                exactPaths.computeIfAbsent(exactPath, key -> new ArrayList<>()).add(compiledMatcher);
+            } else if (prefixPath != null) {
+                prefixPaths.add(prefixPath, compiledMatcher);
+            } else {
+                otherPaths.add(compiledMatcher);
+            }
+        }
+
+        void collect(RequestEntity request, boolean[] matched) {
+            final String apiPath = request.getApiPath();
+            if (apiPath != null) {
+                final List<CompiledMatcher> exactMatchers = exactPaths.get(apiPath);
+                if (exactMatchers != null) {
+                    collect(exactMatchers, request, matched);
+                }
+                prefixPaths.collect(apiPath, request, matched);
+            }
+            collect(otherPaths, request, matched);
+        }
+
+        static void collect(List<CompiledMatcher> compiledMatchers, RequestEntity request, boolean[] matched) {
+            for (CompiledMatcher compiledMatcher : compiledMatchers) {
+                compiledMatcher.collect(request, matched);
+            }
+        }
+    }
+
+    /**
+     * trie node of the prefix paths, the children are kept in arrays sorted by the character
+     *
+     * @since 2024-10-15
+     */
+    private static class PathTrieNode {
+        private static final char[] EMPTY_KEYS = new char[0];
+
+        private static final PathTrieNode[] EMPTY_CHILDREN = new PathTrieNode[0];
+
+        private char[] keys = EMPTY_KEYS;
+
+        private PathTrieNode[] children = EMPTY_CHILDREN;
+
+        private List<CompiledMatcher> compiledMatchers;
+
+        void add(String prefixPath, CompiledMatcher compiledMatcher) {
+            PathTrieNode node = this;
+            for (int i = 0; i < prefixPath.length(); i++) {
+                node = node.getOrCreateChild(prefixPath.charAt(i));
+            }
+            if (node.compiledMatchers == null) {
+                node.compiledMatchers = new ArrayList<>();
+            }
+            node.compiledMatchers.add(compiledMatcher);
+        }
+
+        void collect(String apiPath, RequestEntity request, boolean[] matched) {
+            PathTrieNode node = this;
+            int index = 0;
+            while (node != null) {
+                if (node.compiledMatchers != null) {
+                    PathIndex.collect(node.compiledMatchers, request, matched);
+                }
+                if (index >= apiPath.length()) {
+                    return;
+                }
+                node = node.getChild(apiPath.charAt(index++));
+            }
+        }
+
+        private PathTrieNode getChild(char key) {
+            final int index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : children[index];
+        }
+
+        private PathTrieNode getOrCreateChild(char key) {
+            final int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            final int insertion = -index - 1;
+            final char[] newKeys = new char[keys.length + 1];
+            final PathTrieNode[] newChildren = new PathTrieNode[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            final PathTrieNode child = new PathTrieNode();
+            newKeys[insertion] = key;
+            newChildren[insertion] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.match;
+
+import io.sermant.flowcontrol.common.entity.RequestEntity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Key of the matched cache, which only keeps the request attributes referenced by the service scenarios, so the
+ * requests differing in the other headers share one key. The key is also a request of the kept attributes, so that the
+ * cached keys can be matched again by a changed service scenario
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public final class MatchKey implements RequestEntity {
+    private final String method;
+
+    private final String serviceName;
+
+    private final String apiPath;
+
+    private final String[] headerNames;
+
+    private final String[] headerValues;
+
+    private final int hash;
+
+    /**
+     * constructor
+     *
+     * @param method request method
+     * @param serviceName service name, null if not referenced
+     * @param apiPath api path, null if not referenced
+     * @param headerNames names of the referenced headers
+     * @param headerValues values of the referenced headers
+     */
+    MatchKey(String method, String serviceName, String apiPath, String[] headerNames, String[] headerValues) {
+        this.method = method;
+        this.serviceName = serviceName;
+        this.apiPath = apiPath;
+        this.headerNames = headerNames;
+        this.headerValues = headerValues;
+        int result = Objects.hashCode(method);
+        result = 31 * result + Objects.hashCode(serviceName);
+        result = 31 * result + Objects.hashCode(apiPath);
+        this.hash = 31 * result + Arrays.hashCode(headerValues);
+    }
+
+    @Override
+    public String getApiPath() {
+        return apiPath;
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        if (headerNames.length == 0) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> headers = new HashMap<>();
+        for (int i = 0; i < headerNames.length; i++) {
+            if (headerValues[i] != null) {
+                headers.put(headerNames[i], headerValues[i]);
+            }
+        }
+        return headers;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    @Override
+    public RequestType getRequestType() {
+        return RequestType.BOTH;
+    }
+
+    @Override
+    public void setTimestamp(long timestamp) {
+        // The key is immutable, the cache keeps the access order by itself
+    }
+
+    @Override
+    public long getTimestamp() {
+        return 0L;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MatchKey)) {
+            return false;
+        }
+        final MatchKey that = (MatchKey) obj;
+        return hash == that.hash && Objects.equals(method, that.method)
+                && Objects.equals(serviceName, that.serviceName) && Objects.equals(apiPath, that.apiPath)
+                && Arrays.equals(headerNames, that.headerNames) && Arrays.equals(headerValues, that.headerValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -17,11 +17,13 @@
 
 package io.sermant.flowcontrol.common.core.match;
 
+import io.sermant.flowcontrol.common.cache.Cache;
 import io.sermant.flowcontrol.common.core.ResolverManager;
+import io.sermant.flowcontrol.common.core.resolver.listener.ConfigUpdateListener;
 import io.sermant.flowcontrol.common.entity.RequestEntity;
 
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -37,12 +39,27 @@ public enum MatchManager {
      */
     INSTANCE;
 
-    private static final int DEFAULT_BUSINESS_SIZE = 4;
+    private final Object compileLock = new Object();
 
-    private final MatchedCache matchedCache = new MatchedCache();
+    private final MatchedCache matchedCache;
 
     private MatchGroupResolver matchGroupResolver;
 
+    /**
+     * service scenarios compiled into the decision tree, compiled lazily and replaced when the scenarios change
+     */
+    private volatile CompiledMatchRules compiledMatchRules;
+
+    MatchManager() {
+        // The compiling listener is registered before the cache listener, so that the cached results are refreshed
+        // by the recompiled rules
+        final MatchGroupResolver resolver = getMatchGroupResolver();
+        if (resolver != null) {
+            resolver.registerListener(new CompileListener());
+        }
+        matchedCache = new MatchedCache();
+    }
+
     /**
      * matches all service scenarios
      *
@@ -61,13 +78,23 @@ public enum MatchManager {
      * @return matching service scenarios
      */
     public Set<String> matchWithCache(RequestEntity request, String businessName) {
-        final Set<String> businesses = matchedCache.getDelegate().get(request);
+        if (businessName != null) {
+            return match(request, businessName);
+        }
+        final CompiledMatchRules rules = getCompiledMatchRules();
+        final MatchKey key = rules.createKey(request);
+        final Cache<MatchKey, MatchedBusinesses> cache = matchedCache.getDelegate();
+        final MatchedBusinesses businesses = cache.get(key);
         if (businesses != null) {
-            return businesses;
+            return businesses.getBusinessNames();
         }
-        final Set<String> result = match(request, businessName);
-        matchedCache.getDelegate().put(request, result);
-        return result;
+        final MatchedBusinesses result = MatchedBusinesses.of(rules.match(request));
+
+        // The result matched by the replaced rules is not cached, the cache has been refreshed by the new rules
+        if (rules == compiledMatchRules) {
+            cache.put(key, result);
+        }
+        return result.getBusinessNames();
     }
 
     /**
@@ -79,31 +106,31 @@ public enum MatchManager {
      */
     public Set<String> match(RequestEntity request, String businessName) {
         // matchingRule
-        final Map<String, BusinessMatcher> matchGroups = getMatchGroups(businessName);
-        final Set<String> result = new HashSet<>(DEFAULT_BUSINESS_SIZE);
-        for (Map.Entry<String, BusinessMatcher> entry : matchGroups.entrySet()) {
-            if (entry.getValue().match(request)) {
-                if (!ResolverManager.INSTANCE.hasMatchedRule(entry.getKey())) {
-                    continue;
-                }
-
-                // resourceName（service scenario name）
-                result.add(entry.getKey());
-            }
-        }
-        return result.isEmpty() ? Collections.emptySet() : result;
+        return MatchedBusinesses.of(matchBusinessNames(request, businessName)).getBusinessNames();
     }
 
-    private Map<String, BusinessMatcher> getMatchGroups(String businessName) {
-        final Map<String, BusinessMatcher> matchGroups = getMatchGroupResolver().getRules();
+    private List<String> matchBusinessNames(RequestEntity request, String businessName) {
         if (businessName == null) {
-            return matchGroups;
+            return getCompiledMatchRules().match(request);
         }
-        final BusinessMatcher businessMatcher = matchGroups.get(businessName);
-        if (businessMatcher == null) {
-            return Collections.emptyMap();
+        final BusinessMatcher businessMatcher = getMatchGroupResolver().getRules().get(businessName);
+        if (businessMatcher == null || !businessMatcher.match(request)) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(businessName);
+    }
+
+    private CompiledMatchRules getCompiledMatchRules() {
+        final CompiledMatchRules rules = compiledMatchRules;
+        if (rules != null) {
+            return rules;
+        }
+        synchronized (compileLock) {
+            if (compiledMatchRules == null) {
+                compiledMatchRules = CompiledMatchRules.compile(getMatchGroupResolver().getRules());
+            }
+            return compiledMatchRules;
         }
-        return Collections.singletonMap(businessName, businessMatcher);
     }
 
     private MatchGroupResolver getMatchGroupResolver() {
@@ -116,4 +143,26 @@ public enum MatchManager {
     public MatchedCache getMatchedCache() {
         return matchedCache;
     }
+
+    /**
+     * listener recompiling the service scenarios when they change
+     *
+     * @since 2024-10-15
+     */
+    class CompileListener implements ConfigUpdateListener<BusinessMatcher> {
+        @Override
+        public void notify(String updateKey, Map<String, BusinessMatcher> rules) {
+            final CompiledMatchRules compiled = CompiledMatchRules.compile(rules);
+            final CompiledMatchRules previous;
+            synchronized (compileLock) {
+                previous = compiledMatchRules;
+                compiledMatchRules = compiled;
+            }
+
+            // The cached keys are useless once the new rules reference other request attributes
+            if (previous != null && !previous.hasSameKeyAttributes(compiled)) {
+                matchedCache.invalidateAll();
+            }
+        }
+    }
 }
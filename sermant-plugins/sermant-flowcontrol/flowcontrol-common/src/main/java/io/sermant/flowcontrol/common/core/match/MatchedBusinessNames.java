@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.match;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Names of the service scenarios having rules of a cached match result. The set also keeps the handlers resolved for
+ * it by each request handler, so a request matching the cached result gets all its handlers without resolving them
+ * again. The handlers of a request handler are resolved again once its rules change
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public final class MatchedBusinessNames extends AbstractSet<String> {
+    private static final HandlerSlot[] EMPTY_SLOTS = new HandlerSlot[0];
+
+    private final Set<String> names;
+
+    /**
+     * handlers indexed by the slot of the request handler, the array is replaced as a whole when a slot is set
+     */
+    private volatile HandlerSlot[] handlerSlots = EMPTY_SLOTS;
+
+    /**
+     * constructor
+     *
+     * @param names names of the service scenarios
+     */
+    public MatchedBusinessNames(Set<String> names) {
+        this.names = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * get the handlers resolved by a request handler
+     *
+     * @param slot slot of the request handler
+     * @param version version of the rules of the request handler
+     * @param <H> handler
+     * @return handlers, null if they are not resolved for the version
+     */
+    public <H> List<H> getHandlers(int slot, long version) {
+        final HandlerSlot[] slots = handlerSlots;
+        if (slot >= slots.length) {
+            return null;
+        }
+        final HandlerSlot handlerSlot = slots[slot];
+        if (handlerSlot == null || handlerSlot.version != version) {
+            return null;
+        }
+        return (List<H>) handlerSlot.handlers;
+    }
+
+    /**
+     * keep the handlers resolved by a request handler. The handlers kept concurrently by other request handlers may be
+     * lost, and they are resolved again by the next request
+     *
+     * @param slot slot of the request handler
+     * @param version version of the rules the handlers are resolved by
+     * @param handlers handlers
+     */
+    public void setHandlers(int slot, long version, List<?> handlers) {
+        final HandlerSlot[] slots = Arrays.copyOf(handlerSlots, Math.max(handlerSlots.length, slot + 1));
+        slots[slot] = new HandlerSlot(version, handlers);
+        handlerSlots = slots;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return names.iterator();
+    }
+
+    @Override
+    public int size() {
+        return names.size();
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+        return names.contains(obj);
+    }
+
+    /**
+     * handlers of a request handler
+     *
+     * @since 2024-10-15
+     */
+    private static final class HandlerSlot {
+        private final long version;
+
+        private final List<?> handlers;
+
+        HandlerSlot(long version, List<?> handlers) {
+            this.version = version;
+            this.handlers = handlers;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.match;
+
+import io.sermant.flowcontrol.common.core.ResolverManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cached match result, the service scenarios matched by the matchers are kept besides the ones having rules, so that
+ * the result is refreshed without matching again when the rules of a service scenario change. The names having rules
+ * are a {@link MatchedBusinessNames}, which also keeps the handlers resolved for them
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public final class MatchedBusinesses {
+    private static final int DEFAULT_BUSINESS_SIZE = 4;
+
+    private final List<String> matchedNames;
+
+    private final Set<String> businessNames;
+
+    private MatchedBusinesses(List<String> matchedNames, Set<String> businessNames) {
+        this.matchedNames = matchedNames;
+        this.businessNames = businessNames;
+    }
+
+    /**
+     * build the result from the matched service scenarios
+     *
+     * @param matchedNames names of the service scenarios matched by the matchers
+     * @return match result
+     */
+    public static MatchedBusinesses of(List<String> matchedNames) {
+        if (matchedNames.isEmpty()) {
+            return new MatchedBusinesses(Collections.emptyList(), Collections.emptySet());
+        }
+        final Set<String> result = new HashSet<>(DEFAULT_BUSINESS_SIZE);
+        for (String matchedName : matchedNames) {
+            // resourceName（service scenario name）
+            if (ResolverManager.INSTANCE.hasMatchedRule(matchedName)) {
+                result.add(matchedName);
+            }
+        }
+        return new MatchedBusinesses(matchedNames,
+                result.isEmpty() ? Collections.emptySet() : new MatchedBusinessNames(result));
+    }
+
+    /**
+     * whether the service scenario is matched by its matchers
+     *
+     * @param businessName service scenario name
+     * @return is matched
+     */
+    public boolean isMatched(String businessName) {
+        return matchedNames.contains(businessName);
+    }
+
+    /**
+     * build the result with the service scenario matched or not
+     *
+     * @param businessName service scenario name
+     * @param isMatched whether the service scenario is matched
+     * @return match result
+     */
+    public MatchedBusinesses withMatched(String businessName, boolean isMatched) {
+        final List<String> names = new ArrayList<>(matchedNames);
+        names.remove(businessName);
+        if (isMatched) {
+            names.add(businessName);
+        }
+        return of(names);
+    }
+
+    /**
+     * filter the matched service scenarios by the current rules again
+     *
+     * @return match result
+     */
+    public MatchedBusinesses refresh() {
+        return of(matchedNames);
+    }
+
+    public Set<String> getBusinessNames() {
+        return businessNames;
+    }
+}
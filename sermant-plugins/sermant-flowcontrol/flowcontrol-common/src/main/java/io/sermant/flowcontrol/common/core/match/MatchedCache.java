@@ -19,29 +19,25 @@ package io.sermant.flowcontrol.common.core.match;
 
 import io.sermant.core.plugin.config.PluginConfigManager;
 import io.sermant.flowcontrol.common.cache.Cache;
-import io.sermant.flowcontrol.common.cache.TimedConcurrentMapCache;
-import io.sermant.flowcontrol.common.config.CommonConst;
+import io.sermant.flowcontrol.common.cache.WindowTinyLfuCache;
 import io.sermant.flowcontrol.common.config.FlowControlConfig;
 import io.sermant.flowcontrol.common.core.ResolverManager;
 import io.sermant.flowcontrol.common.core.resolver.AbstractResolver;
 import io.sermant.flowcontrol.common.core.resolver.listener.ConfigUpdateListener;
-import io.sermant.flowcontrol.common.entity.RequestEntity;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 
 /**
  * matching cache, cache the request body that already matches
+ * <p>The cache is bounded by the W-TinyLFU policy and keyed by {@link MatchKey}. When a rule changes, only the entries
+ * affected by the changed service scenario are updated
  *
  * @author zhouss
  * @since 2022-07-21
  */
 public class MatchedCache {
-    private volatile Cache<RequestEntity, Set<String>> cache;
+    private volatile Cache<MatchKey, MatchedBusinesses> cache;
 
     /**
      * constructor
@@ -50,7 +46,11 @@ public class MatchedCache {
         final CacheListener cacheListener = new CacheListener();
         final Collection<AbstractResolver<?>> resolvers = ResolverManager.INSTANCE.getResolversMap().values();
         for (AbstractResolver<?> resolver : resolvers) {
-            resolver.registerListener(cacheListener);
+            if (resolver instanceof MatchGroupResolver) {
+                ((MatchGroupResolver) resolver).registerListener(new MatchGroupListener());
+            } else {
+                resolver.registerListener(cacheListener);
+            }
         }
     }
 
@@ -59,15 +59,14 @@ public class MatchedCache {
      *
      * @return Cache
      */
-    public Cache<RequestEntity, Set<String>> getDelegate() {
+    public Cache<MatchKey, MatchedBusinesses> getDelegate() {
         if (cache != null) {
             return cache;
         }
         synchronized (MatchManager.INSTANCE) {
             if (cache == null) {
                 final FlowControlConfig config = PluginConfigManager.getPluginConfig(FlowControlConfig.class);
-                cache = new TimedConcurrentMapCache<>(config.getMaxCacheSize(),
-                        config.getTimedCheckInterval() * CommonConst.S_MS_UNIT);
+                cache = new WindowTinyLfuCache<>(config.getMaxCacheSize());
             }
         }
         return cache;
@@ -83,37 +82,54 @@ public class MatchedCache {
     }
 
     /**
-     * cache listeners that listen for all policy changes
+     * remove all the cached results
+     */
+    void invalidateAll() {
+        if (cache != null) {
+            cache.release();
+        }
+    }
+
+    /**
+     * cache listeners that listen for the rule changes, the results of the changed service scenario are filtered again
      *
      * @since 2022-07-21
      */
     class CacheListener implements ConfigUpdateListener {
         @Override
         public void notify(String updateKey, Map rules) {
-            if (cache == null) {
-                return;
-            }
-            final Object cacheTarget = cache.getCacheTarget();
-            if (!(cacheTarget instanceof Map)) {
+            final Cache<MatchKey, MatchedBusinesses> curCache = cache;
+            if (curCache == null) {
                 return;
             }
-            Map<RequestEntity, Set<String>> curCache = (Map<RequestEntity, Set<String>>) cacheTarget;
-            updateAllBusinessCache(curCache);
+            curCache.forEach((key, businesses) -> {
+                if (businesses.isMatched(updateKey)) {
+                    curCache.put(key, businesses.refresh());
+                }
+            });
         }
+    }
 
-        private void updateAllBusinessCache(Map<RequestEntity, Set<String>> curCache) {
-            final List<RequestEntity> needRemoveEntity = new ArrayList<>();
-            for (Entry<RequestEntity, Set<String>> entry : curCache.entrySet()) {
-                final RequestEntity requestEntity = entry.getKey();
-                final Set<String> match = MatchManager.INSTANCE.match(requestEntity, null);
-                if (!match.isEmpty()) {
-                    cache.put(requestEntity, match);
-                } else {
-                    needRemoveEntity.add(entry.getKey());
-                }
+    /**
+     * cache listeners that listen for the service scenario changes, the cached keys are matched by the changed service
+     * scenario only
+     *
+     * @since 2024-10-15
+     */
+    class MatchGroupListener implements ConfigUpdateListener<BusinessMatcher> {
+        @Override
+        public void notify(String updateKey, Map<String, BusinessMatcher> rules) {
+            final Cache<MatchKey, MatchedBusinesses> curCache = cache;
+            if (curCache == null) {
+                return;
             }
-            needRemoveEntity.forEach(requestEntity -> cache.evict(requestEntity));
-            needRemoveEntity.clear();
+            final BusinessMatcher businessMatcher = rules.get(updateKey);
+            curCache.forEach((key, businesses) -> {
+                final boolean isMatched = businessMatcher != null && businessMatcher.match(key);
+                if (isMatched != businesses.isMatched(updateKey)) {
+                    curCache.put(key, businesses.withMatched(updateKey, isMatched));
+                }
+            });
         }
     }
 }
@@ -133,7 +133,7 @@ public class RequestMatcher implements Matcher {
         return this.serviceName.equals(targetServiceName);
     }
 
-    private boolean isHeadersMatch(Map<String, String> requestHeaders) {
+    boolean isHeadersMatch(Map<String, String> requestHeaders) {
         if (this.headers == null) {
             return true;
         }
@@ -151,7 +151,7 @@ public class RequestMatcher implements Matcher {
         return true;
     }
 
-    private boolean isApiPathMatch(String api) {
+    boolean isApiPathMatch(String api) {
         if (this.apiPath == null) {
             return true;
         }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.resolver;
+
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+
+/**
+ * adaptive concurrency configuration analysis
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyRuleResolver extends AbstractResolver<AdaptiveConcurrencyRule> {
+    /**
+     * adaptive concurrency configuration key
+     */
+    public static final String CONFIG_KEY = "servicecomb.adaptiveConcurrency";
+
+    /**
+     * adaptive concurrency constructor
+     */
+    public AdaptiveConcurrencyRuleResolver() {
+        super(CONFIG_KEY);
+    }
+
+    @Override
+    protected Class<AdaptiveConcurrencyRule> getRuleClass() {
+        return AdaptiveConcurrencyRule.class;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.rule;
+
+/**
+ * adaptive concurrency rule, the concurrency limit is estimated from the observed response time against the minimum
+ * response time, and follows the capacity of the service without a fixed threshold
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyRule extends AbstractRule {
+    /**
+     * gradient algorithm, the limit is scaled by the ratio of the minimum response time to the response time
+     */
+    public static final String ALGORITHM_GRADIENT = "gradient";
+
+    /**
+     * vegas algorithm, the limit grows or shrinks by the number of the requests estimated to be queued
+     */
+    public static final String ALGORITHM_VEGAS = "vegas";
+
+    /**
+     * default initial limit
+     */
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    /**
+     * default minimum limit
+     */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    /**
+     * default maximum limit
+     */
+    public static final int DEFAULT_MAX_LIMIT = 1000;
+
+    /**
+     * default smoothing factor of the limit
+     */
+    public static final double DEFAULT_SMOOTHING = 0.2D;
+
+    /**
+     * default tolerance of the response time against the minimum one
+     */
+    public static final double DEFAULT_RT_TOLERANCE = 1.5D;
+
+    /**
+     * default number of the samples between the probes of the minimum response time
+     */
+    public static final int DEFAULT_PROBE_INTERVAL = 1000;
+
+    /**
+     * limit algorithm, gradient or vegas
+     */
+    private String algorithm = ALGORITHM_GRADIENT;
+
+    /**
+     * limit before any response time is observed
+     */
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+
+    /**
+     * minimum limit
+     */
+    private int minLimit = DEFAULT_MIN_LIMIT;
+
+    /**
+     * maximum limit
+     */
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+
+    /**
+     * smoothing factor (0, 1], the weight of the new estimate when the limit is updated
+     */
+    private double smoothing = DEFAULT_SMOOTHING;
+
+    /**
+     * the gradient algorithm does not shrink the limit while the response time is within the minimum one multiplied by
+     * the tolerance
+     */
+    private double rtTolerance = DEFAULT_RT_TOLERANCE;
+
+    /**
+     * number of the samples between the probes of the minimum response time, the limit is lowered for a moment to
+     * measure the response time without queueing, so that the minimum follows the service when it gets slower
+     */
+    private int probeInterval = DEFAULT_PROBE_INTERVAL;
+
+    @Override
+    public boolean isInValid() {
+        if (!ALGORITHM_GRADIENT.equalsIgnoreCase(algorithm) && !ALGORITHM_VEGAS.equalsIgnoreCase(algorithm)) {
+            return true;
+        }
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            return true;
+        }
+        if (smoothing <= 0D || smoothing > 1D || rtTolerance < 1D || probeInterval <= 0) {
+            return true;
+        }
+        return super.isInValid();
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public double getRtTolerance() {
+        return rtTolerance;
+    }
+
+    public void setRtTolerance(double rtTolerance) {
+        this.rtTolerance = rtTolerance;
+    }
+
+    public int getProbeInterval() {
+        return probeInterval;
+    }
+
+    public void setProbeInterval(int probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+}
@@ -64,9 +64,37 @@ public class RateLimitingRule extends AbstractRule {
      */
     private int rate = DEFAULT_RATE;
 
+    /**
+     * type of the rate limiter, resilience4j, token-bucket, leaky-bucket or cluster, resilience4j is used if not set
+     */
+    private String limiterType;
+
+    /**
+     * maximum permits accumulated by the token-bucket limiter, the rate is used if not set
+     */
+    private int burst;
+
+    /**
+     * warm-up time of the leaky-bucket limiter, the limiter starts at a third of the rate and reaches the rate after
+     * the warm-up time, no warm-up if not set
+     */
+    private String warmUpPeriod = "0";
+
+    /**
+     * the warm-up time after conversion
+     */
+    private long parsedWarmUpPeriod;
+
+    /**
+     * permits of a period shared by all the nodes of the cluster limiter, the rate is the limit of a node when the
+     * token server is unreachable
+     */
+    private int clusterRate;
+
     @Override
     public boolean isInValid() {
-        return parsedTimeoutDuration < 0 || parsedLimitRefreshPeriod <= 0 || rate <= 0 || super.isInValid();
+        return parsedTimeoutDuration < 0 || parsedLimitRefreshPeriod <= 0 || rate <= 0 || burst < 0
+                || parsedWarmUpPeriod < 0 || clusterRate < 0 || super.isInValid();
     }
 
     public long getParsedTimeoutDuration() {
@@ -112,4 +140,46 @@ public class RateLimitingRule extends AbstractRule {
     public void setRate(int rate) {
         this.rate = rate;
     }
+
+    public String getLimiterType() {
+        return limiterType;
+    }
+
+    public void setLimiterType(String limiterType) {
+        this.limiterType = limiterType;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public String getWarmUpPeriod() {
+        return warmUpPeriod;
+    }
+
+    /**
+     * set the warm-up time
+     *
+     * @param warmUpPeriod warm-up time
+     */
+    public void setWarmUpPeriod(String warmUpPeriod) {
+        this.warmUpPeriod = warmUpPeriod;
+        this.parsedWarmUpPeriod = parseLongTime(warmUpPeriod, 0L);
+    }
+
+    public long getParsedWarmUpPeriod() {
+        return parsedWarmUpPeriod;
+    }
+
+    public int getClusterRate() {
+        return clusterRate;
+    }
+
+    public void setClusterRate(int clusterRate) {
+        this.clusterRate = clusterRate;
+    }
 }
@@ -47,6 +47,11 @@ public class RetryRule extends AbstractRule {
      */
     public static final String DEFAULT_RETRY_ON_RESPONSE_STATUS = "502";
 
+    /**
+     * default maximum extra load of the hedged requests, percentage of the requests
+     */
+    public static final int DEFAULT_HEDGING_BUDGET_PERCENT = 10;
+
     /**
      * default initial base
      */
@@ -72,6 +77,11 @@ public class RetryRule extends AbstractRule {
      */
     private static final long MIN_INITIAL_INTERVAL_MS = 10L;
 
+    /**
+     * maximum extra load of the hedged requests, percentage of the requests
+     */
+    private static final int MAX_HEDGING_BUDGET_PERCENT = 100;
+
     /**
      * maximum attempts
      */
@@ -128,6 +138,29 @@ public class RetryRule extends AbstractRule {
      */
     private int retryOnSame = 0;
 
+    /**
+     * Delay of the hedged request, a second attempt is sent to another instance if the first one does not respond
+     * within the delay, and the first response wins. Hedging is disabled if neither the delay nor the percentile is
+     * configured
+     */
+    private String hedgingDelay;
+
+    /**
+     * the hedging delay after conversion, milliseconds
+     */
+    private long parsedHedgingDelay;
+
+    /**
+     * Percentile of the response time used as the hedging delay, e.g. 0.95, which takes precedence over the fixed
+     * delay once enough responses are observed
+     */
+    private double hedgingPercentile;
+
+    /**
+     * maximum extra load of the hedged requests, percentage of the requests
+     */
+    private int hedgingBudgetPercent = DEFAULT_HEDGING_BUDGET_PERCENT;
+
     @Override
     public boolean isInValid() {
         if (maxAttempts < 1) {
@@ -142,6 +175,12 @@ public class RetryRule extends AbstractRule {
         if (parsedInitialInterval < MIN_INITIAL_INTERVAL_MS) {
             return true;
         }
+        if (parsedHedgingDelay < 0 || hedgingPercentile < 0 || hedgingPercentile >= 1) {
+            return true;
+        }
+        if (hedgingBudgetPercent <= 0 || hedgingBudgetPercent > MAX_HEDGING_BUDGET_PERCENT) {
+            return true;
+        }
         return super.isInValid();
     }
 
@@ -236,4 +275,47 @@ public class RetryRule extends AbstractRule {
     public long getParsedInitialInterval() {
         return parsedInitialInterval;
     }
+
+    /**
+     * whether the hedged requests are enabled
+     *
+     * @return enabled or not
+     */
+    public boolean isHedgingEnabled() {
+        return parsedHedgingDelay > 0 || hedgingPercentile > 0;
+    }
+
+    public String getHedgingDelay() {
+        return hedgingDelay;
+    }
+
+    /**
+     * hedging delay
+     *
+     * @param hedgingDelay hedging delay
+     */
+    public void setHedgingDelay(String hedgingDelay) {
+        this.hedgingDelay = hedgingDelay;
+        this.parsedHedgingDelay = parseLongTime(hedgingDelay, 0L);
+    }
+
+    public long getParsedHedgingDelay() {
+        return parsedHedgingDelay;
+    }
+
+    public double getHedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    public void setHedgingPercentile(double hedgingPercentile) {
+        this.hedgingPercentile = hedgingPercentile;
+    }
+
+    public int getHedgingBudgetPercent() {
+        return hedgingBudgetPercent;
+    }
+
+    public void setHedgingBudgetPercent(int hedgingBudgetPercent) {
+        this.hedgingBudgetPercent = hedgingBudgetPercent;
+    }
 }
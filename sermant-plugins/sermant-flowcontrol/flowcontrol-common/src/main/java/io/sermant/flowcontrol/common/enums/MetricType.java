@@ -170,6 +170,11 @@ public enum MetricType {
      */
     AVG_RESPONSE_TIME("avg_response_time", "the number is  number of response time"),
 
+    /**
+     * response time quantiles
+     */
+    RESPONSE_TIME("response_time", "the number is response time in milliseconds at the quantile"),
+
     /**
      * circuit breaker failure rate
      */
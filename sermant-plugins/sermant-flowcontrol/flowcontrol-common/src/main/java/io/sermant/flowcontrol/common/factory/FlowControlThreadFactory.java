@@ -28,17 +28,32 @@ import java.util.concurrent.ThreadFactory;
 public class FlowControlThreadFactory implements ThreadFactory {
     private final String threadName;
 
+    private final boolean isDaemon;
+
     /**
      * flow controlled thread factory
      *
      * @param threadName thread name
      */
     public FlowControlThreadFactory(String threadName) {
+        this(threadName, false);
+    }
+
+    /**
+     * flow controlled thread factory
+     *
+     * @param threadName thread name
+     * @param isDaemon whether the threads are daemon threads
+     */
+    public FlowControlThreadFactory(String threadName, boolean isDaemon) {
         this.threadName = threadName;
+        this.isDaemon = isDaemon;
     }
 
     @Override
     public Thread newThread(Runnable runnable) {
-        return new Thread(runnable, threadName);
+        final Thread thread = new Thread(runnable, threadName);
+        thread.setDaemon(isDaemon);
+        return thread;
     }
 }
@@ -19,17 +19,20 @@ package io.sermant.flowcontrol.common.handler;
 
 import io.sermant.flowcontrol.common.core.ResolverManager;
 import io.sermant.flowcontrol.common.core.match.MatchManager;
+import io.sermant.flowcontrol.common.core.match.MatchedBusinessNames;
 import io.sermant.flowcontrol.common.core.resolver.AbstractResolver;
 import io.sermant.flowcontrol.common.core.rule.AbstractRule;
 import io.sermant.flowcontrol.common.entity.RequestEntity;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * interceptRequestHandler
@@ -40,11 +43,23 @@ import java.util.stream.Collectors;
  * @since 2022-01-22
  */
 public abstract class AbstractRequestHandler<H, R extends AbstractRule> {
+    private static final AtomicInteger SLOT_GENERATOR = new AtomicInteger();
+
     /**
      * Handler cache
      */
     private final Map<String, Optional<H>> handlers = new ConcurrentHashMap<>();
 
+    /**
+     * slot of the handlers of this request handler in {@link MatchedBusinessNames}
+     */
+    private final int slot = SLOT_GENERATOR.getAndIncrement();
+
+    /**
+     * version of the rules, the handlers kept by {@link MatchedBusinessNames} are resolved again once it changes
+     */
+    private final AtomicLong rulesVersion = new AtomicLong();
+
     /**
      * construction method
      */
@@ -53,7 +68,10 @@ public abstract class AbstractRequestHandler<H, R extends AbstractRule> {
     }
 
     private void registerConfigListener() {
-        ResolverManager.INSTANCE.registerListener(configKey(), (updateKey, rules) -> handlers.remove(updateKey));
+        ResolverManager.INSTANCE.registerListener(configKey(), (updateKey, rules) -> {
+            handlers.remove(updateKey);
+            rulesVersion.incrementAndGet();
+        });
     }
 
     /**
@@ -71,17 +89,38 @@ public abstract class AbstractRequestHandler<H, R extends AbstractRule> {
     }
 
     /**
-     * create handler
+     * create handler, the handlers are kept by the matched service names if they come from the matched cache
      *
      * @param businessNames matched service name
      * @return handler
      */
     public List<H> createOrGetHandlers(Set<String> businessNames) {
-        return businessNames.stream()
-                .map(businessName -> handlers.computeIfAbsent(businessName, fn -> create(businessName)))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
+        if (!(businessNames instanceof MatchedBusinessNames)) {
+            return resolveHandlers(businessNames);
+        }
+        final MatchedBusinessNames matchedBusinessNames = (MatchedBusinessNames) businessNames;
+        final long version = rulesVersion.get();
+        final List<H> cachedHandlers = matchedBusinessNames.getHandlers(slot, version);
+        if (cachedHandlers != null) {
+            return cachedHandlers;
+        }
+        final List<H> result = resolveHandlers(businessNames);
+        matchedBusinessNames.setHandlers(slot, version, result);
+        return result;
+    }
+
+    private List<H> resolveHandlers(Set<String> businessNames) {
+        List<H> result = null;
+        for (String businessName : businessNames) {
+            final Optional<H> handler = handlers.computeIfAbsent(businessName, this::create);
+            if (handler.isPresent()) {
+                if (result == null) {
+                    result = new ArrayList<>(businessNames.size());
+                }
+                result.add(handler.get());
+            }
+        }
+        return result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
     }
 
     private Optional<H> create(String businessName) {
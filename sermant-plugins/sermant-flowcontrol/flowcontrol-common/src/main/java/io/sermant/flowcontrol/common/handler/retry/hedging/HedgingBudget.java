@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.handler.retry.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of the hedged requests. Each request deposits the budget percentage of a token and each hedged request takes
+ * a whole token, so the hedged requests never exceed the percentage of the requests. The balance is capped, so that a
+ * quiet period does not save up a burst of hedged requests when the service slows down
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class HedgingBudget {
+    private static final long TOKEN = 100L;
+
+    private static final long MAX_TOKENS = 10L;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    private final long deposit;
+
+    /**
+     * constructor
+     *
+     * @param budgetPercent maximum extra load, percentage of the requests
+     */
+    public HedgingBudget(int budgetPercent) {
+        this.deposit = budgetPercent;
+    }
+
+    /**
+     * deposit the share of a request
+     */
+    public void onRequest() {
+        while (true) {
+            final long current = balance.get();
+            if (current >= MAX_TOKENS * TOKEN) {
+                return;
+            }
+            if (balance.compareAndSet(current, Math.min(MAX_TOKENS * TOKEN, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * take a token for a hedged request
+     *
+     * @return whether the budget allows the hedged request
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+}
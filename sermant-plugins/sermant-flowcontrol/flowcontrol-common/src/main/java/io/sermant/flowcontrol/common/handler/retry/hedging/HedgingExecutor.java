@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.handler.retry.hedging;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.core.utils.tag.TrafficData;
+import io.sermant.core.utils.tag.TrafficTag;
+import io.sermant.core.utils.tag.TrafficUtils;
+import io.sermant.flowcontrol.common.factory.FlowControlThreadFactory;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executes the hedged requests. The first attempt runs on a hedging thread while the caller waits for the hedging
+ * delay, if it does not respond by then and the budget allows, a second attempt is started, and the first successful
+ * response of them is returned. The failure is returned only when all the started attempts fail
+ * <p>The attempts block the hedging threads, the attempt runs on the caller directly when all of them are busy. The
+ * response times of the requests not hedged are recorded as well, so the percentile delay is estimated from them
+ * <p>The traffic tag and data of sermant are carried to the hedging threads. Other thread local variables of the caller
+ * are not, such as the RpcContext of dubbo and the request tags kept by the router plugin, so the attempts do not see
+ * the values set on the caller and the values written by the attempts are not visible on the caller
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public enum HedgingExecutor {
+    /**
+     * singleton
+     */
+    INSTANCE;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private static final int MAX_THREADS = 200;
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(0, MAX_THREADS, KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS, new SynchronousQueue<>(), new FlowControlThreadFactory("FLOW_CONTROL_HEDGING", true));
+
+    /**
+     * execute the attempts
+     *
+     * @param policy hedging policy
+     * @param primary first attempt
+     * @param hedge hedged attempt, which should be sent to another instance
+     * @param isSuccess whether the result of an attempt is successful, a thrown exception is a failure
+     * @param <T> result
+     * @return the first successful result, or the first failure if all attempts fail
+     * @throws Exception the exception thrown by the attempt
+     */
+    public <T> T execute(HedgingPolicy policy, Callable<T> primary, Callable<T> hedge, Predicate<T> isSuccess)
+            throws Exception {
+        policy.onRequest();
+        final long delayNanos = policy.getDelayNanos();
+        if (delayNanos < 0) {
+            return callDirectly(policy, primary, isSuccess);
+        }
+        final Attempts<T> attempts = new Attempts<>(policy, isSuccess);
+        if (!attempts.start(primary)) {
+            return callDirectly(policy, primary, isSuccess);
+        }
+        try {
+            return attempts.await(delayNanos);
+        } catch (TimeoutException ignored) {
+            // The first attempt is slower than the delay, which is what the hedged request is for
+        }
+        if (attempts.addAttempt()) {
+            if (policy.tryAcquireHedge() && attempts.start(hedge)) {
+                return attempts.await();
+            }
+            attempts.cancelAttempt();
+        }
+        return attempts.await();
+    }
+
+    private <T> T callDirectly(HedgingPolicy policy, Callable<T> primary, Predicate<T> isSuccess) throws Exception {
+        final long start = System.nanoTime();
+        final T result = primary.call();
+        final long elapsedNanos = System.nanoTime() - start;
+        if (isSuccess.test(result)) {
+            recordSuccess(policy, elapsedNanos);
+        }
+        return result;
+    }
+
+    private void recordSuccess(HedgingPolicy policy, long elapsedNanos) {
+        // The request has succeeded, a failure of the statistics must not turn it into a failed attempt
+        try {
+            policy.onSuccess(elapsedNanos);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Failed to record the response time of the hedged request.", ex);
+        }
+    }
+
+    /**
+     * the attempts of a request
+     *
+     * @param <T> result
+     * @since 2024-10-15
+     */
+    private class Attempts<T> {
+        private final CompletableFuture<Outcome<T>> winner = new CompletableFuture<>();
+
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        private final AtomicReference<Outcome<T>> firstFailure = new AtomicReference<>();
+
+        private final HedgingPolicy policy;
+
+        private final Predicate<T> isSuccess;
+
+        private final TrafficTag trafficTag;
+
+        private final TrafficData trafficData;
+
+        Attempts(HedgingPolicy policy, Predicate<T> isSuccess) {
+            this.policy = policy;
+            this.isSuccess = isSuccess;
+
+            // The tags are copied, since the caller may update them while the slower attempt is still running
+            final TrafficTag callerTag = TrafficUtils.getTrafficTag();
+            this.trafficTag = callerTag == null ? null : new TrafficTag(new HashMap<>(callerTag.getTag()));
+            final TrafficData callerData = TrafficUtils.getTrafficData();
+            this.trafficData = callerData == null ? null : new TrafficData(new HashMap<>(callerData.getTag()),
+                    callerData.getPath(), callerData.getHttpMethod());
+        }
+
+        boolean start(Callable<T> attempt) {
+            try {
+                executor.execute(() -> run(attempt));
+                return true;
+            } catch (RejectedExecutionException ignored) {
+                return false;
+            }
+        }
+
+        private void run(Callable<T> attempt) {
+            TrafficUtils.setTrafficTag(trafficTag);
+            TrafficUtils.setTrafficData(trafficData);
+            try {
+                runAttempt(attempt);
+            } finally {
+                TrafficUtils.removeTrafficTag();
+                TrafficUtils.removeTrafficData();
+            }
+        }
+
+        private void runAttempt(Callable<T> attempt) {
+            final long start = System.nanoTime();
+            Outcome<T> outcome;
+            boolean isSucceeded = false;
+            try {
+                final T result = attempt.call();
+                isSucceeded = isSuccess.test(result);
+                outcome = new Outcome<>(result, null);
+            } catch (Throwable ex) {
+                // Errors are also returned to the caller, who would wait forever otherwise
+                outcome = new Outcome<>(null, ex);
+            }
+            if (isSucceeded) {
+                final long elapsedNanos = System.nanoTime() - start;
+                winner.complete(outcome);
+                recordSuccess(policy, elapsedNanos);
+                return;
+            }
+            firstFailure.compareAndSet(null, outcome);
+            finishAttempt();
+        }
+
+        /**
+         * count the hedged attempt before starting it
+         *
+         * @return false if all the started attempts have finished
+         */
+        boolean addAttempt() {
+            return pending.getAndIncrement() > 0;
+        }
+
+        void cancelAttempt() {
+            finishAttempt();
+        }
+
+        private void finishAttempt() {
+            if (pending.decrementAndGet() == 0) {
+                winner.complete(firstFailure.get());
+            }
+        }
+
+        T await(long timeoutNanos) throws Exception {
+            return unwrap(winner.get(timeoutNanos, TimeUnit.NANOSECONDS));
+        }
+
+        T await() throws Exception {
+            return unwrap(winner.get());
+        }
+
+        private T unwrap(Outcome<T> outcome) throws Exception {
+            if (outcome.throwable instanceof Exception) {
+                throw (Exception) outcome.throwable;
+            }
+            if (outcome.throwable instanceof Error) {
+                throw (Error) outcome.throwable;
+            }
+            return outcome.result;
+        }
+    }
+
+    /**
+     * result or exception of an attempt
+     *
+     * @param <T> result
+     * @since 2024-10-15
+     */
+    private static class Outcome<T> {
+        private final T result;
+
+        private final Throwable throwable;
+
+        Outcome(T result, Throwable throwable) {
+            this.result = result;
+            this.throwable = throwable;
+        }
+    }
+}
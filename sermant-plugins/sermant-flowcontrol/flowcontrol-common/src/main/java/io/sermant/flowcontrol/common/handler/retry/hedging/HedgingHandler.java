@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.handler.retry.hedging;
+
+import io.sermant.flowcontrol.common.core.resolver.RetryResolver;
+import io.sermant.flowcontrol.common.core.rule.RetryRule;
+import io.sermant.flowcontrol.common.handler.AbstractRequestHandler;
+
+import java.util.Optional;
+
+/**
+ * hedging policies of the retry rules enabling the hedged requests
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class HedgingHandler extends AbstractRequestHandler<HedgingPolicy, RetryRule> {
+    @Override
+    protected Optional<HedgingPolicy> createProcessor(String businessName, RetryRule rule) {
+        if (!rule.isHedgingEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(new HedgingPolicy(rule));
+    }
+
+    @Override
+    protected String configKey() {
+        return RetryResolver.CONFIG_KEY;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.handler.retry.hedging;
+
+import io.sermant.flowcontrol.common.core.rule.RetryRule;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hedging policy of a service scenario, which decides when and whether a hedged request is sent
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class HedgingPolicy {
+    private final long fixedDelayNanos;
+
+    private final LatencyPercentileEstimator estimator;
+
+    private final HedgingBudget budget;
+
+    /**
+     * constructor
+     *
+     * @param rule retry rule
+     */
+    public HedgingPolicy(RetryRule rule) {
+        this.fixedDelayNanos = TimeUnit.MILLISECONDS.toNanos(rule.getParsedHedgingDelay());
+        this.estimator = rule.getHedgingPercentile() > 0 ? new LatencyPercentileEstimator(rule.getHedgingPercentile())
+                : null;
+        this.budget = new HedgingBudget(rule.getHedgingBudgetPercent());
+    }
+
+    /**
+     * Delay of the hedged request. The percentile of the response time is used once it is estimated, the fixed delay
+     * is used before that, and no request is hedged if neither is available
+     *
+     * @return delay, nanoseconds, -1 if no request is hedged
+     */
+    public long getDelayNanos() {
+        if (estimator != null) {
+            final long estimate = estimator.getEstimate();
+            if (estimate >= 0) {
+                return estimate;
+            }
+        }
+        return fixedDelayNanos > 0 ? fixedDelayNanos : -1L;
+    }
+
+    /**
+     * a request starts
+     */
+    public void onRequest() {
+        budget.onRequest();
+    }
+
+    /**
+     * take the budget of a hedged request
+     *
+     * @return whether the request can be hedged
+     */
+    public boolean tryAcquireHedge() {
+        return budget.tryAcquire();
+    }
+
+    /**
+     * an attempt succeeds
+     *
+     * @param nanos response time of the attempt, nanoseconds
+     */
+    public void onSuccess(long nanos) {
+        if (estimator != null) {
+            estimator.record(nanos);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.handler.retry.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estimates a percentile of the response time from the latest 256 responses, the samples are sorted again by the
+ * thread recording every 32nd sample, so a record is an increment and a store
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class LatencyPercentileEstimator {
+    private static final int SAMPLE_COUNT = 256;
+
+    private static final int REFRESH_INTERVAL = 32;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLE_COUNT);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final double percentile;
+
+    private volatile long estimate = -1L;
+
+    /**
+     * constructor
+     *
+     * @param percentile percentile, e.g. 0.95
+     */
+    public LatencyPercentileEstimator(double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * record a response time
+     *
+     * @param nanos response time, nanoseconds
+     */
+    public void record(long nanos) {
+        // the counter is a long so that it does not wrap around during the life of the process
+        final long index = counter.getAndIncrement();
+        samples.lazySet((int) (index & (SAMPLE_COUNT - 1)), nanos);
+        if ((index & (REFRESH_INTERVAL - 1)) == REFRESH_INTERVAL - 1) {
+            refresh((int) Math.min(index + 1, SAMPLE_COUNT));
+        }
+    }
+
+    private void refresh(int count) {
+        final long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        estimate = sorted[Math.min(count - 1, (int) (percentile * count))];
+    }
+
+    /**
+     * the estimated percentile
+     *
+     * @return response time, nanoseconds, -1 before enough responses are observed
+     */
+    public long getEstimate() {
+        return estimate;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * W-TinyLFU cache test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class WindowTinyLfuCacheTest {
+    private static final int MAX_SIZE = 100;
+
+    /**
+     * cache test
+     */
+    @Test
+    public void test() {
+        String key = "test";
+        final WindowTinyLfuCache<String, String> cache = new WindowTinyLfuCache<>(MAX_SIZE);
+        cache.put(key, "val");
+        assertEquals("val", cache.get(key));
+        cache.put(key, "newVal");
+        assertEquals("newVal", cache.get(key));
+        assertEquals("newVal", cache.evict(key));
+        assertNull(cache.get(key));
+        cache.put(key, "val");
+        final AtomicInteger count = new AtomicInteger();
+        cache.forEach((cacheKey, value) -> count.incrementAndGet());
+        assertEquals(1, count.get());
+        cache.release();
+        assertEquals(0, cache.size());
+        cache.put(key, "val");
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * the size is bounded and the frequently accessed keys survive a scan of the keys accessed once
+     */
+    @Test
+    public void testEvict() {
+        final WindowTinyLfuCache<String, Integer> cache = new WindowTinyLfuCache<>(MAX_SIZE);
+        for (int i = 0; i < MAX_SIZE / 2; i++) {
+            cache.put("hot" + i, i);
+        }
+        for (int i = 0; i < MAX_SIZE * 10; i++) {
+            cache.put("cold" + i, i);
+            assertTrue(cache.size() <= MAX_SIZE);
+            if (i % 60 == 0) {
+                accessHotKeys(cache);
+            }
+        }
+        assertEquals(MAX_SIZE, cache.size());
+        for (int i = 0; i < MAX_SIZE / 2; i++) {
+            assertEquals(Integer.valueOf(i), cache.get("hot" + i));
+        }
+    }
+
+    private void accessHotKeys(WindowTinyLfuCache<String, Integer> cache) {
+        for (int i = 0; i < MAX_SIZE / 2; i++) {
+            cache.get("hot" + i);
+        }
+    }
+}
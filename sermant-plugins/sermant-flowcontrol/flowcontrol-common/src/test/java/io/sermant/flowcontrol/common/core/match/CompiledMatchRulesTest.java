@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.match;
+
+import io.sermant.flowcontrol.common.entity.HttpRequestEntity;
+import io.sermant.flowcontrol.common.entity.RequestEntity;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * compiled match rules test, the results are compared with evaluating the service scenarios one by one
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class CompiledMatchRulesTest {
+    private static final int RULE_COUNT = 1000;
+
+    private static final int REQUEST_COUNT = 5000;
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+
+    private static final String[] SERVICES = {"provider", "consumer", "gateway"};
+
+    private static final String[] OPERATORS = {"exact", "prefix", "suffix", "contains"};
+
+    private static final String HEADER_KEY = "x-tag";
+
+    @Test
+    public void testMatchSameAsBusinessMatchers() {
+        final Random random = new Random(RULE_COUNT);
+        final Map<String, BusinessMatcher> businessMatchers = new LinkedHashMap<>();
+        for (int i = 0; i < RULE_COUNT; i++) {
+            final BusinessMatcher businessMatcher = new BusinessMatcher();
+            businessMatcher.setName("business" + i);
+            final List<RequestMatcher> requestMatchers = new ArrayList<>();
+            for (int j = random.nextInt(2); j >= 0; j--) {
+                requestMatchers.add(buildRequestMatcher(random));
+            }
+            businessMatcher.setMatches(requestMatchers);
+            businessMatchers.put(businessMatcher.getName(), businessMatcher);
+        }
+        final CompiledMatchRules compiledMatchRules = CompiledMatchRules.compile(businessMatchers);
+        int matchedCount = 0;
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            final RequestEntity request = buildRequest(random);
+            final List<String> expected = new ArrayList<>();
+            for (Map.Entry<String, BusinessMatcher> entry : businessMatchers.entrySet()) {
+                if (entry.getValue().match(request)) {
+                    expected.add(entry.getKey());
+                }
+            }
+            final List<String> actual = compiledMatchRules.match(request);
+            Assert.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+            matchedCount += actual.size();
+        }
+        Assert.assertTrue(matchedCount > 0);
+    }
+
+    @Test
+    public void testPrefixPath() {
+        final RequestMatcher rootMatcher = new RequestMatcher();
+        rootMatcher.setApiPath(buildOperator("prefix", "/"));
+        final RequestMatcher apiMatcher = new RequestMatcher();
+        apiMatcher.setApiPath(buildOperator("prefix", "/api/v1"));
+        final Map<String, BusinessMatcher> businessMatchers = new HashMap<>();
+        businessMatchers.put("root", buildBusinessMatcher(rootMatcher));
+        businessMatchers.put("api", buildBusinessMatcher(apiMatcher));
+        final CompiledMatchRules compiledMatchRules = CompiledMatchRules.compile(businessMatchers);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("root", "api")),
+                new HashSet<>(compiledMatchRules.match(buildRequest("GET", "/api/v1/users"))));
+        Assert.assertEquals(Collections.singletonList("root"),
+                compiledMatchRules.match(buildRequest("GET", "/api/v2")));
+        Assert.assertTrue(compiledMatchRules.match(buildRequest("GET", "api")).isEmpty());
+        Assert.assertTrue(compiledMatchRules.match(buildRequest(null, "/api/v1")).isEmpty());
+    }
+
+    @Test
+    public void testCreateKey() {
+        final RequestMatcher requestMatcher = new RequestMatcher();
+        requestMatcher.setHeaders(Collections.singletonMap(HEADER_KEY, buildOperator("exact", "1")));
+        final CompiledMatchRules compiledMatchRules = CompiledMatchRules.compile(
+                Collections.singletonMap("header", buildBusinessMatcher(requestMatcher)));
+        final Map<String, String> headers = new HashMap<>();
+        headers.put(HEADER_KEY, "1");
+        headers.put("x-trace-id", "a");
+        final MatchKey key = compiledMatchRules.createKey(buildRequest("GET", "/a", headers));
+        headers.put("x-trace-id", "b");
+        Assert.assertEquals(key, compiledMatchRules.createKey(buildRequest("GET", "/b", headers)));
+        Assert.assertEquals(Collections.singletonMap(HEADER_KEY, "1"), key.getHeaders());
+        Assert.assertNull(key.getApiPath());
+        Assert.assertEquals(Collections.singletonList("header"), compiledMatchRules.match(key));
+        headers.put(HEADER_KEY, "2");
+        Assert.assertNotEquals(key, compiledMatchRules.createKey(buildRequest("GET", "/a", headers)));
+    }
+
+    private RequestMatcher buildRequestMatcher(Random random) {
+        final RequestMatcher requestMatcher = new RequestMatcher();
+        if (random.nextBoolean()) {
+            requestMatcher.setMethod(Arrays.asList(METHODS[random.nextInt(METHODS.length)],
+                    METHODS[random.nextInt(METHODS.length)]));
+        }
+        if (random.nextInt(3) == 0) {
+            requestMatcher.setServiceName(SERVICES[random.nextInt(SERVICES.length)]);
+        }
+        final int pathKind = random.nextInt(5);
+        if (pathKind < OPERATORS.length) {
+            requestMatcher.setApiPath(buildOperator(OPERATORS[pathKind], buildPath(random, random.nextInt(3) + 1)));
+        }
+        if (random.nextInt(4) == 0) {
+            requestMatcher.setHeaders(Collections.singletonMap(HEADER_KEY,
+                    buildOperator("exact", String.valueOf(random.nextInt(2)))));
+        }
+        return requestMatcher;
+    }
+
+    private RequestEntity buildRequest(Random random) {
+        final Map<String, String> headers = new HashMap<>();
+        if (random.nextBoolean()) {
+            headers.put(HEADER_KEY, String.valueOf(random.nextInt(2)));
+        }
+        return new HttpRequestEntity.Builder()
+                .setMethod(METHODS[random.nextInt(METHODS.length)])
+                .setServiceName(SERVICES[random.nextInt(SERVICES.length)])
+                .setApiPath(buildPath(random, random.nextInt(3) + 1))
+                .setHeaders(headers)
+                .build();
+    }
+
+    private RequestEntity buildRequest(String method, String apiPath) {
+        return buildRequest(method, apiPath, Collections.emptyMap());
+    }
+
+    private RequestEntity buildRequest(String method, String apiPath, Map<String, String> headers) {
+        return new HttpRequestEntity.Builder().setMethod(method).setApiPath(apiPath).setHeaders(headers).build();
+    }
+
+    private String buildPath(Random random, int depth) {
+        final StringBuilder path = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            path.append("/p").append(random.nextInt(3));
+        }
+        return path.toString();
+    }
+
+    private RawOperator buildOperator(String operator, String value) {
+        final RawOperator rawOperator = new RawOperator();
+        rawOperator.put(operator, value);
+        return rawOperator;
+    }
+
+    private BusinessMatcher buildBusinessMatcher(RequestMatcher requestMatcher) {
+        final BusinessMatcher businessMatcher = new BusinessMatcher();
+        businessMatcher.setMatches(Collections.singletonList(requestMatcher));
+        return businessMatcher;
+    }
+}
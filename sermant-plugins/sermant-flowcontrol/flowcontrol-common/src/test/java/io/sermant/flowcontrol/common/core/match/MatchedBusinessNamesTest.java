@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.core.match;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * matched business names test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class MatchedBusinessNamesTest {
+    @Test
+    public void testSet() {
+        final MatchedBusinessNames names = new MatchedBusinessNames(new HashSet<>(Arrays.asList("a", "b")));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b")), names);
+        Assert.assertTrue(names.contains("a"));
+        Assert.assertFalse(names.contains("c"));
+        Assert.assertEquals(2, names.size());
+    }
+
+    @Test
+    public void testHandlers() {
+        final MatchedBusinessNames names = new MatchedBusinessNames(Collections.singleton("a"));
+        Assert.assertNull(names.getHandlers(0, 0L));
+        final List<String> handlers = Collections.singletonList("handler");
+        names.setHandlers(2, 0L, handlers);
+        Assert.assertSame(handlers, names.getHandlers(2, 0L));
+        Assert.assertNull(names.getHandlers(0, 0L));
+        Assert.assertNull(names.getHandlers(3, 0L));
+
+        // The handlers are resolved again once the rules change
+        Assert.assertNull(names.getHandlers(2, 1L));
+        names.setHandlers(0, 0L, Collections.emptyList());
+        Assert.assertSame(handlers, names.getHandlers(2, 0L));
+        Assert.assertEquals(Collections.emptyList(), names.getHandlers(0, 0L));
+    }
+}
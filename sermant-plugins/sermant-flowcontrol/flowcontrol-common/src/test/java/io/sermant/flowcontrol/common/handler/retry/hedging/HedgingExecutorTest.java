@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.common.handler.retry.hedging;
+
+import io.sermant.core.utils.tag.TrafficUtils;
+import io.sermant.flowcontrol.common.core.rule.RetryRule;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hedging executor test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class HedgingExecutorTest {
+    private static final String PRIMARY = "primary";
+
+    private static final String HEDGED = "hedged";
+
+    private static final String FAILED = "failed";
+
+    private static final long DELAY_MS = 20L;
+
+    private static final long SLOW_MS = 2000L;
+
+    @Test
+    public void testHedgedRequestWins() throws Exception {
+        final HedgingPolicy policy = buildPolicy(100);
+        final CountDownLatch slow = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        final String result = HedgingExecutor.INSTANCE.execute(policy, () -> {
+            slow.await(SLOW_MS, TimeUnit.MILLISECONDS);
+            return PRIMARY;
+        }, () -> HEDGED, HedgingExecutorTest::isSuccess);
+        slow.countDown();
+        Assert.assertEquals(HEDGED, result);
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW_MS));
+    }
+
+    @Test
+    public void testFastRequestNotHedged() throws Exception {
+        final AtomicInteger hedged = new AtomicInteger();
+        final String result = HedgingExecutor.INSTANCE.execute(buildPolicy(100), () -> PRIMARY, () -> {
+            hedged.incrementAndGet();
+            return HEDGED;
+        }, HedgingExecutorTest::isSuccess);
+        Assert.assertEquals(PRIMARY, result);
+        Assert.assertEquals(0, hedged.get());
+    }
+
+    @Test
+    public void testFailureWaitsForOtherAttempt() throws Exception {
+        final HedgingPolicy policy = buildPolicy(100);
+        Assert.assertEquals(PRIMARY, HedgingExecutor.INSTANCE.execute(policy, () -> {
+            Thread.sleep(DELAY_MS * 3);
+            return PRIMARY;
+        }, () -> FAILED, HedgingExecutorTest::isSuccess));
+        Assert.assertEquals(FAILED, HedgingExecutor.INSTANCE.execute(policy, () -> {
+            Thread.sleep(DELAY_MS * 2);
+            return FAILED;
+        }, () -> FAILED, HedgingExecutorTest::isSuccess));
+        try {
+            HedgingExecutor.INSTANCE.execute(policy, () -> {
+                throw new IllegalStateException(PRIMARY);
+            }, () -> HEDGED, HedgingExecutorTest::isSuccess);
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals(PRIMARY, ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testSuccessKeptWhenRecordFails() throws Exception {
+        final RetryRule rule = new RetryRule();
+        rule.setHedgingDelay(String.valueOf(DELAY_MS));
+        final HedgingPolicy policy = new HedgingPolicy(rule) {
+            @Override
+            public void onSuccess(long nanos) {
+                throw new IllegalStateException(FAILED);
+            }
+        };
+        final AtomicInteger hedged = new AtomicInteger();
+        final String result = HedgingExecutor.INSTANCE.execute(policy, () -> PRIMARY, () -> {
+            hedged.incrementAndGet();
+            return HEDGED;
+        }, HedgingExecutorTest::isSuccess);
+        Assert.assertEquals(PRIMARY, result);
+        Assert.assertEquals(0, hedged.get());
+    }
+
+    @Test
+    public void testBudget() throws Exception {
+        final HedgingPolicy policy = buildPolicy(10);
+        for (int i = 0; i < 9; i++) {
+            policy.onRequest();
+        }
+        final AtomicInteger hedged = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            HedgingExecutor.INSTANCE.execute(policy, () -> {
+                Thread.sleep(DELAY_MS * 2);
+                return PRIMARY;
+            }, () -> {
+                hedged.incrementAndGet();
+                return HEDGED;
+            }, HedgingExecutorTest::isSuccess);
+        }
+        Assert.assertEquals(1, hedged.get());
+
+        final HedgingBudget budget = new HedgingBudget(50);
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+        }
+        int acquired = 0;
+        while (budget.tryAcquire()) {
+            acquired++;
+        }
+        Assert.assertEquals(10, acquired);
+    }
+
+    @Test
+    public void testConcurrentDeposit() throws Exception {
+        final HedgingBudget budget = new HedgingBudget(1);
+        final int threads = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 250; j++) {
+                        budget.onRequest();
+                    }
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        Assert.assertTrue(done.await(SLOW_MS, TimeUnit.MILLISECONDS));
+        int acquired = 0;
+        while (budget.tryAcquire()) {
+            acquired++;
+        }
+        Assert.assertEquals(10, acquired);
+    }
+
+    @Test
+    public void testPercentileDelay() {
+        final RetryRule rule = new RetryRule();
+        rule.setHedgingDelay(String.valueOf(DELAY_MS));
+        rule.setHedgingPercentile(0.9D);
+        Assert.assertTrue(rule.isHedgingEnabled());
+        final HedgingPolicy policy = new HedgingPolicy(rule);
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(DELAY_MS), policy.getDelayNanos());
+        for (int i = 1; i <= 128; i++) {
+            policy.onSuccess(i);
+        }
+        Assert.assertEquals(116L, policy.getDelayNanos());
+        Assert.assertFalse(new RetryRule().isHedgingEnabled());
+        Assert.assertEquals(-1L, new HedgingPolicy(new RetryRule()).getDelayNanos());
+    }
+
+    @Test
+    public void testPercentileOnlyHedgesAfterWarmUp() throws Exception {
+        final RetryRule rule = new RetryRule();
+        rule.setHedgingPercentile(0.9D);
+        rule.setHedgingBudgetPercent(100);
+        Assert.assertTrue(rule.isHedgingEnabled());
+        final HedgingPolicy policy = new HedgingPolicy(rule);
+        Assert.assertEquals(-1L, policy.getDelayNanos());
+
+        // The requests not hedged during the warm-up feed the estimator
+        final AtomicInteger hedged = new AtomicInteger();
+        for (int i = 0; i < 32; i++) {
+            Assert.assertEquals(PRIMARY, HedgingExecutor.INSTANCE.execute(policy, () -> PRIMARY, () -> {
+                hedged.incrementAndGet();
+                return HEDGED;
+            }, HedgingExecutorTest::isSuccess));
+        }
+        Assert.assertEquals(0, hedged.get());
+        Assert.assertTrue(policy.getDelayNanos() >= 0L);
+        final CountDownLatch slow = new CountDownLatch(1);
+        final String result = HedgingExecutor.INSTANCE.execute(policy, () -> {
+            slow.await(SLOW_MS, TimeUnit.MILLISECONDS);
+            return PRIMARY;
+        }, () -> HEDGED, HedgingExecutorTest::isSuccess);
+        slow.countDown();
+        Assert.assertEquals(HEDGED, result);
+    }
+
+    @Test
+    public void testTrafficTagCarried() throws Exception {
+        TrafficUtils.updateTrafficTag(Collections.singletonMap("x-tag", Collections.singletonList(PRIMARY)));
+        try {
+            final String result = HedgingExecutor.INSTANCE.execute(buildPolicy(100),
+                    () -> TrafficUtils.getTrafficTag().getTag().get("x-tag").get(0), () -> HEDGED,
+                    HedgingExecutorTest::isSuccess);
+            Assert.assertEquals(PRIMARY, result);
+        } finally {
+            TrafficUtils.removeTrafficTag();
+        }
+    }
+
+    @Test
+    public void testPercentileAfterIntegerOverflow() throws Exception {
+        final LatencyPercentileEstimator estimator = new LatencyPercentileEstimator(0.5D);
+        final Field counter = LatencyPercentileEstimator.class.getDeclaredField("counter");
+        counter.setAccessible(true);
+        ((AtomicLong) counter.get(estimator)).set(Integer.MAX_VALUE - 15L);
+        for (int i = 0; i < 256; i++) {
+            estimator.record(DELAY_MS);
+        }
+        Assert.assertEquals(DELAY_MS, estimator.getEstimate());
+    }
+
+    private static boolean isSuccess(String result) {
+        return !FAILED.equals(result);
+    }
+
+    private HedgingPolicy buildPolicy(int budgetPercent) {
+        final RetryRule rule = new RetryRule();
+        rule.setHedgingDelay(String.valueOf(DELAY_MS));
+        rule.setHedgingBudgetPercent(budgetPercent);
+        final HedgingPolicy policy = new HedgingPolicy(rule);
+        if (budgetPercent == 100) {
+            for (int i = 0; i < 10; i++) {
+                policy.onRequest();
+            }
+        }
+        return policy;
+    }
+}
@@ -26,6 +26,8 @@ import io.sermant.flowcontrol.common.exception.InvokerWrapperException;
 import io.sermant.flowcontrol.common.handler.retry.AbstractRetry;
 import io.sermant.flowcontrol.common.handler.retry.Retry;
 import io.sermant.flowcontrol.common.handler.retry.RetryContext;
+import io.sermant.flowcontrol.common.handler.retry.hedging.HedgingExecutor;
+import io.sermant.flowcontrol.common.handler.retry.hedging.HedgingPolicy;
 import io.sermant.flowcontrol.common.util.ConvertUtils;
 import io.sermant.flowcontrol.service.InterceptorSupporter;
 
@@ -34,9 +36,11 @@ import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.cluster.LoadBalance;
 import org.apache.dubbo.rpc.cluster.support.AbstractClusterInvoker;
 import org.apache.dubbo.rpc.service.GenericException;
+import org.apache.dubbo.rpc.support.RpcUtils;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -45,6 +49,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 /**
@@ -148,6 +153,61 @@ public class ApacheDubboInvokerInterceptor extends InterceptorSupporter {
         return ret;
     }
 
+    /**
+     * Invoke with the hedged request if the retry rule enables it, the hedged request copies the invocation and is sent
+     * to an instance other than the selected ones. The asynchronous and oneway invocations are not hedged, since their
+     * futures are kept in the context of the calling thread
+     *
+     * @param obj enhanced object
+     * @param allArguments method parameter
+     * @param ret response result
+     * @param requestEntity request entity
+     * @return result
+     * @throws Exception the exception of the invocation
+     */
+    private Object invokeHedgingMethod(Object obj, Object[] allArguments, Object ret,
+            DubboRequestEntity requestEntity) throws Exception {
+        final Invocation invocation = (Invocation) allArguments[0];
+        final List<HedgingPolicy> policies = getHedgingHandler().getHandlers(requestEntity);
+        if (policies.isEmpty() || !(obj instanceof AbstractClusterInvoker) || isAsync(invocation)) {
+            return invokeRetryMethod(obj, allArguments, ret, false, false);
+        }
+        final RpcInvocation hedgedInvocation = new RpcInvocation(invocation);
+        final List<Invoker<?>> selected = new CopyOnWriteArrayList<>();
+        return HedgingExecutor.INSTANCE.execute(policies.get(0),
+                () -> invokeSelectedMethod(obj, allArguments, invocation, selected, ret),
+                () -> invokeSelectedMethod(obj, allArguments, hedgedInvocation, selected, ret),
+                result -> !(result instanceof Result) || !((Result) result).hasException());
+    }
+
+    private boolean isAsync(Invocation invocation) {
+        final URL url = invocation.getInvoker().getUrl();
+        return RpcUtils.isAsync(url, invocation) || RpcUtils.isOneway(url, invocation);
+    }
+
+    private Object invokeSelectedMethod(Object obj, Object[] allArguments, Invocation invocation,
+            List<Invoker<?>> selected, Object ret) {
+        try {
+            final List<Invoker<?>> invokers = (List<Invoker<?>>) allArguments[1];
+            final Optional<Method> checkInvokersOption = getMethodCheckInvokers();
+            final Optional<Method> selectOption = getMethodSelect();
+            if (!checkInvokersOption.isPresent() || !selectOption.isPresent()) {
+                return ret;
+            }
+            checkInvokersOption.get().invoke(obj, invokers, invocation);
+            LoadBalance loadBalance = (LoadBalance) allArguments[LOADER_BALANCE_INDEX];
+            final Invoker<?> invoke = (Invoker<?>) selectOption.get()
+                    .invoke(obj, loadBalance, invocation, invokers, selected);
+            selected.add(invoke);
+            return invoke.invoke(invocation);
+        } catch (IllegalAccessException ex) {
+            LOGGER.warning("No such Method ! " + ex.getMessage());
+        } catch (InvocationTargetException ex) {
+            throw new InvokerWrapperException(ex.getTargetException());
+        }
+        return ret;
+    }
+
     private void handleException(boolean isNeedThrow, Result result) {
         if (result.hasException() && isNeedThrow) {
             final Throwable exception = result.getException();
@@ -208,9 +268,9 @@ public class ApacheDubboInvokerInterceptor extends InterceptorSupporter {
         try {
             // callHostMethod
             RetryContext.INSTANCE.markRetry(retry);
-            result = invokeRetryMethod(context.getObject(), allArguments, result, false, false);
-            final List<io.github.resilience4j.retry.Retry> handlers = getRetryHandler()
-                    .getHandlers(convertToApacheDubboEntity(invocation));
+            final DubboRequestEntity requestEntity = convertToApacheDubboEntity(invocation);
+            result = invokeHedgingMethod(context.getObject(), allArguments, result, requestEntity);
+            final List<io.github.resilience4j.retry.Retry> handlers = getRetryHandler().getHandlers(requestEntity);
             if (!handlers.isEmpty() && needRetry(handlers.get(0), result, ((AsyncRpcResult) result).getException())) {
                 RetryContext.INSTANCE.markRetry(retry);
                 result = handlers.get(0)
@@ -27,6 +27,7 @@ import io.sermant.flowcontrol.common.config.FlowControlConfig;
 import io.sermant.flowcontrol.common.enums.FlowFramework;
 import io.sermant.flowcontrol.common.exception.InvokerWrapperException;
 import io.sermant.flowcontrol.common.handler.retry.RetryContext;
+import io.sermant.flowcontrol.common.handler.retry.hedging.HedgingHandler;
 import io.sermant.flowcontrol.common.support.ReflectMethodCacheSupport;
 import io.sermant.flowcontrol.retry.handler.RetryHandlerV2;
 import io.sermant.flowcontrol.service.rest4j.DubboRest4jService;
@@ -82,6 +83,8 @@ public abstract class InterceptorSupporter extends ReflectMethodCacheSupport imp
 
     private RetryHandlerV2 retryHandler = null;
 
+    private HedgingHandler hedgingHandler = null;
+
     private DubboService dubboService;
 
     private HttpService httpService;
@@ -110,6 +113,23 @@ public abstract class InterceptorSupporter extends ReflectMethodCacheSupport imp
         return retryHandler;
     }
 
+    /**
+     * get hedging handler
+     *
+     * @return HedgingHandler
+     */
+    protected final HedgingHandler getHedgingHandler() {
+        if (hedgingHandler == null) {
+            lock.lock();
+            try {
+                hedgingHandler = new HedgingHandler();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return hedgingHandler;
+    }
+
     /**
      * get the selected dubbo service
      *
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.retry;
+
+import io.sermant.core.operation.OperationManager;
+import io.sermant.core.operation.converter.api.YamlConverter;
+import io.sermant.core.plugin.agent.entity.ExecuteContext;
+import io.sermant.core.plugin.config.PluginConfigManager;
+import io.sermant.core.service.ServiceManager;
+import io.sermant.flowcontrol.common.config.FlowControlConfig;
+import io.sermant.flowcontrol.common.core.ResolverManager;
+import io.sermant.flowcontrol.common.core.match.MatchGroupResolver;
+import io.sermant.flowcontrol.common.core.resolver.RetryResolver;
+import io.sermant.flowcontrol.retry.cluster.ApacheDubboClusterInvoker;
+import io.sermant.implement.operation.converter.YamlConverterImpl;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.Directory;
+import org.apache.dubbo.rpc.cluster.loadbalance.RoundRobinLoadBalance;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * apache dubbo hedging test, the hedged invocation is sent to another instance and the first response wins
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ApacheDubboInvokerInterceptorTest {
+    private static final String BUSINESS_NAME = "hedgingTest";
+
+    private static final String METHOD_NAME = "test";
+
+    private static final String PRIMARY = "primary";
+
+    private static final String HEDGED = "hedged";
+
+    private static final long SLOW_MS = 2000L;
+
+    private final String interfaceName = getClass().getName();
+
+    private MockedStatic<PluginConfigManager> pluginConfigManagerMockedStatic;
+
+    private MockedStatic<ServiceManager> serviceManagerMockedStatic;
+
+    private MockedStatic<OperationManager> operationManagerMockedStatic;
+
+    /**
+     * preinitialization
+     */
+    @Before
+    public void before() {
+        pluginConfigManagerMockedStatic = Mockito.mockStatic(PluginConfigManager.class);
+        pluginConfigManagerMockedStatic.when(() -> PluginConfigManager.getPluginConfig(FlowControlConfig.class))
+                .thenReturn(new FlowControlConfig());
+        serviceManagerMockedStatic = Mockito.mockStatic(ServiceManager.class);
+        operationManagerMockedStatic = Mockito.mockStatic(OperationManager.class);
+        operationManagerMockedStatic.when(() -> OperationManager.getOperation(YamlConverter.class))
+                .thenReturn(new YamlConverterImpl());
+        ResolverManager.INSTANCE.resolve(MatchGroupResolver.CONFIG_KEY + "." + BUSINESS_NAME,
+                "matches:\n- apiPath:\n    exact: " + interfaceName + "." + METHOD_NAME, false);
+        ResolverManager.INSTANCE.resolve(RetryResolver.CONFIG_KEY + "." + BUSINESS_NAME,
+                "hedgingDelay: 20\nhedgingBudgetPercent: 100", false);
+    }
+
+    @After
+    public void tearDown() {
+        ResolverManager.INSTANCE.resolve(RetryResolver.CONFIG_KEY + "." + BUSINESS_NAME, null, true);
+        ResolverManager.INSTANCE.resolve(MatchGroupResolver.CONFIG_KEY + "." + BUSINESS_NAME, null, true);
+        pluginConfigManagerMockedStatic.close();
+        serviceManagerMockedStatic.close();
+        operationManagerMockedStatic.close();
+    }
+
+    @Test
+    public void testHedgedInvocation() throws NoSuchMethodException {
+        final CountDownLatch slow = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Map<Invoker<?>, Invocation> invoked = new ConcurrentHashMap<>();
+        final Invoker<?> first = buildProvider("host1", slow, calls, invoked);
+        final Invoker<?> second = buildProvider("host2", slow, calls, invoked);
+        final Invoker<?> consumer = Mockito.mock(Invoker.class);
+        Mockito.when(consumer.getInterface()).thenReturn((Class) getClass());
+        Mockito.when(consumer.getUrl()).thenReturn(buildUrl("localhost"));
+        final Invocation invocation = new RpcInvocation(METHOD_NAME, new Class<?>[0], new Object[0], new HashMap<>(),
+                consumer);
+        final Directory<?> directory = Mockito.mock(Directory.class);
+        Mockito.when(directory.getUrl()).thenReturn(buildUrl("localhost"));
+        final List<Invoker<?>> providers = Arrays.asList(first, second);
+        final ExecuteContext context = ExecuteContext.forMemberMethod(new ApacheDubboClusterInvoker<>(directory),
+                getClass().getDeclaredMethod("buildUrl", String.class),
+                new Object[]{invocation, providers, new RoundRobinLoadBalance()}, null, null);
+
+        final ApacheDubboInvokerInterceptor interceptor = new ApacheDubboInvokerInterceptor();
+        final long start = System.nanoTime();
+        interceptor.doBefore(context);
+        interceptor.doAfter(context);
+        slow.countDown();
+
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW_MS));
+        Assert.assertTrue(context.getResult() instanceof Result);
+        Assert.assertEquals(HEDGED, ((Result) context.getResult()).getValue());
+
+        // the hedged invocation is a copy sent to the instance not selected by the first attempt
+        Assert.assertEquals(2, invoked.size());
+        Assert.assertNotSame(invoked.get(first), invoked.get(second));
+        Assert.assertTrue(invoked.containsValue(invocation));
+    }
+
+    private Invoker<?> buildProvider(String host, CountDownLatch slow, AtomicInteger calls,
+            Map<Invoker<?>, Invocation> invoked) {
+        final Invoker<?> provider = Mockito.mock(Invoker.class);
+        Mockito.when(provider.getUrl()).thenReturn(buildUrl(host));
+        Mockito.when(provider.isAvailable()).thenReturn(true);
+        Mockito.when(provider.invoke(Mockito.any(Invocation.class))).thenAnswer(answer -> {
+            final Invocation target = answer.getArgument(0);
+            invoked.put(provider, target);
+            if (calls.getAndIncrement() == 0) {
+                slow.await(SLOW_MS, TimeUnit.MILLISECONDS);
+                return AsyncRpcResult.newDefaultAsyncResult(PRIMARY, target);
+            }
+            return AsyncRpcResult.newDefaultAsyncResult(HEDGED, target);
+        });
+        return provider;
+    }
+
+    private URL buildUrl(String host) {
+        return new URL("dubbo", host, 20880, interfaceName);
+    }
+}
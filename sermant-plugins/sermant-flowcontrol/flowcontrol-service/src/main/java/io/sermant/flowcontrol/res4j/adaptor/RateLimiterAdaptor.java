@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.adaptor;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.PermitBucket;
+import io.vavr.collection.Map;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * adaptation interface: io.github.resilience4j.ratelimiter.RateLimiter, the permits are taken from a native
+ * {@link PermitBucket}, the name, configuration, tags and event publisher are the ones of the resilience4j rate
+ * limiter. No rate limiter event is published
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class RateLimiterAdaptor implements RateLimiter {
+    private final RateLimiter oldRateLimiter;
+
+    private final IntFunction<PermitBucket> bucketFactory;
+
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+
+    private final Metrics metrics = new BucketMetrics();
+
+    private volatile PermitBucket bucket;
+
+    /**
+     * constructor
+     *
+     * @param oldRateLimiter rest4j primary rate limiter
+     * @param bucketFactory creates the permit bucket of the permits of a period
+     */
+    public RateLimiterAdaptor(RateLimiter oldRateLimiter, IntFunction<PermitBucket> bucketFactory) {
+        this.oldRateLimiter = oldRateLimiter;
+        this.bucketFactory = bucketFactory;
+        this.bucket = bucketFactory.apply(oldRateLimiter.getRateLimiterConfig().getLimitForPeriod());
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        oldRateLimiter.changeTimeoutDuration(timeoutDuration);
+    }
+
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        oldRateLimiter.changeLimitForPeriod(limitForPeriod);
+        bucket = bucketFactory.apply(limitForPeriod);
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        final long waitNanos = reservePermission(permits);
+        if (waitNanos < 0L) {
+            return false;
+        }
+        return waitNanos == 0L || waitForPermission(waitNanos);
+    }
+
+    @Override
+    public long reservePermission(int permits) {
+        final long timeoutNanos = getRateLimiterConfig().getTimeoutDuration().toNanos();
+        return bucket.reserve(permits, timeoutNanos, System.nanoTime());
+    }
+
+    @Override
+    public void drainPermissions() {
+        bucket.drain(System.nanoTime());
+    }
+
+    @Override
+    public String getName() {
+        return oldRateLimiter.getName();
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return oldRateLimiter.getRateLimiterConfig();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return oldRateLimiter.getTags();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return oldRateLimiter.getEventPublisher();
+    }
+
+    private boolean waitForPermission(long waitNanos) {
+        waitingThreads.incrementAndGet();
+        try {
+            final long deadline = System.nanoTime() + waitNanos;
+            long remaining = waitNanos;
+            while (remaining > 0L) {
+                LockSupport.parkNanos(remaining);
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            return true;
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+    }
+
+    /**
+     * metrics of the permit bucket
+     *
+     * @since 2024-10-15
+     */
+    private class BucketMetrics implements Metrics {
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        @Override
+        public int getAvailablePermissions() {
+            return (int) Math.min(bucket.getAvailablePermits(System.nanoTime()), Integer.MAX_VALUE);
+        }
+    }
+}
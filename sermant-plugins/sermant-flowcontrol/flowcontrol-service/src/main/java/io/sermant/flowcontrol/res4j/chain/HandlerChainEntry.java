@@ -24,6 +24,8 @@ import io.sermant.flowcontrol.res4j.chain.context.ChainContext;
 import io.sermant.flowcontrol.res4j.chain.context.RequestContext;
 import io.sermant.flowcontrol.res4j.util.FlowControlExceptionUtils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,6 +48,16 @@ public enum HandlerChainEntry {
      */
     private final HandlerChain chain = HandlerChainBuilder.INSTANCE.build();
 
+    /**
+     * source names with the provider prefix, so that the names are not built again for each request
+     */
+    private final Map<String, String> providerSourceNames = new ConcurrentHashMap<>();
+
+    /**
+     * source names with the consumer prefix
+     */
+    private final Map<String, String> consumerSourceNames = new ConcurrentHashMap<>();
+
     /**
      * pre-method
      *
@@ -82,13 +94,14 @@ public enum HandlerChainEntry {
     }
 
     private String formatSourceName(String sourceName, boolean isProvider) {
+        final Map<String, String> sourceNames = isProvider ? providerSourceNames : consumerSourceNames;
+        final String formatSourceName = sourceNames.get(sourceName);
+        if (formatSourceName != null) {
+            return formatSourceName;
+        }
         String prefix = isProvider ? HandlerConstants.THREAD_LOCAL_DUBBO_PROVIDER_PREFIX
                 : HandlerConstants.THREAD_LOCAL_DUBBO_CONSUMER_PREFIX;
-
-        // The length of the String Builder is initialized for performance
-        StringBuilder sb = new StringBuilder(prefix.length() + sourceName.length());
-        sb.append(prefix).append(sourceName);
-        return sb.toString();
+        return sourceNames.computeIfAbsent(sourceName, name -> prefix + name);
     }
 
     /**
@@ -34,6 +34,11 @@ public class HandlerConstants {
      */
     public static final int BUSINESS_ORDER = -1000;
 
+    /**
+     * response time monitoring priority, right after the business matching so the handlers after it are measured
+     */
+    public static final int LATENCY_MONITOR_ORDER = -900;
+
     /**
      * fault injection priority
      */
@@ -49,6 +54,11 @@ public class HandlerConstants {
      */
     public static final int BULK_HEAD_ORDER = 5000;
 
+    /**
+     * adaptive concurrency priority
+     */
+    public static final int ADAPTIVE_CONCURRENCY_ORDER = 6000;
+
     /**
      * Instance isolation priority, which must be greater than the circuit breaker priority
      */
@@ -84,12 +94,6 @@ public class HandlerConstants {
      */
     public static final String THREAD_LOCAL_DUBBO_CONSUMER_PREFIX = "CONSUMER:";
 
-    /**
-     * key prefix
-     */
-    public static final String THREAD_LOCAL_KEY_PREFIX = HandlerConstants.class.getName()
-            + "___THREAD_LOCAL_KEY_PREFIX___";
-
     private HandlerConstants() {
     }
 }
@@ -17,20 +17,27 @@
 
 package io.sermant.flowcontrol.res4j.chain.context;
 
-import io.sermant.flowcontrol.res4j.chain.HandlerConstants;
-
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Chain context
+ * <p>Each source name gets a fixed id the first time it is seen, and each thread keeps its contexts in an array indexed
+ * by the id. The contexts are reused by the later requests of the thread after they are removed, so no object is
+ * created on the request path once a thread has handled a source</p>
  *
  * @author zhouss
  * @since 2022-07-11
  */
 public class ChainContext {
-    private static final ThreadLocal<Map<String, RequestContext>> THREAD_LOCAL_CONTEXT_MAP = new ThreadLocal<>();
+    private static final ThreadLocal<ContextSlots> THREAD_LOCAL_CONTEXT_SLOTS = new ThreadLocal<>();
+
+    private static final Map<String, Integer> SOURCE_IDS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger SOURCE_ID_GENERATOR = new AtomicInteger();
 
     private static final int MAX_SIZE = 8;
 
@@ -45,25 +52,21 @@ public class ChainContext {
      * @throws IllegalArgumentException Throw an exception when the thread variable exceeds the maximum size
      */
     public static RequestContext getThreadLocalContext(String name) {
-        Map<String, RequestContext> contextMap = THREAD_LOCAL_CONTEXT_MAP.get();
-        if (contextMap == null) {
-            contextMap = new ConcurrentHashMap<>(MAX_SIZE);
-            THREAD_LOCAL_CONTEXT_MAP.set(contextMap);
-        }
-        if (contextMap.size() >= MAX_SIZE) {
-            throw new IllegalArgumentException("Can not create context in current thread!");
+        ContextSlots slots = THREAD_LOCAL_CONTEXT_SLOTS.get();
+        if (slots == null) {
+            slots = new ContextSlots();
+            THREAD_LOCAL_CONTEXT_SLOTS.set(slots);
         }
-        return contextMap.computeIfAbsent(name, sourceName -> new RequestContext(THREAD_LOCAL_CONTEXT_MAP, sourceName));
+        return slots.activate(getSourceId(name), name);
     }
 
     /**
      * clear thread variable
      */
     public static void remove() {
-        final Map<String, RequestContext> contextMap = THREAD_LOCAL_CONTEXT_MAP.get();
-        if (contextMap != null) {
-            contextMap.clear();
-            THREAD_LOCAL_CONTEXT_MAP.remove();
+        final ContextSlots slots = THREAD_LOCAL_CONTEXT_SLOTS.get();
+        if (slots != null) {
+            slots.deactivateAll();
         }
     }
 
@@ -73,11 +76,11 @@ public class ChainContext {
      * @param name name
      */
     public static void remove(String name) {
-        final Map<String, RequestContext> contextMap = THREAD_LOCAL_CONTEXT_MAP.get();
-        if (contextMap != null) {
-            contextMap.remove(name);
-            if (contextMap.isEmpty()) {
-                THREAD_LOCAL_CONTEXT_MAP.remove();
+        final ContextSlots slots = THREAD_LOCAL_CONTEXT_SLOTS.get();
+        if (slots != null) {
+            final Integer sourceId = SOURCE_IDS.get(name);
+            if (sourceId != null) {
+                slots.deactivate(sourceId);
             }
         }
     }
@@ -94,7 +97,7 @@ public class ChainContext {
      */
     public static void setKeyPrefix(String sourceName, String keyPrefix) {
         if (keyPrefix != null) {
-            getThreadLocalContext(sourceName).save(HandlerConstants.THREAD_LOCAL_KEY_PREFIX, keyPrefix);
+            getThreadLocalContext(sourceName).setKeyPrefix(keyPrefix);
         }
     }
 
@@ -105,7 +108,64 @@ public class ChainContext {
      * @return keyPrefix
      */
     public static Optional<String> getKeyPrefix(String sourceName) {
-        return Optional.ofNullable(getThreadLocalContext(sourceName)
-                .get(HandlerConstants.THREAD_LOCAL_KEY_PREFIX, String.class));
+        return Optional.ofNullable(getThreadLocalContext(sourceName).getKeyPrefix());
+    }
+
+    private static int getSourceId(String name) {
+        final Integer sourceId = SOURCE_IDS.get(name);
+        if (sourceId != null) {
+            return sourceId;
+        }
+        return SOURCE_IDS.computeIfAbsent(name, sourceName -> SOURCE_ID_GENERATOR.getAndIncrement());
+    }
+
+    /**
+     * contexts of a thread indexed by the source id
+     *
+     * @since 2024-10-15
+     */
+    private static class ContextSlots {
+        private RequestContext[] contexts = new RequestContext[MAX_SIZE];
+
+        private int activeCount;
+
+        RequestContext activate(int sourceId, String name) {
+            if (sourceId >= contexts.length) {
+                contexts = Arrays.copyOf(contexts, Math.max(sourceId + 1, contexts.length << 1));
+            }
+            RequestContext context = contexts[sourceId];
+            if (context == null) {
+                context = new RequestContext(name);
+                contexts[sourceId] = context;
+            }
+            if (!context.isActive()) {
+                if (activeCount >= MAX_SIZE) {
+                    throw new IllegalArgumentException("Can not create context in current thread!");
+                }
+                context.setActive(true);
+                activeCount++;
+            }
+            return context;
+        }
+
+        boolean isActive(int sourceId) {
+            return sourceId < contexts.length && contexts[sourceId] != null && contexts[sourceId].isActive();
+        }
+
+        void deactivate(int sourceId) {
+            if (isActive(sourceId)) {
+                contexts[sourceId].reset();
+                activeCount--;
+            }
+        }
+
+        void deactivateAll() {
+            for (RequestContext context : contexts) {
+                if (context != null && context.isActive()) {
+                    context.reset();
+                }
+            }
+            activeCount = 0;
+        }
     }
 }
@@ -19,14 +19,14 @@ package io.sermant.flowcontrol.res4j.chain.context;
 
 import io.sermant.core.common.LoggerFactory;
 import io.sermant.flowcontrol.common.entity.RequestEntity;
-import io.sermant.flowcontrol.res4j.chain.HandlerConstants;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 /**
- * RequestContext
+ * RequestContext, which is only used by the thread owning it
+ * <p>The variables are kept in two arrays searched linearly, since a request saves only a few of them, and the arrays
+ * are kept when the context is reset for the next request</p>
  *
  * @author zhouss
  * @since 2022-07-11
@@ -34,22 +34,28 @@ import java.util.logging.Logger;
 public class RequestContext {
     private static final Logger LOGGER = LoggerFactory.getLogger();
 
-    private final Map<String, Object> localMap = new ConcurrentHashMap<>();
-
-    private final ThreadLocal<Map<String, RequestContext>> threadLocal;
+    private static final int INITIAL_CAPACITY = 8;
 
     private final String sourceName;
 
+    private String[] names = new String[INITIAL_CAPACITY];
+
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    private int size;
+
+    private String keyPrefix;
+
     private RequestEntity requestEntity;
 
+    private boolean isActive;
+
     /**
      * constructor
      *
-     * @param threadLocal thread variable
      * @param sourceName source name
      */
-    public RequestContext(ThreadLocal<Map<String, RequestContext>> threadLocal, String sourceName) {
-        this.threadLocal = threadLocal;
+    RequestContext(String sourceName) {
         this.sourceName = sourceName;
     }
 
@@ -64,7 +70,18 @@ public class RequestContext {
             LOGGER.warning("ThreadLocal name or target can not be empty!");
             return;
         }
-        localMap.put(formatKey(name), target);
+        final int index = indexOf(name);
+        if (index >= 0) {
+            values[index] = target;
+            return;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size << 1);
+            values = Arrays.copyOf(values, size << 1);
+        }
+        names[size] = name;
+        values[size] = target;
+        size++;
     }
 
     /**
@@ -76,7 +93,8 @@ public class RequestContext {
      * @return result
      */
     public <T> T get(String name, Class<T> clazz) {
-        return (T) localMap.get(formatKey(name));
+        final int index = indexOf(name);
+        return index >= 0 ? (T) values[index] : null;
     }
 
     /**
@@ -85,32 +103,24 @@ public class RequestContext {
      * @param name variable name
      */
     public void remove(String name) {
-        localMap.remove(formatKey(name));
-        if (localMap.isEmpty()) {
-            threadLocal.remove();
+        final int index = indexOf(name);
+        if (index < 0) {
+            return;
         }
+        size--;
+        names[index] = names[size];
+        values[index] = values[size];
+        names[size] = null;
+        values[size] = null;
     }
 
     /**
      * clean all data
      */
     public void clear() {
-        localMap.clear();
-    }
-
-    private boolean isNeedFormat(String name) {
-        return !HandlerConstants.THREAD_LOCAL_KEY_PREFIX.equals(name);
-    }
-
-    private String formatKey(String name) {
-        if (!isNeedFormat(name)) {
-            return name;
-        }
-        final String keyPrefix = get(HandlerConstants.THREAD_LOCAL_KEY_PREFIX, String.class);
-        if (keyPrefix == null) {
-            return name;
-        }
-        return keyPrefix + name;
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
     }
 
     public RequestEntity getRequestEntity() {
@@ -125,6 +135,20 @@ public class RequestContext {
         return sourceName;
     }
 
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    /**
+     * set the key prefix, the variables of a context belong to one source name, so the prefix only tells the source
+     * apart and does not change the names of the variables
+     *
+     * @param keyPrefix key prefix
+     */
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
     /**
      * Whether the specified key exists in the thread variable
      *
@@ -132,6 +156,38 @@ public class RequestContext {
      * @return existence or not
      */
     public boolean hasKey(String key) {
-        return localMap.containsKey(key);
+        return indexOf(key) >= 0;
+    }
+
+    boolean isActive() {
+        return isActive;
+    }
+
+    void setActive(boolean isActive) {
+        this.isActive = isActive;
+    }
+
+    /**
+     * reset the context for the next request of the thread
+     */
+    void reset() {
+        clear();
+        keyPrefix = null;
+        requestEntity = null;
+        isActive = false;
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i] == name) {
+                return i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
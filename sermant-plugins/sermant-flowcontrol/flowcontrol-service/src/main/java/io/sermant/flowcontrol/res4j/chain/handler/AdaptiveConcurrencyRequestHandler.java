@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.chain.handler;
+
+import io.sermant.flowcontrol.res4j.chain.HandlerConstants;
+import io.sermant.flowcontrol.res4j.chain.context.RequestContext;
+import io.sermant.flowcontrol.res4j.exceptions.AdaptiveConcurrencyException;
+import io.sermant.flowcontrol.res4j.handler.AdaptiveConcurrencyHandler;
+import io.sermant.flowcontrol.res4j.handler.concurrency.AdaptiveConcurrencyLimiter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adaptive concurrency handler. The response time is measured from onBefore to onResult the same way as the circuit
+ * breaker, and the limiters are only saved into the context after all of them are acquired, so the ones saved are
+ * exactly the ones to release
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyRequestHandler extends FlowControlHandler<AdaptiveConcurrencyLimiter> {
+    private static final String CONTEXT_NAME = AdaptiveConcurrencyRequestHandler.class.getName();
+
+    private static final String START_TIME = CONTEXT_NAME + "_START_TIME";
+
+    private final AdaptiveConcurrencyHandler adaptiveConcurrencyHandler = new AdaptiveConcurrencyHandler();
+
+    @Override
+    public void onBefore(RequestContext context, Set<String> businessNames) {
+        final List<AdaptiveConcurrencyLimiter> limiters = adaptiveConcurrencyHandler.createOrGetHandlers(businessNames);
+        if (!limiters.isEmpty()) {
+            for (int i = 0; i < limiters.size(); i++) {
+                if (!limiters.get(i).tryAcquire()) {
+                    release(limiters, i);
+                    throw AdaptiveConcurrencyException.createException(limiters.get(i));
+                }
+            }
+            context.save(getStartTime(), System.nanoTime());
+            context.save(getContextName(), limiters);
+        }
+        super.onBefore(context, businessNames);
+    }
+
+    private void release(List<AdaptiveConcurrencyLimiter> limiters, int acquired) {
+        for (int i = 0; i < acquired; i++) {
+            limiters.get(i).onDropped();
+        }
+    }
+
+    @Override
+    public void onResult(RequestContext context, Set<String> businessNames, Object result) {
+        try {
+            final Long startTime = context.get(getStartTime(), Long.class);
+            final List<AdaptiveConcurrencyLimiter> limiters =
+                    getHandlersFromCache(context.getSourceName(), getContextName());
+            if (startTime != null && limiters != null) {
+                complete(context, limiters, System.nanoTime() - startTime);
+            }
+        } finally {
+            context.remove(getContextName());
+            context.remove(getStartTime());
+        }
+        super.onResult(context, businessNames, result);
+    }
+
+    private void complete(RequestContext context, List<AdaptiveConcurrencyLimiter> limiters, long rttNanos) {
+        if (context.hasKey(HandlerConstants.OCCURRED_FLOW_EXCEPTION)
+                || context.hasKey(HandlerConstants.OCCURRED_REQUEST_EXCEPTION)) {
+            // A request rejected by a later handler or a failed one may return early, its response time would lower
+            // the minimum response time
+            release(limiters, limiters.size());
+            return;
+        }
+        for (AdaptiveConcurrencyLimiter limiter : limiters) {
+            limiter.onComplete(rttNanos);
+        }
+    }
+
+    /**
+     * gets the current cache context start time name
+     *
+     * @return start time name
+     */
+    protected String getStartTime() {
+        return START_TIME;
+    }
+
+    @Override
+    protected String getContextName() {
+        return CONTEXT_NAME;
+    }
+
+    @Override
+    public int getOrder() {
+        return HandlerConstants.ADAPTIVE_CONCURRENCY_ORDER;
+    }
+}
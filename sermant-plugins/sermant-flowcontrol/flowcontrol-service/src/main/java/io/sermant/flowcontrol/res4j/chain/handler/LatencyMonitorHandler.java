@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.chain.handler;
+
+import io.sermant.flowcontrol.res4j.chain.AbstractChainHandler;
+import io.sermant.flowcontrol.res4j.chain.HandlerConstants;
+import io.sermant.flowcontrol.res4j.chain.context.RequestContext;
+import io.sermant.flowcontrol.res4j.service.ServiceCollectorService;
+import io.sermant.flowcontrol.res4j.util.MonitorUtils;
+
+import java.util.Set;
+
+/**
+ * Records the response time of the matched service scenarios into their histograms, the requests rejected by flow
+ * control are not recorded
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class LatencyMonitorHandler extends AbstractChainHandler {
+    private static final String START_TIME = LatencyMonitorHandler.class.getName() + "_START_TIME";
+
+    @Override
+    public void onBefore(RequestContext context, Set<String> businessNames) {
+        context.save(START_TIME, System.nanoTime());
+        super.onBefore(context, businessNames);
+    }
+
+    @Override
+    public void onResult(RequestContext context, Set<String> businessNames, Object result) {
+        try {
+            final Long startTime = context.get(START_TIME, Long.class);
+            if (startTime != null && !context.hasKey(HandlerConstants.OCCURRED_FLOW_EXCEPTION)) {
+                final long elapsed = System.nanoTime() - startTime;
+                for (String businessName : businessNames) {
+                    ServiceCollectorService.getLatencyHistogram(businessName).record(elapsed);
+                }
+            }
+        } finally {
+            context.remove(START_TIME);
+        }
+        super.onResult(context, businessNames, result);
+    }
+
+    @Override
+    protected boolean isSkip(RequestContext context, Set<String> businessNames) {
+        return !MonitorUtils.isStartMonitor();
+    }
+
+    @Override
+    public int getOrder() {
+        return HandlerConstants.LATENCY_MONITOR_ORDER;
+    }
+}
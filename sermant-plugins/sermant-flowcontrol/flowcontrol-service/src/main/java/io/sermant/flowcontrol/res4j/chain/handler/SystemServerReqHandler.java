@@ -53,15 +53,18 @@ public class SystemServerReqHandler extends FlowControlHandler<Fault> {
 
             // record request time
             context.save(CommonConst.REQUEST_START_TIME, System.currentTimeMillis());
-            WindowsArray.INSTANCE.addThreadNum(context.get(CommonConst.REQUEST_START_TIME, long.class));
+            WindowsArray.INSTANCE.addThreadNum();
         }
         super.onBefore(context, businessNames);
     }
 
     @Override
     public void onThrow(RequestContext context, Set<String> businessNames, Throwable throwable) {
+        if (context.hasKey(CommonConst.REQUEST_START_TIME)) {
+            WindowsArray.INSTANCE.decreaseThreadNum();
+            context.remove(CommonConst.REQUEST_START_TIME);
+        }
         context.remove(getContextName());
-        context.remove(CommonConst.REQUEST_START_TIME);
         super.onThrow(context, businessNames, throwable);
     }
 
@@ -69,9 +72,8 @@ public class SystemServerReqHandler extends FlowControlHandler<Fault> {
     public void onResult(RequestContext context, Set<String> businessNames, Object result) {
         if (SystemRuleUtils.isEnableSystemRule() && context.hasKey(CommonConst.REQUEST_START_TIME)) {
             long startTime = context.get(CommonConst.REQUEST_START_TIME, long.class);
-            WindowsArray.INSTANCE.addSuccess(startTime);
-            WindowsArray.INSTANCE.decreaseThreadNum(startTime);
-            WindowsArray.INSTANCE.addRt(startTime, System.currentTimeMillis() - startTime);
+            WindowsArray.INSTANCE.decreaseThreadNum();
+            WindowsArray.INSTANCE.addSuccess(System.currentTimeMillis() - startTime);
             context.remove(CommonConst.REQUEST_START_TIME);
         }
         context.remove(getContextName());
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.exceptions;
+
+import io.sermant.flowcontrol.res4j.handler.concurrency.AdaptiveConcurrencyLimiter;
+
+import java.util.Locale;
+
+/**
+ * adaptive concurrency exception, thrown when the requests in flight reach the estimated limit
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyException extends RuntimeException {
+    private final String msg;
+
+    /**
+     * adaptive concurrency exception, no stack trace is filled since it is thrown under overload
+     *
+     * @param msg exception message
+     */
+    public AdaptiveConcurrencyException(String msg) {
+        super(msg, null, false, false);
+        this.msg = msg;
+    }
+
+    /**
+     * construct exception message
+     *
+     * @param limiter limiter
+     * @return exception
+     */
+    public static AdaptiveConcurrencyException createException(AdaptiveConcurrencyLimiter limiter) {
+        return new AdaptiveConcurrencyException(String.format(Locale.ENGLISH,
+                "Adaptive concurrency limit of %s is reached, the current limit is %d!", limiter.getName(),
+                limiter.getLimit()));
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler;
+
+import io.sermant.flowcontrol.common.core.resolver.AdaptiveConcurrencyRuleResolver;
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+import io.sermant.flowcontrol.common.handler.AbstractRequestHandler;
+import io.sermant.flowcontrol.res4j.handler.concurrency.AdaptiveConcurrencyLimiter;
+
+import java.util.Optional;
+
+/**
+ * adaptive concurrency handler
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyHandler
+        extends AbstractRequestHandler<AdaptiveConcurrencyLimiter, AdaptiveConcurrencyRule> {
+    @Override
+    protected final Optional<AdaptiveConcurrencyLimiter> createProcessor(String businessName,
+            AdaptiveConcurrencyRule rule) {
+        return Optional.of(AdaptiveConcurrencyLimiter.of(businessName, rule));
+    }
+
+    @Override
+    protected final String configKey() {
+        return AdaptiveConcurrencyRuleResolver.CONFIG_KEY;
+    }
+}
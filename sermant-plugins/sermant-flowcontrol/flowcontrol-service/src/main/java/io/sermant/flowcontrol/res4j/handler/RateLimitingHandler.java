@@ -18,13 +18,11 @@
 package io.sermant.flowcontrol.res4j.handler;
 
 import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.sermant.flowcontrol.common.core.resolver.RateLimitingRuleResolver;
 import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
 import io.sermant.flowcontrol.common.handler.AbstractRequestHandler;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.RateLimiterProviderManager;
 
-import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -34,15 +32,11 @@ import java.util.Optional;
  * @since 2022-01-22
  */
 public class RateLimitingHandler extends AbstractRequestHandler<RateLimiter, RateLimitingRule> {
+    private static final RateLimiterProviderManager PROVIDER_MANAGER = new RateLimiterProviderManager();
+
     @Override
     protected final Optional<RateLimiter> createProcessor(String businessName, RateLimitingRule rule) {
-        RateLimiterConfig config = RateLimiterConfig.custom()
-                .limitForPeriod(rule.getRate())
-                .limitRefreshPeriod(Duration.ofMillis(rule.getParsedLimitRefreshPeriod()))
-                .timeoutDuration(Duration.ofMillis(rule.getParsedTimeoutDuration()))
-                .build();
-        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(config);
-        return Optional.of(rateLimiterRegistry.rateLimiter(businessName));
+        return Optional.of(PROVIDER_MANAGER.getProvider(rule.getLimiterType()).create(businessName, rule));
     }
 
     @Override
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.concurrency;
+
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+
+/**
+ * Base of the limit algorithms. The samples are aggregated into windows of about one limit of requests, and the limit
+ * is updated once per window by the average response time, since all the requests of a window saw the same limit and
+ * updating by each of them would overshoot. The algorithms compare the response time against the minimum response
+ * time, which only tells the capacity of the service when it is measured without queueing: a minimum taken under a
+ * persistent queue rises with the queue and lets the limit grow without bound. So the minimum is probed again every
+ * {@link AdaptiveConcurrencyRule#getProbeInterval()} samples by lowering the limit to a quarter until the queue is
+ * drained and enough samples are measured, and the limit is restored afterwards
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public abstract class AbstractConcurrencyLimit implements ConcurrencyLimit {
+    private static final int PROBE_LIMIT_DIVISOR = 4;
+
+    private static final int PROBE_MIN_SAMPLES = 10;
+
+    private static final int WINDOW_MIN_SAMPLES = 10;
+
+    /**
+     * adaptive concurrency rule
+     */
+    protected final AdaptiveConcurrencyRule rule;
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private long minRtt = Long.MAX_VALUE;
+
+    private int sampleCount;
+
+    private long windowRttSum;
+
+    private int windowCount;
+
+    private int windowMaxInflight;
+
+    private boolean isProbing;
+
+    private int probeLimit;
+
+    private long probeMinRtt;
+
+    /**
+     * constructor
+     *
+     * @param rule adaptive concurrency rule
+     */
+    protected AbstractConcurrencyLimit(AdaptiveConcurrencyRule rule) {
+        this.rule = rule;
+        this.estimatedLimit = rule.getInitialLimit();
+        this.limit = rule.getInitialLimit();
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inflight) {
+        if (isProbing) {
+            probe(rttNanos, inflight);
+            return;
+        }
+        minRtt = Math.min(minRtt, rttNanos);
+        windowRttSum += rttNanos;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        if (++windowCount < Math.max(WINDOW_MIN_SAMPLES, limit)) {
+            return;
+        }
+        final long avgRtt = Math.max(1L, windowRttSum / windowCount);
+        final double newLimit = update(estimatedLimit, avgRtt, minRtt, windowMaxInflight);
+        sampleCount += windowCount;
+        windowRttSum = 0L;
+        windowCount = 0;
+        windowMaxInflight = 0;
+        final double smoothed = estimatedLimit * (1D - rule.getSmoothing()) + newLimit * rule.getSmoothing();
+        estimatedLimit = Math.max(rule.getMinLimit(), Math.min(rule.getMaxLimit(), smoothed));
+        if (sampleCount < rule.getProbeInterval()) {
+            limit = (int) estimatedLimit;
+            return;
+        }
+        sampleCount = 0;
+        isProbing = true;
+        probeMinRtt = Long.MAX_VALUE;
+        probeLimit = Math.max(rule.getMinLimit(), (int) estimatedLimit / PROBE_LIMIT_DIVISOR);
+        limit = probeLimit;
+    }
+
+    private void probe(long rttNanos, int inflight) {
+        // The requests admitted before the probe are still queued, their response time is not counted
+        if (inflight > probeLimit) {
+            return;
+        }
+        probeMinRtt = Math.min(probeMinRtt, rttNanos);
+        if (++sampleCount < Math.max(PROBE_MIN_SAMPLES, probeLimit)) {
+            return;
+        }
+        sampleCount = 0;
+        isProbing = false;
+        minRtt = probeMinRtt;
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * estimate the new limit, which is smoothed and bounded afterwards
+     *
+     * @param currentLimit current estimated limit
+     * @param rttNanos average response time of the window, nanoseconds
+     * @param minRttNanos minimum response time, nanoseconds
+     * @param inflight maximum number of the requests in flight of the window
+     * @return new limit
+     */
+    protected abstract double update(double currentLimit, long rttNanos, long minRttNanos, int inflight);
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.concurrency;
+
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter whose limit is estimated by {@link ConcurrencyLimit}. The permits are taken by a CAS on the
+ * number of the requests in flight, and the samples are fed to the algorithm under a lock, a completing request skips
+ * its sample instead of waiting when the lock is held by another thread
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final String name;
+
+    private final ConcurrencyLimit concurrencyLimit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final ReentrantLock sampleLock = new ReentrantLock();
+
+    /**
+     * constructor
+     *
+     * @param name service scenario name
+     * @param concurrencyLimit limit algorithm
+     */
+    public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimit concurrencyLimit) {
+        this.name = name;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * create the limiter with the algorithm of the rule
+     *
+     * @param name service scenario name
+     * @param rule adaptive concurrency rule
+     * @return limiter
+     */
+    public static AdaptiveConcurrencyLimiter of(String name, AdaptiveConcurrencyRule rule) {
+        if (AdaptiveConcurrencyRule.ALGORITHM_VEGAS.equalsIgnoreCase(rule.getAlgorithm())) {
+            return new AdaptiveConcurrencyLimiter(name, new VegasLimit(rule));
+        }
+        return new AdaptiveConcurrencyLimiter(name, new GradientLimit(rule));
+    }
+
+    /**
+     * acquire a permit
+     *
+     * @return whether the number of the requests in flight is under the limit
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inflight.get();
+            if (current >= concurrencyLimit.getLimit()) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * release the permit of a completed request and update the limit by its response time
+     *
+     * @param rttNanos response time, nanoseconds
+     */
+    public void onComplete(long rttNanos) {
+        final int current = inflight.getAndDecrement();
+        if (sampleLock.tryLock()) {
+            try {
+                concurrencyLimit.onSample(rttNanos, current);
+            } finally {
+                sampleLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * release the permit of a failed request, the response time of which does not tell the capacity of the service
+     */
+    public void onDropped() {
+        inflight.decrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return concurrencyLimit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.concurrency;
+
+/**
+ * algorithm estimating the concurrency limit from the response time samples, the samples are fed by one thread at a
+ * time
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public interface ConcurrencyLimit {
+    /**
+     * current limit
+     *
+     * @return limit
+     */
+    int getLimit();
+
+    /**
+     * update the limit by a completed request
+     *
+     * @param rttNanos response time of the request, nanoseconds
+     * @param inflight number of the requests in flight when the request completed, itself included
+     */
+    void onSample(long rttNanos, int inflight);
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.concurrency;
+
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+
+/**
+ * Gradient algorithm, the limit is scaled by the gradient of the minimum response time to the response time, and a
+ * queue of the square root of the limit is allowed so that the limit keeps probing for more capacity
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class GradientLimit extends AbstractConcurrencyLimit {
+    private static final double MIN_GRADIENT = 0.5D;
+
+    /**
+     * constructor
+     *
+     * @param rule adaptive concurrency rule
+     */
+    public GradientLimit(AdaptiveConcurrencyRule rule) {
+        super(rule);
+    }
+
+    @Override
+    protected double update(double currentLimit, long rttNanos, long minRttNanos, int inflight) {
+        final double gradient = Math.max(MIN_GRADIENT,
+                Math.min(1D, rule.getRtTolerance() * minRttNanos / rttNanos));
+
+        // The limit is not raised while the requests do not use it up, otherwise it grows without any feedback
+        if (gradient >= 1D && inflight * 2 < currentLimit) {
+            return currentLimit;
+        }
+        return currentLimit * gradient + Math.sqrt(currentLimit);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.concurrency;
+
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+
+/**
+ * Vegas algorithm, the number of the queued requests is estimated as limit * (1 - minRtt / rtt). The limit grows while
+ * the queue is shorter than alpha, and shrinks when the queue is longer than beta, both of which grow with log10 of the
+ * limit
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class VegasLimit extends AbstractConcurrencyLimit {
+    private static final int ALPHA_FACTOR = 3;
+
+    private static final int BETA_FACTOR = 6;
+
+    /**
+     * constructor
+     *
+     * @param rule adaptive concurrency rule
+     */
+    public VegasLimit(AdaptiveConcurrencyRule rule) {
+        super(rule);
+    }
+
+    @Override
+    protected double update(double currentLimit, long rttNanos, long minRttNanos, int inflight) {
+        final double queueSize = currentLimit * (1D - (double) minRttNanos / rttNanos);
+        final double step = Math.max(1D, Math.log10(currentLimit));
+        if (queueSize <= ALPHA_FACTOR * step) {
+            return inflight * 2 < currentLimit ? currentLimit : currentLimit + step;
+        }
+        if (queueSize >= BETA_FACTOR * step) {
+            return currentLimit - step;
+        }
+        return currentLimit;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.exception;
+
+import io.sermant.flowcontrol.common.config.CommonConst;
+import io.sermant.flowcontrol.common.entity.FlowControlResponse;
+import io.sermant.flowcontrol.common.entity.FlowControlResult;
+import io.sermant.flowcontrol.res4j.exceptions.AdaptiveConcurrencyException;
+
+/**
+ * adaptive concurrency exception handler
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyExceptionHandler extends AbstractExceptionHandler<AdaptiveConcurrencyException> {
+    @Override
+    protected FlowControlResponse getFlowControlResponse(AdaptiveConcurrencyException ex,
+            FlowControlResult flowControlResult) {
+        return new FlowControlResponse(ex.getMsg(), CommonConst.TOO_MANY_REQUEST_CODE);
+    }
+
+    @Override
+    public Class<AdaptiveConcurrencyException> targetException() {
+        return AdaptiveConcurrencyException.class;
+    }
+}
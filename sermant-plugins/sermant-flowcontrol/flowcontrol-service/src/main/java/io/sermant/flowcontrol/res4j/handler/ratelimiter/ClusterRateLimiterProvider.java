@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
+import io.sermant.flowcontrol.res4j.adaptor.RateLimiterAdaptor;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster.ClusterTokenBucket;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster.TokenClientManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider of the cluster rate limiters, the nodes share {@link RateLimitingRule#getClusterRate()} through the token
+ * server, and each node is limited by {@link RateLimitingRule#getRate()} while the token server is unreachable
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClusterRateLimiterProvider extends Resilience4jRateLimiterProvider {
+    /**
+     * type of the cluster rate limiter
+     */
+    public static final String TYPE = "cluster";
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public RateLimiter create(String businessName, RateLimitingRule rule) {
+        final long periodNanos = TimeUnit.MILLISECONDS.toNanos(rule.getParsedLimitRefreshPeriod());
+        return new RateLimiterAdaptor(super.create(businessName, rule), rate -> {
+            final long nowNanos = System.nanoTime();
+            return new ClusterTokenBucket(businessName, rule.getClusterRate() > 0 ? rule.getClusterRate() : rate,
+                    periodNanos, TokenClientManager.INSTANCE::getClient,
+                    new StripedTokenBucket(rate, periodNanos, rate, nowNanos), nowNanos);
+        });
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+/**
+ * Permits of a native rate limiter, the time is passed in by the caller in nanoseconds of {@link System#nanoTime()}
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public interface PermitBucket {
+    /**
+     * reserve the permits
+     *
+     * @param permits number of permits
+     * @param timeoutNanos the longest time the caller waits for the permits
+     * @param nowNanos current time
+     * @return the time the caller should wait before going on, -1 if the permits can not be reserved within the timeout
+     */
+    long reserve(int permits, long timeoutNanos, long nowNanos);
+
+    /**
+     * the permits available at once
+     *
+     * @param nowNanos current time
+     * @return available permits
+     */
+    long getAvailablePermits(long nowNanos);
+
+    /**
+     * take all the available permits
+     *
+     * @param nowNanos current time
+     */
+    void drain(long nowNanos);
+}
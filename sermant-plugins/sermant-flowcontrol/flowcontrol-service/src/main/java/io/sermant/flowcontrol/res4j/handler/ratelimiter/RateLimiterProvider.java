@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
+
+/**
+ * Provider of the rate limiters, loaded by SPI and selected by {@link RateLimitingRule#getLimiterType()}
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public interface RateLimiterProvider {
+    /**
+     * type of the rate limiter
+     *
+     * @return type
+     */
+    String getType();
+
+    /**
+     * create the rate limiter
+     *
+     * @param businessName service scenario name
+     * @param rule rate limiting rule
+     * @return rate limiter
+     */
+    RateLimiter create(String businessName, RateLimitingRule rule);
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.flowcontrol.common.util.StringUtils;
+import io.sermant.flowcontrol.res4j.chain.AbstractChainHandler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rate limiter provider manager, the resilience4j rate limiter is used if the type is not set or not found
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class RateLimiterProviderManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private final RateLimiterProvider defaultProvider = new Resilience4jRateLimiterProvider();
+
+    private Map<String, RateLimiterProvider> providers;
+
+    /**
+     * constructor
+     */
+    public RateLimiterProviderManager() {
+        loadProviders();
+    }
+
+    /**
+     * get the rate limiter provider
+     *
+     * @param limiterType type of the rate limiter
+     * @return rate limiter provider
+     */
+    public RateLimiterProvider getProvider(String limiterType) {
+        if (StringUtils.isEmpty(limiterType)) {
+            return defaultProvider;
+        }
+        final RateLimiterProvider provider = providers.get(limiterType.toLowerCase(Locale.ROOT));
+        if (provider == null) {
+            LOGGER.log(Level.WARNING, "Can not find rate limiter type [{0}], the default one is used.", limiterType);
+            return defaultProvider;
+        }
+        return provider;
+    }
+
+    private void loadProviders() {
+        final HashMap<String, RateLimiterProvider> map = new HashMap<>();
+        for (RateLimiterProvider provider : ServiceLoader.load(RateLimiterProvider.class,
+                AbstractChainHandler.class.getClassLoader())) {
+            map.put(provider.getType().toLowerCase(Locale.ROOT), provider);
+        }
+        providers = Collections.unmodifiableMap(map);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
+
+import java.time.Duration;
+
+/**
+ * Provider of the resilience4j rate limiters, which is used by default
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class Resilience4jRateLimiterProvider implements RateLimiterProvider {
+    /**
+     * type of the resilience4j rate limiter
+     */
+    public static final String TYPE = "resilience4j";
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public RateLimiter create(String businessName, RateLimitingRule rule) {
+        RateLimiterConfig config = RateLimiterConfig.custom()
+                .limitForPeriod(rule.getRate())
+                .limitRefreshPeriod(Duration.ofMillis(rule.getParsedLimitRefreshPeriod()))
+                .timeoutDuration(Duration.ofMillis(rule.getParsedTimeoutDuration()))
+                .build();
+        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(config);
+        return rateLimiterRegistry.rateLimiter(businessName);
+    }
+}
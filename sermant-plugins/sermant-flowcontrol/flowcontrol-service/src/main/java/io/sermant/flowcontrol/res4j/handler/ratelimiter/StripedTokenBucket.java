@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket split into stripes, each stripe takes a share of the rate and the burst, so that the threads acquiring
+ * permits mostly update different stripes. A thread takes the permits from the stripe chosen by its id, and tries the
+ * other stripes when that one is empty
+ * <p>Each stripe is a generic cell rate algorithm of one CAS: it keeps the theoretical arrival time, which moves
+ * forward by the interval of a permit for each permit taken, and the permits are available as long as the theoretical
+ * arrival time stays within the burst from now
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class StripedTokenBucket implements PermitBucket {
+    /**
+     * distance of two stripes in the array, so that they are not in one cache line
+     */
+    private static final int PADDING = 8;
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private static final int INT_BITS = 32;
+
+    private final AtomicLongArray arrivalTimes;
+
+    private final long[] intervals;
+
+    private final long[] tolerances;
+
+    private final int stripeMask;
+
+    private final long originNanos;
+
+    /**
+     * constructor
+     *
+     * @param rate permits of a period
+     * @param periodNanos period
+     * @param burst maximum permits accumulated
+     * @param nowNanos current time
+     */
+    public StripedTokenBucket(int rate, long periodNanos, int burst, long nowNanos) {
+        this(rate, periodNanos, burst, defaultStripeCount(rate, burst), nowNanos);
+    }
+
+    /**
+     * constructor
+     *
+     * @param rate permits of a period
+     * @param periodNanos period
+     * @param burst maximum permits accumulated
+     * @param stripeCount number of the stripes, a power of two not greater than the rate and the burst
+     * @param nowNanos current time
+     */
+    StripedTokenBucket(int rate, long periodNanos, int burst, int stripeCount, long nowNanos) {
+        this.stripeMask = stripeCount - 1;
+        this.originNanos = nowNanos;
+        this.arrivalTimes = new AtomicLongArray(stripeCount * PADDING);
+        this.intervals = new long[stripeCount];
+        this.tolerances = new long[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            final int stripeRate = rate / stripeCount + (i < rate % stripeCount ? 1 : 0);
+            final int stripeBurst = burst / stripeCount + (i < burst % stripeCount ? 1 : 0);
+
+            // Round the interval up, so that the stripes never exceed the rate together
+            intervals[i] = (periodNanos + stripeRate - 1) / stripeRate;
+            tolerances[i] = intervals[i] * stripeBurst;
+        }
+    }
+
+    @Override
+    public long reserve(int permits, long timeoutNanos, long nowNanos) {
+        final long now = nowNanos - originNanos;
+        final int home = homeStripe();
+        for (int i = 0; i <= stripeMask; i++) {
+            if (tryReserve((home + i) & stripeMask, permits, now, 0L) == 0L) {
+                return 0L;
+            }
+        }
+        if (timeoutNanos <= 0L) {
+            return -1L;
+        }
+        return tryReserve(home, permits, now, timeoutNanos);
+    }
+
+    @Override
+    public long getAvailablePermits(long nowNanos) {
+        final long now = nowNanos - originNanos;
+        long available = 0L;
+        for (int i = 0; i <= stripeMask; i++) {
+            final long debt = Math.max(arrivalTimes.get(i * PADDING) - now, 0L);
+            available += Math.max(tolerances[i] - debt, 0L) / intervals[i];
+        }
+        return available;
+    }
+
+    @Override
+    public void drain(long nowNanos) {
+        final long now = nowNanos - originNanos;
+        for (int i = 0; i <= stripeMask; i++) {
+            final long drained = now + tolerances[i];
+            long arrivalTime;
+            do {
+                arrivalTime = arrivalTimes.get(i * PADDING);
+            } while (arrivalTime < drained && !arrivalTimes.compareAndSet(i * PADDING, arrivalTime, drained));
+        }
+    }
+
+    private long tryReserve(int stripe, int permits, long now, long timeoutNanos) {
+        final int index = stripe * PADDING;
+        while (true) {
+            final long arrivalTime = arrivalTimes.get(index);
+            final long newArrivalTime = Math.max(arrivalTime, now) + permits * intervals[stripe];
+            final long waitNanos = newArrivalTime - now - tolerances[stripe];
+            if (waitNanos > timeoutNanos) {
+                return -1L;
+            }
+            if (arrivalTimes.compareAndSet(index, arrivalTime, newArrivalTime)) {
+                return Math.max(waitNanos, 0L);
+            }
+        }
+    }
+
+    private int homeStripe() {
+        return (int) ((Thread.currentThread().getId() * GOLDEN_RATIO) >>> INT_BITS) & stripeMask;
+    }
+
+    private static int defaultStripeCount(int rate, int burst) {
+        final int limit = Math.min(Math.min(rate, burst), Runtime.getRuntime().availableProcessors());
+        return Integer.highestOneBit(Math.max(limit, 1));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
+import io.sermant.flowcontrol.res4j.adaptor.RateLimiterAdaptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider of the striped token bucket rate limiters, the bucket holds at most {@link RateLimitingRule#getBurst()}
+ * permits
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class TokenBucketRateLimiterProvider extends Resilience4jRateLimiterProvider {
+    /**
+     * type of the token bucket rate limiter
+     */
+    public static final String TYPE = "token-bucket";
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public RateLimiter create(String businessName, RateLimitingRule rule) {
+        final long periodNanos = TimeUnit.MILLISECONDS.toNanos(rule.getParsedLimitRefreshPeriod());
+        return new RateLimiterAdaptor(super.create(businessName, rule), rate -> new StripedTokenBucket(rate,
+                periodNanos, rule.getBurst() > 0 ? rule.getBurst() : rate, System.nanoTime()));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+/**
+ * Leaky bucket letting the permits out one by one at the interval of the rate, the permits do not accumulate when the
+ * limiter is idle, so there is no burst. The caller waits for its turn if it is within the timeout
+ * <p>With a warm-up time, the idle limiter cools down, and a cold limiter starts at a third of the rate and speeds up
+ * linearly to the rate over the warm-up time, the same as the smooth warming up limiter of guava
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class WarmUpLeakyBucket implements PermitBucket {
+    private static final double COLD_FACTOR = 3.0d;
+
+    private static final double HALF = 0.5d;
+
+    private final double stableInterval;
+
+    private final double thresholdPermits;
+
+    private final double maxPermits;
+
+    private final double slope;
+
+    private final double coolDownInterval;
+
+    private final long originNanos;
+
+    /**
+     * permits above the threshold are cold, taking them costs more than the stable interval
+     */
+    private double storedPermits;
+
+    /**
+     * the time the next permit is let out, relative to the origin
+     */
+    private long nextFreeNanos;
+
+    /**
+     * constructor
+     *
+     * @param rate permits of a period
+     * @param periodNanos period
+     * @param warmUpNanos warm-up time, no warm-up if it is zero
+     * @param nowNanos current time
+     */
+    public WarmUpLeakyBucket(int rate, long periodNanos, long warmUpNanos, long nowNanos) {
+        this.stableInterval = (double) periodNanos / rate;
+        this.originNanos = nowNanos;
+        if (warmUpNanos <= 0L) {
+            this.thresholdPermits = 0d;
+            this.maxPermits = 0d;
+            this.slope = 0d;
+            this.coolDownInterval = 0d;
+            return;
+        }
+        final double coldInterval = stableInterval * COLD_FACTOR;
+        this.thresholdPermits = HALF * warmUpNanos / stableInterval;
+        this.maxPermits = thresholdPermits + 2.0d * warmUpNanos / (stableInterval + coldInterval);
+        this.slope = (coldInterval - stableInterval) / (maxPermits - thresholdPermits);
+        this.coolDownInterval = warmUpNanos / maxPermits;
+        this.storedPermits = maxPermits;
+    }
+
+    @Override
+    public synchronized long reserve(int permits, long timeoutNanos, long nowNanos) {
+        final long now = nowNanos - originNanos;
+        resync(now);
+        final long waitNanos = Math.max(nextFreeNanos - now, 0L);
+        if (waitNanos > timeoutNanos) {
+            return -1L;
+        }
+        final double storedToSpend = Math.min(permits, storedPermits);
+        final double freshPermits = permits - storedToSpend;
+        final double cost = storedPermitsToWaitTime(storedToSpend) + freshPermits * stableInterval;
+        nextFreeNanos = Math.max(nextFreeNanos, now) + (long) cost;
+        storedPermits -= storedToSpend;
+        return waitNanos;
+    }
+
+    @Override
+    public synchronized long getAvailablePermits(long nowNanos) {
+        return nextFreeNanos <= nowNanos - originNanos ? 1L : 0L;
+    }
+
+    @Override
+    public synchronized void drain(long nowNanos) {
+        final long now = nowNanos - originNanos;
+        resync(now);
+        nextFreeNanos = Math.max(nextFreeNanos, now + (long) stableInterval);
+    }
+
+    private void resync(long now) {
+        if (now <= nextFreeNanos) {
+            return;
+        }
+        if (coolDownInterval > 0d) {
+            storedPermits = Math.min(maxPermits, storedPermits + (now - nextFreeNanos) / coolDownInterval);
+        }
+        nextFreeNanos = now;
+    }
+
+    private double storedPermitsToWaitTime(double permitsToTake) {
+        final double permitsAboveThreshold = storedPermits - thresholdPermits;
+        double remaining = permitsToTake;
+        double waitTime = 0d;
+        if (permitsAboveThreshold > 0d) {
+            // The interval grows linearly above the threshold, the cost is the area of the trapezoid
+            final double aboveToTake = Math.min(permitsAboveThreshold, remaining);
+            final double length = permitsToTime(permitsAboveThreshold) + permitsToTime(permitsAboveThreshold
+                    - aboveToTake);
+            waitTime = aboveToTake * length / 2.0d;
+            remaining -= aboveToTake;
+        }
+        return waitTime + stableInterval * remaining;
+    }
+
+    private double permitsToTime(double permits) {
+        return stableInterval + permits * slope;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.PermitBucket;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Permit bucket of the cluster rate limiter, the permits are taken from the tokens leased from the token server. A new
+ * batch is leased asynchronously when the leased tokens are running low, so the threads limited never wait for the
+ * network. The leased tokens expire after a period, and the permits are only rejected without waiting when the token
+ * server has no tokens left for the cluster
+ * <p>The permits are taken from the bucket of the node before the first lease, while a new lease is fetched after the
+ * leased tokens expire or run out, and while the token server is unreachable or rejects the rule of the node
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClusterTokenBucket implements PermitBucket {
+    /**
+     * a batch is a tenth of the cluster rate
+     */
+    private static final int BATCH_DIVISOR = 10;
+
+    private final String resource;
+
+    private final int clusterRate;
+
+    private final long periodNanos;
+
+    private final int batchSize;
+
+    private final Supplier<TokenClient> clientSupplier;
+
+    private final PermitBucket nodeBucket;
+
+    private final AtomicInteger leasedTokens = new AtomicInteger();
+
+    private final AtomicBoolean isLeasing = new AtomicBoolean();
+
+    private volatile long leaseExpireNanos;
+
+    private volatile long nextLeaseNanos;
+
+    private volatile boolean isServerAvailable;
+
+    /**
+     * The token server had no tokens left at the last lease
+     */
+    private volatile boolean isClusterExhausted;
+
+    /**
+     * constructor
+     *
+     * @param resource name of the rate limiter
+     * @param clusterRate permits of a period shared by the cluster
+     * @param periodNanos period
+     * @param clientSupplier supplies the token client, no token server if it supplies null
+     * @param nodeBucket bucket of the node, used when the token server is unreachable
+     * @param nowNanos current time
+     */
+    public ClusterTokenBucket(String resource, int clusterRate, long periodNanos, Supplier<TokenClient> clientSupplier,
+            PermitBucket nodeBucket, long nowNanos) {
+        this.resource = resource;
+        this.clusterRate = clusterRate;
+        this.periodNanos = periodNanos;
+        this.batchSize = Math.max(1, clusterRate / BATCH_DIVISOR);
+        this.clientSupplier = clientSupplier;
+        this.nodeBucket = nodeBucket;
+        this.leaseExpireNanos = nowNanos;
+        this.nextLeaseNanos = nowNanos;
+    }
+
+    @Override
+    public long reserve(int permits, long timeoutNanos, long nowNanos) {
+        if (!isServerAvailable) {
+            lease(nowNanos);
+            if (!isServerAvailable) {
+                return nodeBucket.reserve(permits, timeoutNanos, nowNanos);
+            }
+        }
+        if (tryAcquire(permits, nowNanos)) {
+            return 0L;
+        }
+        lease(nowNanos);
+        if (tryAcquire(permits, nowNanos)) {
+            return 0L;
+        }
+
+        // No limit of the cluster is exceeded while the new lease is being fetched, the node limit is used meanwhile
+        return isClusterExhausted ? -1L : nodeBucket.reserve(permits, timeoutNanos, nowNanos);
+    }
+
+    @Override
+    public long getAvailablePermits(long nowNanos) {
+        if (!isServerAvailable) {
+            return nodeBucket.getAvailablePermits(nowNanos);
+        }
+        if (nowNanos - leaseExpireNanos < 0L) {
+            return leasedTokens.get();
+        }
+        return isClusterExhausted ? 0L : nodeBucket.getAvailablePermits(nowNanos);
+    }
+
+    @Override
+    public void drain(long nowNanos) {
+        leasedTokens.set(0);
+        nodeBucket.drain(nowNanos);
+    }
+
+    private boolean tryAcquire(int permits, long nowNanos) {
+        if (nowNanos - leaseExpireNanos >= 0L) {
+            return false;
+        }
+        int tokens;
+        do {
+            tokens = leasedTokens.get();
+            if (tokens < permits) {
+                return false;
+            }
+        } while (!leasedTokens.compareAndSet(tokens, tokens - permits));
+        if (tokens - permits < batchSize) {
+            lease(nowNanos);
+        }
+        return true;
+    }
+
+    private void lease(long nowNanos) {
+        if (nowNanos - nextLeaseNanos < 0L || !isLeasing.compareAndSet(false, true)) {
+            return;
+        }
+        final TokenClient client = clientSupplier.get();
+        if (client == null) {
+            onFailure(nowNanos);
+            return;
+        }
+        client.requestTokens(resource, batchSize, clusterRate, periodNanos).whenComplete((granted, error) -> {
+            if (error != null) {
+                onFailure(nowNanos);
+            } else {
+                onGranted(granted, nowNanos);
+            }
+        });
+    }
+
+    private void onGranted(int granted, long nowNanos) {
+        if (granted == TokenServer.REJECTED) {
+            // The token server does not share the rule of the node, e.g. while the rule is being updated
+            onFailure(nowNanos);
+            return;
+        }
+        if (granted > 0) {
+            if (nowNanos - leaseExpireNanos >= 0L) {
+                leasedTokens.set(granted);
+            } else {
+                leasedTokens.addAndGet(granted);
+            }
+            leaseExpireNanos = nowNanos + periodNanos;
+            nextLeaseNanos = nowNanos;
+            isClusterExhausted = false;
+        } else {
+            // The cluster is out of tokens, ask again after the interval of a token
+            nextLeaseNanos = nowNanos + periodNanos / clusterRate;
+            isClusterExhausted = true;
+        }
+        isServerAvailable = true;
+        isLeasing.set(false);
+    }
+
+    private void onFailure(long nowNanos) {
+        isServerAvailable = false;
+        isClusterExhausted = false;
+        nextLeaseNanos = nowNanos + periodNanos;
+        isLeasing.set(false);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Token client calling the token server in the same process, which is used by the agent hosting the token server
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class InProcessTokenClient implements TokenClient {
+    private final TokenServer tokenServer;
+
+    /**
+     * constructor
+     *
+     * @param tokenServer token server
+     */
+    public InProcessTokenClient(TokenServer tokenServer) {
+        this.tokenServer = tokenServer;
+    }
+
+    @Override
+    public CompletableFuture<Integer> requestTokens(String resource, int permits, int rate, long periodNanos) {
+        return CompletableFuture.completedFuture(tokenServer.lease(resource, permits, rate, periodNanos,
+                System.nanoTime()));
+    }
+
+    @Override
+    public void close() {
+        // The token server is closed by its endpoint
+    }
+}
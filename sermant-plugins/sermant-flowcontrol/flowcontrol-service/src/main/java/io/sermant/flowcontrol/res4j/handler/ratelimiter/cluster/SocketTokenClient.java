@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.flowcontrol.common.factory.FlowControlThreadFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Token client connecting to the token server over a socket. The requests are sent by a single thread one by one, so
+ * the threads limited never wait for the network, and the connection is established again by the next request after
+ * it fails
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class SocketTokenClient implements TokenClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private final InetSocketAddress address;
+
+    private final int timeoutMs;
+
+    private final ExecutorService executor;
+
+    private Socket socket;
+
+    private DataInputStream in;
+
+    private DataOutputStream out;
+
+    private int requestId;
+
+    /**
+     * constructor
+     *
+     * @param host host of the token server
+     * @param port port of the token server
+     * @param timeoutMs timeout of connecting and of a request
+     */
+    public SocketTokenClient(String host, int port, long timeoutMs) {
+        this.address = InetSocketAddress.createUnresolved(host, port);
+        this.timeoutMs = (int) Math.min(Math.max(timeoutMs, 1L), Integer.MAX_VALUE);
+        this.executor = Executors.newSingleThreadExecutor(
+                new FlowControlThreadFactory("FLOW_CONTROL_TOKEN_CLIENT", true));
+    }
+
+    @Override
+    public CompletableFuture<Integer> requestTokens(String resource, int permits, int rate, long periodNanos) {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(send(resource, permits, rate, periodNanos));
+                } catch (IOException ex) {
+                    LOGGER.log(Level.FINE, "Failed to request the tokens: {0}", ex.getMessage());
+                    disconnect();
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(this::disconnect);
+        executor.shutdown();
+    }
+
+    private int send(String resource, int permits, int rate, long periodNanos) throws IOException {
+        if (socket == null) {
+            connect();
+        }
+        final int id = ++requestId;
+        TokenProtocol.writeRequest(out, new TokenProtocol.Request(id, resource, permits, rate, periodNanos));
+        return TokenProtocol.readResponse(in, id);
+    }
+
+    private void connect() throws IOException {
+        final Socket newSocket = new Socket();
+        try {
+            newSocket.connect(new InetSocketAddress(address.getHostString(), address.getPort()), timeoutMs);
+            newSocket.setSoTimeout(timeoutMs);
+            newSocket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(newSocket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(newSocket.getOutputStream()));
+        } catch (IOException ex) {
+            newSocket.close();
+            throw ex;
+        }
+        socket = newSocket;
+    }
+
+    private void disconnect() {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // The socket is discarded anyway
+        }
+        socket = null;
+        in = null;
+        out = null;
+    }
+}
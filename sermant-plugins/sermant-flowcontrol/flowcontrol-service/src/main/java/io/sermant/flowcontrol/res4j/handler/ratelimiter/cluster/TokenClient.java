@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client of the token server, the tokens of a cluster rate limiter are leased from the token server in batches
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public interface TokenClient {
+    /**
+     * lease the tokens asynchronously, the future fails if the token server is unreachable
+     *
+     * @param resource name of the rate limiter
+     * @param permits number of the tokens requested
+     * @param rate permits of a period shared by the cluster
+     * @param periodNanos period
+     * @return number of the tokens granted, which may be less than requested, {@link TokenServer#REJECTED} if the
+     * server rejects the rule of the node
+     */
+    CompletableFuture<Integer> requestTokens(String resource, int permits, int rate, long periodNanos);
+
+    /**
+     * close the client
+     */
+    void close();
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+/**
+ * Holds the token client of the agent, which is set up by the cluster token service
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public enum TokenClientManager {
+    /**
+     * singleton
+     */
+    INSTANCE;
+
+    private volatile TokenClient client;
+
+    /**
+     * get the token client
+     *
+     * @return token client, null if no token server is configured
+     */
+    public TokenClient getClient() {
+        return client;
+    }
+
+    /**
+     * replace the token client, the old one is closed
+     *
+     * @param newClient token client
+     */
+    public synchronized void setClient(TokenClient newClient) {
+        final TokenClient oldClient = client;
+        client = newClient;
+        if (oldClient != null && oldClient != newClient) {
+            oldClient.close();
+        }
+    }
+}
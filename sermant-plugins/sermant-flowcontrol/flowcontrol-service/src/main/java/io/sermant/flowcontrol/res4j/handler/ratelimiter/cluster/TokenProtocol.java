@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary protocol between the token clients and the token server, a client sends the requests one by one over a
+ * connection and waits for the response of each request
+ * <p>request: magic(int) requestId(int) permits(int) rate(int) periodNanos(long) resource(modified UTF-8)
+ * <p>response: magic(int) requestId(int) granted(int)
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+final class TokenProtocol {
+    /**
+     * magic number of the frames, STKN
+     */
+    static final int MAGIC = 0x53544B4E;
+
+    private TokenProtocol() {
+    }
+
+    /**
+     * write a request
+     *
+     * @param out output
+     * @param request request
+     * @throws IOException write failed
+     */
+    static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(request.requestId);
+        out.writeInt(request.permits);
+        out.writeInt(request.rate);
+        out.writeLong(request.periodNanos);
+        out.writeUTF(request.resource);
+        out.flush();
+    }
+
+    /**
+     * read a request
+     *
+     * @param in input
+     * @return request
+     * @throws IOException read failed or the frame is illegal
+     */
+    static Request readRequest(DataInputStream in) throws IOException {
+        checkMagic(in.readInt());
+        final int requestId = in.readInt();
+        final int permits = in.readInt();
+        final int rate = in.readInt();
+        final long periodNanos = in.readLong();
+        return new Request(requestId, in.readUTF(), permits, rate, periodNanos);
+    }
+
+    /**
+     * write a response
+     *
+     * @param out output
+     * @param requestId id of the request
+     * @param granted number of the tokens granted
+     * @throws IOException write failed
+     */
+    static void writeResponse(DataOutputStream out, int requestId, int granted) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(requestId);
+        out.writeInt(granted);
+        out.flush();
+    }
+
+    /**
+     * read the response of a request
+     *
+     * @param in input
+     * @param requestId id of the request
+     * @return number of the tokens granted
+     * @throws IOException read failed or the frame is illegal
+     */
+    static int readResponse(DataInputStream in, int requestId) throws IOException {
+        checkMagic(in.readInt());
+        final int responseId = in.readInt();
+        if (responseId != requestId) {
+            throw new IOException("Unexpected token response " + responseId + ", expected " + requestId);
+        }
+        return in.readInt();
+    }
+
+    private static void checkMagic(int magic) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException("Illegal token frame " + Integer.toHexString(magic));
+        }
+    }
+
+    /**
+     * token request
+     *
+     * @since 2024-10-15
+     */
+    static final class Request {
+        final int requestId;
+
+        final String resource;
+
+        final int permits;
+
+        final int rate;
+
+        final long periodNanos;
+
+        Request(int requestId, String resource, int permits, int rate, long periodNanos) {
+            this.requestId = requestId;
+            this.resource = resource;
+            this.permits = permits;
+            this.rate = rate;
+            this.periodNanos = periodNanos;
+        }
+    }
+}
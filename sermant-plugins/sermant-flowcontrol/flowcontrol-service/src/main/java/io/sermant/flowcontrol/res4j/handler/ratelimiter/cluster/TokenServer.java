@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import io.sermant.flowcontrol.common.core.ResolverManager;
+import io.sermant.flowcontrol.common.core.resolver.RateLimitingRuleResolver;
+import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.ClusterRateLimiterProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Token server of the cluster rate limiting, it keeps a token bucket of each rate limiter, and grants the tokens
+ * requested by the nodes until the bucket is empty, so the nodes together never exceed the rate of the cluster
+ * <p>The rate and the period of a bucket come from the cluster rule of the server, a request of a node whose rule
+ * differs is rejected rather than resetting the bucket
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class TokenServer {
+    /**
+     * granted when the server has no cluster rule of the rate limiter or the rule of the node differs, the node uses
+     * its own limit then
+     */
+    public static final int REJECTED = -1;
+
+    /**
+     * maximum number of the buckets, the rate limiters beyond it are rejected
+     */
+    private static final int MAX_BUCKETS = 1024;
+
+    private final Map<String, ServerBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Function<String, RateLimitingRule> ruleSource;
+
+    /**
+     * constructor, the rate limiting rules resolved by this agent are used
+     */
+    public TokenServer() {
+        this(TokenServer::getResolvedRule);
+    }
+
+    /**
+     * constructor
+     *
+     * @param ruleSource rate limiting rule of a rate limiter, null if there is none
+     */
+    public TokenServer(Function<String, RateLimitingRule> ruleSource) {
+        this.ruleSource = ruleSource;
+    }
+
+    /**
+     * lease the tokens
+     *
+     * @param resource name of the rate limiter
+     * @param permits number of the tokens requested
+     * @param rate permits of a period shared by the cluster, according to the rule of the node
+     * @param periodNanos period, according to the rule of the node
+     * @param nowNanos current time
+     * @return number of the tokens granted, {@link #REJECTED} if the rule of the node is not the one of the server or
+     * there are too many buckets
+     */
+    public int lease(String resource, int permits, int rate, long periodNanos, long nowNanos) {
+        final RateLimitingRule rule = ruleSource.apply(resource);
+        if (rule == null || !ClusterRateLimiterProvider.TYPE.equalsIgnoreCase(rule.getLimiterType())) {
+            buckets.remove(resource);
+            return REJECTED;
+        }
+        final int serverRate = rule.getClusterRate() > 0 ? rule.getClusterRate() : rule.getRate();
+        final long serverPeriodNanos = TimeUnit.MILLISECONDS.toNanos(rule.getParsedLimitRefreshPeriod());
+        if (rate != serverRate || periodNanos != serverPeriodNanos) {
+            return REJECTED;
+        }
+        if (permits <= 0) {
+            return 0;
+        }
+        ServerBucket bucket = buckets.get(resource);
+        if (bucket == null && buckets.size() >= MAX_BUCKETS) {
+            return REJECTED;
+        }
+        if (bucket == null || !bucket.isSameRule(serverRate, serverPeriodNanos)) {
+            // The rule of the server is new or changed, the bucket starts full again
+            bucket = buckets.compute(resource, (name, old) -> old != null && old.isSameRule(serverRate,
+                    serverPeriodNanos) ? old : new ServerBucket(serverRate, serverPeriodNanos, nowNanos));
+        }
+        return bucket.take(permits, nowNanos);
+    }
+
+    /**
+     * remove the bucket of the rate limiter
+     *
+     * @param resource name of the rate limiter
+     */
+    public void remove(String resource) {
+        buckets.remove(resource);
+    }
+
+    private static RateLimitingRule getResolvedRule(String resource) {
+        final RateLimitingRuleResolver resolver = ResolverManager.INSTANCE
+                .getResolver(RateLimitingRuleResolver.CONFIG_KEY);
+        return resolver == null ? null : resolver.getRules().get(resource);
+    }
+
+    /**
+     * token bucket of a rate limiter, the bucket holds at most the tokens of a period
+     *
+     * @since 2024-10-15
+     */
+    private static class ServerBucket {
+        private final int rate;
+
+        private final long periodNanos;
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        ServerBucket(int rate, long periodNanos, long nowNanos) {
+            this.rate = rate;
+            this.periodNanos = periodNanos;
+            this.tokens = rate;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        boolean isSameRule(int otherRate, long otherPeriodNanos) {
+            return rate == otherRate && periodNanos == otherPeriodNanos;
+        }
+
+        synchronized int take(int permits, long nowNanos) {
+            final long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0L) {
+                tokens = Math.min(rate, tokens + (double) elapsed * rate / periodNanos);
+                lastRefillNanos = nowNanos;
+            }
+            final int granted = (int) Math.min(permits, Math.floor(tokens));
+            tokens -= granted;
+            return granted;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.flowcontrol.common.factory.FlowControlThreadFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Socket endpoint of the token server, each connection of a node is served by a thread. The endpoint listens on the
+ * configured address only and serves a limited number of connections
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class TokenServerEndpoint {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    private static final long MIN_ACCEPT_BACKOFF_MS = 100L;
+
+    private static final long MAX_ACCEPT_BACKOFF_MS = 5000L;
+
+    private final TokenServer tokenServer;
+
+    private final String host;
+
+    private final int port;
+
+    private final int maxConnections;
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private ServerSocket serverSocket;
+
+    private ExecutorService executor;
+
+    private volatile boolean isClosed;
+
+    /**
+     * constructor
+     *
+     * @param tokenServer token server
+     * @param host listening address
+     * @param port listening port, a free port is chosen if it is 0
+     * @param maxConnections maximum number of the connections, the new connections are closed once it is reached
+     */
+    public TokenServerEndpoint(TokenServer tokenServer, String host, int port, int maxConnections) {
+        this.tokenServer = tokenServer;
+        this.host = host;
+        this.port = port;
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * start listening
+     *
+     * @throws IOException the port can not be listened
+     */
+    public synchronized void start() throws IOException {
+        serverSocket = new ServerSocket(port, 0, InetAddress.getByName(host));
+        executor = Executors.newCachedThreadPool(new FlowControlThreadFactory("FLOW_CONTROL_TOKEN_SERVER", true));
+        executor.execute(this::accept);
+        LOGGER.log(Level.INFO, "Token server is listening on {0}:{1}.", new Object[]{host, String.valueOf(getPort())});
+    }
+
+    /**
+     * get the listening port
+     *
+     * @return port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * stop listening and close the connections
+     */
+    public synchronized void close() {
+        isClosed = true;
+        closeQuietly(serverSocket);
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void accept() {
+        long backoffMs = MIN_ACCEPT_BACKOFF_MS;
+        while (!isClosed) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException ex) {
+                if (isClosed) {
+                    return;
+                }
+
+                // e.g. out of file descriptors, which does not recover at once
+                LOGGER.log(Level.WARNING, "Failed to accept the connection of the token client.", ex);
+                if (!sleep(backoffMs)) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_ACCEPT_BACKOFF_MS);
+                continue;
+            }
+            backoffMs = MIN_ACCEPT_BACKOFF_MS;
+            if (connections.size() >= maxConnections) {
+                LOGGER.log(Level.WARNING, "Too many connections of the token clients, the connection from {0} is"
+                        + " closed.", socket.getRemoteSocketAddress());
+                closeQuietly(socket);
+                continue;
+            }
+            connections.add(socket);
+            executor.execute(() -> serve(socket));
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (!isClosed) {
+                final TokenProtocol.Request request = TokenProtocol.readRequest(in);
+                final int granted = tokenServer.lease(request.resource, request.permits, request.rate,
+                        request.periodNanos, System.nanoTime());
+                TokenProtocol.writeResponse(out, request.requestId, granted);
+            }
+        } catch (EOFException ignored) {
+            // The client closed the connection
+        } catch (IOException ex) {
+            if (!isClosed) {
+                LOGGER.log(Level.FINE, "Connection of the token client is closed: {0}", ex.getMessage());
+            }
+        } finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // The socket is discarded anyway
+        }
+    }
+}
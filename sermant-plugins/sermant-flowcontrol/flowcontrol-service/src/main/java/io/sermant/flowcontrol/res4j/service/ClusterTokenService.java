@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.service;
+
+import io.sermant.core.common.LoggerFactory;
+import io.sermant.core.plugin.config.PluginConfigManager;
+import io.sermant.core.plugin.service.PluginService;
+import io.sermant.flowcontrol.common.config.FlowControlConfig;
+import io.sermant.flowcontrol.common.util.StringUtils;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster.InProcessTokenClient;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster.SocketTokenClient;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster.TokenClientManager;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster.TokenServer;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster.TokenServerEndpoint;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * cluster rate limiting service, which hosts the token server if it is enabled, and sets up the token client of the
+ * agent
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClusterTokenService implements PluginService {
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    /**
+     * listening address of the token server if the token server address is not set
+     */
+    private static final String LOOPBACK_ADDRESS = "127.0.0.1";
+
+    private TokenServerEndpoint endpoint;
+
+    @Override
+    public void start() {
+        FlowControlConfig config = PluginConfigManager.getPluginConfig(FlowControlConfig.class);
+        final String address = config.getClusterTokenServerAddress();
+        final int index = StringUtils.isEmpty(address) ? -1 : address.lastIndexOf(':');
+        if (config.isEnableClusterTokenServer()) {
+            final TokenServer tokenServer = new TokenServer();
+            final TokenServerEndpoint newEndpoint = new TokenServerEndpoint(tokenServer,
+                    index > 0 ? address.substring(0, index) : LOOPBACK_ADDRESS, config.getClusterTokenServerPort(),
+                    config.getClusterTokenServerMaxConnections());
+            try {
+                newEndpoint.start();
+                endpoint = newEndpoint;
+                TokenClientManager.INSTANCE.setClient(new InProcessTokenClient(tokenServer));
+                return;
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Failed to start the token server, the token server address is used.", ex);
+            }
+        }
+        if (StringUtils.isEmpty(address)) {
+            return;
+        }
+        try {
+            TokenClientManager.INSTANCE.setClient(new SocketTokenClient(address.substring(0, index),
+                    Integer.parseInt(address.substring(index + 1)), config.getClusterTokenRequestTimeoutMs()));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException ex) {
+            LOGGER.log(Level.WARNING, "Illegal token server address [{0}], the cluster rate limiters use the limit of"
+                    + " the node.", address);
+        }
+    }
+
+    @Override
+    public void stop() {
+        TokenClientManager.INSTANCE.setClient(null);
+        if (endpoint != null) {
+            endpoint.close();
+            endpoint = null;
+        }
+    }
+}
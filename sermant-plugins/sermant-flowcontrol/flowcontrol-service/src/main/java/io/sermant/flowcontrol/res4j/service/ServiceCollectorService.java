@@ -18,19 +18,31 @@ package io.sermant.flowcontrol.res4j.service;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.prometheus.client.Collector;
 import io.prometheus.client.GaugeMetricFamily;
+import io.prometheus.client.SummaryMetricFamily;
+import io.sermant.core.common.LoggerFactory;
 import io.sermant.core.plugin.service.PluginService;
+import io.sermant.core.service.ServiceManager;
+import io.sermant.core.service.metric.api.MetricService;
+import io.sermant.core.service.metric.api.Tags;
 import io.sermant.core.utils.StringUtils;
+import io.sermant.flowcontrol.common.core.ResolverManager;
+import io.sermant.flowcontrol.common.core.match.MatchGroupResolver;
 import io.sermant.flowcontrol.common.entity.MetricEntity;
 import io.sermant.flowcontrol.common.enums.MetricType;
 import io.sermant.flowcontrol.res4j.util.MonitorUtils;
+import io.sermant.flowcontrol.res4j.windows.LatencyHistogram;
+import io.sermant.flowcontrol.res4j.windows.LatencySnapshot;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
 /**
  * service indicator monitoring
@@ -59,10 +71,49 @@ public class ServiceCollectorService extends Collector implements PluginService
 
     private static final int PROPORTION = 1000;
 
+    private static final Logger LOGGER = LoggerFactory.getLogger();
+
+    /**
+     * quantiles of the response time
+     */
+    private static final List<Double> QUANTILES = Arrays.asList(0.5D, 0.9D, 0.99D, 0.999D);
+
+    private static final String QUANTILE_TAG = "quantile";
+
+    private static final String NAME_TAG = "name";
+
+    /**
+     * The response time quantiles are computed over the records of a window, it should not be shorter than the
+     * interval of the collections
+     */
+    private static final long QUANTILE_WINDOW_MS = 60000L;
+
+    /**
+     * response time histograms of the service scenarios
+     */
+    private static final Map<String, LatencyHistogram> LATENCY_HISTOGRAMS = new ConcurrentHashMap<>();
+
+    /**
+     * The quantiles of the histograms shared by the prometheus collection and the gauges registered to the metric
+     * service. The gauges can not be unregistered, so they read this map each time instead of keeping the quantiles of
+     * a histogram which may be removed and created again
+     */
+    private static final Map<String, LatencyQuantiles> LATENCY_QUANTILES = new ConcurrentHashMap<>();
+
+    /**
+     * service scenarios whose quantile gauges have been registered to the metric service
+     */
+    private static final Set<String> LATENCY_GAUGES = ConcurrentHashMap.newKeySet();
+
     @Override
     public void start() {
         if (MonitorUtils.isStartMonitor()) {
             this.register();
+            ResolverManager.INSTANCE.registerListener(MatchGroupResolver.CONFIG_KEY, (updateKey, rules) -> {
+                if (!rules.containsKey(updateKey)) {
+                    removeLatencyHistogram(updateKey);
+                }
+            });
         }
     }
 
@@ -71,6 +122,7 @@ public class ServiceCollectorService extends Collector implements PluginService
         Map<String, GaugeMetricFamily> metricMap = new HashMap<>();
         collectCircuitBreakerMetric(metricMap);
         List<MetricFamilySamples> samples = new ArrayList<>();
+        collectLatencyMetric(samples);
         if (MONITORS.isEmpty()) {
             samples.addAll(metricMap.values());
             return samples;
@@ -88,6 +140,89 @@ public class ServiceCollectorService extends Collector implements PluginService
         return samples;
     }
 
+    /**
+     * get the response time histogram of the service scenario, the quantiles of which are also registered to the
+     * metric service when the service scenario is seen for the first time
+     *
+     * @param businessName service scenario name
+     * @return histogram
+     */
+    public static LatencyHistogram getLatencyHistogram(String businessName) {
+        final LatencyHistogram histogram = LATENCY_HISTOGRAMS.get(businessName);
+        if (histogram != null) {
+            return histogram;
+        }
+        return LATENCY_HISTOGRAMS.computeIfAbsent(businessName, ServiceCollectorService::createLatencyHistogram);
+    }
+
+    /**
+     * remove the response time histogram of the service scenario which is deleted
+     *
+     * @param businessName service scenario name
+     */
+    public static void removeLatencyHistogram(String businessName) {
+        LATENCY_HISTOGRAMS.remove(businessName);
+        LATENCY_QUANTILES.remove(businessName);
+    }
+
+    private static LatencyHistogram createLatencyHistogram(String businessName) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        LATENCY_QUANTILES.put(businessName, new LatencyQuantiles(histogram));
+        if (LATENCY_GAUGES.contains(businessName)) {
+            return histogram;
+        }
+        final MetricService metricService;
+        try {
+            metricService = ServiceManager.getService(MetricService.class);
+        } catch (IllegalArgumentException ignored) {
+            LOGGER.fine("Metric service is not started, skip registering the response time quantiles.");
+            return histogram;
+        }
+        if (!LATENCY_GAUGES.add(businessName)) {
+            return histogram;
+        }
+        for (Double quantile : QUANTILES) {
+            metricService.gauge(MetricType.RESPONSE_TIME.getName(),
+                    Tags.of(NAME_TAG, businessName).add(QUANTILE_TAG, quantile), MetricType.RESPONSE_TIME.getDesc())
+                    .gaugeState(LATENCY_QUANTILES, target -> getValueAtQuantile(target.get(businessName), quantile));
+        }
+        return histogram;
+    }
+
+    /**
+     * get the value of the quantile, NaN if the service scenario has been removed
+     *
+     * @param quantiles quantiles of the current histogram of the service scenario
+     * @param quantile quantile
+     * @return value
+     */
+    private static double getValueAtQuantile(LatencyQuantiles quantiles, double quantile) {
+        return quantiles == null ? Double.NaN : quantiles.getValueAtQuantile(quantile);
+    }
+
+    /**
+     * collect the response times, the count and the sum are cumulative as the summary requires, and the quantiles are
+     * of the latest window
+     *
+     * @param samples samples
+     */
+    private void collectLatencyMetric(List<MetricFamilySamples> samples) {
+        if (LATENCY_QUANTILES.isEmpty()) {
+            return;
+        }
+        final SummaryMetricFamily family = new SummaryMetricFamily(MetricType.RESPONSE_TIME.getName(),
+                MetricType.RESPONSE_TIME.getDesc(), DEFAULT_LABEL_NAME, QUANTILES);
+        for (Map.Entry<String, LatencyQuantiles> entry : LATENCY_QUANTILES.entrySet()) {
+            final LatencySnapshot total = entry.getValue().histogram.totalSnapshot();
+            final List<Double> values = new ArrayList<>(QUANTILES.size());
+            for (Double quantile : QUANTILES) {
+                values.add(entry.getValue().getValueAtQuantile(quantile));
+            }
+            family.addMetric(Collections.singletonList(entry.getKey()), total.getCount(), total.getSum(), values);
+        }
+        samples.add(family);
+    }
+
     /**
      * collect the circuit breaker indicator
      *
@@ -239,4 +374,35 @@ public class ServiceCollectorService extends Collector implements PluginService
             target.set(source.get());
         }
     }
+
+    /**
+     * Quantiles of a histogram read by the prometheus collection and the gauges of the metric service. The snapshot is
+     * taken once a window and shared by all the exporters, so the records are never split between them
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    private static class LatencyQuantiles {
+        private final LatencyHistogram histogram;
+
+        private final LatencyHistogram.Reader reader;
+
+        private LatencySnapshot snapshot;
+
+        private long windowEndTime;
+
+        LatencyQuantiles(LatencyHistogram histogram) {
+            this.histogram = histogram;
+            this.reader = histogram.newReader();
+        }
+
+        synchronized double getValueAtQuantile(double quantile) {
+            final long now = System.currentTimeMillis();
+            if (snapshot == null || now >= windowEndTime) {
+                snapshot = reader.snapshot();
+                windowEndTime = now - now % QUANTILE_WINDOW_MS + QUANTILE_WINDOW_MS;
+            }
+            return snapshot.getValueAtQuantile(quantile);
+        }
+    }
 }
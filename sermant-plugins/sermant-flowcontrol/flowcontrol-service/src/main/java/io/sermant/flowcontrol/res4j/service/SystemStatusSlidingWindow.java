@@ -15,8 +15,10 @@
 
 package io.sermant.flowcontrol.res4j.service;
 
+import io.sermant.core.plugin.config.PluginConfigManager;
 import io.sermant.core.plugin.service.PluginService;
-import io.sermant.flowcontrol.common.config.CommonConst;
+import io.sermant.flowcontrol.common.config.FlowControlConfig;
+import io.sermant.flowcontrol.res4j.windows.SlidingWindow;
 import io.sermant.flowcontrol.res4j.windows.SystemStatusTask;
 import io.sermant.flowcontrol.res4j.windows.WindowsArray;
 
@@ -38,16 +40,14 @@ public class SystemStatusSlidingWindow implements PluginService {
         /**
          * initialize the sliding window
          */
-        WindowsArray.INSTANCE.initWindowsArray();
+        FlowControlConfig config = PluginConfigManager.getPluginConfig(FlowControlConfig.class);
+        WindowsArray.INSTANCE.initWindowsArray(config.getSystemRuleSampleCount(), config.getSystemRuleIntervalMs());
 
         /**
-         * a scheduled task updates the system status
+         * a scheduled task updates the system status once per bucket
          */
-        systemStatus.scheduleAtFixedRate(systemStatusTask, getDelay(), CommonConst.S_MS_UNIT);
-    }
-
-    private long getDelay() {
-        return CommonConst.S_MS_UNIT - System.currentTimeMillis() % CommonConst.S_MS_UNIT;
+        SlidingWindow window = WindowsArray.INSTANCE.getWindow();
+        systemStatus.scheduleAtFixedRate(systemStatusTask, window.getBucketMs(), window.getBucketMs());
     }
 
     @Override
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.windows;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram of log-linear buckets in microseconds, each power of two is split into 32 buckets, so the value of
+ * a bucket is within 1/32 of the recorded ones, from 1 microsecond up to about 71 minutes
+ * <p>The counts are split into stripes chosen by the thread id, a record is two atomic increments of the stripe and
+ * nothing is ever reset: each {@link Reader} keeps the counts it read last time and its snapshots are the delta since
+ * then, so several exporters read the same histogram independently
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_VALUE_BITS = 32;
+
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    /**
+     * number of the buckets
+     */
+    static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    /**
+     * the sum of the records is kept after the buckets of a stripe
+     */
+    private static final int SUM_INDEX = BUCKET_COUNT;
+
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private static final int MAX_STRIPE_COUNT = 8;
+
+    private final AtomicLongArray[] stripes;
+
+    private final int stripeMask;
+
+    /**
+     * constructor, the stripes are as many as the processors up to 8
+     */
+    public LatencyHistogram() {
+        this(Math.min(MAX_STRIPE_COUNT, Integer.highestOneBit(Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * constructor
+     *
+     * @param stripeCount number of the stripes, a power of two
+     */
+    LatencyHistogram(int stripeCount) {
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT + 1);
+        }
+    }
+
+    /**
+     * record a response time
+     *
+     * @param nanos response time, nanoseconds
+     */
+    public void record(long nanos) {
+        final long micros = Math.min(MAX_VALUE, Math.max(0L, nanos / NANOS_PER_MICRO));
+        final AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        stripe.getAndIncrement(index(micros));
+        stripe.getAndAdd(SUM_INDEX, micros);
+    }
+
+    /**
+     * snapshot of all the records so far, which is cumulative and does not change the snapshots of the readers
+     *
+     * @return snapshot
+     */
+    public LatencySnapshot totalSnapshot() {
+        final long[] current = sumStripes();
+        final long[] counts = new long[BUCKET_COUNT];
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = current[i];
+            count += counts[i];
+        }
+        return new LatencySnapshot(counts, count, current[SUM_INDEX]);
+    }
+
+    private long[] sumStripes() {
+        final long[] current = new long[BUCKET_COUNT + 1];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i <= BUCKET_COUNT; i++) {
+                current[i] += stripe.get(i);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * create a reader, the first snapshot of which contains all the records so far
+     *
+     * @return reader
+     */
+    public Reader newReader() {
+        return new Reader();
+    }
+
+    /**
+     * bucket of the value
+     *
+     * @param micros value, microseconds
+     * @return bucket index
+     */
+    static int index(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (micros >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * the highest value of the bucket
+     *
+     * @param index bucket index
+     * @return value, microseconds
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long lowest = (long) ((index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Reader of the histogram, which takes the snapshots of the records since its last snapshot
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    public class Reader {
+        private long[] previous = new long[BUCKET_COUNT + 1];
+
+        private Reader() {
+        }
+
+        /**
+         * take a snapshot of the records since the last snapshot
+         *
+         * @return snapshot
+         */
+        public synchronized LatencySnapshot snapshot() {
+            final long[] current = sumStripes();
+            final long[] counts = new long[BUCKET_COUNT];
+            long count = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = current[i] - previous[i];
+                count += counts[i];
+            }
+            final long sumMicros = current[SUM_INDEX] - previous[SUM_INDEX];
+            previous = current;
+            return new LatencySnapshot(counts, count, sumMicros);
+        }
+    }
+}
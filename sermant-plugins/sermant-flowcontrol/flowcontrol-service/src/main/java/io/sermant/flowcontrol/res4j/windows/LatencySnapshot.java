@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.windows;
+
+/**
+ * Snapshot of the response times recorded by {@link LatencyHistogram} during an interval, the values are in
+ * milliseconds
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class LatencySnapshot {
+    private static final double MICROS_PER_MILLI = 1000D;
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long sumMicros;
+
+    /**
+     * constructor
+     *
+     * @param counts counts of the buckets
+     * @param count number of the records
+     * @param sumMicros sum of the records, microseconds
+     */
+    LatencySnapshot(long[] counts, long count, long sumMicros) {
+        this.counts = counts;
+        this.count = count;
+        this.sumMicros = sumMicros;
+    }
+
+    /**
+     * response time at the quantile, the highest value of the bucket the quantile falls into
+     *
+     * @param quantile quantile, 0.99 for p99
+     * @return response time, 0 if no record
+     */
+    public double getValueAtQuantile(double quantile) {
+        if (count == 0L) {
+            return 0D;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(Math.min(1D, quantile) * count));
+        long total = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i];
+            if (total >= rank) {
+                return LatencyHistogram.highestValue(i) / MICROS_PER_MILLI;
+            }
+        }
+        return LatencyHistogram.highestValue(counts.length - 1) / MICROS_PER_MILLI;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * sum of the response times
+     *
+     * @return sum
+     */
+    public double getSum() {
+        return sumMicros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.windows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Sliding window split into the buckets of equal time spans, timed by {@link System#nanoTime()}
+ * <p>Each bucket is tagged with the epoch, which is the ordinal of its time span since the window was created. A slot
+ * holding a bucket of an earlier epoch is replaced by CAS when it is written, so the buckets are reset lazily by the
+ * writers without any timer or lock. The statistics only sum up the buckets of the latest interval
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class SlidingWindow {
+    private final int sampleCount;
+
+    private final long intervalMs;
+
+    private final long bucketNanos;
+
+    private final long originNanos = System.nanoTime();
+
+    private final AtomicReferenceArray<WindowsBucket> buckets;
+
+    /**
+     * constructor
+     *
+     * @param sampleCount number of the buckets
+     * @param intervalMs statistic interval in milliseconds
+     */
+    public SlidingWindow(int sampleCount, long intervalMs) {
+        this.sampleCount = Math.max(1, sampleCount);
+        this.intervalMs = Math.max(1L, intervalMs);
+        this.bucketNanos = Math.max(1L, TimeUnit.MILLISECONDS.toNanos(this.intervalMs) / this.sampleCount);
+        this.buckets = new AtomicReferenceArray<>(this.sampleCount);
+    }
+
+    /**
+     * Record a successful request
+     *
+     * @param responseTime response time in milliseconds
+     */
+    public void addSuccess(long responseTime) {
+        final WindowsBucket bucket = currentBucket(System.nanoTime());
+        bucket.success.increment();
+        bucket.rt.add(responseTime);
+    }
+
+    /**
+     * Number of the successful requests in the latest interval
+     *
+     * @return success count
+     */
+    public long getSuccess() {
+        return getSuccess(System.nanoTime());
+    }
+
+    /**
+     * Total response time of the successful requests in the latest interval
+     *
+     * @return response time in milliseconds
+     */
+    public long getRt() {
+        return getRt(System.nanoTime());
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    /**
+     * Time span of a bucket
+     *
+     * @return time span in milliseconds, at least 1
+     */
+    public long getBucketMs() {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(bucketNanos));
+    }
+
+    long getSuccess(long nowNanos) {
+        final long currentEpoch = epochOf(nowNanos);
+        long sum = 0L;
+        for (int i = 0; i < sampleCount; i++) {
+            final WindowsBucket bucket = buckets.get(i);
+            if (isInWindow(bucket, currentEpoch)) {
+                sum += bucket.success.sum();
+            }
+        }
+        return sum;
+    }
+
+    long getRt(long nowNanos) {
+        final long currentEpoch = epochOf(nowNanos);
+        long sum = 0L;
+        for (int i = 0; i < sampleCount; i++) {
+            final WindowsBucket bucket = buckets.get(i);
+            if (isInWindow(bucket, currentEpoch)) {
+                sum += bucket.rt.sum();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Get the bucket of the time, the stale bucket in the slot is replaced
+     *
+     * @param nowNanos time by {@link System#nanoTime()}
+     * @return bucket
+     */
+    WindowsBucket currentBucket(long nowNanos) {
+        final long epoch = epochOf(nowNanos);
+        final int index = (int) (epoch % sampleCount);
+        while (true) {
+            final WindowsBucket bucket = buckets.get(index);
+
+            // A bucket of a later epoch means the thread was descheduled across the span boundary, the data is counted
+            // into the later bucket
+            if (bucket != null && bucket.epoch >= epoch) {
+                return bucket;
+            }
+            final WindowsBucket newBucket = new WindowsBucket(epoch);
+            if (buckets.compareAndSet(index, bucket, newBucket)) {
+                return newBucket;
+            }
+        }
+    }
+
+    private long epochOf(long nowNanos) {
+        return Math.max(0L, nowNanos - originNanos) / bucketNanos;
+    }
+
+    private boolean isInWindow(WindowsBucket bucket, long currentEpoch) {
+        return bucket != null && bucket.epoch <= currentEpoch && bucket.epoch > currentEpoch - sampleCount;
+    }
+}
@@ -23,21 +23,31 @@ import io.sermant.flowcontrol.common.config.CommonConst;
 
 import java.lang.management.ManagementFactory;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 /**
- * sliding window scheduling tasks
+ * sliding window scheduling tasks, which updates the system status once per bucket of the sliding window
  *
  * @author xuezechao1
  * @since 2022-12-07
  */
 public class SystemStatusTask extends TimerTask {
+    /**
+     * interval to reinitialize the minimum response time and the maximum number of threads
+     */
+    private static final long HISTORY_RESET_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
     private final SystemStatus systemStatus = SystemStatus.getInstance();
 
+    private long lastHistoryResetNanos = System.nanoTime();
+
     @Override
     public void run() {
-        // new window initialization data
-        if (WindowsArray.INSTANCE.calculateCurrentWindowsIndex() == 0) {
+        // new history initialization data
+        final long nowNanos = System.nanoTime();
+        if (nowNanos - lastHistoryResetNanos >= HISTORY_RESET_INTERVAL_NANOS) {
             initMinRtAndMaxThreadNum();
+            lastHistoryResetNanos = nowNanos;
         }
 
         // update system load and cpu usage
@@ -45,28 +55,14 @@ public class SystemStatusTask extends TimerTask {
         systemStatus.setCurrentLoad(operatingSystemMxBean.getSystemLoadAverage());
         systemStatus.setCurrentCpuUsage(operatingSystemMxBean.getSystemCpuLoad());
 
-        // Update minimum response time and maximum number of threads
-        updateMinRtAndMaxThreadNum();
-
-        // updated qps and average response time
-        updateQpsAndAveRt();
+        // updated qps and average response time of the latest interval
+        SlidingWindow window = WindowsArray.INSTANCE.getWindow();
+        long successNum = window.getSuccess();
+        long rt = window.getRt();
+        updateQpsAndAveRt(window, successNum, rt);
 
-        // reset next second data
-        WindowsArray.INSTANCE.resetNextWindows();
-    }
-
-    /**
-     * check data item
-     *
-     * @param windowsBucket data window
-     * @return whether the window is valid
-     */
-    private boolean checkBucket(WindowsBucket windowsBucket) {
-        if (windowsBucket == null || windowsBucket.success.sum() == 0
-                || windowsBucket.rt.sum() == 0) {
-            return false;
-        }
-        return true;
+        // Update minimum response time and maximum number of threads
+        updateMinRtAndMaxThreadNum(successNum, rt);
     }
 
     /**
@@ -79,43 +75,35 @@ public class SystemStatusTask extends TimerTask {
 
     /**
      * Update the minimum response time and maximum number of threads
+     *
+     * @param successNum total number of successful calls
+     * @param rt total response time
      */
-    private void updateMinRtAndMaxThreadNum() {
-        WindowsBucket windowsBucket = WindowsArray.INSTANCE.getCurrentWindow();
-
-        // total number of successful calls
-        long successNum = windowsBucket.success.sum();
-
-        // total response time
-        double rt = windowsBucket.rt.sum();
-
-        // number of threads in existence
-        double threadNum = windowsBucket.threadNum.sum();
+    private void updateMinRtAndMaxThreadNum(long successNum, long rt) {
         if (0 != successNum) {
-            systemStatus.setMinRt(Math.min(systemStatus.getMinRt(), rt / successNum));
+            systemStatus.setMinRt(Math.min(systemStatus.getMinRt(), (double) rt / successNum));
         }
-        systemStatus.setMaxThreadNum((long) Math.max(systemStatus.getMaxThreadNum(), threadNum + successNum));
+
+        // number of threads in existence
+        long threadNum = WindowsArray.INSTANCE.getThreadNum();
+        systemStatus.setMaxThreadNum((long) Math.max(systemStatus.getMaxThreadNum(), threadNum
+                + systemStatus.getQps()));
     }
 
     /**
      * updated qps and average response time
+     *
+     * @param window sliding window
+     * @param successNum total number of successful calls
+     * @param rt total response time
      */
-    private void updateQpsAndAveRt() {
-        WindowsBucket previousWindowsBucket = WindowsArray.INSTANCE.getPreviousWindow();
-        if (checkBucket(previousWindowsBucket)) {
-            systemStatus.setQps(previousWindowsBucket.success.sum());
-            systemStatus.setAveRt(previousWindowsBucket.rt.sum() / systemStatus.getQps());
+    private void updateQpsAndAveRt(SlidingWindow window, long successNum, long rt) {
+        if (successNum == 0) {
+            systemStatus.setQps(0D);
+            systemStatus.setAveRt(0D);
             return;
         }
-        WindowsBucket currentWindowsBucket = WindowsArray.INSTANCE.getCurrentWindow();
-        if (checkBucket(currentWindowsBucket)) {
-            long currentMillis = System.currentTimeMillis() % CommonConst.S_MS_UNIT;
-            if (currentMillis != 0) {
-                systemStatus.setQps(
-                        (double) CommonConst.S_MS_UNIT * currentWindowsBucket.success.sum() / currentMillis);
-                systemStatus.setAveRt(
-                        (double) currentWindowsBucket.rt.sum() / currentWindowsBucket.success.sum());
-            }
-        }
+        systemStatus.setQps((double) CommonConst.S_MS_UNIT * successNum / window.getIntervalMs());
+        systemStatus.setAveRt((double) rt / successNum);
     }
 }
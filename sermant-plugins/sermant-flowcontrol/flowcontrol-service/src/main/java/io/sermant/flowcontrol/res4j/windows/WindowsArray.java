@@ -19,12 +19,12 @@ package io.sermant.flowcontrol.res4j.windows;
 
 import io.sermant.flowcontrol.common.config.CommonConst;
 
-import java.util.Calendar;
-import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * sliding window
+ * sliding window of the system rule
+ * <p>The successful requests and the response time are counted in a {@link SlidingWindow}, and the current number of
+ * threads is the number of the requests in progress
  *
  * @author xuezechao1
  * @since 2022-12-07
@@ -36,50 +36,40 @@ public enum WindowsArray {
     INSTANCE;
 
     /**
-     * default window size
+     * number of the requests in progress
      */
-    private static final int DEFAULT_WINDOWS_SIZE = 60;
+    private final LongAdder threadNum = new LongAdder();
 
     /**
-     * sliding window array
+     * sliding window
      */
-    private static AtomicReferenceArray<WindowsBucket> windowsArray = null;
+    private volatile SlidingWindow window = new SlidingWindow(CommonConst.SYSTEM_RULE_SAMPLE_COUNT,
+            CommonConst.S_MS_UNIT);
 
     /**
-     * initialize
+     * initialize with the default statistic interval of one second split into 10 buckets
      */
     public void initWindowsArray() {
-        windowsArray = new AtomicReferenceArray<>(DEFAULT_WINDOWS_SIZE);
-        Stream.iterate(0, num -> num + 1).limit(DEFAULT_WINDOWS_SIZE)
-                .forEach(index -> windowsArray.set(index, new WindowsBucket()));
-    }
-
-    /**
-     * gets the current point in time window
-     *
-     * @return current point in time window
-     */
-    public WindowsBucket getCurrentWindow() {
-        return windowsArray.get(calculateCurrentWindowsIndex());
+        initWindowsArray(CommonConst.SYSTEM_RULE_SAMPLE_COUNT, CommonConst.S_MS_UNIT);
     }
 
     /**
-     * gets a window before the current point in time
+     * initialize
      *
-     * @return window before the current point in time
+     * @param sampleCount number of the buckets
+     * @param intervalMs statistic interval in milliseconds
      */
-    public WindowsBucket getPreviousWindow() {
-        return windowsArray.get(calculatePreviousWindowsIndex());
+    public void initWindowsArray(int sampleCount, long intervalMs) {
+        window = new SlidingWindow(sampleCount, intervalMs);
     }
 
     /**
-     * gets the window for the specified index
+     * gets the sliding window
      *
-     * @param index index
-     * @return the window for the specified index
+     * @return sliding window
      */
-    public WindowsBucket getWindow(int index) {
-        return windowsArray.get(index);
+    public SlidingWindow getWindow() {
+        return window;
     }
 
     /**
@@ -88,110 +78,29 @@ public enum WindowsArray {
      * @return the current number of threads
      */
     public long getThreadNum() {
-        return getCurrentWindow().threadNum.sum();
-    }
-
-    /**
-     * increase success count
-     *
-     * @param startTime requestTime
-     */
-    public void addSuccess(long startTime) {
-        windowsArray.get(calculateWindowsIndex(startTime)).success.increment();
+        return threadNum.sum();
     }
 
     /**
-     * increase response time
+     * increase success count and response time
      *
-     * @param startTime requestTime
      * @param responseTime responseTime
      */
-    public void addRt(long startTime, long responseTime) {
-        windowsArray.get(calculateWindowsIndex(startTime)).rt.add(responseTime);
+    public void addSuccess(long responseTime) {
+        window.addSuccess(responseTime);
     }
 
     /**
      * increase thread count
-     *
-     * @param startTime requestTime
      */
-    public void addThreadNum(long startTime) {
-        windowsArray.get(calculateWindowsIndex(startTime)).threadNum.increment();
+    public void addThreadNum() {
+        threadNum.increment();
     }
 
     /**
      * reduce thread count
-     *
-     * @param startTime requestTime
-     */
-    public void decreaseThreadNum(long startTime) {
-        windowsArray.get(calculateWindowsIndex(startTime)).threadNum.decrement();
-    }
-
-    /**
-     * Computes the window index for the current point in time
-     *
-     * @return the window index for the current point in time
-     */
-    public int calculateCurrentWindowsIndex() {
-        return Calendar.getInstance().get(Calendar.SECOND) % DEFAULT_WINDOWS_SIZE;
-    }
-
-    /**
-     * reset the next window data
-     */
-    public void resetNextWindows() {
-        WindowsBucket windowsBucket = getWindow(calculateNextWindowsIndex());
-        windowsBucket.success.reset();
-        windowsBucket.rt.reset();
-        windowsBucket.threadNum.reset();
-    }
-
-    /**
-     * Calculates the index of the next window at the current point in time
-     *
-     * @return the index of the next window at the current point in time
-     */
-    public int calculateNextWindowsIndex() {
-        int nextIndex = calculateCurrentWindowsIndex() + 1;
-        if (nextIndex >= DEFAULT_WINDOWS_SIZE) {
-            nextIndex = 0;
-        }
-        return nextIndex;
-    }
-
-    /**
-     * compute window index
-     *
-     * @param startTime request time
-     * @return window index
-     */
-    public int calculateWindowsIndex(long startTime) {
-        if (System.currentTimeMillis() - startTime > DEFAULT_WINDOWS_SIZE * CommonConst.S_MS_UNIT) {
-            return -1;
-        }
-        return (int) (startTime / CommonConst.S_MS_UNIT % DEFAULT_WINDOWS_SIZE);
-    }
-
-    /**
-     * Calculates the index of the previous window at the current time
-     *
-     * @return the index of the previous window at the current time
-     */
-    public int calculatePreviousWindowsIndex() {
-        int previousIndex = calculateCurrentWindowsIndex() - 1;
-        if (previousIndex < 0) {
-            previousIndex = DEFAULT_WINDOWS_SIZE - 1;
-        }
-        return previousIndex;
-    }
-
-    /**
-     * gets the sliding window array
-     *
-     * @return the sliding window array
      */
-    public AtomicReferenceArray<WindowsBucket> getWindowsArray() {
-        return windowsArray;
+    public void decreaseThreadNum() {
+        threadNum.decrement();
     }
 }
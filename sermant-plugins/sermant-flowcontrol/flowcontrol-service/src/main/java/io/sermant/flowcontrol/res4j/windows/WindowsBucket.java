@@ -29,15 +29,20 @@ class WindowsBucket {
     /**
      * response time
      */
-    LongAdder rt = new LongAdder();
+    final LongAdder rt = new LongAdder();
 
     /**
-     * thread count
+     * number of successes
      */
-    LongAdder threadNum = new LongAdder();
+    final LongAdder success = new LongAdder();
 
     /**
-     * number of successes
+     * The ordinal of the time span of the bucket since the window was created, the bucket is replaced once the slot
+     * is reused by a later span
      */
-    LongAdder success = new LongAdder();
+    final long epoch;
+
+    WindowsBucket(long epoch) {
+        this.epoch = epoch;
+    }
 }
@@ -17,13 +17,11 @@
 
 package io.sermant.flowcontrol.res4j.chain.context;
 
-import static org.junit.Assert.assertNull;
-
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
-import java.lang.reflect.Field;
-import java.util.Map;
+import java.lang.management.ManagementFactory;
 import java.util.Optional;
 
 /**
@@ -33,6 +31,9 @@ import java.util.Optional;
  * @since 2022-08-30
  */
 public class ChainContextTest {
+    private static final int MAX_SIZE = 8;
+
+    private static final int ITERATIONS = 10000;
 
     /**
      * test:Get the current thread variable, no more than ChainContext#MAX_SIZE,
@@ -57,42 +58,82 @@ public class ChainContextTest {
 
     /**
      * test to remove thread variables
-     *
-     * @throws NoSuchFieldException fieldless throw
-     * @throws IllegalAccessException unable to get value thrown
      */
     @Test
-    public void remove() throws NoSuchFieldException, IllegalAccessException {
-        ChainContext.getThreadLocalContext("test");
+    public void remove() {
+        ChainContext.getThreadLocalContext("test").save("key", "value");
+        ChainContext.getThreadLocalContext("test2").save("key", "value");
+        ChainContext.remove();
+        Assert.assertFalse(ChainContext.getThreadLocalContext("test").hasKey("key"));
+        Assert.assertFalse(ChainContext.getThreadLocalContext("test2").hasKey("key"));
         ChainContext.remove();
-        final Field mapField = ChainContext.class.getDeclaredField("THREAD_LOCAL_CONTEXT_MAP");
-        mapField.setAccessible(true);
-        final Object local = mapField.get(null);
-        Assert.assertTrue(local instanceof ThreadLocal);
-        assertNull(((ThreadLocal<?>) local).get());
-
     }
 
     /**
      * tests to remove the specified thread variable
-     *
-     * @throws NoSuchFieldException fieldless throw
-     * @throws IllegalAccessException unable to get value thrown
      */
     @Test
-    public void testRemoveTargetName() throws NoSuchFieldException, IllegalAccessException {
-        ChainContext.getThreadLocalContext("test");
-        ChainContext.getThreadLocalContext("test2");
+    public void testRemoveTargetName() {
+        final RequestContext context = ChainContext.getThreadLocalContext("test");
+        context.save("key", "value");
+        final RequestContext context2 = ChainContext.getThreadLocalContext("test2");
+        context2.save("key", "value");
         ChainContext.remove("test2");
-        final Field mapField = ChainContext.class.getDeclaredField("THREAD_LOCAL_CONTEXT_MAP");
-        mapField.setAccessible(true);
-        final Object local = mapField.get(null);
-        Assert.assertTrue(local instanceof ThreadLocal);
-        final Object map = ((ThreadLocal<?>) local).get();
-        Assert.assertTrue(map instanceof Map);
-        Assert.assertTrue(((Map<?, ?>) map).containsKey("test"));
+        Assert.assertTrue(context.hasKey("key"));
+        Assert.assertFalse(context2.hasKey("key"));
+        Assert.assertNull(context2.getRequestEntity());
+
+        // The context of the thread is reused by the next request
+        Assert.assertSame(context2, ChainContext.getThreadLocalContext("test2"));
         ChainContext.remove("test");
-        assertNull(((ThreadLocal<?>) local).get());
+        Assert.assertFalse(context.hasKey("key"));
+        ChainContext.remove();
+    }
+
+    /**
+     * test that the removed contexts do not count for ChainContext#MAX_SIZE
+     */
+    @Test
+    public void testRemovedContextNotCounted() {
+        for (int i = 0; i < MAX_SIZE * 2; i++) {
+            ChainContext.getThreadLocalContext("test" + i);
+            ChainContext.remove("test" + i);
+        }
+        ChainContext.remove();
+    }
+
+    /**
+     * test that the request path creates no object once the thread has handled the source
+     */
+    @Test
+    public void testNoAllocation() {
+        final java.lang.management.ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMxBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMxBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        final String sourceName = "testNoAllocation";
+        final Object value = new Object();
+        runRequests(sourceName, value, ITERATIONS);
+        final long threadId = Thread.currentThread().getId();
+        final long before = allocationBean.getThreadAllocatedBytes(threadId);
+        runRequests(sourceName, value, ITERATIONS);
+        final long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        // A little is allowed for reading the allocated bytes
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < ITERATIONS);
+    }
+
+    private void runRequests(String sourceName, Object value, int count) {
+        for (int i = 0; i < count; i++) {
+            ChainContext.setKeyPrefix(sourceName, "prefix");
+            final RequestContext context = ChainContext.getThreadLocalContext(sourceName);
+            context.save("key", value);
+            context.save("key2", value);
+            Assert.assertSame(value, context.get("key", Object.class));
+            context.remove("key2");
+            ChainContext.remove(sourceName);
+        }
     }
 
     /**
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.chain.handler;
+
+import io.sermant.core.operation.OperationManager;
+import io.sermant.core.operation.converter.api.YamlConverter;
+import io.sermant.core.plugin.config.PluginConfigManager;
+import io.sermant.flowcontrol.common.config.FlowControlConfig;
+import io.sermant.flowcontrol.common.core.ResolverManager;
+import io.sermant.flowcontrol.common.core.resolver.AdaptiveConcurrencyRuleResolver;
+import io.sermant.flowcontrol.res4j.chain.AbstractChainHandler;
+import io.sermant.flowcontrol.res4j.chain.HandlerConstants;
+import io.sermant.flowcontrol.res4j.chain.context.ChainContext;
+import io.sermant.flowcontrol.res4j.chain.context.RequestContext;
+import io.sermant.flowcontrol.res4j.handler.concurrency.AdaptiveConcurrencyLimiter;
+import io.sermant.implement.operation.converter.YamlConverterImpl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * adaptive concurrency request handler test, the requests rejected by a later handler are not sampled
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyRequestHandlerTest extends BaseEntityTest {
+    private static final String BUSINESS_NAME = "adaptiveConcurrencyTest";
+
+    private static final int INITIAL_LIMIT = 10;
+
+    private static final int REJECTED_COUNT = 100;
+
+    private static final int COMPLETED_COUNT = 20;
+
+    private static final long RESPONSE_TIME_MS = 2L;
+
+    private final String sourceName = getClass().getName();
+
+    private final Set<String> businessNames = Collections.singleton(BUSINESS_NAME);
+
+    private MockedStatic<OperationManager> operationManagerMockedStatic;
+
+    private MockedStatic<PluginConfigManager> pluginConfigManagerMockedStatic;
+
+    @Before
+    public void setUp() {
+        operationManagerMockedStatic = Mockito.mockStatic(OperationManager.class);
+        operationManagerMockedStatic.when(() -> OperationManager.getOperation(YamlConverter.class))
+                .thenReturn(new YamlConverterImpl());
+        pluginConfigManagerMockedStatic = Mockito.mockStatic(PluginConfigManager.class);
+        pluginConfigManagerMockedStatic.when(() -> PluginConfigManager.getPluginConfig(FlowControlConfig.class))
+                .thenReturn(new FlowControlConfig());
+        ResolverManager.INSTANCE.resolve(AdaptiveConcurrencyRuleResolver.CONFIG_KEY + "." + BUSINESS_NAME,
+                "initialLimit: " + INITIAL_LIMIT + "\nminLimit: 1\nmaxLimit: 100", false);
+    }
+
+    @After
+    public void tearDown() {
+        ResolverManager.INSTANCE.resolve(AdaptiveConcurrencyRuleResolver.CONFIG_KEY + "." + BUSINESS_NAME, null,
+                true);
+        ChainContext.remove();
+        pluginConfigManagerMockedStatic.close();
+        operationManagerMockedStatic.close();
+    }
+
+    @Test
+    public void testRejectedByLaterHandler() throws InterruptedException {
+        final AdaptiveConcurrencyRequestHandler handler = new AdaptiveConcurrencyRequestHandler();
+        final RejectHandler rejectHandler = new RejectHandler(handler.getContextName());
+        handler.setNext(rejectHandler);
+        for (int i = 0; i < REJECTED_COUNT; i++) {
+            execute(handler);
+        }
+        final AdaptiveConcurrencyLimiter limiter = rejectHandler.limiter;
+        Assert.assertNotNull(limiter);
+        Assert.assertEquals(0, limiter.getInflight());
+
+        // the response time of the rejected requests is not taken as the minimum, so the slower completed requests
+        // do not lower the limit
+        rejectHandler.isReject = false;
+        for (int i = 0; i < COMPLETED_COUNT; i++) {
+            execute(handler);
+        }
+        Assert.assertEquals(0, limiter.getInflight());
+        Assert.assertEquals(INITIAL_LIMIT, limiter.getLimit());
+    }
+
+    private void execute(AdaptiveConcurrencyRequestHandler handler) throws InterruptedException {
+        final RequestContext context = ChainContext.getThreadLocalContext(sourceName);
+        context.setRequestEntity(httpClientEntity);
+        try {
+            handler.onBefore(context, businessNames);
+            Thread.sleep(RESPONSE_TIME_MS);
+        } catch (IllegalStateException ex) {
+            // the same as the handler chain entry
+            context.save(HandlerConstants.OCCURRED_FLOW_EXCEPTION, ex);
+        }
+        try {
+            handler.onResult(context, businessNames, new Object());
+        } finally {
+            ChainContext.remove(sourceName);
+        }
+    }
+
+    /**
+     * handler after the adaptive concurrency handler which rejects the requests, like the circuit breaker
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    private static class RejectHandler extends AbstractChainHandler {
+        private final String limitersName;
+
+        private AdaptiveConcurrencyLimiter limiter;
+
+        private boolean isReject = true;
+
+        RejectHandler(String limitersName) {
+            this.limitersName = limitersName;
+        }
+
+        @Override
+        public void onBefore(RequestContext context, Set<String> businessNames) {
+            final List<?> limiters = context.get(limitersName, List.class);
+            limiter = (AdaptiveConcurrencyLimiter) limiters.get(0);
+            if (isReject) {
+                throw new IllegalStateException("rejected");
+            }
+            super.onBefore(context, businessNames);
+        }
+
+        @Override
+        public int getOrder() {
+            return HandlerConstants.CIRCUIT_BREAKER_ORDER;
+        }
+    }
+}
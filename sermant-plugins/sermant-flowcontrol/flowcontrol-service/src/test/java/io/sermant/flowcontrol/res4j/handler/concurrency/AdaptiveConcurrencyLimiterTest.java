@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.concurrency;
+
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * adaptive concurrency limiter test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencyLimiterTest {
+    private static final int INITIAL_LIMIT = 5;
+
+    private static final int SHRINK_INITIAL_LIMIT = 50;
+
+    private static final int SHRINK_SAMPLES = 900;
+
+    @Test
+    public void testAcquire() {
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.of("test", buildRule());
+        for (int i = 0; i < INITIAL_LIMIT; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+        }
+        Assert.assertFalse(limiter.tryAcquire());
+        limiter.onDropped();
+        Assert.assertEquals(INITIAL_LIMIT, limiter.getLimit());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertEquals(INITIAL_LIMIT, limiter.getInflight());
+    }
+
+    @Test
+    public void testAlgorithm() {
+        final AdaptiveConcurrencyRule rule = buildRule();
+        Assert.assertTrue(AdaptiveConcurrencyLimiter.of("test", rule).getLimit() > 0);
+        rule.setAlgorithm(AdaptiveConcurrencyRule.ALGORITHM_VEGAS);
+        Assert.assertFalse(rule.isInValid());
+        rule.setAlgorithm("unknown");
+        Assert.assertTrue(rule.isInValid());
+        rule.setAlgorithm(AdaptiveConcurrencyRule.ALGORITHM_GRADIENT);
+        rule.setMinLimit(INITIAL_LIMIT + 1);
+        Assert.assertTrue(rule.isInValid());
+    }
+
+    @Test
+    public void testLimitShrinksWhenRttRises() {
+        final AdaptiveConcurrencyRule rule = buildRule();
+        rule.setInitialLimit(SHRINK_INITIAL_LIMIT);
+        final GradientLimit limit = new GradientLimit(rule);
+        limit.onSample(1_000L, SHRINK_INITIAL_LIMIT);
+        for (int i = 0; i < SHRINK_SAMPLES; i++) {
+            limit.onSample(10_000L, limit.getLimit());
+        }
+        Assert.assertTrue(limit.getLimit() < SHRINK_INITIAL_LIMIT / 2);
+    }
+
+    private AdaptiveConcurrencyRule buildRule() {
+        final AdaptiveConcurrencyRule rule = new AdaptiveConcurrencyRule();
+        rule.setName("test");
+        rule.setInitialLimit(INITIAL_LIMIT);
+        rule.setMinLimit(1);
+        rule.setMaxLimit(100);
+        return rule;
+    }
+}
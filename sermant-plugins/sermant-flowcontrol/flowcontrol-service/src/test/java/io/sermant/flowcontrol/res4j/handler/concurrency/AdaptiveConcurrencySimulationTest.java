@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.concurrency;
+
+import io.sermant.flowcontrol.common.core.rule.AdaptiveConcurrencyRule;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Simulation of the adaptive concurrency limit against a synthetic latency model. The service processes at most
+ * capacity requests in parallel, the response time rises with the requests queued beyond the capacity, and the client
+ * offers more requests than the service can take. The limit is expected to converge near the capacity, follow it down
+ * when the capacity drops (e.g. a GC storm or a rolling deployment) and recover when the capacity comes back
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class AdaptiveConcurrencySimulationTest {
+    private static final long BASE_RTT_NANOS = 10_000_000L;
+
+    private static final double NOISE = 0.1D;
+
+    private static final int OFFERED_CONCURRENCY = 500;
+
+    private static final int CAPACITY = 50;
+
+    private static final int DEGRADED_CAPACITY = 10;
+
+    private static final int ROUNDS = 300;
+
+    private static final int MEASURED_ROUNDS = 100;
+
+    @Test
+    public void testGradient() {
+        simulate(AdaptiveConcurrencyRule.ALGORITHM_GRADIENT);
+    }
+
+    @Test
+    public void testVegas() {
+        simulate(AdaptiveConcurrencyRule.ALGORITHM_VEGAS);
+    }
+
+    private void simulate(String algorithm) {
+        final AdaptiveConcurrencyRule rule = new AdaptiveConcurrencyRule();
+        rule.setAlgorithm(algorithm);
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.of("simulation", rule);
+        final Random random = new Random(CAPACITY);
+
+        final int steadyLimit = run(limiter, random, CAPACITY);
+        Assert.assertTrue(algorithm + " converged to " + steadyLimit,
+                steadyLimit >= CAPACITY && steadyLimit <= CAPACITY * 2);
+
+        final int degradedLimit = run(limiter, random, DEGRADED_CAPACITY);
+        Assert.assertTrue(algorithm + " degraded to " + degradedLimit,
+                degradedLimit >= DEGRADED_CAPACITY && degradedLimit <= DEGRADED_CAPACITY * 2);
+
+        final int recoveredLimit = run(limiter, random, CAPACITY);
+        Assert.assertTrue(algorithm + " recovered to " + recoveredLimit,
+                recoveredLimit >= CAPACITY && recoveredLimit <= CAPACITY * 2);
+    }
+
+    /**
+     * Each round admits as many of the offered requests as the limiter permits, all of which complete with the
+     * response time of the service running them together
+     *
+     * @param limiter limiter
+     * @param random random of the noise
+     * @param capacity parallel requests the service processes without queueing
+     * @return median limit of the latest rounds, the limit is lowered for a moment while probing the minimum response
+     * time
+     */
+    private int run(AdaptiveConcurrencyLimiter limiter, Random random, int capacity) {
+        final int[] limits = new int[MEASURED_ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            int admitted = 0;
+            while (admitted < OFFERED_CONCURRENCY && limiter.tryAcquire()) {
+                admitted++;
+            }
+            Assert.assertTrue(admitted > 0);
+            final double queueing = Math.max(1D, (double) admitted / capacity);
+            for (int i = 0; i < admitted; i++) {
+                limiter.onComplete((long) (BASE_RTT_NANOS * queueing * (1D + NOISE * random.nextDouble())));
+            }
+            Assert.assertEquals(0, limiter.getInflight());
+            if (round >= ROUNDS - MEASURED_ROUNDS) {
+                limits[round - ROUNDS + MEASURED_ROUNDS] = limiter.getLimit();
+            }
+        }
+        Arrays.sort(limits);
+        return limits[MEASURED_ROUNDS / 2];
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * striped token bucket test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class StripedTokenBucketTest {
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(1L);
+
+    private static final int RATE = 10;
+
+    private static final int STRIPE_COUNT = 4;
+
+    @Test
+    public void testBurst() {
+        final StripedTokenBucket bucket = new StripedTokenBucket(RATE, PERIOD, RATE, STRIPE_COUNT, 0L);
+        Assert.assertEquals(RATE, bucket.getAvailablePermits(0L));
+        Assert.assertEquals(RATE, acquireAll(bucket, 0L));
+        Assert.assertEquals(0L, bucket.getAvailablePermits(0L));
+
+        // The permits do not accumulate over the burst when the bucket is idle
+        final long later = PERIOD * RATE;
+        Assert.assertEquals(RATE, bucket.getAvailablePermits(later));
+        Assert.assertEquals(RATE, acquireAll(bucket, later));
+    }
+
+    @Test
+    public void testRate() {
+        final StripedTokenBucket bucket = new StripedTokenBucket(RATE, PERIOD, 1, 1, 0L);
+        int acquired = 0;
+        for (long now = 0L; now < PERIOD; now += PERIOD / (RATE * RATE)) {
+            acquired += acquireAll(bucket, now);
+        }
+        Assert.assertEquals(RATE, acquired);
+    }
+
+    @Test
+    public void testTimeout() {
+        final StripedTokenBucket bucket = new StripedTokenBucket(RATE, PERIOD, 1, 1, 0L);
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, 0L));
+        Assert.assertEquals(-1L, bucket.reserve(1, 0L, 0L));
+        Assert.assertEquals(-1L, bucket.reserve(1, PERIOD / RATE - 1, 0L));
+        Assert.assertEquals(PERIOD / RATE, bucket.reserve(1, PERIOD, 0L));
+        Assert.assertEquals(PERIOD / RATE * 2, bucket.reserve(1, PERIOD, 0L));
+    }
+
+    @Test
+    public void testDrain() {
+        final StripedTokenBucket bucket = new StripedTokenBucket(RATE, PERIOD, RATE, STRIPE_COUNT, 0L);
+        bucket.drain(0L);
+        Assert.assertEquals(0L, bucket.getAvailablePermits(0L));
+        Assert.assertEquals(-1L, bucket.reserve(1, 0L, 0L));
+        Assert.assertEquals(RATE, acquireAll(bucket, PERIOD * 2));
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws InterruptedException {
+        for (int threads : new int[]{1, 8, 64}) {
+            final int burst = 100000;
+
+            // The bucket barely refills during the test, so exactly the burst is acquired by all the threads
+            final StripedTokenBucket bucket = new StripedTokenBucket(burst, TimeUnit.DAYS.toNanos(1L), burst,
+                    System.nanoTime());
+            Assert.assertEquals(burst, acquireConcurrently(bucket, threads));
+        }
+    }
+
+    private int acquireAll(StripedTokenBucket bucket, long now) {
+        int acquired = 0;
+        while (bucket.reserve(1, 0L, now) == 0L) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private int acquireConcurrently(StripedTokenBucket bucket, int threads) throws InterruptedException {
+        final AtomicInteger acquired = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int count = 0;
+                while (bucket.reserve(1, 0L, System.nanoTime()) == 0L) {
+                    count++;
+                }
+                acquired.addAndGet(count);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return acquired.get();
+    }
+}
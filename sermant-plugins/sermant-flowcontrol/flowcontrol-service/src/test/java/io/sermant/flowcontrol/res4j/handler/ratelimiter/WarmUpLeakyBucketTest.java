@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * leaky bucket test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class WarmUpLeakyBucketTest {
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(1L);
+
+    private static final int RATE = 10;
+
+    private static final long INTERVAL = PERIOD / RATE;
+
+    @Test
+    public void testLeakyBucket() {
+        final WarmUpLeakyBucket bucket = new WarmUpLeakyBucket(RATE, PERIOD, 0L, 0L);
+        Assert.assertEquals(1L, bucket.getAvailablePermits(0L));
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, 0L));
+        Assert.assertEquals(0L, bucket.getAvailablePermits(0L));
+        Assert.assertEquals(-1L, bucket.reserve(1, 0L, 0L));
+        Assert.assertEquals(INTERVAL, bucket.reserve(1, PERIOD, 0L));
+        Assert.assertEquals(INTERVAL * 2, bucket.reserve(1, PERIOD, 0L));
+
+        // No burst after idle
+        final long later = PERIOD * RATE;
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, later));
+        Assert.assertEquals(-1L, bucket.reserve(1, 0L, later));
+    }
+
+    @Test
+    public void testWarmUp() {
+        final WarmUpLeakyBucket bucket = new WarmUpLeakyBucket(RATE, PERIOD, PERIOD, 0L);
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, 0L));
+        long now = 0L;
+        long lastInterval = Long.MAX_VALUE;
+        long firstInterval = 0L;
+        for (int i = 0; i < RATE * 2; i++) {
+            final long interval = bucket.reserve(1, Long.MAX_VALUE, now);
+            if (i == 0) {
+                firstInterval = interval;
+            }
+            Assert.assertTrue(interval <= lastInterval);
+            lastInterval = interval;
+            now += interval;
+        }
+        Assert.assertTrue(firstInterval > INTERVAL * 2);
+        Assert.assertEquals(INTERVAL, lastInterval);
+
+        // The limiter cools down when it is idle
+        now += PERIOD * RATE;
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, now));
+        Assert.assertTrue(bucket.reserve(1, Long.MAX_VALUE, now) > INTERVAL * 2);
+    }
+
+    @Test
+    public void testDrain() {
+        final WarmUpLeakyBucket bucket = new WarmUpLeakyBucket(RATE, PERIOD, 0L, 0L);
+        bucket.drain(0L);
+        Assert.assertEquals(-1L, bucket.reserve(1, 0L, 0L));
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, INTERVAL));
+    }
+}
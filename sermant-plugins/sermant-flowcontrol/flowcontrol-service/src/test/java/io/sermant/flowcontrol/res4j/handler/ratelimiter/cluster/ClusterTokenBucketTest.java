@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.ClusterRateLimiterProvider;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.StripedTokenBucket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * cluster token bucket test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ClusterTokenBucketTest {
+    private static final long PERIOD = TimeUnit.HOURS.toNanos(1L);
+
+    private static final int CLUSTER_RATE = 100;
+
+    private static final int NODE_RATE = 10;
+
+    private static final int NODE_COUNT = 4;
+
+    @Test
+    public void testShareClusterRate() {
+        final TokenServer tokenServer = new TokenServer(resource -> buildRule(CLUSTER_RATE));
+        final InProcessTokenClient client = new InProcessTokenClient(tokenServer);
+        final ClusterTokenBucket[] buckets = new ClusterTokenBucket[NODE_COUNT];
+        for (int i = 0; i < NODE_COUNT; i++) {
+            buckets[i] = createBucket(() -> client);
+        }
+        int acquired = 0;
+        for (int round = 0; round < CLUSTER_RATE; round++) {
+            for (ClusterTokenBucket bucket : buckets) {
+                if (bucket.reserve(1, 0L, 0L) == 0L) {
+                    acquired++;
+                }
+            }
+        }
+
+        // The nodes together are limited by the cluster rate rather than the rate of the nodes
+        Assert.assertEquals(CLUSTER_RATE, acquired);
+        for (ClusterTokenBucket bucket : buckets) {
+            Assert.assertEquals(0L, bucket.getAvailablePermits(0L));
+        }
+    }
+
+    @Test
+    public void testFallbackToNodeRate() {
+        final CompletableFuture<Integer> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new IllegalStateException("unreachable"));
+        final TokenClient client = new TokenClient() {
+            @Override
+            public CompletableFuture<Integer> requestTokens(String resource, int permits, int rate,
+                    long periodNanos) {
+                return failure;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Assert.assertEquals(NODE_RATE, acquireAll(createBucket(() -> client)));
+        Assert.assertEquals(NODE_RATE, acquireAll(createBucket(() -> null)));
+    }
+
+    @Test
+    public void testRuleRejectedByServer() {
+        // The rule of the server differs from the one of the node, which keeps its own limit
+        final TokenServer tokenServer = new TokenServer(resource -> buildRule(CLUSTER_RATE * 2));
+        final InProcessTokenClient client = new InProcessTokenClient(tokenServer);
+        Assert.assertEquals(TokenServer.REJECTED, tokenServer.lease("test", 1, CLUSTER_RATE, PERIOD, 0L));
+        Assert.assertEquals(NODE_RATE, acquireAll(createBucket(() -> client)));
+
+        // The server has no cluster rule of the rate limiter
+        final InProcessTokenClient noRuleClient = new InProcessTokenClient(new TokenServer(resource -> null));
+        Assert.assertEquals(NODE_RATE, acquireAll(createBucket(() -> noRuleClient)));
+    }
+
+    @Test
+    public void testLimiterTypeIgnoreCase() {
+        // The limiter type is selected regardless of the case, so is the rule of the token server
+        final TokenServer tokenServer = new TokenServer(resource -> {
+            final RateLimitingRule rule = buildRule(CLUSTER_RATE);
+            rule.setLimiterType(ClusterRateLimiterProvider.TYPE.toUpperCase(Locale.ROOT));
+            return rule;
+        });
+        Assert.assertEquals(1, tokenServer.lease("test", 1, CLUSTER_RATE, PERIOD, 0L));
+    }
+
+    @Test
+    public void testLeaseAsynchronously() {
+        final List<CompletableFuture<Integer>> requests = new ArrayList<>();
+        final TokenClient client = new TokenClient() {
+            @Override
+            public CompletableFuture<Integer> requestTokens(String resource, int permits, int rate,
+                    long periodNanos) {
+                final CompletableFuture<Integer> request = new CompletableFuture<>();
+                requests.add(request);
+                return request;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final ClusterTokenBucket bucket = createBucket(() -> client);
+
+        // The node limit is used until the token server answers, and only one request is sent meanwhile
+        Assert.assertEquals(NODE_RATE, acquireAll(bucket));
+        Assert.assertEquals(1, requests.size());
+        requests.get(0).complete(CLUSTER_RATE / NODE_RATE);
+        Assert.assertEquals(CLUSTER_RATE / NODE_RATE, acquireAll(bucket));
+        Assert.assertEquals(2, requests.size());
+
+        // The tokens leased are added to the ones left
+        requests.get(1).complete(1);
+        Assert.assertEquals(1, acquireAll(bucket));
+
+        // The leased tokens expire after a period, and the node limit is used until the next lease is answered
+        requests.get(2).complete(1);
+        Assert.assertEquals(1L, bucket.getAvailablePermits(0L));
+        Assert.assertEquals(NODE_RATE, bucket.getAvailablePermits(PERIOD));
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, PERIOD));
+        Assert.assertEquals(4, requests.size());
+    }
+
+    @Test
+    public void testSparseTraffic() {
+        final TokenServer tokenServer = new TokenServer(resource -> buildRule(CLUSTER_RATE));
+        final InProcessTokenClient client = new InProcessTokenClient(tokenServer);
+        final ClusterTokenBucket bucket = createBucket(() -> client);
+
+        // A call every two periods always finds the lease expired
+        for (int i = 0; i < NODE_COUNT; i++) {
+            Assert.assertEquals(0L, bucket.reserve(1, 0L, 2 * PERIOD * i));
+        }
+    }
+
+    @Test
+    public void testLeaseInFlight() {
+        final List<CompletableFuture<Integer>> requests = new ArrayList<>();
+        final TokenClient client = new TokenClient() {
+            @Override
+            public CompletableFuture<Integer> requestTokens(String resource, int permits, int rate,
+                    long periodNanos) {
+                final CompletableFuture<Integer> request = new CompletableFuture<>();
+                requests.add(request);
+                return request;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final ClusterTokenBucket bucket = createBucket(() -> client);
+        Assert.assertEquals(0L, bucket.reserve(1, 0L, 0L));
+        requests.get(0).complete(1);
+        Assert.assertEquals(1, requests.size());
+
+        // The lease has expired, the requests are served by the node limit while the new lease is in flight
+        Assert.assertEquals(NODE_RATE, acquireAll(bucket, 2 * PERIOD));
+        Assert.assertEquals(2, requests.size());
+
+        // The cluster is out of tokens, which is not made up by the node limit
+        requests.get(1).complete(0);
+        Assert.assertEquals(0, acquireAll(bucket, 3 * PERIOD));
+    }
+
+    private RateLimitingRule buildRule(int clusterRate) {
+        final RateLimitingRule rule = new RateLimitingRule();
+        rule.setLimiterType(ClusterRateLimiterProvider.TYPE);
+        rule.setRate(NODE_RATE);
+        rule.setClusterRate(clusterRate);
+        rule.setLimitRefreshPeriod(String.valueOf(TimeUnit.NANOSECONDS.toMillis(PERIOD)));
+        return rule;
+    }
+
+    private ClusterTokenBucket createBucket(Supplier<TokenClient> clientSupplier) {
+        return new ClusterTokenBucket("test", CLUSTER_RATE, PERIOD, clientSupplier,
+                new StripedTokenBucket(NODE_RATE, PERIOD, NODE_RATE, 0L), 0L);
+    }
+
+    private int acquireAll(ClusterTokenBucket bucket) {
+        return acquireAll(bucket, 0L);
+    }
+
+    private int acquireAll(ClusterTokenBucket bucket, long nowNanos) {
+        int acquired = 0;
+        while (bucket.reserve(1, 0L, nowNanos) == 0L) {
+            acquired++;
+        }
+        return acquired;
+    }
+}
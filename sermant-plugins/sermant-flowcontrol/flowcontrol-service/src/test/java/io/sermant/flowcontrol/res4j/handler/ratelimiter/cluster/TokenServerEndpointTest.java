@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.handler.ratelimiter.cluster;
+
+import io.sermant.flowcontrol.common.core.rule.RateLimitingRule;
+import io.sermant.flowcontrol.res4j.handler.ratelimiter.ClusterRateLimiterProvider;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * token server endpoint test, the tokens are leased over the socket
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class TokenServerEndpointTest {
+    private static final long PERIOD = TimeUnit.HOURS.toNanos(1L);
+
+    private static final long TIMEOUT_MS = 3000L;
+
+    private static final String HOST = "127.0.0.1";
+
+    private static final int MAX_CONNECTIONS = 2;
+
+    @Test
+    public void testRequestTokens() throws IOException, InterruptedException, ExecutionException {
+        final TokenServerEndpoint endpoint = new TokenServerEndpoint(new TokenServer(resource -> buildRule()), HOST, 0,
+                MAX_CONNECTIONS);
+        endpoint.start();
+        final SocketTokenClient client = new SocketTokenClient(HOST, endpoint.getPort(), TIMEOUT_MS);
+        final SocketTokenClient otherClient = new SocketTokenClient(HOST, endpoint.getPort(), TIMEOUT_MS);
+        try {
+            Assert.assertEquals(6, client.requestTokens("test", 6, 10, PERIOD).get().intValue());
+            Assert.assertEquals(4, otherClient.requestTokens("test", 6, 10, PERIOD).get().intValue());
+            Assert.assertEquals(0, client.requestTokens("test", 6, 10, PERIOD).get().intValue());
+            Assert.assertEquals(6, client.requestTokens("other", 6, 10, PERIOD).get().intValue());
+
+            // The bucket is not reset by a node with a different rule
+            Assert.assertEquals(TokenServer.REJECTED, client.requestTokens("test", 6, 20, PERIOD).get().intValue());
+            Assert.assertEquals(0, client.requestTokens("test", 6, 10, PERIOD).get().intValue());
+        } finally {
+            client.close();
+            otherClient.close();
+            endpoint.close();
+        }
+    }
+
+    @Test
+    public void testServerUnreachable() throws IOException, InterruptedException {
+        final TokenServerEndpoint endpoint = new TokenServerEndpoint(new TokenServer(resource -> buildRule()), HOST, 0,
+                MAX_CONNECTIONS);
+        endpoint.start();
+        final int port = endpoint.getPort();
+        endpoint.close();
+        final SocketTokenClient client = new SocketTokenClient(HOST, port, TIMEOUT_MS);
+        try {
+            client.requestTokens("test", 1, 1, PERIOD).get();
+            Assert.fail("the token server is closed");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IOException);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testMaxConnections() throws IOException, InterruptedException, ExecutionException {
+        final TokenServerEndpoint endpoint = new TokenServerEndpoint(new TokenServer(resource -> buildRule()), HOST, 0,
+                1);
+        endpoint.start();
+        final SocketTokenClient client = new SocketTokenClient(HOST, endpoint.getPort(), TIMEOUT_MS);
+        final SocketTokenClient otherClient = new SocketTokenClient(HOST, endpoint.getPort(), TIMEOUT_MS);
+        try {
+            Assert.assertEquals(6, client.requestTokens("test", 6, 10, PERIOD).get().intValue());
+            otherClient.requestTokens("test", 1, 10, PERIOD).get();
+            Assert.fail("the connection is beyond the maximum");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IOException);
+        } finally {
+            client.close();
+            otherClient.close();
+            endpoint.close();
+        }
+    }
+
+    private RateLimitingRule buildRule() {
+        final RateLimitingRule rule = new RateLimitingRule();
+        rule.setLimiterType(ClusterRateLimiterProvider.TYPE);
+        rule.setClusterRate(10);
+        rule.setLimitRefreshPeriod(String.valueOf(TimeUnit.NANOSECONDS.toMillis(PERIOD)));
+        return rule;
+    }
+}
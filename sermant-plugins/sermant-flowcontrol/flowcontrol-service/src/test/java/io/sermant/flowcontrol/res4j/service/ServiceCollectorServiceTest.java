@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.service;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.sermant.core.service.ServiceManager;
+import io.sermant.core.service.metric.api.Gauge;
+import io.sermant.core.service.metric.api.MetricService;
+import io.sermant.core.service.metric.api.Tags;
+import io.sermant.flowcontrol.common.enums.MetricType;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * service collector test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class ServiceCollectorServiceTest {
+    private static final String BUSINESS_NAME = "collectorTest";
+
+    private static final long NANOS_PER_MILLI = 1000_000L;
+
+    @Test
+    public void testCollectLatency() {
+        final ServiceCollectorService collector = new ServiceCollectorService();
+        for (long millis = 1; millis <= 100; millis++) {
+            ServiceCollectorService.getLatencyHistogram(BUSINESS_NAME).record(millis * NANOS_PER_MILLI);
+        }
+        final Map<String, Double> first = collectLatency(collector);
+        Assert.assertEquals(100D, first.get("_count"), 0D);
+        Assert.assertEquals(5050D, first.get("_sum"), 0D);
+
+        // The count and the sum are cumulative, and the quantiles of a window are the same for every collection
+        ServiceCollectorService.getLatencyHistogram(BUSINESS_NAME).record(NANOS_PER_MILLI);
+        final Map<String, Double> second = collectLatency(collector);
+        Assert.assertEquals(101D, second.get("_count"), 0D);
+        Assert.assertEquals(5051D, second.get("_sum"), 0D);
+        Assert.assertEquals(first.get("0.99"), second.get("0.99"));
+        Assert.assertEquals(first.get("0.5"), second.get("0.5"));
+
+        // The histogram is dropped with its service scenario
+        ServiceCollectorService.removeLatencyHistogram(BUSINESS_NAME);
+        Assert.assertTrue(collectLatency(collector).isEmpty());
+    }
+
+    @Test
+    public void testGaugesReadRecreatedHistogram() {
+        final String businessName = "gaugeTest";
+        final MetricService metricService = Mockito.mock(MetricService.class);
+        final Map<String, CapturingGauge> gauges = new HashMap<>();
+        Mockito.when(metricService.gauge(Mockito.anyString(), Mockito.any(Tags.class), Mockito.anyString()))
+                .thenAnswer(invocation -> gauges.computeIfAbsent(
+                        ((Tags) invocation.getArgument(1)).getTags().get("quantile"), key -> new CapturingGauge()));
+        try (MockedStatic<ServiceManager> serviceManager = Mockito.mockStatic(ServiceManager.class)) {
+            serviceManager.when(() -> ServiceManager.getService(MetricService.class)).thenReturn(metricService);
+            ServiceCollectorService.getLatencyHistogram(businessName).record(NANOS_PER_MILLI);
+            Assert.assertEquals(4, gauges.size());
+            Assert.assertEquals(1D, gauges.get("0.5").value(), 0.1D);
+
+            // The gauges can not be unregistered, they read nothing once the histogram is removed
+            ServiceCollectorService.removeLatencyHistogram(businessName);
+            Assert.assertTrue(Double.isNaN(gauges.get("0.5").value()));
+
+            // They are not registered again, and read the histogram created again
+            ServiceCollectorService.getLatencyHistogram(businessName).record(10 * NANOS_PER_MILLI);
+            Mockito.verify(metricService, Mockito.times(4)).gauge(Mockito.anyString(), Mockito.any(Tags.class),
+                    Mockito.anyString());
+            Assert.assertEquals(10D, gauges.get("0.5").value(), 1D);
+        } finally {
+            ServiceCollectorService.removeLatencyHistogram(businessName);
+        }
+    }
+
+    private Map<String, Double> collectLatency(ServiceCollectorService collector) {
+        final Map<String, Double> values = new HashMap<>();
+        final String name = MetricType.RESPONSE_TIME.getName();
+        final List<MetricFamilySamples> samples = collector.collect();
+        for (MetricFamilySamples family : samples) {
+            if (!name.equals(family.name)) {
+                continue;
+            }
+            for (Sample sample : family.samples) {
+                if (!BUSINESS_NAME.equals(sample.labelValues.get(0))) {
+                    continue;
+                }
+                final int quantileIndex = sample.labelNames.indexOf("quantile");
+                values.put(quantileIndex < 0 ? sample.name.substring(name.length())
+                        : sample.labelValues.get(quantileIndex), sample.value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gauge that keeps the state registered
+     *
+     * @since 2024-10-15
+     */
+    private static class CapturingGauge implements Gauge {
+        private Object state;
+
+        private ToDoubleFunction<Object> function;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T gaugeState(T stateObject, ToDoubleFunction<T> valueFunction) {
+            this.state = stateObject;
+            this.function = (ToDoubleFunction<Object>) valueFunction;
+            return stateObject;
+        }
+
+        double value() {
+            return function.applyAsDouble(state);
+        }
+    }
+}
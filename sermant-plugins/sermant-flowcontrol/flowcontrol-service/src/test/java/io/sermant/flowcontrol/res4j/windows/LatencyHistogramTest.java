@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.windows;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * latency histogram test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class LatencyHistogramTest {
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private static final double RELATIVE_ERROR = 1D / 32;
+
+    private static final int THREAD_COUNT = 8;
+
+    private static final int RECORDS_PER_THREAD = 100_000;
+
+    @Test
+    public void testBuckets() {
+        int lastIndex = -1;
+        for (long micros = 0L; micros < 1L << 32; micros = micros * 9 / 8 + 1) {
+            final int index = LatencyHistogram.index(micros);
+            final long highest = LatencyHistogram.highestValue(index);
+            Assert.assertTrue(index >= lastIndex && index < LatencyHistogram.BUCKET_COUNT);
+            Assert.assertTrue(micros <= highest);
+            Assert.assertTrue(highest - micros <= micros * RELATIVE_ERROR);
+            Assert.assertEquals(index, LatencyHistogram.index(highest));
+            Assert.assertEquals(index + 1, LatencyHistogram.index(highest + 1));
+            lastIndex = index;
+        }
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.index((1L << 32) - 1));
+    }
+
+    @Test
+    public void testQuantiles() {
+        final LatencyHistogram histogram = new LatencyHistogram(2);
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1000 * NANOS_PER_MICRO);
+        }
+        final LatencySnapshot snapshot = histogram.newReader().snapshot();
+        Assert.assertEquals(1000L, snapshot.getCount());
+        Assert.assertEquals(500500D, snapshot.getSum(), 0D);
+        Assert.assertEquals(500D, snapshot.getValueAtQuantile(0.5D), 500D * RELATIVE_ERROR);
+        Assert.assertEquals(900D, snapshot.getValueAtQuantile(0.9D), 900D * RELATIVE_ERROR);
+        Assert.assertEquals(990D, snapshot.getValueAtQuantile(0.99D), 990D * RELATIVE_ERROR);
+        Assert.assertEquals(999D, snapshot.getValueAtQuantile(0.999D), 999D * RELATIVE_ERROR);
+        Assert.assertEquals(0D, new LatencyHistogram(1).newReader().snapshot().getValueAtQuantile(0.5D), 0D);
+    }
+
+    @Test
+    public void testDeltaSnapshot() {
+        final LatencyHistogram histogram = new LatencyHistogram(1);
+        final LatencyHistogram.Reader first = histogram.newReader();
+        histogram.record(10 * NANOS_PER_MICRO);
+        final LatencyHistogram.Reader second = histogram.newReader();
+        Assert.assertEquals(1L, first.snapshot().getCount());
+        histogram.record(20 * NANOS_PER_MICRO);
+        histogram.record(30 * NANOS_PER_MICRO);
+        final LatencySnapshot delta = first.snapshot();
+        Assert.assertEquals(2L, delta.getCount());
+        Assert.assertEquals(0.05D, delta.getSum(), 0D);
+        Assert.assertEquals(3L, second.snapshot().getCount());
+        Assert.assertEquals(0L, first.snapshot().getCount());
+
+        // The total is cumulative and does not consume the records of the readers
+        final LatencySnapshot total = histogram.totalSnapshot();
+        Assert.assertEquals(3L, total.getCount());
+        Assert.assertEquals(0.06D, total.getSum(), 1e-9D);
+        Assert.assertEquals(3L, histogram.totalSnapshot().getCount());
+        histogram.record(40 * NANOS_PER_MICRO);
+        Assert.assertEquals(1L, first.snapshot().getCount());
+    }
+
+    @Test
+    public void testConcurrentRecord() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram(4);
+        final LatencyHistogram.Reader reader = histogram.newReader();
+        final CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            final long nanos = (i + 1) * NANOS_PER_MICRO;
+            final Thread thread = new Thread(() -> {
+                for (int j = 0; j < RECORDS_PER_THREAD; j++) {
+                    histogram.record(nanos);
+                }
+                latch.countDown();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        long count = 0L;
+        while (latch.getCount() > 0) {
+            count += reader.snapshot().getCount();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        count += reader.snapshot().getCount();
+        Assert.assertEquals((long) THREAD_COUNT * RECORDS_PER_THREAD, count);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.flowcontrol.res4j.windows;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sliding window test
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class SlidingWindowTest {
+    private static final long INTERVAL_MS = 1000L;
+
+    private static final int SAMPLE_COUNT = 10;
+
+    private static final long BUCKET_NANOS = TimeUnit.MILLISECONDS.toNanos(INTERVAL_MS / SAMPLE_COUNT);
+
+    @Test
+    public void testBucketsResetLazily() {
+        SlidingWindow window = new SlidingWindow(SAMPLE_COUNT, INTERVAL_MS);
+        Assert.assertEquals(INTERVAL_MS / SAMPLE_COUNT, window.getBucketMs());
+        long startNanos = System.nanoTime();
+        WindowsBucket first = window.currentBucket(startNanos);
+        first.success.add(3);
+        first.rt.add(30);
+        WindowsBucket next = window.currentBucket(startNanos + BUCKET_NANOS);
+        Assert.assertNotSame(first, next);
+        next.success.add(2);
+        next.rt.add(10);
+        Assert.assertEquals(5, window.getSuccess(startNanos + BUCKET_NANOS));
+        Assert.assertEquals(40, window.getRt(startNanos + BUCKET_NANOS));
+
+        // The first bucket slides out of the interval, and its slot is replaced by the bucket of the later span
+        long laterNanos = startNanos + SAMPLE_COUNT * BUCKET_NANOS;
+        Assert.assertEquals(2, window.getSuccess(laterNanos));
+        WindowsBucket reused = window.currentBucket(laterNanos);
+        Assert.assertNotSame(first, reused);
+        Assert.assertEquals(0, reused.success.sum());
+        Assert.assertEquals(0, window.getSuccess(startNanos + 3 * SAMPLE_COUNT * BUCKET_NANOS));
+    }
+
+    @Test
+    public void testConcurrentAddSuccess() throws InterruptedException {
+        int threadCount = 8;
+        int requestCount = 10000;
+        SlidingWindow window = new SlidingWindow(SAMPLE_COUNT, TimeUnit.MINUTES.toMillis(1));
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < requestCount; j++) {
+                    window.addSuccess(1L);
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertEquals((long) threadCount * requestCount, window.getSuccess());
+        Assert.assertEquals((long) threadCount * requestCount, window.getRt());
+    }
+}
@@ -16,8 +16,11 @@
 
 package io.sermant.router.dubbo.strategy.instance;
 
+import io.sermant.router.config.cache.InstanceTagIndex;
 import io.sermant.router.config.strategy.AbstractInstanceStrategy;
+import io.sermant.router.config.strategy.IndexedInstanceStrategy;
 
+import java.util.BitSet;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -27,7 +30,8 @@ import java.util.function.Function;
  * @author provenceee
  * @since 2021-12-08
  */
-public class MatchInstanceStrategy extends AbstractInstanceStrategy<Object, Map<String, String>> {
+public class MatchInstanceStrategy extends AbstractInstanceStrategy<Object, Map<String, String>>
+        implements IndexedInstanceStrategy<Object, Map<String, String>> {
     /**
      * Match the invoker with the target version number
      *
@@ -50,4 +54,16 @@ public class MatchInstanceStrategy extends AbstractInstanceStrategy<Object, Map<
         }
         return false;
     }
+
+    @Override
+    public BitSet getMatchInstances(Map<String, String> tag, InstanceTagIndex<Object> index) {
+        BitSet result = new BitSet();
+        for (Map.Entry<String, String> entry : tag.entrySet()) {
+            String value = entry.getValue();
+            if (value != null) {
+                result.or(index.getInstances(entry.getKey(), value));
+            }
+        }
+        return result;
+    }
 }
@@ -16,8 +16,11 @@
 
 package io.sermant.router.dubbo.strategy.instance;
 
+import io.sermant.router.config.cache.InstanceTagIndex;
 import io.sermant.router.config.strategy.AbstractInstanceStrategy;
+import io.sermant.router.config.strategy.IndexedInstanceStrategy;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -28,7 +31,8 @@ import java.util.function.Function;
  * @author provenceee
  * @since 2021-12-08
  */
-public class MismatchInstanceStrategy extends AbstractInstanceStrategy<Object, List<Map<String, String>>> {
+public class MismatchInstanceStrategy extends AbstractInstanceStrategy<Object, List<Map<String, String>>>
+        implements IndexedInstanceStrategy<Object, List<Map<String, String>>> {
     /**
      * Matching invoker Not in Mismatch
      *
@@ -68,4 +72,20 @@ public class MismatchInstanceStrategy extends AbstractInstanceStrategy<Object, L
         }
         return false;
     }
+
+    @Override
+    public BitSet getMatchInstances(List<Map<String, String>> tags, InstanceTagIndex<Object> index) {
+        // The instances having any of the mismatched tags are eliminated
+        BitSet mismatchInstances = new BitSet();
+        for (Map<String, String> mismatchTag : tags) {
+            for (Map.Entry<String, String> entry : mismatchTag.entrySet()) {
+                String value = entry.getValue();
+                mismatchInstances.or(value == null ? index.getKeyInstances(entry.getKey())
+                        : index.getInstances(entry.getKey(), value));
+            }
+        }
+        BitSet result = index.newFullBitSet();
+        result.andNot(mismatchInstances);
+        return result;
+    }
 }
@@ -20,13 +20,9 @@ import io.sermant.core.plugin.config.PluginConfigManager;
 import io.sermant.core.utils.StringUtils;
 import io.sermant.router.common.config.RouterConfig;
 
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -36,10 +32,6 @@ import java.util.Map;
  * @since 2022-10-25
  */
 public class FlowContextUtils {
-    private static final Base64.Decoder DECODER = Base64.getDecoder();
-
-    private static final int TAG_PART_NUM = 2;
-
     private static volatile RouterConfig routerConfig;
 
     private FlowContextUtils() {
@@ -55,22 +47,13 @@ public class FlowContextUtils {
         if (StringUtils.isEmpty(encodeTagsString)) {
             return Collections.emptyMap();
         }
-        String[] tags = encodeTagsString.split(",");
-        Map<String, List<String>> tagMapping = new HashMap<>();
-        for (String tag : tags) {
-            final String[] parts = tag.split(":");
-            if (parts.length != TAG_PART_NUM) {
-                continue;
-            }
-            List<String> list = new ArrayList<>();
-            list.add(new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8));
-            tagMapping.put(decode(parts[0]).toLowerCase(Locale.ENGLISH), list);
-        }
-        return tagMapping;
+
+        // The decoded tags are shared by the requests, the callers may add tags to the returned map
+        return new HashMap<>(FlowTagCodec.decode(encodeTagsString).getTags());
     }
 
     /**
-     * Decode attachments
+     * Decode attachments, the decoded tags are laid over the attachments as a read-only view
      *
      * @param attachments Attachment information
      * @return {@link Map}<{@link String}, {@link Object}>
@@ -83,27 +66,8 @@ public class FlowContextUtils {
         if (encode == null) {
             return attachments;
         }
-        String encodeTags = String.valueOf(encode);
-        Map<String, Object> allAttachments = new HashMap<>(attachments);
-        String[] tags = encodeTags.split(",");
-        for (String tag : tags) {
-            final String[] parts = tag.split(":");
-            if (parts.length != TAG_PART_NUM) {
-                continue;
-            }
-            allAttachments.put(decode(parts[0]).toLowerCase(Locale.ENGLISH), decode(parts[1]));
-        }
-        return Collections.unmodifiableMap(allAttachments);
-    }
-
-    /**
-     * Decode
-     *
-     * @param encodeString Encoded strings
-     * @return {@link String}
-     */
-    private static String decode(String encodeString) {
-        return new String(DECODER.decode(encodeString), StandardCharsets.UTF_8);
+        Map<String, String> values = FlowTagCodec.decode(String.valueOf(encode)).getValues();
+        return new FlowTagCodec.OverlayAttachments(attachments, values);
     }
 
     /**
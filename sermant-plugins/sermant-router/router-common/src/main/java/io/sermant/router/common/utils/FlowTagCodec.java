@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.common.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codec of the encoded traffic tags, the tags are encoded as {@code base64(key):base64(value)} separated by commas.
+ * The encoded string is parsed in one pass, and the decoded tags are cached by the encoded string, as the gray tags
+ * have few distinct values
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+final class FlowTagCodec {
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    private static final char TAG_SEPARATOR = ',';
+
+    private static final char PART_SEPARATOR = ':';
+
+    private static final DecodedTags EMPTY = new DecodedTags(Collections.emptyMap(), Collections.emptyMap());
+
+    private static final Map<String, DecodedTags> DECODED_TAGS_CACHE = new ConcurrentHashMap<>();
+
+    private FlowTagCodec() {
+    }
+
+    /**
+     * decode the tags, the result is cached by the encoded string
+     *
+     * @param encodeTags encoded tags
+     * @return decoded tags
+     * @throws IllegalArgumentException if a part of a tag is not a valid base64 string
+     */
+    static DecodedTags decode(String encodeTags) {
+        final DecodedTags cached = DECODED_TAGS_CACHE.get(encodeTags);
+        if (cached != null) {
+            return cached;
+        }
+        final DecodedTags decodedTags = parse(encodeTags);
+        if (DECODED_TAGS_CACHE.size() >= MAX_CACHE_SIZE) {
+            DECODED_TAGS_CACHE.clear();
+        }
+        DECODED_TAGS_CACHE.put(encodeTags, decodedTags);
+        return decodedTags;
+    }
+
+    private static DecodedTags parse(String encodeTags) {
+        final Map<String, String> values = new HashMap<>();
+        final int length = encodeTags.length();
+        int start = 0;
+        while (start < length) {
+            int end = encodeTags.indexOf(TAG_SEPARATOR, start);
+            if (end < 0) {
+                end = length;
+            }
+            parseTag(encodeTags, start, end, values);
+            start = end + 1;
+        }
+        if (values.isEmpty()) {
+            return EMPTY;
+        }
+        final Map<String, List<String>> tags = new HashMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            tags.put(entry.getKey(), Collections.singletonList(entry.getValue()));
+        }
+        return new DecodedTags(Collections.unmodifiableMap(values), Collections.unmodifiableMap(tags));
+    }
+
+    private static void parseTag(String encodeTags, int start, int end, Map<String, String> values) {
+        // the trailing separators are ignored, and a tag is only taken with exactly one separator left, the same as
+        // splitting the tag by the separator
+        int tagEnd = end;
+        while (tagEnd > start && encodeTags.charAt(tagEnd - 1) == PART_SEPARATOR) {
+            tagEnd--;
+        }
+        final int separator = encodeTags.indexOf(PART_SEPARATOR, start);
+        if (separator < 0 || separator >= tagEnd || encodeTags.lastIndexOf(PART_SEPARATOR, tagEnd - 1) != separator) {
+            return;
+        }
+        final String key = decodePart(encodeTags.substring(start, separator)).toLowerCase(Locale.ENGLISH);
+        values.put(key, decodePart(encodeTags.substring(separator + 1, tagEnd)));
+    }
+
+    private static String decodePart(String encodeString) {
+        return new String(DECODER.decode(encodeString), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decoded tags of an encoded string, which are shared by the requests carrying the same encoded string
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    static final class DecodedTags {
+        private final Map<String, String> values;
+
+        private final Map<String, List<String>> tags;
+
+        private DecodedTags(Map<String, String> values, Map<String, List<String>> tags) {
+            this.values = values;
+            this.tags = tags;
+        }
+
+        Map<String, String> getValues() {
+            return values;
+        }
+
+        Map<String, List<String>> getTags() {
+            return tags;
+        }
+    }
+
+    /**
+     * Read-only view of the attachments with the decoded tags laid over them, the attachments are not copied, and the
+     * decoded tags take precedence over the attachments of the same name
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    static final class OverlayAttachments extends AbstractMap<String, Object> {
+        private final Map<String, Object> attachments;
+
+        private final Map<String, String> values;
+
+        private Set<Entry<String, Object>> entrySet;
+
+        /**
+         * constructor
+         *
+         * @param attachments attachments
+         * @param values decoded tags
+         */
+        OverlayAttachments(Map<String, Object> attachments, Map<String, String> values) {
+            this.attachments = attachments;
+            this.values = values;
+        }
+
+        @Override
+        public Object get(Object key) {
+            final String value = values.get(key);
+            return value != null ? value : attachments.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return values.containsKey(key) || attachments.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new OverlayEntrySet();
+            }
+            return entrySet;
+        }
+
+        /**
+         * Entries of the decoded tags followed by the entries of the attachments not overridden
+         *
+         * @author daizhenyu
+         * @since 2024-10-15
+         */
+        private final class OverlayEntrySet extends AbstractSet<Entry<String, Object>> {
+            private int size = -1;
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new OverlayIterator();
+            }
+
+            @Override
+            public int size() {
+                if (size < 0) {
+                    int count = values.size();
+                    for (String key : attachments.keySet()) {
+                        if (!values.containsKey(key)) {
+                            count++;
+                        }
+                    }
+                    size = count;
+                }
+                return size;
+            }
+        }
+
+        /**
+         * Iterator of the overlay entries
+         *
+         * @author daizhenyu
+         * @since 2024-10-15
+         */
+        private final class OverlayIterator implements Iterator<Entry<String, Object>> {
+            private final Iterator<Entry<String, String>> valueIterator = values.entrySet().iterator();
+
+            private final Iterator<Entry<String, Object>> attachmentIterator = attachments.entrySet().iterator();
+
+            private Entry<String, Object> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                if (valueIterator.hasNext()) {
+                    final Entry<String, String> entry = valueIterator.next();
+                    next = new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+                    return true;
+                }
+                while (attachmentIterator.hasNext()) {
+                    final Entry<String, Object> entry = attachmentIterator.next();
+                    if (!values.containsKey(entry.getKey())) {
+                        next = new SimpleImmutableEntry<>(entry);
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Entry<String, Object> entry = next;
+                next = null;
+                return entry;
+            }
+        }
+    }
+}
@@ -18,8 +18,10 @@ package io.sermant.router.common.utils;
 
 import io.sermant.core.common.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -40,9 +42,34 @@ public class ReflectUtils {
 
     private static final Map<String, AccessibleObject> ACCESSIBLE_OBJECT_MAP = new ConcurrentHashMap<>();
 
-    private static final Map<String, Optional<Method>> METHOD_MAP = new ConcurrentHashMap<>();
+    private static final MethodType NONE_PARAMETER_TYPE = MethodType.methodType(Object.class, Object.class);
 
-    private static final int EXTRA_LENGTH_FOR_METHOD_KEY = 3;
+    private static final MethodType ONE_PARAMETER_TYPE = MethodType.methodType(Object.class, Object.class,
+            Object.class);
+
+    /**
+     * Method handles of the parameterless methods, the outer key is the class and the inner key is the method name. The
+     * handles are kept on the classes themselves, so they are looked up without building a key and are released with
+     * the class
+     */
+    private static final ClassValue<Map<String, Optional<MethodHandle>>> NONE_PARAMETER_METHODS =
+            new ClassValue<Map<String, Optional<MethodHandle>>>() {
+                @Override
+                protected Map<String, Optional<MethodHandle>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * Method handles of the methods with a parameter, keyed by the class, the method name and the parameter type
+     */
+    private static final ClassValue<Map<String, Map<Class<?>, Optional<MethodHandle>>>> ONE_PARAMETER_METHODS =
+            new ClassValue<Map<String, Map<Class<?>, Optional<MethodHandle>>>>() {
+                @Override
+                protected Map<String, Map<Class<?>, Optional<MethodHandle>>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
 
     private ReflectUtils() {
     }
@@ -113,27 +140,16 @@ public class ReflectUtils {
 
     private static Optional<Object> invoke(Class<?> invokeClass, Object obj, String name, Object parameter,
             Class<?> parameterClass) {
-        Optional<Method> method = METHOD_MAP.computeIfAbsent(buildMethodKey(invokeClass, name, parameterClass), key -> {
+        Optional<MethodHandle> handle = getMethodHandle(invokeClass, name, parameterClass);
+        if (handle.isPresent()) {
             try {
                 if (parameterClass == null) {
-                    return Optional.of(getAccessibleObject(invokeClass.getMethod(name)));
+                    return Optional.ofNullable((Object) handle.get().invokeExact(obj));
                 }
-                return Optional.of(getAccessibleObject(invokeClass.getMethod(name, parameterClass)));
-            } catch (NoSuchMethodException noSuchMethodException) {
-                // Due to version limitations, it is possible that methods may not be found,
-                // so these errors can be ignored
-                LOGGER.log(Level.WARNING, "Method {0} for class {1} is not found.",
-                        new Object[]{name, invokeClass.getCanonicalName()});
-            }
-            return Optional.empty();
-        });
-        if (method.isPresent()) {
-            try {
-                if (parameterClass == null) {
-                    return Optional.ofNullable(method.get().invoke(obj));
-                }
-                return Optional.ofNullable(method.get().invoke(obj, parameter));
-            } catch (IllegalAccessException | InvocationTargetException operationException) {
+                return Optional.ofNullable((Object) handle.get().invokeExact(obj, parameter));
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable throwable) {
                 // Due to version limitations, it is possible that methods may not be found,
                 // so these errors can be ignored
                 LOGGER.log(Level.WARNING, "Method {0} for class {1} is not found.",
@@ -143,17 +159,40 @@ public class ReflectUtils {
         return Optional.empty();
     }
 
-    private static String buildMethodKey(Class<?> clazz, String methodName, Class<?> parameterClass) {
-        String parameterClassName = "";
-        if (parameterClass != null) {
-            parameterClassName = parameterClass.getName();
+    private static Optional<MethodHandle> getMethodHandle(Class<?> invokeClass, String name,
+            Class<?> parameterClass) {
+        if (parameterClass == null) {
+            Map<String, Optional<MethodHandle>> handles = NONE_PARAMETER_METHODS.get(invokeClass);
+            Optional<MethodHandle> handle = handles.get(name);
+            return handle == null ? handles.computeIfAbsent(name, key -> findMethodHandle(invokeClass, name, null))
+                    : handle;
+        }
+        Map<String, Map<Class<?>, Optional<MethodHandle>>> methods = ONE_PARAMETER_METHODS.get(invokeClass);
+        Map<Class<?>, Optional<MethodHandle>> handles = methods.get(name);
+        if (handles == null) {
+            handles = methods.computeIfAbsent(name, key -> new ConcurrentHashMap<>());
         }
-        String className = clazz.getName();
+        Optional<MethodHandle> handle = handles.get(parameterClass);
+        return handle == null
+                ? handles.computeIfAbsent(parameterClass, key -> findMethodHandle(invokeClass, name, parameterClass))
+                : handle;
+    }
 
-        // Initialize the length of the StringBuilder for performance purposes
-        StringBuilder sb = new StringBuilder(
-                className.length() + methodName.length() + parameterClassName.length() + EXTRA_LENGTH_FOR_METHOD_KEY);
-        sb.append(className).append("#").append(methodName).append("(").append(parameterClassName).append(")");
-        return sb.toString();
+    private static Optional<MethodHandle> findMethodHandle(Class<?> invokeClass, String name,
+            Class<?> parameterClass) {
+        try {
+            if (parameterClass == null) {
+                Method method = getAccessibleObject(invokeClass.getMethod(name));
+                return Optional.of(MethodHandles.lookup().unreflect(method).asType(NONE_PARAMETER_TYPE));
+            }
+            Method method = getAccessibleObject(invokeClass.getMethod(name, parameterClass));
+            return Optional.of(MethodHandles.lookup().unreflect(method).asType(ONE_PARAMETER_TYPE));
+        } catch (NoSuchMethodException | IllegalAccessException exception) {
+            // Due to version limitations, it is possible that methods may not be found,
+            // so these errors can be ignored
+            LOGGER.log(Level.WARNING, "Method {0} for class {1} is not found.",
+                    new Object[]{name, invokeClass.getCanonicalName()});
+        }
+        return Optional.empty();
     }
 }
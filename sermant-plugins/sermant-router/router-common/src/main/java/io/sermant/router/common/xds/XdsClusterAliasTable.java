@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.common.xds;
+
+import io.sermant.core.service.xds.entity.XdsRouteAction.XdsClusterWeight;
+import io.sermant.core.service.xds.entity.XdsRouteAction.XdsWeightedClusters;
+import io.sermant.core.utils.CollectionUtils;
+import io.sermant.core.utils.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Alias table of the weighted clusters, a cluster is selected by two random numbers in constant time instead of
+ * scanning the cumulative weights. The selection probabilities are the same as scanning the clusters in order against
+ * the total weight, the part of the total weight not covered by the clusters selects no cluster
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ **/
+final class XdsClusterAliasTable {
+    private static final XdsClusterAliasTable EMPTY = new XdsClusterAliasTable(new String[0], new int[0], new int[0],
+            0);
+
+    private final String[] clusters;
+
+    private final int[] thresholds;
+
+    private final int[] aliases;
+
+    private final int totalWeight;
+
+    private XdsClusterAliasTable(String[] clusters, int[] thresholds, int[] aliases, int totalWeight) {
+        this.clusters = clusters;
+        this.thresholds = thresholds;
+        this.aliases = aliases;
+        this.totalWeight = totalWeight;
+    }
+
+    /**
+     * build the alias table of the weighted clusters
+     *
+     * @param weightedClusters weighted clusters
+     * @return alias table
+     */
+    static XdsClusterAliasTable build(XdsWeightedClusters weightedClusters) {
+        if (weightedClusters == null || CollectionUtils.isEmpty(weightedClusters.getClusters())
+                || weightedClusters.getTotalWeight() <= 0) {
+            return EMPTY;
+        }
+        final int total = weightedClusters.getTotalWeight();
+        final List<String> names = new ArrayList<>();
+        final List<Long> weights = new ArrayList<>();
+
+        // a cluster covers the random weights from the largest previous cumulative weight to its cumulative weight
+        long covered = 0L;
+        long cumulative = 0L;
+        for (XdsClusterWeight clusterWeight : weightedClusters.getClusters()) {
+            cumulative += clusterWeight.getWeight();
+            final long weight = Math.min(cumulative, total) - covered;
+            if (weight > 0) {
+                names.add(clusterWeight.getClusterName());
+                weights.add(weight);
+                covered += weight;
+            }
+        }
+        if (covered < total) {
+            names.add(StringUtils.EMPTY);
+            weights.add(total - covered);
+        }
+        return build(names, weights, total);
+    }
+
+    private static XdsClusterAliasTable build(List<String> names, List<Long> weights, int total) {
+        final int size = names.size();
+        final long[] scaledWeights = new long[size];
+        final int[] thresholds = new int[size];
+        final int[] aliases = new int[size];
+        final Deque<Integer> small = new ArrayDeque<>();
+        final Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            // every column holds the total weight, the weights are scaled by the column count to keep them integral
+            scaledWeights[i] = weights.get(i) * size;
+            aliases[i] = i;
+            if (scaledWeights[i] < total) {
+                small.push(i);
+            } else {
+                large.push(i);
+            }
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            final int less = small.pop();
+            final int more = large.pop();
+            thresholds[less] = (int) scaledWeights[less];
+            aliases[less] = more;
+            scaledWeights[more] -= total - scaledWeights[less];
+            if (scaledWeights[more] < total) {
+                small.push(more);
+            } else {
+                large.push(more);
+            }
+        }
+        while (!large.isEmpty()) {
+            thresholds[large.pop()] = total;
+        }
+        while (!small.isEmpty()) {
+            thresholds[small.pop()] = total;
+        }
+        return new XdsClusterAliasTable(names.toArray(new String[0]), thresholds, aliases, total);
+    }
+
+    /**
+     * select a cluster
+     *
+     * @param random random
+     * @return cluster name, empty if no cluster is selected
+     */
+    String select(Random random) {
+        if (clusters.length == 0) {
+            return StringUtils.EMPTY;
+        }
+        final int column = clusters.length == 1 ? 0 : random.nextInt(clusters.length);
+        if (thresholds[column] == totalWeight || random.nextInt(totalWeight) < thresholds[column]) {
+            return clusters[column];
+        }
+        return clusters[aliases[column]];
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.common.xds;
+
+import io.sermant.core.service.xds.entity.ServiceInstance;
+import io.sermant.core.service.xds.entity.XdsClusterLoadAssigment;
+import io.sermant.core.service.xds.entity.XdsLocality;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable instances of a cluster load assignment, the instances of the cluster and of each locality are collected
+ * once for every EDS update instead of for every request
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ **/
+final class XdsClusterInstances {
+    private final XdsClusterLoadAssigment loadAssigment;
+
+    private final Set<ServiceInstance> instances;
+
+    private final Map<XdsLocality, Set<ServiceInstance>> localityInstances;
+
+    private XdsClusterInstances(XdsClusterLoadAssigment loadAssigment, Set<ServiceInstance> instances,
+            Map<XdsLocality, Set<ServiceInstance>> localityInstances) {
+        this.loadAssigment = loadAssigment;
+        this.instances = instances;
+        this.localityInstances = localityInstances;
+    }
+
+    /**
+     * collect the instances of the cluster load assignment
+     *
+     * @param loadAssigment cluster load assignment
+     * @return cluster instances
+     */
+    static XdsClusterInstances build(XdsClusterLoadAssigment loadAssigment) {
+        final Map<XdsLocality, Set<ServiceInstance>> source = loadAssigment.getLocalityInstances();
+        if (source == null || source.isEmpty()) {
+            return new XdsClusterInstances(loadAssigment, Collections.emptySet(), Collections.emptyMap());
+        }
+        final Set<ServiceInstance> instances = new HashSet<>();
+        final Map<XdsLocality, Set<ServiceInstance>> localityInstances = new HashMap<>();
+        for (Map.Entry<XdsLocality, Set<ServiceInstance>> entry : source.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                continue;
+            }
+            instances.addAll(entry.getValue());
+            localityInstances.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<>(entry.getValue())));
+        }
+        return new XdsClusterInstances(loadAssigment, Collections.unmodifiableSet(instances),
+                Collections.unmodifiableMap(localityInstances));
+    }
+
+    /**
+     * whether the instances are collected from the cluster load assignment, the assignment is replaced by each EDS
+     * update
+     *
+     * @param clusterLoadAssigment cluster load assignment
+     * @return is collected from
+     */
+    boolean isBuiltFrom(XdsClusterLoadAssigment clusterLoadAssigment) {
+        return loadAssigment == clusterLoadAssigment;
+    }
+
+    Set<ServiceInstance> getInstances() {
+        return instances;
+    }
+
+    /**
+     * get the instances of the locality
+     *
+     * @param locality locality
+     * @return instances, empty if the locality has no instance
+     */
+    Set<ServiceInstance> getLocalityInstances(XdsLocality locality) {
+        return localityInstances.getOrDefault(locality, Collections.emptySet());
+    }
+}
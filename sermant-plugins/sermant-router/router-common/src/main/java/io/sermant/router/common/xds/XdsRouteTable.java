@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.common.xds;
+
+import io.sermant.core.service.xds.entity.XdsHeaderMatcher;
+import io.sermant.core.service.xds.entity.XdsPathMatcher;
+import io.sermant.core.service.xds.entity.XdsRoute;
+import io.sermant.core.service.xds.entity.XdsRouteAction;
+import io.sermant.core.service.xds.entity.XdsRouteMatch;
+import io.sermant.core.service.xds.entity.match.ExactMatchStrategy;
+import io.sermant.core.service.xds.entity.match.MatchStrategy;
+import io.sermant.core.service.xds.entity.match.PrefixMatchStrategy;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Route table compiled from the xDS routes of a service. The exact and prefix path matchers are kept in a path trie,
+ * so the routes whose path matches the request are found by walking the request path once, the other path matchers
+ * are tested one by one. The routes are kept in the configured order, the first route matching the request is selected
+ * as the linear scan of the routes does
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ **/
+final class XdsRouteTable {
+    private final List<XdsRoute> routes;
+
+    private final CompiledRoute[] compiledRoutes;
+
+    private final PathTrie caseSensitiveTrie = new PathTrie();
+
+    private final PathTrie caseInsensitiveTrie = new PathTrie();
+
+    private final BitSet otherPathRoutes = new BitSet();
+
+    private boolean hasCaseInsensitiveRoute;
+
+    private XdsRouteTable(List<XdsRoute> routes) {
+        this.routes = routes;
+        this.compiledRoutes = new CompiledRoute[routes.size()];
+    }
+
+    /**
+     * compile the routes of a service
+     *
+     * @param routes routes
+     * @return route table
+     */
+    static XdsRouteTable compile(List<XdsRoute> routes) {
+        final XdsRouteTable table = new XdsRouteTable(routes);
+        for (int i = 0; i < routes.size(); i++) {
+            final XdsRoute route = routes.get(i);
+            table.compiledRoutes[i] = new CompiledRoute(route);
+            table.addPathMatcher(route.getRouteMatch().getPathMatcher(), i);
+        }
+        return table;
+    }
+
+    private void addPathMatcher(XdsPathMatcher pathMatcher, int position) {
+        final MatchStrategy matchStrategy = pathMatcher == null ? null : pathMatcher.getMatchStrategy();
+        if (!(matchStrategy instanceof ExactMatchStrategy) && !(matchStrategy instanceof PrefixMatchStrategy)) {
+            otherPathRoutes.set(position);
+            return;
+        }
+        final PathTrie trie = pathMatcher.isCaseSensitive() ? caseSensitiveTrie : caseInsensitiveTrie;
+        hasCaseInsensitiveRoute |= !pathMatcher.isCaseSensitive();
+        if (matchStrategy instanceof ExactMatchStrategy) {
+            trie.add(((ExactMatchStrategy) matchStrategy).getExactValue(), false, position);
+        } else {
+            trie.add(((PrefixMatchStrategy) matchStrategy).getPrefix(), true, position);
+        }
+    }
+
+    /**
+     * whether the table is compiled from the routes, the routes are replaced by each RDS update
+     *
+     * @param serviceRoutes routes of the service
+     * @return is compiled from
+     */
+    boolean isCompiledFrom(List<XdsRoute> serviceRoutes) {
+        return routes == serviceRoutes;
+    }
+
+    /**
+     * select the first route matching the request path
+     *
+     * @param path request path
+     * @return matched route, null if no route is matched
+     */
+    CompiledRoute matchPath(String path) {
+        if (path == null) {
+            return null;
+        }
+        final int position = getPathMatchedRoutes(path).nextSetBit(0);
+        return position < 0 ? null : compiledRoutes[position];
+    }
+
+    /**
+     * select the first route matching the request headers
+     *
+     * @param headers request headers
+     * @return matched route, null if no route is matched
+     */
+    CompiledRoute matchHeaders(Map<String, String> headers) {
+        for (CompiledRoute compiledRoute : compiledRoutes) {
+            if (compiledRoute.isHeadersMatched(headers)) {
+                return compiledRoute;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * select the first route matching both the request path and headers
+     *
+     * @param path request path
+     * @param headers request headers
+     * @return matched route, null if no route is matched
+     */
+    CompiledRoute match(String path, Map<String, String> headers) {
+        if (path == null) {
+            return null;
+        }
+        final BitSet candidates = getPathMatchedRoutes(path);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (compiledRoutes[i].isHeadersMatched(headers)) {
+                return compiledRoutes[i];
+            }
+        }
+        return null;
+    }
+
+    private BitSet getPathMatchedRoutes(String path) {
+        final BitSet candidates = new BitSet(compiledRoutes.length);
+        caseSensitiveTrie.collect(path, candidates);
+        if (hasCaseInsensitiveRoute) {
+            caseInsensitiveTrie.collect(path.toLowerCase(Locale.ROOT), candidates);
+        }
+        for (int i = otherPathRoutes.nextSetBit(0); i >= 0; i = otherPathRoutes.nextSetBit(i + 1)) {
+            final XdsPathMatcher pathMatcher = compiledRoutes[i].route.getRouteMatch().getPathMatcher();
+            if (pathMatcher != null && pathMatcher.isMatch(path)) {
+                candidates.set(i);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Route with its header matchers and the alias table of its weighted clusters
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     **/
+    static final class CompiledRoute {
+        private static final XdsHeaderMatcher[] EMPTY_HEADER_MATCHERS = new XdsHeaderMatcher[0];
+
+        private final XdsRoute route;
+
+        private final XdsHeaderMatcher[] headerMatchers;
+
+        private final String cluster;
+
+        private final XdsClusterAliasTable weightedClusters;
+
+        CompiledRoute(XdsRoute route) {
+            this.route = route;
+            final XdsRouteMatch routeMatch = route.getRouteMatch();
+            final List<XdsHeaderMatcher> matchers = routeMatch.getHeaderMatchers();
+            this.headerMatchers = matchers == null ? EMPTY_HEADER_MATCHERS
+                    : matchers.toArray(EMPTY_HEADER_MATCHERS);
+            final XdsRouteAction routeAction = route.getRouteAction();
+            this.cluster = routeAction.getCluster();
+            this.weightedClusters = routeAction.isWeighted()
+                    ? XdsClusterAliasTable.build(routeAction.getWeightedClusters()) : null;
+        }
+
+        boolean isHeadersMatched(Map<String, String> headers) {
+            for (XdsHeaderMatcher headerMatcher : headerMatchers) {
+                if (!headerMatcher.isMatch(headers)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * select the cluster of the route
+         *
+         * @param random random used to select the weighted cluster
+         * @return cluster name
+         */
+        String selectCluster(Random random) {
+            return weightedClusters == null ? cluster : weightedClusters.select(random);
+        }
+
+        XdsRoute getRoute() {
+            return route;
+        }
+    }
+
+    /**
+     * Character trie of the exact and prefix paths, the routes are kept on the node of their path
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     **/
+    private static final class PathTrie {
+        private final Node root = new Node();
+
+        void add(String path, boolean isPrefix, int position) {
+            Node node = root;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), key -> new Node());
+            }
+            if (isPrefix) {
+                node.prefixRoutes.set(position);
+            } else {
+                node.exactRoutes.set(position);
+            }
+        }
+
+        void collect(String path, BitSet candidates) {
+            Node node = root;
+            for (int i = 0; i < path.length(); i++) {
+                candidates.or(node.prefixRoutes);
+                node = node.children.get(path.charAt(i));
+                if (node == null) {
+                    return;
+                }
+            }
+            candidates.or(node.prefixRoutes);
+            candidates.or(node.exactRoutes);
+        }
+    }
+
+    /**
+     * Node of the path trie
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     **/
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+
+        private final BitSet prefixRoutes = new BitSet();
+
+        private final BitSet exactRoutes = new BitSet();
+    }
+}
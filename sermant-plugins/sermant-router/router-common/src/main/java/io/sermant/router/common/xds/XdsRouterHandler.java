@@ -23,17 +23,10 @@ import io.sermant.core.service.xds.XdsRouteService;
 import io.sermant.core.service.xds.XdsServiceDiscovery;
 import io.sermant.core.service.xds.entity.ServiceInstance;
 import io.sermant.core.service.xds.entity.XdsClusterLoadAssigment;
-import io.sermant.core.service.xds.entity.XdsHeaderMatcher;
 import io.sermant.core.service.xds.entity.XdsLocality;
-import io.sermant.core.service.xds.entity.XdsPathMatcher;
 import io.sermant.core.service.xds.entity.XdsRoute;
-import io.sermant.core.service.xds.entity.XdsRouteAction;
-import io.sermant.core.service.xds.entity.XdsRouteAction.XdsClusterWeight;
-import io.sermant.core.service.xds.entity.XdsRouteAction.XdsWeightedClusters;
-import io.sermant.core.service.xds.entity.XdsRouteMatch;
-import io.sermant.core.utils.CollectionUtils;
-import io.sermant.core.utils.StringUtils;
 import io.sermant.router.common.utils.XdsRouterUtils;
+import io.sermant.router.common.xds.XdsRouteTable.CompiledRoute;
 
 import java.util.Collections;
 import java.util.List;
@@ -41,8 +34,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * XdsRouterHandler, filter service instances based on xDS routing rules
@@ -59,6 +52,10 @@ public enum XdsRouterHandler {
 
     private final Random random = new Random();
 
+    private final Map<String, XdsRouteTable> routeTables = new ConcurrentHashMap<>();
+
+    private final Map<String, XdsClusterInstances> clusterInstancesMap = new ConcurrentHashMap<>();
+
     private XdsRouteService routeService;
 
     private XdsServiceDiscovery serviceDiscovery;
@@ -115,24 +112,17 @@ public enum XdsRouterHandler {
             LOGGER.severe("xDS service not open for xDS routing.");
             return Collections.EMPTY_SET;
         }
-        List<XdsRoute> routes = routeService.getServiceRoute(serviceName);
-        XdsRoute matchedRoute = null;
-        boolean pathMatched = matchType == MatchType.PATH || matchType == MatchType.BOTH;
-        boolean headerMatched = matchType == MatchType.HEADER || matchType == MatchType.BOTH;
-        for (XdsRoute route : routes) {
-            XdsRouteMatch routeMatch = route.getRouteMatch();
-
-            // check path matching
-            if (pathMatched && !isPathMatched(routeMatch.getPathMatcher(), path)) {
-                continue;
-            }
-
-            // check head matching
-            if (headerMatched && !isHeadersMatched(routeMatch.getHeaderMatchers(), headers)) {
-                continue;
-            }
-            matchedRoute = route;
-            break;
+        XdsRouteTable routeTable = getRouteTable(serviceName);
+        CompiledRoute matchedRoute;
+        switch (matchType) {
+            case PATH:
+                matchedRoute = routeTable.matchPath(path);
+                break;
+            case HEADER:
+                matchedRoute = routeTable.matchHeaders(headers);
+                break;
+            default:
+                matchedRoute = routeTable.match(path, headers);
         }
 
         if (matchedRoute == null) {
@@ -141,13 +131,20 @@ public enum XdsRouterHandler {
         return handleXdsRoute(matchedRoute, serviceName);
     }
 
-    private Set<ServiceInstance> handleXdsRoute(XdsRoute route, String serviceName) {
-        // select cluster
-        XdsRouteAction routeAction = route.getRouteAction();
-        String cluster = routeAction.getCluster();
-        if (routeAction.isWeighted()) {
-            cluster = selectClusterByWeight(routeAction.getWeightedClusters());
+    private XdsRouteTable getRouteTable(String serviceName) {
+        // the routes are replaced by each RDS update, the table is compiled again once the routes are replaced
+        List<XdsRoute> routes = routeService.getServiceRoute(serviceName);
+        XdsRouteTable routeTable = routeTables.get(serviceName);
+        if (routeTable == null || !routeTable.isCompiledFrom(routes)) {
+            routeTable = XdsRouteTable.compile(routes);
+            routeTables.put(serviceName, routeTable);
         }
+        return routeTable;
+    }
+
+    private Set<ServiceInstance> handleXdsRoute(CompiledRoute route, String serviceName) {
+        // select cluster
+        String cluster = route.selectCluster(random);
 
         // get service instance of cluster
         Optional<XdsClusterLoadAssigment> loadAssigmentOptional =
@@ -156,65 +153,35 @@ public enum XdsRouterHandler {
             return serviceDiscovery.getServiceInstance(serviceName);
         }
         XdsClusterLoadAssigment clusterLoadAssigment = loadAssigmentOptional.get();
+        XdsClusterInstances clusterInstances = getClusterInstances(cluster, clusterLoadAssigment);
 
         if (!routeService.isLocalityRoute(clusterLoadAssigment.getClusterName())) {
-            Set<ServiceInstance> serviceInstances = getServiceInstanceOfCluster(clusterLoadAssigment);
+            Set<ServiceInstance> serviceInstances = clusterInstances.getInstances();
             return serviceInstances.isEmpty() ? serviceDiscovery.getServiceInstance(serviceName) : serviceInstances;
         }
 
         // get locality info of self-service and route by locality
         Optional<XdsLocality> localityInfoOfSelfService = XdsRouterUtils.getLocalityInfoOfSelfService();
         if (localityInfoOfSelfService.isPresent()) {
-            Set<ServiceInstance> serviceInstances = getServiceInstanceOfLocalityCluster(clusterLoadAssigment,
-                    localityInfoOfSelfService.get());
+            Set<ServiceInstance> serviceInstances =
+                    clusterInstances.getLocalityInstances(localityInfoOfSelfService.get());
             if (!serviceInstances.isEmpty()) {
                 return serviceInstances;
             }
         }
 
-        Set<ServiceInstance> serviceInstances = getServiceInstanceOfCluster(clusterLoadAssigment);
+        Set<ServiceInstance> serviceInstances = clusterInstances.getInstances();
         return serviceInstances.isEmpty() ? serviceDiscovery.getServiceInstance(serviceName) : serviceInstances;
     }
 
-    private Set<ServiceInstance> getServiceInstanceOfLocalityCluster(XdsClusterLoadAssigment clusterLoadAssigment,
-            XdsLocality locality) {
-        return clusterLoadAssigment.getLocalityInstances().entrySet().stream()
-                .filter(xdsLocalitySetEntry -> xdsLocalitySetEntry.getKey().equals(locality))
-                .flatMap(xdsLocalitySetEntry -> xdsLocalitySetEntry.getValue().stream())
-                .collect(Collectors.toSet());
-    }
-
-    private Set<ServiceInstance> getServiceInstanceOfCluster(XdsClusterLoadAssigment clusterLoadAssigment) {
-        return clusterLoadAssigment.getLocalityInstances().entrySet().stream()
-                .flatMap(instanceEntry -> instanceEntry.getValue().stream())
-                .collect(Collectors.toSet());
-    }
-
-    private boolean isPathMatched(XdsPathMatcher matcher, String path) {
-        return matcher.isMatch(path);
-    }
-
-    private boolean isHeadersMatched(List<XdsHeaderMatcher> matchers, Map<String, String> headers) {
-        return matchers.stream()
-                .allMatch(xdsHeaderMatcher -> xdsHeaderMatcher.isMatch(headers));
-    }
-
-    private String selectClusterByWeight(XdsWeightedClusters weightedClusters) {
-        List<XdsClusterWeight> clusters = weightedClusters.getClusters();
-        int totalWeight = weightedClusters.getTotalWeight();
-        if (CollectionUtils.isEmpty(clusters) || totalWeight == 0) {
-            return StringUtils.EMPTY;
-        }
-        int randomWeight = random.nextInt(totalWeight);
-
-        int currentWeight = 0;
-        for (XdsClusterWeight clusterWeight : clusters) {
-            currentWeight += clusterWeight.getWeight();
-            if (randomWeight < currentWeight) {
-                return clusterWeight.getClusterName();
-            }
+    private XdsClusterInstances getClusterInstances(String cluster, XdsClusterLoadAssigment clusterLoadAssigment) {
+        // the load assignment is replaced by each EDS update, the instances are collected again once it is replaced
+        XdsClusterInstances clusterInstances = clusterInstancesMap.get(cluster);
+        if (clusterInstances == null || !clusterInstances.isBuiltFrom(clusterLoadAssigment)) {
+            clusterInstances = XdsClusterInstances.build(clusterLoadAssigment);
+            clusterInstancesMap.put(cluster, clusterInstances);
         }
-        return StringUtils.EMPTY;
+        return clusterInstances;
     }
 
     /**
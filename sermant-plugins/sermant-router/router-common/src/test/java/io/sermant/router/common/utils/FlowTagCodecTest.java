@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * FlowTagCodecTest, the decoded tags are compared with splitting the encoded string
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class FlowTagCodecTest {
+    private static final String VERSION = encode("Version") + ":" + encode("1.0.0");
+
+    private static final String GROUP = encode("group") + ":" + encode("gray");
+
+    @Test
+    public void testDecodeSameAsSplit() {
+        String[] encodeTags = {
+            VERSION,
+            VERSION + "," + GROUP,
+            VERSION + ",," + GROUP + ",",
+            VERSION + ":",
+            VERSION + "::," + GROUP,
+            VERSION + ":" + encode("x"),
+            ":" + encode("value"),
+            encode("key") + ":",
+            ":::",
+            ",",
+            GROUP + "," + encode("group") + ":" + encode("blue")
+        };
+        for (String encodeTag : encodeTags) {
+            Assert.assertEquals(encodeTag, splitDecode(encodeTag), FlowContextUtils.decodeTags(encodeTag));
+        }
+    }
+
+    @Test
+    public void testDecodeCached() {
+        Map<String, List<String>> tags = FlowContextUtils.decodeTags(VERSION);
+        Assert.assertEquals(Collections.singletonList("1.0.0"), tags.get("version"));
+
+        // the returned map is owned by the caller
+        tags.put("zone", Collections.singletonList("az1"));
+        Assert.assertFalse(FlowContextUtils.decodeTags(VERSION).containsKey("zone"));
+        Assert.assertSame(FlowTagCodec.decode(VERSION), FlowTagCodec.decode(VERSION));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalid() {
+        FlowContextUtils.decodeTags("a*b:c");
+    }
+
+    @Test
+    public void testOverlayAttachments() {
+        Map<String, Object> attachments = new HashMap<>();
+        attachments.put("x-sermant-tag", VERSION + "," + GROUP);
+        attachments.put("group", "blue");
+        attachments.put("app", "foo");
+        Map<String, Object> overlay = new FlowTagCodec.OverlayAttachments(attachments,
+                FlowTagCodec.decode(VERSION + "," + GROUP).getValues());
+
+        Map<String, Object> expected = new HashMap<>(attachments);
+        expected.put("version", "1.0.0");
+        expected.put("group", "gray");
+        Assert.assertEquals(expected, overlay);
+        Assert.assertEquals(expected.size(), overlay.size());
+        Assert.assertEquals(expected, new HashMap<>(overlay));
+        Assert.assertEquals("gray", overlay.get("group"));
+        Assert.assertEquals("foo", overlay.get("app"));
+        Assert.assertTrue(overlay.containsKey("version"));
+        Assert.assertNull(overlay.get("zone"));
+        try {
+            overlay.put("zone", "az1");
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+            // the view is read-only
+        }
+        try {
+            overlay.entrySet().iterator().next().setValue("az1");
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+            // the entries are read-only
+        }
+        Assert.assertEquals("blue", attachments.get("group"));
+    }
+
+    private Map<String, List<String>> splitDecode(String encodeTags) {
+        Map<String, List<String>> tagMapping = new HashMap<>();
+        for (String tag : encodeTags.split(",")) {
+            String[] parts = tag.split(":");
+            if (parts.length != 2) {
+                continue;
+            }
+            List<String> list = new ArrayList<>();
+            list.add(decode(parts[1]));
+            tagMapping.put(decode(parts[0]).toLowerCase(Locale.ENGLISH), list);
+        }
+        return tagMapping;
+    }
+
+    private static String decode(String value) {
+        return new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.common.xds;
+
+import io.sermant.core.service.xds.entity.XdsRouteAction.XdsClusterWeight;
+import io.sermant.core.service.xds.entity.XdsRouteAction.XdsWeightedClusters;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * XdsClusterAliasTableTest
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ **/
+public class XdsClusterAliasTableTest {
+    private static final int SELECT_COUNT = 100000;
+
+    private static final double DEVIATION = 0.01D;
+
+    @Test
+    public void testSelectByWeight() {
+        assertProbability(buildWeightedClusters(100, 10, 30, 60));
+        assertProbability(buildWeightedClusters(100, 1, 99));
+    }
+
+    @Test
+    public void testSelectWithUncoveredWeight() {
+        // the clusters cover less than the total weight, the rest selects no cluster
+        assertProbability(buildWeightedClusters(100, 20, 30));
+
+        // the clusters exceed the total weight, the clusters out of the total weight are not selected
+        assertProbability(buildWeightedClusters(100, 70, 50, 40));
+    }
+
+    @Test
+    public void testSelectWithoutCluster() {
+        Assert.assertEquals("", XdsClusterAliasTable.build(null).select(new Random()));
+        Assert.assertEquals("", XdsClusterAliasTable.build(buildWeightedClusters(0, 10)).select(new Random()));
+        XdsWeightedClusters weightedClusters = buildWeightedClusters(100);
+        weightedClusters.setClusters(Collections.emptyList());
+        Assert.assertEquals("", XdsClusterAliasTable.build(weightedClusters).select(new Random()));
+        Assert.assertEquals("cluster0",
+                XdsClusterAliasTable.build(buildWeightedClusters(100, 100)).select(new Random()));
+    }
+
+    private void assertProbability(XdsWeightedClusters weightedClusters) {
+        XdsClusterAliasTable aliasTable = XdsClusterAliasTable.build(weightedClusters);
+        Random random = new Random(SELECT_COUNT);
+        Map<String, Integer> actual = new HashMap<>();
+        for (int i = 0; i < SELECT_COUNT; i++) {
+            actual.merge(aliasTable.select(random), 1, Integer::sum);
+        }
+
+        // the expected probabilities are the ones of scanning the cumulative weights
+        Map<String, Integer> expected = new HashMap<>();
+        int totalWeight = weightedClusters.getTotalWeight();
+        for (int randomWeight = 0; randomWeight < totalWeight; randomWeight++) {
+            expected.merge(scan(weightedClusters, randomWeight), 1, Integer::sum);
+        }
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            Assert.assertEquals((double) entry.getValue() / totalWeight,
+                    (double) actual.get(entry.getKey()) / SELECT_COUNT, DEVIATION);
+        }
+    }
+
+    private String scan(XdsWeightedClusters weightedClusters, int randomWeight) {
+        int currentWeight = 0;
+        for (XdsClusterWeight clusterWeight : weightedClusters.getClusters()) {
+            currentWeight += clusterWeight.getWeight();
+            if (randomWeight < currentWeight) {
+                return clusterWeight.getClusterName();
+            }
+        }
+        return "";
+    }
+
+    private XdsWeightedClusters buildWeightedClusters(int totalWeight, int... weights) {
+        List<XdsClusterWeight> clusters = new ArrayList<>();
+        for (int i = 0; i < weights.length; i++) {
+            XdsClusterWeight clusterWeight = new XdsClusterWeight();
+            clusterWeight.setClusterName("cluster" + i);
+            clusterWeight.setWeight(weights[i]);
+            clusters.add(clusterWeight);
+        }
+        XdsWeightedClusters weightedClusters = new XdsWeightedClusters();
+        weightedClusters.setClusters(clusters);
+        weightedClusters.setTotalWeight(totalWeight);
+        return weightedClusters;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.common.xds;
+
+import io.sermant.core.service.xds.entity.XdsHeaderMatcher;
+import io.sermant.core.service.xds.entity.XdsPathMatcher;
+import io.sermant.core.service.xds.entity.XdsRoute;
+import io.sermant.core.service.xds.entity.XdsRouteAction;
+import io.sermant.core.service.xds.entity.XdsRouteMatch;
+import io.sermant.core.service.xds.entity.match.ExactMatchStrategy;
+import io.sermant.core.service.xds.entity.match.PrefixMatchStrategy;
+import io.sermant.core.service.xds.entity.match.PresentMatchStrategy;
+import io.sermant.core.service.xds.entity.match.SuffixMatchStrategy;
+import io.sermant.router.common.xds.XdsRouteTable.CompiledRoute;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * XdsRouteTableTest, the matched routes are compared with testing the routes one by one
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ **/
+public class XdsRouteTableTest {
+    private static final int ROUTE_COUNT = 200;
+
+    private static final int REQUEST_COUNT = 5000;
+
+    private static final String HEADER_KEY = "version";
+
+    @Test
+    public void testMatchSameAsLinearScan() {
+        Random random = new Random(ROUTE_COUNT);
+        List<XdsRoute> routes = new ArrayList<>();
+        for (int i = 0; i < ROUTE_COUNT; i++) {
+            routes.add(buildRoute(random, i));
+        }
+        XdsRouteTable routeTable = XdsRouteTable.compile(routes);
+        Assert.assertTrue(routeTable.isCompiledFrom(routes));
+        Assert.assertFalse(routeTable.isCompiledFrom(new ArrayList<>(routes)));
+        int matchedCount = 0;
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            String path = buildPath(random);
+            Map<String, String> headers = new HashMap<>();
+            if (random.nextBoolean()) {
+                headers.put(HEADER_KEY, "v" + random.nextInt(3));
+            }
+            XdsRoute expected = scan(routes, path, headers, true, true);
+            Assert.assertSame(expected, getRoute(routeTable.match(path, headers)));
+            Assert.assertSame(scan(routes, path, headers, true, false), getRoute(routeTable.matchPath(path)));
+            Assert.assertSame(scan(routes, path, headers, false, true), getRoute(routeTable.matchHeaders(headers)));
+            matchedCount += expected == null ? 0 : 1;
+        }
+        Assert.assertTrue(matchedCount > 0);
+    }
+
+    @Test
+    public void testMatchPath() {
+        List<XdsRoute> routes = new ArrayList<>();
+        routes.add(buildRoute(new XdsPathMatcher(new ExactMatchStrategy("/api/v1"), true), "exact"));
+        routes.add(buildRoute(new XdsPathMatcher(new PrefixMatchStrategy("/api/v1"), true), "prefix"));
+        routes.add(buildRoute(new XdsPathMatcher(new PrefixMatchStrategy("/case"), false), "case"));
+        routes.add(buildRoute(new XdsPathMatcher(new PrefixMatchStrategy(""), true), "root"));
+        XdsRouteTable routeTable = XdsRouteTable.compile(routes);
+        Assert.assertEquals("exact", routeTable.matchPath("/api/v1").selectCluster(new Random()));
+        Assert.assertEquals("prefix", routeTable.matchPath("/api/v1/users").selectCluster(new Random()));
+        Assert.assertEquals("case", routeTable.matchPath("/CASE/a").selectCluster(new Random()));
+        Assert.assertEquals("root", routeTable.matchPath("/api").selectCluster(new Random()));
+        Assert.assertNull(routeTable.matchPath(null));
+        Assert.assertNull(XdsRouteTable.compile(Collections.emptyList()).matchPath("/api"));
+    }
+
+    private XdsRoute getRoute(CompiledRoute compiledRoute) {
+        return compiledRoute == null ? null : compiledRoute.getRoute();
+    }
+
+    private XdsRoute scan(List<XdsRoute> routes, String path, Map<String, String> headers, boolean isPathMatched,
+            boolean isHeaderMatched) {
+        for (XdsRoute route : routes) {
+            XdsRouteMatch routeMatch = route.getRouteMatch();
+            if (isPathMatched && !routeMatch.getPathMatcher().isMatch(path)) {
+                continue;
+            }
+            if (isHeaderMatched && !routeMatch.getHeaderMatchers().stream()
+                    .allMatch(headerMatcher -> headerMatcher.isMatch(headers))) {
+                continue;
+            }
+            return route;
+        }
+        return null;
+    }
+
+    private XdsRoute buildRoute(Random random, int position) {
+        boolean caseSensitive = random.nextInt(4) != 0;
+        String path = buildPath(random);
+        if (!caseSensitive) {
+            path = path.toLowerCase(Locale.ROOT);
+        }
+        XdsPathMatcher pathMatcher;
+        switch (random.nextInt(4)) {
+            case 0:
+                pathMatcher = new XdsPathMatcher(new ExactMatchStrategy(path), caseSensitive);
+                break;
+            case 1:
+                pathMatcher = new XdsPathMatcher(new SuffixMatchStrategy(path.substring(path.length() - 2)),
+                        caseSensitive);
+                break;
+            default:
+                pathMatcher = new XdsPathMatcher(new PrefixMatchStrategy(path.substring(0,
+                        random.nextInt(path.length() + 1))), caseSensitive);
+        }
+        XdsRoute route = buildRoute(pathMatcher, "cluster" + position);
+        List<XdsHeaderMatcher> headerMatchers = new ArrayList<>();
+        int headerKind = random.nextInt(4);
+        if (headerKind == 0) {
+            headerMatchers.add(new XdsHeaderMatcher(HEADER_KEY, new ExactMatchStrategy("v" + random.nextInt(3))));
+        } else if (headerKind == 1) {
+            headerMatchers.add(new XdsHeaderMatcher(HEADER_KEY, new PresentMatchStrategy()));
+        }
+        route.getRouteMatch().setHeaderMatchers(headerMatchers);
+        return route;
+    }
+
+    private XdsRoute buildRoute(XdsPathMatcher pathMatcher, String cluster) {
+        XdsRouteMatch routeMatch = new XdsRouteMatch();
+        routeMatch.setPathMatcher(pathMatcher);
+        routeMatch.setHeaderMatchers(Collections.emptyList());
+        XdsRouteAction routeAction = new XdsRouteAction();
+        routeAction.setCluster(cluster);
+        XdsRoute route = new XdsRoute();
+        route.setName(cluster);
+        route.setRouteMatch(routeMatch);
+        route.setRouteAction(routeAction);
+        return route;
+    }
+
+    private String buildPath(Random random) {
+        StringBuilder path = new StringBuilder();
+        for (int i = random.nextInt(3); i >= 0; i--) {
+            path.append(random.nextBoolean() ? "/Api" : "/api").append(random.nextInt(3));
+        }
+        return path.toString();
+    }
+}
@@ -20,6 +20,7 @@ import io.sermant.router.config.entity.RouterConfiguration;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Configure caching
@@ -30,6 +31,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ConfigCache {
     private static final Map<String, RouterConfiguration> LABEL_CACHE = new ConcurrentHashMap<>();
 
+    private static final AtomicLong VERSION = new AtomicLong();
+
     private ConfigCache() {
     }
 
@@ -52,4 +55,20 @@ public class ConfigCache {
         }
         return configuration;
     }
+
+    /**
+     * Obtain the version of the routing rules, the results cached on the rules are invalid once the version changes
+     *
+     * @return version
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
+    /**
+     * Increase the version after the routing rules change
+     */
+    public static void refreshVersion() {
+        VERSION.incrementAndGet();
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.config.cache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Inverted index of the instance metadata, which maps a tag to the bitset of the instances having it, so that the
+ * instances are selected by the bit operations instead of reading the metadata of each instance. The index is built
+ * on the first query, and the metadata of the instances kept from the previous index is not obtained again. The
+ * bitsets returned must not be modified
+ *
+ * @param <I> Instance generics
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class InstanceTagIndex<I> {
+    private static final BitSet EMPTY = new BitSet();
+
+    private final Object[] instances;
+
+    private final Function<I, Map<String, String>> mapper;
+
+    private InstanceTagIndex<I> previous;
+
+    private Map<Object, Map<String, String>> metadata;
+
+    /**
+     * Instances of each tag key and value
+     */
+    private Map<String, Map<String, BitSet>> valueIndex;
+
+    /**
+     * Instances containing each tag key
+     */
+    private Map<String, BitSet> keyIndex;
+
+    /**
+     * Instances of each tag key whose value is not null
+     */
+    private Map<String, BitSet> nonNullIndex;
+
+    private volatile boolean built;
+
+    /**
+     * Constructor
+     *
+     * @param instances Instances
+     * @param mapper Methods to obtain metadata
+     * @param previous Index of the previous instances, null if not exists
+     */
+    public InstanceTagIndex(Object[] instances, Function<I, Map<String, String>> mapper,
+            InstanceTagIndex<I> previous) {
+        this.instances = instances;
+        this.mapper = mapper;
+
+        // Only the metadata of a built index is reused, so that the indexes never queried are not chained
+        this.previous = previous != null && previous.built ? previous : null;
+    }
+
+    /**
+     * Obtain the instances whose tag is the value
+     *
+     * @param key Tag key
+     * @param value Tag value, null for the instances without the value
+     * @return Instances
+     */
+    public BitSet getInstances(String key, String value) {
+        build();
+        if (value == null) {
+            final BitSet result = newFullBitSet();
+            result.andNot(nonNullIndex.getOrDefault(key, EMPTY));
+            return result;
+        }
+        final Map<String, BitSet> values = valueIndex.get(key);
+        return values == null ? EMPTY : values.getOrDefault(value, EMPTY);
+    }
+
+    /**
+     * Obtain the instances containing the tag key
+     *
+     * @param key Tag key
+     * @return Instances
+     */
+    public BitSet getKeyInstances(String key) {
+        build();
+        return keyIndex.getOrDefault(key, EMPTY);
+    }
+
+    /**
+     * Build a bitset of all the instances
+     *
+     * @return Instances
+     */
+    public BitSet newFullBitSet() {
+        final BitSet result = new BitSet(instances.length);
+        result.set(0, instances.length);
+        return result;
+    }
+
+    /**
+     * Obtain the instances of the bitset, in the order of the instances
+     *
+     * @param bitSet Instances
+     * @return Instances
+     */
+    public List<I> toList(BitSet bitSet) {
+        if (bitSet.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final List<I> result = new ArrayList<>(bitSet.cardinality());
+        for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+            result.add((I) instances[i]);
+        }
+        return result;
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        synchronized (this) {
+            if (built) {
+                return;
+            }
+            final Map<Object, Map<String, String>> currentMetadata = new IdentityHashMap<>(instances.length);
+            final Map<String, Map<String, BitSet>> currentValueIndex = new HashMap<>();
+            final Map<String, BitSet> currentKeyIndex = new HashMap<>();
+            final Map<String, BitSet> currentNonNullIndex = new HashMap<>();
+            for (int i = 0; i < instances.length; i++) {
+                final Map<String, String> instanceMetadata = getMetadata((I) instances[i]);
+                currentMetadata.put(instances[i], instanceMetadata);
+                for (Map.Entry<String, String> entry : instanceMetadata.entrySet()) {
+                    final String key = entry.getKey();
+                    currentKeyIndex.computeIfAbsent(key, name -> new BitSet(instances.length)).set(i);
+                    if (entry.getValue() == null) {
+                        continue;
+                    }
+                    currentNonNullIndex.computeIfAbsent(key, name -> new BitSet(instances.length)).set(i);
+                    currentValueIndex.computeIfAbsent(key, name -> new HashMap<>())
+                            .computeIfAbsent(entry.getValue(), value -> new BitSet(instances.length)).set(i);
+                }
+            }
+            metadata = currentMetadata;
+            valueIndex = currentValueIndex;
+            keyIndex = currentKeyIndex;
+            nonNullIndex = currentNonNullIndex;
+            previous = null;
+            built = true;
+        }
+    }
+
+    private Map<String, String> getMetadata(I instance) {
+        if (previous != null) {
+            final Map<String, String> instanceMetadata = previous.metadata.get(instance);
+            if (instanceMetadata != null) {
+                return instanceMetadata;
+            }
+        }
+        if (mapper == null || instance == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> instanceMetadata = mapper.apply(instance);
+        return instanceMetadata == null ? Collections.emptyMap() : instanceMetadata;
+    }
+}
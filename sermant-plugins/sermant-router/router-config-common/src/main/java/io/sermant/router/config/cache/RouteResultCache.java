@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.config.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of the routing results. The results are kept on a snapshot of the instances, which is rebuilt once the
+ * registry notifies a different instance list or the routing rules change. The instances are compared by reference, so
+ * the lists rebuilt with the same instances still hit the cache. A service keeps a snapshot for each of its instance
+ * lists, such as the ones of the interfaces of a dubbo application, and a new list replaces the snapshot it shares
+ * instances with, so the snapshots of the instances gone are not kept. Each snapshot also carries the tag index of its
+ * instances, which is carried over to the next snapshot
+ *
+ * @param <I> Instance generics
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class RouteResultCache<I> {
+    private static final int MAX_SERVICE_SIZE = 512;
+
+    private static final int MAX_SNAPSHOT_SIZE = 128;
+
+    private static final int MAX_RESULT_SIZE = 256;
+
+    private final Map<String, ServiceSnapshots<I>> services = new ConcurrentHashMap<>();
+
+    private final Function<I, Map<String, String>> mapper;
+
+    /**
+     * Constructor
+     *
+     * @param mapper Methods to obtain metadata
+     */
+    public RouteResultCache(Function<I, Map<String, String>> mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Obtain the routing result, which is computed and kept if it is not cached. The tags of the key must not be
+     * modified after routing
+     *
+     * @param serviceName Service name
+     * @param instances List of instances
+     * @param key Key of the routing result
+     * @param loader Method to compute the routing result on the tag index of the instances
+     * @return The instances selected, an immutable list or the instances themselves
+     */
+    public List<I> getOrCompute(String serviceName, List<I> instances, RouteKey key,
+            Function<InstanceTagIndex<I>, List<I>> loader) {
+        if (instances.isEmpty()) {
+            return loader.apply(new InstanceTagIndex<>(instances.toArray(), mapper, null));
+        }
+        final long version = ConfigCache.getVersion();
+        ServiceSnapshots<I> serviceSnapshots = services.get(serviceName);
+        if (serviceSnapshots == null) {
+            if (services.size() >= MAX_SERVICE_SIZE) {
+                services.clear();
+            }
+            serviceSnapshots = services.computeIfAbsent(serviceName, name -> new ServiceSnapshots<>());
+        }
+        InstanceSnapshot<I> snapshot = serviceSnapshots.get(instances, version);
+        if (snapshot == null) {
+            snapshot = serviceSnapshots.update(instances, version, mapper);
+        }
+        final List<I> cached = snapshot.results.get(key);
+        if (cached != null) {
+            return cached == snapshot.allInstances ? instances : cached;
+        }
+        final List<I> result = loader.apply(snapshot.index);
+        final List<I> stored = result == instances ? snapshot.allInstances : Collections.unmodifiableList(result);
+        if (snapshot.results.size() < MAX_RESULT_SIZE) {
+            snapshot.results.put(key, stored);
+        }
+        return stored == snapshot.allInstances ? instances : stored;
+    }
+
+    /**
+     * Obtain the number of the instance snapshots kept for a service
+     *
+     * @param serviceName Service name
+     * @return number of the snapshots
+     */
+    int getSnapshotSize(String serviceName) {
+        final ServiceSnapshots<I> serviceSnapshots = services.get(serviceName);
+        return serviceSnapshots == null ? 0 : serviceSnapshots.snapshots.size();
+    }
+
+    /**
+     * Key of a routing result
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    public static class RouteKey {
+        private final Object strategy;
+
+        private final Object tags;
+
+        private final boolean isReturnAllInstancesWhenMismatch;
+
+        private final int hash;
+
+        /**
+         * Constructor
+         *
+         * @param strategy Strategy to match the instances, compared by reference
+         * @param tags Label
+         * @param isReturnAllInstancesWhenMismatch If there is no match, whether to return all instances
+         */
+        public RouteKey(Object strategy, Object tags, boolean isReturnAllInstancesWhenMismatch) {
+            this.strategy = strategy;
+            this.tags = tags;
+            this.isReturnAllInstancesWhenMismatch = isReturnAllInstancesWhenMismatch;
+            this.hash = 31 * (31 * System.identityHashCode(strategy) + Objects.hashCode(tags))
+                    + Boolean.hashCode(isReturnAllInstancesWhenMismatch);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RouteKey)) {
+                return false;
+            }
+            final RouteKey that = (RouteKey) obj;
+            return hash == that.hash && strategy == that.strategy
+                    && isReturnAllInstancesWhenMismatch == that.isReturnAllInstancesWhenMismatch
+                    && Objects.equals(tags, that.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Instance snapshots of a service, one for each of its instance lists. The snapshots are replaced as a whole when
+     * one of them is updated, so the lookups need no lock
+     *
+     * @param <I> Instance generics
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    private static class ServiceSnapshots<I> {
+        private volatile List<InstanceSnapshot<I>> snapshots = Collections.emptyList();
+
+        InstanceSnapshot<I> get(List<I> instances, long version) {
+            final Object firstInstance = instances.get(0);
+            for (InstanceSnapshot<I> snapshot : snapshots) {
+                if (snapshot.instances[0] == firstInstance) {
+                    return snapshot.version == version && snapshot.isSame(instances) ? snapshot : null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Take a snapshot of the instances, which replaces the snapshots sharing instances with it, the oldest
+         * snapshot is dropped if there are too many
+         *
+         * @param instances List of instances
+         * @param version Version of the routing rules
+         * @param mapper Methods to obtain metadata
+         * @return snapshot
+         */
+        synchronized InstanceSnapshot<I> update(List<I> instances, long version,
+                Function<I, Map<String, String>> mapper) {
+            final InstanceSnapshot<I> current = get(instances, version);
+            if (current != null) {
+                return current;
+            }
+            final Set<Object> instanceSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            instanceSet.addAll(instances);
+            final List<InstanceSnapshot<I>> updated = new ArrayList<>(snapshots.size() + 1);
+            InstanceSnapshot<I> previous = null;
+            for (InstanceSnapshot<I> snapshot : snapshots) {
+                if (!snapshot.isOverlapped(instanceSet)) {
+                    updated.add(snapshot);
+                } else if (previous == null) {
+                    previous = snapshot;
+                }
+            }
+            if (updated.size() >= MAX_SNAPSHOT_SIZE) {
+                updated.remove(0);
+            }
+            final InstanceSnapshot<I> snapshot = new InstanceSnapshot<>(instances, version, mapper, previous);
+            updated.add(snapshot);
+            snapshots = updated;
+            return snapshot;
+        }
+    }
+
+    /**
+     * Instances notified by the registry and the routing results on them
+     *
+     * @param <I> Instance generics
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    private static class InstanceSnapshot<I> {
+        private final Object[] instances;
+
+        private final long version;
+
+        private final InstanceTagIndex<I> index;
+
+        private final Map<RouteKey, List<I>> results = new ConcurrentHashMap<>();
+
+        /**
+         * Marks the results which are all the instances, the instances of the caller are returned for them
+         */
+        private final List<I> allInstances = Collections.unmodifiableList(new ArrayList<>());
+
+        InstanceSnapshot(List<I> instances, long version, Function<I, Map<String, String>> mapper,
+                InstanceSnapshot<I> previous) {
+            this.instances = instances.toArray();
+            this.version = version;
+            if (previous == null) {
+                this.index = new InstanceTagIndex<>(this.instances, mapper, null);
+            } else if (previous.isSame(instances)) {
+                // Only the rules have changed, the index is still valid
+                this.index = previous.index;
+            } else {
+                this.index = new InstanceTagIndex<>(this.instances, mapper, previous.index);
+            }
+        }
+
+        boolean isSame(List<I> current) {
+            if (current.size() != instances.length) {
+                return false;
+            }
+            int position = 0;
+            for (I instance : current) {
+                if (instance != instances[position++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isOverlapped(Set<Object> current) {
+            for (Object instance : instances) {
+                if (current.contains(instance)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.alibaba.fastjson.JSONObject;
 import io.sermant.core.common.LoggerFactory;
 import io.sermant.router.common.constants.RouterConstant;
 import io.sermant.router.common.utils.CollectionUtils;
+import io.sermant.router.config.cache.ConfigCache;
 
 import java.util.List;
 import java.util.Locale;
@@ -101,6 +102,7 @@ public class RouterConfiguration {
                         JSONObject.toJSONString(entireRule.getRules())));
             }
         }
+        ConfigCache.refreshVersion();
     }
 
     /**
@@ -113,6 +115,7 @@ public class RouterConfiguration {
         Map<String, List<Rule>> ruleList = rules.computeIfAbsent(entireRule.getKind(),
                 key -> new ConcurrentHashMap<>());
         ruleList.put(serviceName, entireRule.getRules());
+        ConfigCache.refreshVersion();
         LOGGER.info(String.format(Locale.ROOT, "Rule for %s has been updated: %s ", serviceName,
                 JSONObject.toJSONString(entireRule)));
     }
@@ -135,6 +138,7 @@ public class RouterConfiguration {
         if (!CollectionUtils.isEmpty(laneRules)) {
             laneRules.remove(serviceName);
         }
+        ConfigCache.refreshVersion();
         LOGGER.info(String.format(Locale.ROOT, "All rules for %s have been removed! ", serviceName));
     }
 
@@ -149,6 +153,7 @@ public class RouterConfiguration {
         if (!CollectionUtils.isEmpty(ruleList)) {
             ruleList.remove(serviceName);
         }
+        ConfigCache.refreshVersion();
         LOGGER.info(String.format(Locale.ROOT, "%s rules for %s have been removed! ", kind, serviceName));
     }
 
@@ -166,6 +171,7 @@ public class RouterConfiguration {
                 serviceRuleMap.putIfAbsent(ruleEntry.getKey(), entireRule.getRules());
             }
         }
+        ConfigCache.refreshVersion();
     }
 
     /**
@@ -187,6 +193,7 @@ public class RouterConfiguration {
                 serviceRuleMap.put(ruleEntry.getKey(), entireRule.getRules());
             }
         }
+        ConfigCache.refreshVersion();
         LOGGER.info(String.format(Locale.ROOT, "Service rules have been updated: %s",
                 JSONObject.toJSONString(map)));
     }
@@ -201,6 +208,7 @@ public class RouterConfiguration {
         for (EntireRule entireRule : list) {
             globalRules.put(entireRule.getKind(), entireRule.getRules());
         }
+        ConfigCache.refreshVersion();
         LOGGER.info(String.format(Locale.ROOT, "Global rules have been updated: %s",
                 JSONObject.toJSONString(list)));
     }
@@ -220,6 +228,7 @@ public class RouterConfiguration {
         } else {
             globalRules.put(entireRule.getKind(), ruleList);
         }
+        ConfigCache.refreshVersion();
         LOGGER.info(String.format(Locale.ROOT, "Global rules have been updated: %s",
                 JSONObject.toJSONString(entireRule)));
     }
@@ -21,6 +21,9 @@ import com.alibaba.fastjson.JSONObject;
 import io.sermant.core.common.LoggerFactory;
 import io.sermant.router.common.event.PolicyEvent;
 import io.sermant.router.common.utils.CollectionUtils;
+import io.sermant.router.config.cache.InstanceTagIndex;
+import io.sermant.router.config.cache.RouteResultCache;
+import io.sermant.router.config.cache.RouteResultCache.RouteKey;
 import io.sermant.router.config.entity.Match;
 import io.sermant.router.config.entity.Policy;
 import io.sermant.router.config.entity.Rule;
@@ -55,6 +58,8 @@ public abstract class AbstractRuleStrategy<I> implements RuleStrategy<I> {
 
     private final String source;
 
+    private final RouteResultCache<I> resultCache;
+
     /**
      * Constructor
      *
@@ -70,6 +75,7 @@ public abstract class AbstractRuleStrategy<I> implements RuleStrategy<I> {
         this.matchInstanceStrategy = matchInstanceStrategy;
         this.mismatchInstanceStrategy = mismatchInstanceStrategy;
         this.mapper = mapper;
+        this.resultCache = new RouteResultCache<>(mapper);
     }
 
     @Override
@@ -182,10 +188,25 @@ public abstract class AbstractRuleStrategy<I> implements RuleStrategy<I> {
 
     private <T> List<I> getInstances(InstanceStrategy<I, T> instanceStrategy, T tags, String serviceName,
             List<I> instances, boolean isReturnAllInstancesWhenMismatch) {
-        List<I> resultList = new ArrayList<>();
-        for (I instance : instances) {
-            if (instanceStrategy.isMatch(instance, tags, mapper)) {
-                resultList.add(instance);
+        // The instances selected only depend on the tags, so the result is computed once for each instance list
+        return resultCache.getOrCompute(serviceName, instances,
+                new RouteKey(instanceStrategy, tags, isReturnAllInstancesWhenMismatch),
+                index -> filterInstances(instanceStrategy, tags, serviceName, instances, index,
+                        isReturnAllInstancesWhenMismatch));
+    }
+
+    private <T> List<I> filterInstances(InstanceStrategy<I, T> instanceStrategy, T tags, String serviceName,
+            List<I> instances, InstanceTagIndex<I> index, boolean isReturnAllInstancesWhenMismatch) {
+        List<I> resultList;
+        if (instanceStrategy instanceof IndexedInstanceStrategy) {
+            resultList = index.toList(((IndexedInstanceStrategy<I, T>) instanceStrategy).getMatchInstances(tags,
+                    index));
+        } else {
+            resultList = new ArrayList<>();
+            for (I instance : instances) {
+                if (instanceStrategy.isMatch(instance, tags, mapper)) {
+                    resultList.add(instance);
+                }
             }
         }
         boolean mismatch = CollectionUtils.isEmpty(resultList);
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.config.strategy;
+
+import io.sermant.router.config.cache.InstanceTagIndex;
+
+import java.util.BitSet;
+
+/**
+ * Instance strategy which selects the instances on the tag index, the instances selected must be the same as
+ * {@link #isMatch} on each instance
+ *
+ * @param <I> Instance generics
+ * @param <T> Label generics
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public interface IndexedInstanceStrategy<I, T> extends InstanceStrategy<I, T> {
+    /**
+     * Select the matched instances on the tag index
+     *
+     * @param tags Label
+     * @param index Tag index of the instances
+     * @return Matched instances, which may be modified by the caller
+     */
+    BitSet getMatchInstances(T tags, InstanceTagIndex<I> index);
+}
@@ -19,6 +19,7 @@ package io.sermant.router.config.utils;
 import io.sermant.core.utils.StringUtils;
 import io.sermant.router.common.constants.RouterConstant;
 import io.sermant.router.common.utils.CollectionUtils;
+import io.sermant.router.config.cache.ConfigCache;
 import io.sermant.router.config.entity.Match;
 import io.sermant.router.config.entity.RouterConfiguration;
 import io.sermant.router.config.entity.Rule;
@@ -27,6 +28,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -36,6 +40,14 @@ import java.util.regex.Pattern;
  * @since 2023-02-21
  */
 public class FlowRuleUtils {
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    /**
+     * The target rules of the paths, the keys carry the version of the rules, so the rules are not matched with the
+     * regular expressions again until they change
+     */
+    private static final Map<FlowRuleKey, List<Rule>> FLOW_RULE_CACHE = new ConcurrentHashMap<>();
+
     private FlowRuleUtils() {
     }
 
@@ -53,7 +65,23 @@ public class FlowRuleUtils {
         if (RouterConfiguration.isInValid(configuration, RouterConstant.FLOW_MATCH_KIND)) {
             return Collections.emptyList();
         }
+        FlowRuleKey key = new FlowRuleKey(ConfigCache.getVersion(), configuration, targetService, path,
+                serviceName);
+        List<Rule> cached = FLOW_RULE_CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<Rule> result = Collections.unmodifiableList(matchFlowRules(configuration, targetService, path,
+                serviceName));
+        if (FLOW_RULE_CACHE.size() >= MAX_CACHE_SIZE) {
+            FLOW_RULE_CACHE.clear();
+        }
+        FLOW_RULE_CACHE.put(key, result);
+        return result;
+    }
 
+    private static List<Rule> matchFlowRules(RouterConfiguration configuration, String targetService, String path,
+            String serviceName) {
         List<Rule> rules = RuleUtils.getRules(configuration, targetService, RouterConstant.FLOW_MATCH_KIND);
 
         if (CollectionUtils.isEmpty(rules)) {
@@ -124,4 +152,54 @@ public class FlowRuleUtils {
         list.remove(list.size() - 1);
         return String.join(".", list);
     }
+
+    /**
+     * Key of the target rules
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    private static class FlowRuleKey {
+        private final long version;
+
+        private final RouterConfiguration configuration;
+
+        private final String targetService;
+
+        private final String path;
+
+        private final String serviceName;
+
+        FlowRuleKey(long version, RouterConfiguration configuration, String targetService, String path,
+                String serviceName) {
+            this.version = version;
+            this.configuration = configuration;
+            this.targetService = targetService;
+            this.path = path;
+            this.serviceName = serviceName;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FlowRuleKey)) {
+                return false;
+            }
+            FlowRuleKey that = (FlowRuleKey) obj;
+            return version == that.version && configuration == that.configuration
+                    && Objects.equals(targetService, that.targetService) && Objects.equals(path, that.path)
+                    && Objects.equals(serviceName, that.serviceName);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(version);
+            result = 31 * result + System.identityHashCode(configuration);
+            result = 31 * result + Objects.hashCode(targetService);
+            result = 31 * result + Objects.hashCode(path);
+            return 31 * result + Objects.hashCode(serviceName);
+        }
+    }
 }
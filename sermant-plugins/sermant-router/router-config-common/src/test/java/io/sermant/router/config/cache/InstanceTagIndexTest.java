@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.config.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Instance tag index test, the instances of the index are compared with reading the metadata of each instance
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class InstanceTagIndexTest {
+    private static final String[] KEYS = {"version", "zone", "group"};
+
+    private static final int[] INSTANCE_SIZES = {10, 100, 1000};
+
+    @Test
+    public void testSameAsMetadata() {
+        final Random random = new Random(KEYS.length);
+        for (int size : INSTANCE_SIZES) {
+            final List<Map<String, String>> instances = buildInstances(random, size);
+            final InstanceTagIndex<Map<String, String>> index = new InstanceTagIndex<>(instances.toArray(),
+                    Function.identity(), null);
+            for (String key : KEYS) {
+                assertInstances(instances, index.getKeyInstances(key), metadata -> metadata.containsKey(key));
+                assertInstances(instances, index.getInstances(key, null), metadata -> metadata.get(key) == null);
+                for (int i = 0; i < 4; i++) {
+                    final String value = key + i;
+                    assertInstances(instances, index.getInstances(key, value),
+                            metadata -> Objects.equals(value, metadata.get(key)));
+                }
+            }
+            final BitSet all = index.newFullBitSet();
+            Assert.assertEquals(instances, index.toList(all));
+            Assert.assertTrue(index.toList(new BitSet()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testReuseMetadata() {
+        final AtomicInteger count = new AtomicInteger();
+        final Function<Map<String, String>, Map<String, String>> mapper = metadata -> {
+            count.incrementAndGet();
+            return metadata;
+        };
+        final List<Map<String, String>> instances = buildInstances(new Random(1L), 100);
+        final InstanceTagIndex<Map<String, String>> index = new InstanceTagIndex<>(instances.toArray(), mapper,
+                null);
+        final InstanceTagIndex<Map<String, String>> unbuilt = new InstanceTagIndex<>(instances.toArray(), mapper,
+                index);
+        Assert.assertEquals(0, count.get());
+        index.getKeyInstances(KEYS[0]);
+        Assert.assertEquals(100, count.get());
+
+        // A new instance is notified, only its metadata is obtained
+        final List<Map<String, String>> notified = new ArrayList<>(instances.subList(10, 100));
+        notified.add(new HashMap<>());
+        final InstanceTagIndex<Map<String, String>> notifiedIndex = new InstanceTagIndex<>(notified.toArray(),
+                mapper, index);
+        notifiedIndex.getKeyInstances(KEYS[0]);
+        Assert.assertEquals(101, count.get());
+
+        // The index built after the previous one does not reuse its metadata
+        unbuilt.getKeyInstances(KEYS[0]);
+        Assert.assertEquals(201, count.get());
+    }
+
+    private static void assertInstances(List<Map<String, String>> instances, BitSet bitSet,
+            Function<Map<String, String>, Boolean> expected) {
+        for (int i = 0; i < instances.size(); i++) {
+            Assert.assertEquals(expected.apply(instances.get(i)), bitSet.get(i));
+        }
+    }
+
+    private static List<Map<String, String>> buildInstances(Random random, int size) {
+        final List<Map<String, String>> instances = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Map<String, String> metadata = new HashMap<>();
+            for (String key : KEYS) {
+                final int value = random.nextInt(6);
+                if (value < 4) {
+                    metadata.put(key, key + value);
+                } else if (value == 4) {
+                    metadata.put(key, null);
+                }
+            }
+            instances.add(metadata);
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.config.cache;
+
+import io.sermant.router.config.entity.EntireRule;
+import io.sermant.router.config.entity.RouterConfiguration;
+import io.sermant.router.config.strategy.AbstractRuleStrategy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Routing result cache test, the cached results are compared with filtering the instances one by one
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class RouteResultCacheTest {
+    private static final String SERVICE_NAME = "foo";
+
+    private static final String VERSION_KEY = "version";
+
+    private static final String ZONE_KEY = "zone";
+
+    private static final int[] INSTANCE_SIZES = {10, 100, 1000};
+
+    private static final int REQUEST_COUNT = 200;
+
+    private final TestRuleStrategy ruleStrategy = new TestRuleStrategy();
+
+    @Test
+    public void testSameAsFiltering() {
+        final Random random = new Random(REQUEST_COUNT);
+        for (int size : INSTANCE_SIZES) {
+            final List<Map<String, String>> instances = buildInstances(random, size);
+            for (int i = 0; i < REQUEST_COUNT; i++) {
+                final Map<String, String> tags = new HashMap<>();
+                tags.put(VERSION_KEY, "v" + random.nextInt(5));
+                if (random.nextBoolean()) {
+                    tags.put(ZONE_KEY, "z" + random.nextInt(2));
+                }
+                final List<Map<String, String>> expected = new ArrayList<>();
+                for (Map<String, String> instance : instances) {
+                    if (isMatch(instance, tags)) {
+                        expected.add(instance);
+                    }
+                }
+                Assert.assertEquals(expected,
+                        ruleStrategy.getMatchInstancesByRequest(SERVICE_NAME, instances, new HashMap<>(tags)));
+                final List<Map<String, String>> mismatch = ruleStrategy.getMismatchInstances(SERVICE_NAME,
+                        instances, Collections.singletonList(new HashMap<>(tags)), true);
+                if (expected.size() == instances.size()) {
+                    Assert.assertSame(instances, mismatch);
+                } else {
+                    Assert.assertEquals(instances.size() - expected.size(), mismatch.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidatedByInstances() {
+        final List<Map<String, String>> instances = buildInstances(new Random(1L), 100);
+        final Map<String, String> tags = Collections.singletonMap(VERSION_KEY, "v1");
+        final List<Map<String, String>> result = ruleStrategy.getMatchInstancesByRequest(SERVICE_NAME, instances,
+                tags);
+        Assert.assertFalse(result.isEmpty());
+
+        // The same instances notified again
+        Assert.assertSame(result,
+                ruleStrategy.getMatchInstancesByRequest(SERVICE_NAME, new ArrayList<>(instances), tags));
+
+        // A new instance is notified
+        final List<Map<String, String>> notified = new ArrayList<>(instances);
+        notified.add(buildInstance("v1", "z0"));
+        final List<Map<String, String>> notifiedResult = ruleStrategy.getMatchInstancesByRequest(SERVICE_NAME,
+                notified, tags);
+        Assert.assertEquals(result.size() + 1, notifiedResult.size());
+        try {
+            notifiedResult.clear();
+            Assert.fail();
+        } catch (UnsupportedOperationException ignored) {
+            // The cached results are immutable
+        }
+    }
+
+    @Test
+    public void testInvalidatedByRules() {
+        final List<Map<String, String>> instances = buildInstances(new Random(2L), 10);
+        final Map<String, String> tags = Collections.singletonMap(VERSION_KEY, "v2");
+        final List<Map<String, String>> result = ruleStrategy.getMatchInstancesByRequest(SERVICE_NAME, instances,
+                tags);
+        Assert.assertSame(result, ruleStrategy.getMatchInstancesByRequest(SERVICE_NAME, instances, tags));
+        final long version = ConfigCache.getVersion();
+        new RouterConfiguration().resetGlobalRule(Collections.<EntireRule>emptyList());
+        Assert.assertTrue(ConfigCache.getVersion() > version);
+        final List<Map<String, String>> refreshed = ruleStrategy.getMatchInstancesByRequest(SERVICE_NAME,
+                instances, tags);
+        Assert.assertNotSame(result, refreshed);
+        Assert.assertEquals(result, refreshed);
+    }
+
+    @Test
+    public void testReplaceStaleSnapshot() {
+        final RouteResultCache<Map<String, String>> cache = new RouteResultCache<>(Function.identity());
+        final RouteResultCache.RouteKey key = new RouteResultCache.RouteKey(this, "v1", false);
+        final List<Map<String, String>> first = buildInstances(new Random(3L), 10);
+        final List<Map<String, String>> second = buildInstances(new Random(4L), 10);
+        Assert.assertSame(first, cache.getOrCompute(SERVICE_NAME, first, key, index -> first));
+        Assert.assertSame(second, cache.getOrCompute(SERVICE_NAME, second, key, index -> second));
+        Assert.assertEquals(2, cache.getSnapshotSize(SERVICE_NAME));
+
+        // The instances are replaced one by one, each new list replaces the snapshot of the old one
+        List<Map<String, String>> current = first;
+        for (int i = 0; i < first.size(); i++) {
+            final List<Map<String, String>> notified = new ArrayList<>(current.subList(1, current.size()));
+            notified.add(buildInstance("v1", "z0"));
+            Assert.assertSame(notified, cache.getOrCompute(SERVICE_NAME, notified, key, index -> notified));
+            Assert.assertEquals(2, cache.getSnapshotSize(SERVICE_NAME));
+            current = notified;
+        }
+        Assert.assertSame(second, cache.getOrCompute(SERVICE_NAME, second, key, index -> {
+            throw new IllegalStateException("The snapshot of the other list should be kept");
+        }));
+    }
+
+    private static List<Map<String, String>> buildInstances(Random random, int size) {
+        final List<Map<String, String>> instances = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            instances.add(buildInstance("v" + random.nextInt(4), "z" + random.nextInt(2)));
+        }
+        return instances;
+    }
+
+    private static Map<String, String> buildInstance(String version, String zone) {
+        final Map<String, String> instance = new HashMap<>();
+        instance.put(VERSION_KEY, version);
+        instance.put(ZONE_KEY, zone);
+        return instance;
+    }
+
+    private static boolean isMatch(Map<String, String> metadata, Map<String, String> tags) {
+        for (Map.Entry<String, String> entry : tags.entrySet()) {
+            if (!entry.getValue().equals(metadata.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rule strategy on the metadata maps
+     *
+     * @author daizhenyu
+     * @since 2024-10-15
+     */
+    private static class TestRuleStrategy extends AbstractRuleStrategy<Map<String, String>> {
+        TestRuleStrategy() {
+            super("test", (instance, tags, mapper) -> isMatch(mapper.apply(instance), tags),
+                    (instance, tags, mapper) -> {
+                        for (Map<String, String> mismatchTags : tags) {
+                            if (isMatch(mapper.apply(instance), mismatchTags)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }, Function.identity());
+        }
+    }
+}
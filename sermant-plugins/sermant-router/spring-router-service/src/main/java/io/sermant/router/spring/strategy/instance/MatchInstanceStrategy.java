@@ -16,8 +16,11 @@
 
 package io.sermant.router.spring.strategy.instance;
 
+import io.sermant.router.config.cache.InstanceTagIndex;
 import io.sermant.router.config.strategy.AbstractInstanceStrategy;
+import io.sermant.router.config.strategy.IndexedInstanceStrategy;
 
+import java.util.BitSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -30,7 +33,8 @@ import java.util.function.Function;
  * @author provenceee
  * @since 2021-12-08
  */
-public class MatchInstanceStrategy<I> extends AbstractInstanceStrategy<I, Map<String, String>> {
+public class MatchInstanceStrategy<I> extends AbstractInstanceStrategy<I, Map<String, String>>
+        implements IndexedInstanceStrategy<I, Map<String, String>> {
     /**
      * Instances that match the target version number
      *
@@ -49,4 +53,13 @@ public class MatchInstanceStrategy<I> extends AbstractInstanceStrategy<I, Map<St
         }
         return false;
     }
+
+    @Override
+    public BitSet getMatchInstances(Map<String, String> tag, InstanceTagIndex<I> index) {
+        BitSet result = new BitSet();
+        for (Entry<String, String> entry : tag.entrySet()) {
+            result.or(index.getInstances(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
 }
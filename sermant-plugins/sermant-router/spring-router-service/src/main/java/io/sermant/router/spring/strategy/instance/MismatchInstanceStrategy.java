@@ -16,8 +16,11 @@
 
 package io.sermant.router.spring.strategy.instance;
 
+import io.sermant.router.config.cache.InstanceTagIndex;
 import io.sermant.router.config.strategy.AbstractInstanceStrategy;
+import io.sermant.router.config.strategy.IndexedInstanceStrategy;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -31,7 +34,8 @@ import java.util.function.Function;
  * @author provenceee
  * @since 2021-12-08
  */
-public class MismatchInstanceStrategy<I> extends AbstractInstanceStrategy<I, List<Map<String, String>>> {
+public class MismatchInstanceStrategy<I> extends AbstractInstanceStrategy<I, List<Map<String, String>>>
+        implements IndexedInstanceStrategy<I, List<Map<String, String>>> {
     /**
      * Match instances that are not in mismatch
      *
@@ -72,4 +76,20 @@ public class MismatchInstanceStrategy<I> extends AbstractInstanceStrategy<I, Lis
         }
         return false;
     }
+
+    @Override
+    public BitSet getMatchInstances(List<Map<String, String>> tags, InstanceTagIndex<I> index) {
+        // The instances having any of the mismatched tags are eliminated
+        BitSet mismatchInstances = new BitSet();
+        for (Map<String, String> mismatchTag : tags) {
+            for (Entry<String, String> entry : mismatchTag.entrySet()) {
+                String value = entry.getValue();
+                mismatchInstances.or(value == null ? index.getKeyInstances(entry.getKey())
+                        : index.getInstances(entry.getKey(), value));
+            }
+        }
+        BitSet result = index.newFullBitSet();
+        result.andNot(mismatchInstances);
+        return result;
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2024-2024 Sermant Authors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sermant.router.spring.strategy.instance;
+
+import io.sermant.router.config.cache.InstanceTagIndex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Test the instances selected with the tag index, which must be the same as matching the instances one by one
+ *
+ * @author daizhenyu
+ * @since 2024-10-15
+ */
+public class InstanceStrategyTest {
+    private static final String[] KEYS = {"version", "zone", "group"};
+
+    private static final String[] VALUES = {"v0", "v1", null};
+
+    private static final int INSTANCE_SIZE = 50;
+
+    private static final int REQUEST_COUNT = 500;
+
+    private final Function<Object, Map<String, String>> mapper = instance -> (Map<String, String>) instance;
+
+    private final Random random = new Random(REQUEST_COUNT);
+
+    @Test
+    public void testMatchInstances() {
+        final MatchInstanceStrategy<Object> strategy = new MatchInstanceStrategy<>();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            final List<Object> instances = buildInstances();
+            final InstanceTagIndex<Object> index = new InstanceTagIndex<>(instances.toArray(), mapper, null);
+            final Map<String, String> tag = buildTags();
+            final List<Object> expected = new ArrayList<>();
+            for (Object instance : instances) {
+                if (strategy.isMatch(instance, tag, mapper)) {
+                    expected.add(instance);
+                }
+            }
+            Assert.assertEquals(expected, index.toList(strategy.getMatchInstances(tag, index)));
+        }
+    }
+
+    @Test
+    public void testMismatchInstances() {
+        final MismatchInstanceStrategy<Object> strategy = new MismatchInstanceStrategy<>();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            final List<Object> instances = buildInstances();
+            final InstanceTagIndex<Object> index = new InstanceTagIndex<>(instances.toArray(), mapper, null);
+            final List<Map<String, String>> tags = new ArrayList<>();
+            for (int j = random.nextInt(3); j >= 0; j--) {
+                tags.add(buildTags());
+            }
+            final List<Object> expected = new ArrayList<>();
+            for (Object instance : instances) {
+                if (strategy.isMatch(instance, tags, mapper)) {
+                    expected.add(instance);
+                }
+            }
+            Assert.assertEquals(expected, index.toList(strategy.getMatchInstances(tags, index)));
+        }
+    }
+
+    private List<Object> buildInstances() {
+        final List<Object> instances = new ArrayList<>(INSTANCE_SIZE);
+        for (int i = 0; i < INSTANCE_SIZE; i++) {
+            instances.add(buildTags());
+        }
+        return instances;
+    }
+
+    /**
+     * Build the tags or the metadata, a key may be absent or have a null value
+     *
+     * @return tags
+     */
+    private Map<String, String> buildTags() {
+        final Map<String, String> tags = new HashMap<>();
+        for (String key : KEYS) {
+            if (random.nextBoolean()) {
+                tags.put(key, VALUES[random.nextInt(VALUES.length)]);
+            }
+        }
+        return tags;
+    }
+}